@@ -0,0 +1,57 @@
+package com.project.habitat.cache;
+
+import java.util.List;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+/**
+ * Builds the codecs a typed cache can be configured with. Every cache can read all of them;
+ * the configured one is only used for writing. {@link #LEGACY} writes the headerless JSON
+ * of nodes that predate the codec header, for rolling deploys that still include them.
+ */
+public final class CacheCodecs {
+
+    public static final String JSON = "json";
+    public static final String SMILE = "smile";
+    public static final String LEGACY = "legacy";
+
+    private CacheCodecs() {
+    }
+
+    public static List<CacheValueCodec> forType(ObjectMapper jsonMapper, JavaType valueType) {
+        // Tolerate fields written by an older shape of the value while entries written
+        // before a deploy are still live.
+        ObjectMapper tolerantJson = jsonMapper.copy()
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        // Shared string values let repeated genre, format and language names in a list be
+        // written once and back-referenced.
+        ObjectMapper smile = tolerantJson.copyWith(SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build());
+        return List.of(
+                new JacksonCacheValueCodec(JacksonCacheValueCodec.JSON_ID, JSON, tolerantJson, valueType),
+                new JacksonCacheValueCodec(JacksonCacheValueCodec.SMILE_ID, SMILE, smile, valueType));
+    }
+
+    public static CacheValueCodec codec(ObjectMapper jsonMapper, JavaType valueType, String name) {
+        return named(forType(jsonMapper, valueType), name);
+    }
+
+    public static VersionedRedisSerializer serializer(ObjectMapper jsonMapper, JavaType valueType, String writeCodec) {
+        List<CacheValueCodec> codecs = forType(jsonMapper, valueType);
+        CacheValueCodec writer = LEGACY.equals(writeCodec) ? null : named(codecs, writeCodec);
+        // Headerless values are the pre-header JSON, which is what the JSON codec writes.
+        return new VersionedRedisSerializer(writer, codecs, named(codecs, JSON));
+    }
+
+    private static CacheValueCodec named(List<CacheValueCodec> codecs, String name) {
+        return codecs.stream()
+                .filter(codec -> codec.name().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown cache codec: " + name));
+    }
+}
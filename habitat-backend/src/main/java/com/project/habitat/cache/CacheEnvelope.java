@@ -0,0 +1,19 @@
+package com.project.habitat.cache;
+
+/**
+ * A cached value with the time it was written, which is what soft expiry is measured
+ * against. Values stored without an envelope (older entries, caches without a refresh
+ * policy) have an unknown write time and never count as stale.
+ */
+public record CacheEnvelope(Object value, long writtenAtMillis) {
+
+    static final long UNKNOWN_WRITE_TIME = -1;
+
+    static CacheEnvelope of(Object stored) {
+        return stored instanceof CacheEnvelope envelope ? envelope : new CacheEnvelope(stored, UNKNOWN_WRITE_TIME);
+    }
+
+    long ageMillis(long nowMillis) {
+        return writtenAtMillis == UNKNOWN_WRITE_TIME ? 0 : nowMillis - writtenAtMillis;
+    }
+}
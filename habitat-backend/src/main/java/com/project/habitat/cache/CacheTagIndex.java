@@ -0,0 +1,67 @@
+package com.project.habitat.cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records which cache entries were derived from which tagged piece of data, so that a
+ * change can evict exactly those entries. Tags live in Redis sets shared by all nodes and
+ * expire with the entries they point at.
+ */
+@Component
+public class CacheTagIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheTagIndex.class);
+
+    private static final String TAG_PREFIX = "habitat:cache-tag:";
+    private static final String MEMBER_SEPARATOR = "\n";
+
+    private final StringRedisTemplate redisTemplate;
+    private final CacheManager cacheManager;
+    private final Duration tagTtl;
+
+    public CacheTagIndex(StringRedisTemplate redisTemplate, CacheManager cacheManager,
+                         @Value("${spring.cache.redis.time-to-live:3600000}") Duration tagTtl) {
+        this.redisTemplate = redisTemplate;
+        this.cacheManager = cacheManager;
+        // A tag must live as long as the entries it points at, which the cache TTL bounds.
+        this.tagTtl = tagTtl;
+    }
+
+    public void tag(String cacheName, Object key, Collection<String> tags) {
+        String member = cacheName + MEMBER_SEPARATOR + key;
+        for (String tag : tags) {
+            String tagKey = TAG_PREFIX + tag;
+            redisTemplate.opsForSet().add(tagKey, member);
+            redisTemplate.expire(tagKey, tagTtl);
+        }
+    }
+
+    public void invalidate(Collection<String> tags) {
+        for (String tag : tags) {
+            String tagKey = TAG_PREFIX + tag;
+            Set<String> members = redisTemplate.opsForSet().members(tagKey);
+            redisTemplate.delete(tagKey);
+            if (members == null) {
+                continue;
+            }
+            for (String member : members) {
+                int separator = member.indexOf(MEMBER_SEPARATOR);
+                Cache cache = cacheManager.getCache(member.substring(0, separator));
+                if (cache != null) {
+                    cache.evict(member.substring(separator + 1));
+                }
+            }
+            log.debug("Invalidated {} cache entries tagged {}", members.size(), tag);
+        }
+    }
+}
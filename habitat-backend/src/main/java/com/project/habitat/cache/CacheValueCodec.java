@@ -0,0 +1,16 @@
+package com.project.habitat.cache;
+
+/**
+ * Encodes cache values of one known type. The id is written into every payload by
+ * {@link VersionedRedisSerializer}, so ids must never be reused for a different format.
+ */
+public interface CacheValueCodec {
+
+    byte id();
+
+    String name();
+
+    byte[] encode(Object value);
+
+    Object decode(byte[] payload, int offset, int length);
+}
@@ -0,0 +1,166 @@
+package com.project.habitat.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.project.habitat.dto.MovieDetail;
+import com.project.habitat.dto.MovieSummary;
+
+/**
+ * Local file holding the catalog list and the most requested movie details, so that a
+ * restarted node can serve them before Postgres or Redis have answered anything. Values
+ * are written with the Smile cache codec and the file is memory-mapped on load.
+ *
+ * <p>Layout: {@code [magic][format version][catalog version][written at][catalog length]
+ * [catalog][detail count]([detail length][detail])*}. A file that is unreadable, of another
+ * format version or older than the configured maximum age is ignored.
+ */
+@Component
+public class CatalogSnapshot {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogSnapshot.class);
+
+    private static final int MAGIC = 0x48435331; // "HCS1"
+    private static final byte FORMAT_VERSION = 1;
+
+    public record Contents(long catalogVersion, long writtenAtMillis, List<MovieSummary> catalog,
+                           List<MovieDetail> details) {
+    }
+
+    private final boolean enabled;
+    private final Path path;
+    private final long maxAgeMillis;
+    private final CacheValueCodec catalogCodec;
+    private final CacheValueCodec detailCodec;
+
+    public CatalogSnapshot(@Value("${app.warmup.snapshot.enabled:false}") boolean enabled,
+                           @Value("${app.warmup.snapshot.path:${java.io.tmpdir}/habitat/catalog.snapshot}") String path,
+                           @Value("${app.warmup.snapshot.max-age-hours:24}") long maxAgeHours) {
+        this.enabled = enabled;
+        this.path = Path.of(path);
+        this.maxAgeMillis = Duration.ofHours(maxAgeHours).toMillis();
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        this.catalogCodec = CacheCodecs.codec(mapper,
+                mapper.getTypeFactory().constructCollectionType(List.class, MovieSummary.class), CacheCodecs.SMILE);
+        this.detailCodec = CacheCodecs.codec(mapper, mapper.getTypeFactory().constructType(MovieDetail.class),
+                CacheCodecs.SMILE);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /** The snapshot on disk, or {@code null} when there is no usable one. */
+    @SuppressWarnings("unchecked")
+    public Contents load() {
+        if (!enabled || !Files.isReadable(path)) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.get() != FORMAT_VERSION) {
+                log.info("Ignoring catalog snapshot {} with an unknown format", path);
+                return null;
+            }
+            long catalogVersion = buffer.getLong();
+            long writtenAt = buffer.getLong();
+            if (System.currentTimeMillis() - writtenAt > maxAgeMillis) {
+                log.info("Ignoring catalog snapshot {} written at {}, older than the maximum age", path, writtenAt);
+                return null;
+            }
+            List<MovieSummary> catalog = (List<MovieSummary>) decode(buffer, catalogCodec);
+            // Every detail takes at least its length prefix, which bounds a sane count.
+            int detailCount = buffer.getInt();
+            if (detailCount < 0 || detailCount > buffer.remaining() / Integer.BYTES) {
+                throw new IllegalStateException("corrupt detail count " + detailCount);
+            }
+            List<MovieDetail> details = new ArrayList<>(detailCount);
+            for (int i = 0; i < detailCount; i++) {
+                details.add((MovieDetail) decode(buffer, detailCodec));
+            }
+            return new Contents(catalogVersion, writtenAt, catalog, details);
+        } catch (IOException | RuntimeException e) {
+            // Truncated files surface as buffer underflows, corrupt lengths as IllegalStateException.
+            log.warn("Could not read catalog snapshot {}: {}", path, e.getMessage());
+            return null;
+        }
+    }
+
+    /** Replaces the snapshot atomically, so a crash mid-write leaves the previous one in place. */
+    public void save(Contents contents) {
+        if (!enabled) {
+            return;
+        }
+        Path temp = null;
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            temp = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+            try (OutputStream file = Files.newOutputStream(temp);
+                 DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeByte(FORMAT_VERSION);
+                out.writeLong(contents.catalogVersion());
+                out.writeLong(contents.writtenAtMillis());
+                write(out, catalogCodec.encode(contents.catalog()));
+                out.writeInt(contents.details().size());
+                for (MovieDetail detail : contents.details()) {
+                    write(out, detailCodec.encode(detail));
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("Wrote catalog snapshot {} with {} movies and {} details at catalog version {}", path,
+                    contents.catalog().size(), contents.details().size(), contents.catalogVersion());
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write catalog snapshot {}: {}", path, e.getMessage());
+            deleteQuietly(temp);
+        }
+    }
+
+    private void deleteQuietly(Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            log.warn("Could not delete partial catalog snapshot {}: {}", temp, e.getMessage());
+        }
+    }
+
+    private static Object decode(MappedByteBuffer buffer, CacheValueCodec codec) {
+        // A corrupt length must not turn into a huge allocation (and an OutOfMemoryError).
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalStateException("corrupt value length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return codec.decode(bytes, 0, bytes.length);
+    }
+
+    private static void write(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,160 @@
+package com.project.habitat.cache;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.CacheManager;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.project.habitat.config.CacheNames;
+import com.project.habitat.events.MovieChangedEvent;
+
+/**
+ * Monotonic version of the public catalog, shared by all nodes through a Redis counter and
+ * mirrored in memory so that conditional requests are answered without any I/O. The
+ * writing node bumps the counter; other nodes re-read it when the change is relayed to
+ * them.
+ *
+ * <p>Version-keyed bodies in {@link ResponseBytesCache} are encoded from the cache tiers, so
+ * this node's L1 copies of the changed entries are dropped before the version moves: the
+ * relayed event and the L1 invalidation message travel on separate topics and may arrive
+ * in either order.
+ *
+ * <p>Versions only identify a catalog state together with their epoch, a random token kept
+ * next to the counter. A counter that Redis lost restarts at 1 under a new epoch, and a
+ * node that cannot reach Redis counts under an epoch of its own, so neither can repeat an
+ * ETag that was handed out for different content.
+ */
+@Component
+public class CatalogVersion {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogVersion.class);
+
+    private static final String VERSION_KEY = "habitat:catalog-version";
+    private static final String MODIFIED_KEY = "habitat:catalog-version:modified";
+    private static final String EPOCH_KEY = "habitat:catalog-version:epoch";
+
+    // A counter that INCR had to create, or one whose epoch is gone, starts a new epoch.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> BUMP = new DefaultRedisScript<>("""
+            local version = redis.call('INCR', KEYS[1])
+            if version == 1 or redis.call('EXISTS', KEYS[3]) == 0 then
+                redis.call('SET', KEYS[3], ARGV[2])
+            end
+            redis.call('SET', KEYS[2], ARGV[1])
+            return {tostring(version), redis.call('GET', KEYS[3])}
+            """, List.class);
+
+    public record Snapshot(String epoch, long version, long modifiedMillis) {
+
+        public String etag() {
+            return etag(false);
+        }
+
+        /** Gzip-encoded bodies differ byte for byte, so they get a strong ETag of their own. */
+        public String etag(boolean gzip) {
+            return "\"catalog-" + epoch + "-" + version + (gzip ? "-gzip" : "") + "\"";
+        }
+    }
+
+    private final StringRedisTemplate redisTemplate;
+    private final CacheManager cacheManager;
+    private final AtomicReference<Snapshot> current;
+    private final String localEpoch = "local" + newEpoch();
+    private final AtomicLong localVersion = new AtomicLong();
+
+    public CatalogVersion(StringRedisTemplate redisTemplate, CacheManager cacheManager) {
+        this.redisTemplate = redisTemplate;
+        this.cacheManager = cacheManager;
+        this.current = new AtomicReference<>(new Snapshot(localEpoch, 0, System.currentTimeMillis()));
+        refresh();
+    }
+
+    public Snapshot current() {
+        return current.get();
+    }
+
+    // Runs before CatalogEventRelay forwards the event, so that other nodes re-read a
+    // counter that has already moved.
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        dropLocalCopies(event);
+        if (event.isRemote()) {
+            refresh();
+        } else {
+            bump();
+        }
+    }
+
+    public void bump() {
+        long now = System.currentTimeMillis();
+        try {
+            List<?> bumped = redisTemplate.execute(BUMP, List.of(VERSION_KEY, MODIFIED_KEY, EPOCH_KEY),
+                    Long.toString(now), newEpoch());
+            advanceTo(new Snapshot((String) bumped.get(1), Long.parseLong((String) bumped.get(0)), now));
+        } catch (DataAccessException | NumberFormatException e) {
+            // Still invalidate this node's clients; the next bump that reaches Redis takes over.
+            log.warn("Could not bump the shared catalog version: {}", e.getMessage());
+            advanceLocally(now);
+        }
+    }
+
+    // Every change type can move a movie's own entry and anything that lists it.
+    private void dropLocalCopies(MovieChangedEvent event) {
+        if (!(cacheManager instanceof TwoTierCacheManager twoTier)) {
+            return;
+        }
+        twoTier.evictLocal(CacheNames.MOVIE_BY_ID, event.getMovieIds());
+        twoTier.clearLocal(CacheNames.ALL_MOVIES);
+        twoTier.clearLocal(CacheNames.MOVIES_BY_FACET);
+        twoTier.clearLocal(CacheNames.MOVIE_PAGES);
+    }
+
+    private void refresh() {
+        try {
+            List<String> values = redisTemplate.opsForValue().multiGet(List.of(VERSION_KEY, MODIFIED_KEY, EPOCH_KEY));
+            if (values == null || values.get(0) == null) {
+                return;
+            }
+            long now = System.currentTimeMillis();
+            if (values.get(2) == null) {
+                // A counter without an epoch cannot tell a restart from a repeat.
+                advanceLocally(now);
+                return;
+            }
+            long modified = values.get(1) == null ? now : Long.parseLong(values.get(1));
+            advanceTo(new Snapshot(values.get(2), Long.parseLong(values.get(0)), modified));
+        } catch (DataAccessException | NumberFormatException e) {
+            log.warn("Could not read the shared catalog version: {}", e.getMessage());
+        }
+    }
+
+    // This node's own epoch is never shared, so its versions cannot match an ETag issued
+    // for another state; counting on from the current version keeps them increasing.
+    private void advanceLocally(long now) {
+        long version = localVersion.updateAndGet(previous -> Math.max(previous, current().version()) + 1);
+        advanceTo(new Snapshot(localEpoch, version, now));
+    }
+
+    // Versions are only ordered within an epoch; a different one always replaces the current.
+    private void advanceTo(Snapshot candidate) {
+        current.accumulateAndGet(candidate, (existing, next) ->
+                !next.epoch().equals(existing.epoch()) || next.version() > existing.version() ? next : existing);
+    }
+
+    private static String newEpoch() {
+        return Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36);
+    }
+}
@@ -0,0 +1,12 @@
+package com.project.habitat.cache;
+
+/**
+ * A response body serialized once, with a gzip copy when compressing it is worthwhile.
+ * {@code gzip} is null for small bodies.
+ */
+public record EncodedResponse(byte[] identity, byte[] gzip, long version) {
+
+    public int weight() {
+        return identity.length + (gzip == null ? 0 : gzip.length);
+    }
+}
@@ -0,0 +1,71 @@
+package com.project.habitat.cache;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Approximate most-read keys of one cache, using the Space-Saving algorithm over a sample of
+ * reads. At most {@code capacity} keys are tracked; a new key takes over the slot of the
+ * least counted one and inherits its count as its possible overestimate. Counts are scaled
+ * back up by the sample rate, so they estimate real reads.
+ */
+public class HotKeyTracker {
+
+    /** Estimated reads of a key; the true number is between {@code count - error} and {@code count}. */
+    public record Entry(String key, long count, long error) {
+    }
+
+    private final int capacity;
+    private final int sampleRate;
+    private final Map<String, long[]> counters;
+
+    public HotKeyTracker(int capacity, int sampleRate) {
+        this.capacity = capacity;
+        this.sampleRate = Math.max(1, sampleRate);
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    public void record(String key) {
+        if (capacity < 1 || (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0)) {
+            return;
+        }
+        synchronized (this) {
+            long[] counter = counters.get(key);
+            if (counter != null) {
+                counter[0]++;
+                return;
+            }
+            if (counters.size() < capacity) {
+                counters.put(key, new long[] {1, 0});
+                return;
+            }
+            Map.Entry<String, long[]> least = null;
+            for (Map.Entry<String, long[]> candidate : counters.entrySet()) {
+                if (least == null || candidate.getValue()[0] < least.getValue()[0]) {
+                    least = candidate;
+                }
+            }
+            long floor = least.getValue()[0];
+            counters.remove(least.getKey());
+            counters.put(key, new long[] {floor + 1, floor});
+        }
+    }
+
+    public List<Entry> top(int limit) {
+        List<Entry> entries = new ArrayList<>();
+        synchronized (this) {
+            counters.forEach((key, counter) ->
+                    entries.add(new Entry(key, counter[0] * sampleRate, counter[1] * sampleRate)));
+        }
+        entries.sort(Comparator.comparingLong(Entry::count).reversed());
+        return entries.size() > limit ? entries.subList(0, limit) : entries;
+    }
+
+    public synchronized void reset() {
+        counters.clear();
+    }
+}
@@ -0,0 +1,60 @@
+package com.project.habitat.cache;
+
+import java.io.IOException;
+
+import org.springframework.data.redis.serializer.SerializationException;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * {@link CacheValueCodec} backed by a Jackson mapper bound to the cache's value type, so no
+ * class metadata is written. The mapper's factory decides the format (JSON, Smile).
+ */
+public class JacksonCacheValueCodec implements CacheValueCodec {
+
+    public static final byte JSON_ID = 1;
+    public static final byte SMILE_ID = 2;
+
+    private final byte id;
+    private final String name;
+    private final ObjectReader reader;
+    private final ObjectWriter writer;
+
+    public JacksonCacheValueCodec(byte id, String name, ObjectMapper mapper, JavaType valueType) {
+        this.id = id;
+        this.name = name;
+        this.reader = mapper.readerFor(valueType);
+        this.writer = mapper.writerFor(valueType);
+    }
+
+    @Override
+    public byte id() {
+        return id;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        try {
+            return writer.writeValueAsBytes(value);
+        } catch (IOException e) {
+            throw new SerializationException("Could not encode cache value with " + name, e);
+        }
+    }
+
+    @Override
+    public Object decode(byte[] payload, int offset, int length) {
+        try {
+            return reader.readValue(payload, offset, length);
+        } catch (IOException e) {
+            throw new SerializationException("Could not decode cache value with " + name, e);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package com.project.habitat.cache;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records the size of every value a cache writes to and reads from Redis, so memory and
+ * network cost per cache can be read off {@code habitat.cache.value.size}.
+ */
+public class MeteredRedisSerializer implements RedisSerializer<Object> {
+
+    private final RedisSerializer<Object> delegate;
+    private final DistributionSummary writtenBytes;
+    private final DistributionSummary readBytes;
+
+    public MeteredRedisSerializer(RedisSerializer<Object> delegate, String cacheName, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.writtenBytes = sizeSummary(meterRegistry, cacheName, "write");
+        this.readBytes = sizeSummary(meterRegistry, cacheName, "read");
+    }
+
+    private static DistributionSummary sizeSummary(MeterRegistry registry, String cacheName, String operation) {
+        return DistributionSummary.builder("habitat.cache.value.size")
+                .description("Serialized size of cache values in Redis")
+                .baseUnit("bytes")
+                .tag("cache", cacheName)
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(64.0)
+                .maximumExpectedValue(16.0 * 1024 * 1024)
+                .register(registry);
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        if (bytes != null) {
+            writtenBytes.record(bytes.length);
+        }
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes != null) {
+            readBytes.record(bytes.length);
+        }
+        return delegate.deserialize(bytes);
+    }
+}
@@ -0,0 +1,10 @@
+package com.project.habitat.cache;
+
+/**
+ * Soft expiry for a cache. Entries older than {@code softTtlMillis} are still served, but
+ * trigger a background reload; entries with at least {@code hotKeyHits} hits since they
+ * were written are reloaded once they pass {@code refreshAheadMillis}, before anyone sees
+ * them stale.
+ */
+public record RefreshPolicy(long softTtlMillis, long refreshAheadMillis, int hotKeyHits) {
+}
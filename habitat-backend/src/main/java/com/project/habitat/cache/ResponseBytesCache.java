@@ -0,0 +1,71 @@
+package com.project.habitat.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Per-node cache of final response bytes for hot catalog GETs, keyed by request and
+ * catalog version. A hit skips Redis decoding and JSON encoding entirely. Entries of older
+ * versions are never read again and age out; the TTL matches the local cache tier so that
+ * a body built from a not-yet-invalidated cache entry cannot outlive it.
+ */
+@Component
+public class ResponseBytesCache {
+
+    private static final int GZIP_MIN_BYTES = 1024;
+
+    private final Cache<String, EncodedResponse> responses;
+    private final CatalogVersion catalogVersion;
+    private final JsonMapper jsonMapper;
+
+    public ResponseBytesCache(CatalogVersion catalogVersion, JsonMapper jsonMapper, MeterRegistry meterRegistry,
+                              @Value("${app.cache.response.max-megabytes:64}") long maxMegabytes,
+                              @Value("${app.cache.local.ttl-seconds:60}") long ttlSeconds) {
+        this.catalogVersion = catalogVersion;
+        this.jsonMapper = jsonMapper;
+        this.responses = Caffeine.newBuilder()
+                .maximumWeight(maxMegabytes * 1024 * 1024)
+                .weigher((String key, EncodedResponse response) -> response.weight())
+                .expireAfterWrite(ttlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "responseBytes");
+    }
+
+    public EncodedResponse get(String key, Supplier<?> body) {
+        // Read the version first: a body computed after a concurrent write is then at worst
+        // newer than its key, never older.
+        CatalogVersion.Snapshot version = catalogVersion.current();
+        return responses.get(key + "@" + version.epoch() + "-" + version.version(),
+                cacheKey -> encode(body.get(), version.version()));
+    }
+
+    private EncodedResponse encode(Object body, long version) {
+        byte[] identity = jsonMapper.writeValueAsBytes(body);
+        return new EncodedResponse(identity, identity.length < GZIP_MIN_BYTES ? null : gzip(identity), version);
+    }
+
+    private static byte[] gzip(byte[] bytes) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return compressed.toByteArray();
+    }
+}
@@ -0,0 +1,417 @@
+package com.project.habitat.cache;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.redisson.api.RLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Read-through pair of a local Caffeine cache and a remote cache. Local keys are the
+ * string form of the cache key, which is also what Redis keys and invalidation messages
+ * are built from.
+ *
+ * <p>Loads through {@link #get(Object, Callable)} are single-flight: concurrent callers on
+ * one node share one in-flight future, and nodes take a short Redis lease per key so that
+ * only one of them runs the loader while the others wait and then read its result.
+ *
+ * <p>With a {@link RefreshPolicy}, entries past their soft TTL are served as they are while
+ * the loader runs again in the background, and frequently read entries are reloaded a
+ * little before that, so readers do not pay for the reload at expiry.
+ */
+public class TwoTierCache implements Cache {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoTierCache.class);
+
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, CacheEnvelope> local;
+    private final Cache remote;
+    private final TwoTierCacheManager manager;
+    private final RefreshPolicy refreshPolicy;
+
+    private final Counter localHits;
+    private final Counter localMisses;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+    private final Counter loadsExecuted;
+    private final Counter loadsCoalescedLocal;
+    private final Counter loadsCoalescedRemote;
+    private final Counter loadLeaseTimeouts;
+    private final Counter staleServed;
+    private final Counter refreshesExecuted;
+    private final Counter refreshesRejected;
+    private final Counter refreshesFailed;
+    private final Counter puts;
+    private final Counter keyEvictions;
+    private final Counter clears;
+    private final Timer loadSuccesses;
+    private final Timer loadFailures;
+    private final HotKeyTracker hotKeys;
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlightLoads = new ConcurrentHashMap<>();
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    private final com.github.benmanes.caffeine.cache.Cache<String, AtomicInteger> hitsSinceWrite;
+
+    TwoTierCache(String name, com.github.benmanes.caffeine.cache.Cache<String, CacheEnvelope> local, Cache remote,
+                 TwoTierCacheManager manager, MeterRegistry meterRegistry, RefreshPolicy refreshPolicy,
+                 HotKeyTracker hotKeys) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.manager = manager;
+        this.refreshPolicy = refreshPolicy;
+        this.localHits = tierCounter(meterRegistry, "local", "hit");
+        this.localMisses = tierCounter(meterRegistry, "local", "miss");
+        this.remoteHits = tierCounter(meterRegistry, "remote", "hit");
+        this.remoteMisses = tierCounter(meterRegistry, "remote", "miss");
+        this.loadsExecuted = loadCounter(meterRegistry, "loaded");
+        this.loadsCoalescedLocal = loadCounter(meterRegistry, "coalesced_local");
+        this.loadsCoalescedRemote = loadCounter(meterRegistry, "coalesced_remote");
+        this.loadLeaseTimeouts = loadCounter(meterRegistry, "lease_timeout");
+        this.staleServed = refreshCounter(meterRegistry, "stale_served");
+        this.refreshesExecuted = refreshCounter(meterRegistry, "refreshed");
+        this.refreshesRejected = refreshCounter(meterRegistry, "rejected");
+        this.refreshesFailed = refreshCounter(meterRegistry, "failed");
+        this.puts = Counter.builder("habitat.cache.puts")
+                .description("Entries written through the cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.keyEvictions = evictionCounter(meterRegistry, "key");
+        this.clears = evictionCounter(meterRegistry, "all");
+        this.loadSuccesses = loadTimer(meterRegistry, "success");
+        this.loadFailures = loadTimer(meterRegistry, "failure");
+        this.hotKeys = hotKeys;
+        this.hitsSinceWrite = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterAccess(refreshPolicy == null ? 1 : refreshPolicy.softTtlMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    private Counter tierCounter(MeterRegistry registry, String tier, String result) {
+        return Counter.builder("habitat.cache.tier.requests")
+                .description("Cache lookups per tier")
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private Counter loadCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("habitat.cache.loads")
+                .description("Cache misses resolved through the loader, by how they were served")
+                .tag("cache", name)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private Counter refreshCounter(MeterRegistry registry, String outcome) {
+        return Counter.builder("habitat.cache.refreshes")
+                .description("Background reloads of stale or hot cache entries")
+                .tag("cache", name)
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    private Counter evictionCounter(MeterRegistry registry, String scope) {
+        return Counter.builder("habitat.cache.evictions")
+                .description("Explicit evictions of one key or of the whole cache")
+                .tag("cache", name)
+                .tag("scope", scope)
+                .register(registry);
+    }
+
+    private Timer loadTimer(MeterRegistry registry, String result) {
+        return Timer.builder("habitat.cache.load.duration")
+                .description("Time spent in the loader on a miss or a background refresh")
+                .tag("cache", name)
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    /** The most read keys since start, most read first. */
+    public List<HotKeyTracker.Entry> hotKeys(int limit) {
+        return hotKeys.top(limit);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        CacheEnvelope envelope = lookup(key, localKey(key));
+        return envelope == null ? null : new SimpleValueWrapper(envelope.value());
+    }
+
+    private CacheEnvelope lookup(Object key, String localKey) {
+        hotKeys.record(localKey);
+        CacheEnvelope cached = local.getIfPresent(localKey);
+        if (cached != null) {
+            localHits.increment();
+            return cached;
+        }
+        localMisses.increment();
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper != null && wrapper.get() != null) {
+            remoteHits.increment();
+            CacheEnvelope envelope = CacheEnvelope.of(wrapper.get());
+            local.put(localKey, envelope);
+            return envelope;
+        }
+        remoteMisses.increment();
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = (wrapper != null ? wrapper.get() : null);
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        CacheEnvelope cached = lookup(key, localKey);
+        if (cached != null) {
+            scheduleRefreshIfDue(key, localKey, cached, valueLoader);
+            return (T) cached.value();
+        }
+        CompletableFuture<Object> load = new CompletableFuture<>();
+        CompletableFuture<Object> inFlight = inFlightLoads.putIfAbsent(localKey, load);
+        if (inFlight != null) {
+            loadsCoalescedLocal.increment();
+            return (T) awaitLoad(inFlight, key, valueLoader);
+        }
+        try {
+            Object value = loadOnce(key, localKey, valueLoader);
+            load.complete(value);
+            return (T) value;
+        } catch (RuntimeException | Error e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightLoads.remove(localKey, load);
+        }
+    }
+
+    private Object loadOnce(Object key, String localKey, Callable<?> valueLoader) {
+        RLock lease = manager.loadLease(name, localKey);
+        boolean leased = false;
+        try {
+            leased = lease.tryLock(manager.getLoadWaitMillis(), manager.getLoadLeaseMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // Redis trouble must not make the cache unusable; load without the lease.
+            leased = false;
+        }
+        try {
+            if (!leased) {
+                loadLeaseTimeouts.increment();
+            }
+            // Whoever held the lease before us has probably filled the entry already.
+            ValueWrapper filled = remote.get(key);
+            if (filled != null && filled.get() != null) {
+                loadsCoalescedRemote.increment();
+                CacheEnvelope envelope = CacheEnvelope.of(filled.get());
+                local.put(localKey, envelope);
+                return envelope.value();
+            }
+            Object value;
+            try {
+                value = timedLoad(valueLoader);
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+            loadsExecuted.increment();
+            if (value != null) {
+                put(key, value);
+            }
+            return value;
+        } finally {
+            if (leased && lease.isHeldByCurrentThread()) {
+                lease.unlock();
+            }
+        }
+    }
+
+    private Object timedLoad(Callable<?> valueLoader) throws Exception {
+        long start = System.nanoTime();
+        try {
+            Object value = valueLoader.call();
+            loadSuccesses.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return value;
+        } catch (Exception e) {
+            loadFailures.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private static Object awaitLoad(CompletableFuture<Object> load, Object key, Callable<?> valueLoader) {
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ValueRetrievalException(key, valueLoader, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    private void scheduleRefreshIfDue(Object key, String localKey, CacheEnvelope cached, Callable<?> valueLoader) {
+        if (refreshPolicy == null) {
+            return;
+        }
+        long age = cached.ageMillis(manager.currentTimeMillis());
+        int hits = hitsSinceWrite.get(localKey, k -> new AtomicInteger()).incrementAndGet();
+        boolean stale = age >= refreshPolicy.softTtlMillis();
+        boolean hotAndAging = age >= refreshPolicy.refreshAheadMillis() && hits >= refreshPolicy.hotKeyHits();
+        if (stale) {
+            staleServed.increment();
+        }
+        if (!(stale || hotAndAging) || !refreshing.add(localKey)) {
+            return;
+        }
+        if (!manager.submitRefresh(() -> refresh(key, localKey, cached, valueLoader))) {
+            refreshing.remove(localKey);
+            refreshesRejected.increment();
+        }
+    }
+
+    // The loader is the one captured from the request that noticed the entry aging, so it
+    // must not depend on anything bound to that request's thread.
+    private void refresh(Object key, String localKey, CacheEnvelope cached, Callable<?> valueLoader) {
+        RLock lease = manager.loadLease(name, localKey);
+        boolean leased = false;
+        try {
+            // Another node already refreshing this key is as good as refreshing it here.
+            leased = lease.tryLock(0, manager.getLoadLeaseMillis(), TimeUnit.MILLISECONDS);
+            if (!leased) {
+                return;
+            }
+            ValueWrapper current = remote.get(key);
+            if (current != null && current.get() != null
+                    && CacheEnvelope.of(current.get()).writtenAtMillis() > cached.writtenAtMillis()) {
+                local.put(localKey, CacheEnvelope.of(current.get()));
+                return;
+            }
+            Object value = timedLoad(valueLoader);
+            refreshesExecuted.increment();
+            if (value != null) {
+                put(key, value);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            refreshesFailed.increment();
+            log.warn("Background refresh of {} in cache {} failed; serving the previous value: {}",
+                    localKey, name, e.getMessage());
+        } finally {
+            if (leased && lease.isHeldByCurrentThread()) {
+                lease.unlock();
+            }
+            refreshing.remove(localKey);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        puts.increment();
+        String localKey = localKey(key);
+        if (value == null) {
+            remote.put(key, null);
+            local.invalidate(localKey);
+        } else {
+            CacheEnvelope envelope = new CacheEnvelope(value, manager.currentTimeMillis());
+            // Only caches with a refresh policy have a serializer that stores the envelope.
+            remote.put(key, refreshPolicy != null ? envelope : value);
+            local.put(localKey, envelope);
+        }
+        hitsSinceWrite.invalidate(localKey);
+        manager.publishInvalidation(name, localKey);
+    }
+
+    /**
+     * Seeds an entry that was loaded from outside the cache, such as a startup snapshot,
+     * without overriding anything newer: the remote tier is only written when it has no
+     * entry, and other nodes are not told to drop theirs.
+     */
+    public void warm(Object key, Object value, long writtenAtMillis) {
+        CacheEnvelope envelope = new CacheEnvelope(value, writtenAtMillis);
+        CacheEnvelope kept = envelope;
+        try {
+            ValueWrapper existing = remote.putIfAbsent(key, refreshPolicy != null ? envelope : value);
+            if (existing != null && existing.get() != null) {
+                kept = CacheEnvelope.of(existing.get());
+            }
+        } catch (RuntimeException e) {
+            // The point of warming from a snapshot is to serve while the backends are slow.
+            log.debug("Could not seed remote entry {} of cache {}: {}", key, name, e.getMessage());
+        }
+        local.put(localKey(key), kept);
+    }
+
+    @Override
+    public void evict(Object key) {
+        keyEvictions.increment();
+        remote.evict(key);
+        String localKey = localKey(key);
+        local.invalidate(localKey);
+        hitsSinceWrite.invalidate(localKey);
+        manager.publishInvalidation(name, localKey);
+    }
+
+    @Override
+    public void clear() {
+        clears.increment();
+        remote.clear();
+        local.invalidateAll();
+        hitsSinceWrite.invalidateAll();
+        manager.publishInvalidation(name, TwoTierCacheManager.ALL_KEYS);
+    }
+
+    void evictLocal(String localKey) {
+        local.invalidate(localKey);
+    }
+
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,244 @@
+package com.project.habitat.cache;
+
+import java.time.Clock;
+import java.util.Collection;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToLongFunction;
+
+import org.redisson.api.RLock;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
+/**
+ * {@link CacheManager} that puts a bounded in-process cache (L1) in front of every cache of
+ * a delegate manager (L2, Redis). Writes and evictions are published on a Redis topic so
+ * that every other node drops its L1 copy; the L1 TTL bounds staleness if a message is lost.
+ */
+public class TwoTierCacheManager implements CacheManager {
+
+    private static final Logger log = LoggerFactory.getLogger(TwoTierCacheManager.class);
+
+    static final String INVALIDATION_TOPIC = "habitat:cache-invalidation";
+    private static final String LOAD_LEASE_PREFIX = "habitat:cache-load:";
+    static final String ALL_KEYS = "*";
+    private static final String SEPARATOR = "\n";
+
+    private final CacheManager remoteCacheManager;
+    private final MeterRegistry meterRegistry;
+    private final long localMaximumSize;
+    private final long localTtlSeconds;
+    private final RTopic invalidationTopic;
+    private final RedissonClient redissonClient;
+    private long loadWaitMillis = 5_000;
+    private long loadLeaseMillis = 30_000;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, RefreshPolicy> refreshPolicies = new ConcurrentHashMap<>();
+    private volatile ThreadPoolExecutor refreshExecutor;
+    private int hotKeyCapacity = 100;
+    private int hotKeySampleRate = 10;
+    private volatile Clock clock = Clock.systemUTC();
+
+    private final ConcurrentMap<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager remoteCacheManager, RedissonClient redissonClient,
+                               MeterRegistry meterRegistry, long localMaximumSize, long localTtlSeconds) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.meterRegistry = meterRegistry;
+        this.localMaximumSize = localMaximumSize;
+        this.localTtlSeconds = localTtlSeconds;
+        this.redissonClient = redissonClient;
+        this.invalidationTopic = redissonClient.getTopic(INVALIDATION_TOPIC, StringCodec.INSTANCE);
+        this.invalidationTopic.addListener(String.class, (channel, message) -> onInvalidation(message));
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        TwoTierCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, cacheName -> createCache(cacheName, remote));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    private TwoTierCache createCache(String name, Cache remote) {
+        com.github.benmanes.caffeine.cache.Cache<String, CacheEnvelope> local = Caffeine.newBuilder()
+                .maximumSize(localMaximumSize)
+                .expireAfterWrite(localTtlSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, local, name + ".local");
+        if (remote instanceof RedisCache redisCache) {
+            bindRemoteStatistics(name, redisCache);
+        }
+        return new TwoTierCache(name, local, remote, this, meterRegistry, refreshPolicies.get(name),
+                new HotKeyTracker(hotKeyCapacity, hotKeySampleRate));
+    }
+
+    // Only populated when the Redis cache manager was built with statistics enabled.
+    private void bindRemoteStatistics(String name, RedisCache redisCache) {
+        remoteCounter(name, redisCache, "hit", CacheStatistics::getHits);
+        remoteCounter(name, redisCache, "miss", CacheStatistics::getMisses);
+        remoteCounter(name, redisCache, "put", CacheStatistics::getPuts);
+        remoteCounter(name, redisCache, "delete", CacheStatistics::getDeletes);
+    }
+
+    private void remoteCounter(String name, RedisCache redisCache, String operation,
+                               ToLongFunction<CacheStatistics> statistic) {
+        FunctionCounter.builder("habitat.cache.remote.operations", redisCache,
+                        cache -> statistic.applyAsLong(cache.getStatistics()))
+                .description("Operations on the Redis tier as counted by Spring Data Redis")
+                .tag("cache", name)
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Track up to {@code capacity} most read keys per cache, counting one read in
+     * {@code sampleRate}. Must be called before the caches are first used.
+     */
+    public void setHotKeys(int capacity, int sampleRate) {
+        this.hotKeyCapacity = capacity;
+        this.hotKeySampleRate = sampleRate;
+    }
+
+    /**
+     * Serve entries of the given caches past the policy's soft TTL while reloading them in
+     * the background, on a pool of {@code threads} workers with room for
+     * {@code queueCapacity} pending reloads. Reloads beyond that are dropped; the entry is
+     * simply picked up again by a later read. Must be called before the caches are first used.
+     */
+    public void enableRefresh(Collection<String> cacheNames, RefreshPolicy policy, int threads, int queueCapacity) {
+        for (String cacheName : cacheNames) {
+            refreshPolicies.put(cacheName, policy);
+        }
+        if (refreshExecutor == null) {
+            AtomicInteger sequence = new AtomicInteger();
+            ThreadFactory threadFactory = runnable -> {
+                Thread thread = new Thread(runnable, "cache-refresh-" + sequence.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            refreshExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+            refreshExecutor.allowCoreThreadTimeOut(true);
+            ExecutorServiceMetrics.monitor(meterRegistry, refreshExecutor, "cache-refresh");
+        }
+    }
+
+    boolean submitRefresh(Runnable refresh) {
+        ThreadPoolExecutor executor = refreshExecutor;
+        if (executor == null) {
+            return false;
+        }
+        try {
+            executor.execute(refresh);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * How long a node waits for another node's load of the same key before loading it
+     * itself, and how long a lease lives if its holder dies mid-load.
+     */
+    public void setLoadLease(long waitMillis, long leaseMillis) {
+        this.loadWaitMillis = waitMillis;
+        this.loadLeaseMillis = leaseMillis;
+    }
+
+    long getLoadWaitMillis() {
+        return loadWaitMillis;
+    }
+
+    long getLoadLeaseMillis() {
+        return loadLeaseMillis;
+    }
+
+    /**
+     * Sets the clock that write times and soft-TTL ages are read from.
+     */
+    public void setClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    long currentTimeMillis() {
+        return clock.millis();
+    }
+
+    RLock loadLease(String cacheName, String key) {
+        return redissonClient.getLock(LOAD_LEASE_PREFIX + cacheName + SEPARATOR + key);
+    }
+
+    void publishInvalidation(String cacheName, String key) {
+        invalidationTopic.publishAsync(nodeId + SEPARATOR + cacheName + SEPARATOR + key);
+    }
+
+    /**
+     * Drops this node's L1 copies of the given keys, without touching Redis or telling the
+     * other nodes. For listeners that learn of a change before its invalidation message.
+     */
+    public void evictLocal(String cacheName, Collection<?> keys) {
+        TwoTierCache cache = caches.get(cacheName);
+        if (cache != null) {
+            keys.forEach(key -> cache.evictLocal(String.valueOf(key)));
+        }
+    }
+
+    /** Drops every L1 entry of one cache on this node only; see {@link #evictLocal}. */
+    public void clearLocal(String cacheName) {
+        TwoTierCache cache = caches.get(cacheName);
+        if (cache != null) {
+            cache.clearLocal();
+        }
+    }
+
+    private void onInvalidation(String message) {
+        String[] parts = message.split(SEPARATOR, 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (ALL_KEYS.equals(parts[2])) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[2]);
+        }
+        log.debug("Dropped local entry {} of cache {} on remote invalidation", parts[2], parts[1]);
+    }
+}
@@ -0,0 +1,108 @@
+package com.project.habitat.cache;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+/**
+ * Writes cache values as {@code [magic][format version][codec id][payload]} and reads any
+ * codec it knows, whichever one the cache is currently configured to write. That lets the
+ * codec of a cache be changed in a rolling deploy: nodes keep reading entries written by
+ * the other codec until they expire. Values without the header are pre-header JSON and are
+ * read with the legacy codec; values from an unknown codec or format version read as a miss
+ * and are rewritten by the next load.
+ *
+ * <p>A {@link CacheEnvelope} is written with format version 2, which adds its write time
+ * after the codec id and reads back as an envelope again.
+ *
+ * <p>Without a write codec, values are written headerless by the legacy codec, which
+ * nodes built before the header existed can still read. That is the mode for the first
+ * rollout; envelopes then lose their write time and never count as stale.
+ */
+public class VersionedRedisSerializer implements RedisSerializer<Object> {
+
+    private static final Logger log = LoggerFactory.getLogger(VersionedRedisSerializer.class);
+
+    // Never the first byte of a JSON document, so headerless JSON is told apart safely.
+    static final byte MAGIC = (byte) 0xCB;
+    static final byte FORMAT_VERSION = 1;
+    static final byte FORMAT_VERSION_TIMESTAMPED = 2;
+    static final int HEADER_LENGTH = 3;
+    static final int TIMESTAMPED_HEADER_LENGTH = HEADER_LENGTH + Long.BYTES;
+
+    private final CacheValueCodec writeCodec;
+    private final CacheValueCodec[] readCodecs = new CacheValueCodec[256];
+    private final CacheValueCodec legacyCodec;
+
+    /**
+     * @param writeCodec codec to write with, or {@code null} to write headerless legacy JSON
+     * @param legacyCodec JSON codec for values without the header
+     */
+    public VersionedRedisSerializer(CacheValueCodec writeCodec, List<CacheValueCodec> readCodecs,
+                                    CacheValueCodec legacyCodec) {
+        this.writeCodec = writeCodec;
+        this.legacyCodec = legacyCodec;
+        for (CacheValueCodec codec : readCodecs) {
+            this.readCodecs[codec.id() & 0xFF] = codec;
+        }
+        if (writeCodec != null) {
+            this.readCodecs[writeCodec.id() & 0xFF] = writeCodec;
+        }
+    }
+
+    /** The codec values are written with, or {@code null} when they are written as legacy JSON. */
+    public CacheValueCodec getWriteCodec() {
+        return writeCodec;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        CacheEnvelope envelope = value instanceof CacheEnvelope cacheEnvelope ? cacheEnvelope : null;
+        if (writeCodec == null) {
+            return legacyCodec.encode(envelope != null ? envelope.value() : value);
+        }
+        byte[] payload = writeCodec.encode(envelope != null ? envelope.value() : value);
+        int headerLength = envelope != null ? TIMESTAMPED_HEADER_LENGTH : HEADER_LENGTH;
+        ByteBuffer bytes = ByteBuffer.allocate(headerLength + payload.length)
+                .put(MAGIC)
+                .put(envelope != null ? FORMAT_VERSION_TIMESTAMPED : FORMAT_VERSION)
+                .put(writeCodec.id());
+        if (envelope != null) {
+            bytes.putLong(envelope.writtenAtMillis());
+        }
+        return bytes.put(payload).array();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return legacyCodec.decode(bytes, 0, bytes.length);
+        }
+        boolean timestamped = bytes.length >= TIMESTAMPED_HEADER_LENGTH && bytes[1] == FORMAT_VERSION_TIMESTAMPED;
+        if (!timestamped && (bytes.length < HEADER_LENGTH || bytes[1] != FORMAT_VERSION)) {
+            log.debug("Ignoring cache value with unsupported format version");
+            return null;
+        }
+        CacheValueCodec codec = readCodecs[bytes[2] & 0xFF];
+        if (codec == null) {
+            log.debug("Ignoring cache value written with unknown codec id {}", bytes[2]);
+            return null;
+        }
+        if (!timestamped) {
+            return codec.decode(bytes, HEADER_LENGTH, bytes.length - HEADER_LENGTH);
+        }
+        long writtenAt = ByteBuffer.wrap(bytes, HEADER_LENGTH, Long.BYTES).getLong();
+        return new CacheEnvelope(codec.decode(bytes, TIMESTAMPED_HEADER_LENGTH, bytes.length - TIMESTAMPED_HEADER_LENGTH),
+                writtenAt);
+    }
+}
@@ -0,0 +1,15 @@
+package com.project.habitat.config;
+
+public final class CacheNames {
+
+    public static final String ALL_MOVIES = "allMovies";
+    public static final String MOVIE_BY_ID = "movie";
+    public static final String MOVIE_PAGES = "moviePages";
+    public static final String MOVIES_BY_FACET = "moviesByFacet";
+
+    /** The single key under which {@link #ALL_MOVIES} stores the whole catalog. */
+    public static final String ALL_MOVIES_KEY = "all";
+
+    private CacheNames() {
+    }
+}
@@ -1,11 +1,25 @@
 package com.project.habitat.config;
 
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.project.habitat.cache.CacheCodecs;
+import com.project.habitat.cache.MeteredRedisSerializer;
+import com.project.habitat.cache.RefreshPolicy;
+import com.project.habitat.cache.TwoTierCacheManager;
+import com.project.habitat.dto.CursorPage;
+import com.project.habitat.dto.MovieDetail;
+import com.project.habitat.dto.MovieSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.redisson.api.RedissonClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
@@ -15,14 +29,20 @@ import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 import java.time.Duration;
+import java.util.List;
 
 @Configuration
 @EnableCaching
 public class RedisConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(RedisConfig.class);
+
     @Autowired(required = false)
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private Environment environment;
+
     private ObjectMapper createObjectMapper() {
         if (objectMapper != null) {
             return objectMapper.copy();
@@ -56,18 +76,82 @@ public class RedisConfig {
     }
 
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(createObjectMapper());
+    public CacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                     RedissonClient redissonClient,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${spring.cache.redis.time-to-live:3600000}") Duration entryTtl,
+                                     @Value("${app.cache.local.maximum-size:10000}") long localMaximumSize,
+                                     @Value("${app.cache.local.ttl-seconds:60}") long localTtlSeconds,
+                                     @Value("${app.cache.load.wait-millis:5000}") long loadWaitMillis,
+                                     @Value("${app.cache.load.lease-millis:30000}") long loadLeaseMillis) {
+        ObjectMapper mapper = createObjectMapper();
+        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(mapper);
         
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofHours(1))
+                .entryTtl(entryTtl)
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(jsonSerializer))
                 .disableCachingNullValues();
 
-        return RedisCacheManager.builder(connectionFactory)
+        // Caches holding DTOs get a serializer bound to their value type, so hits come back
+        // as the declared type rather than as generic maps.
+        JavaType moviePageType = mapper.getTypeFactory()
+                .constructParametricType(CursorPage.class, MovieSummary.class);
+        JavaType movieListType = mapper.getTypeFactory()
+                .constructCollectionType(List.class, MovieSummary.class);
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(connectionFactory)
                 .cacheDefaults(config)
+                .withCacheConfiguration(CacheNames.MOVIE_PAGES,
+                        typedCacheConfig(config, mapper, meterRegistry, moviePageType, CacheNames.MOVIE_PAGES))
+                .withCacheConfiguration(CacheNames.ALL_MOVIES,
+                        typedCacheConfig(config, mapper, meterRegistry, movieListType, CacheNames.ALL_MOVIES))
+                .withCacheConfiguration(CacheNames.MOVIES_BY_FACET,
+                        typedCacheConfig(config, mapper, meterRegistry, movieListType, CacheNames.MOVIES_BY_FACET))
+                .withCacheConfiguration(CacheNames.MOVIE_BY_ID, typedCacheConfig(config, mapper, meterRegistry,
+                        mapper.getTypeFactory().constructType(MovieDetail.class), CacheNames.MOVIE_BY_ID))
+                .enableStatistics()
                 .build();
+        redisCacheManager.afterPropertiesSet();
+
+        TwoTierCacheManager cacheManager = new TwoTierCacheManager(redisCacheManager, redissonClient, meterRegistry,
+                localMaximumSize, localTtlSeconds);
+        cacheManager.setLoadLease(loadWaitMillis, loadLeaseMillis);
+        cacheManager.setHotKeys(environment.getProperty("app.cache.hot-keys.capacity", Integer.class, 100),
+                environment.getProperty("app.cache.hot-keys.sample-rate", Integer.class, 10));
+        if (legacyRollout()) {
+            // Headerless JSON has nowhere to keep the write time, so nothing would ever turn stale.
+            log.warn("app.cache.codec.legacy-rollout is on: typed caches write headerless JSON and "
+                    + "soft-TTL refresh is off until it is switched off again");
+        } else {
+            // Only the typed caches store write times, which the soft TTL is measured from.
+            cacheManager.enableRefresh(List.of(CacheNames.MOVIE_PAGES, CacheNames.ALL_MOVIES,
+                            CacheNames.MOVIES_BY_FACET, CacheNames.MOVIE_BY_ID), refreshPolicy(),
+                    environment.getProperty("app.cache.refresh.threads", Integer.class, 2),
+                    environment.getProperty("app.cache.refresh.queue-capacity", Integer.class, 100));
+        }
+        return cacheManager;
+    }
+
+    private boolean legacyRollout() {
+        return environment.getProperty("app.cache.codec.legacy-rollout", Boolean.class, false);
+    }
+
+    private RefreshPolicy refreshPolicy() {
+        long softTtlMillis = Duration.ofSeconds(
+                environment.getProperty("app.cache.refresh.soft-ttl-seconds", Long.class, 300L)).toMillis();
+        double refreshAheadFraction = environment.getProperty("app.cache.refresh.refresh-ahead-fraction", Double.class, 0.8);
+        return new RefreshPolicy(softTtlMillis, (long) (softTtlMillis * refreshAheadFraction),
+                environment.getProperty("app.cache.refresh.hot-key-hits", Integer.class, 20));
+    }
+
+    private RedisCacheConfiguration typedCacheConfig(RedisCacheConfiguration base, ObjectMapper mapper,
+                                                     MeterRegistry meterRegistry, JavaType valueType, String cacheName) {
+        // app.cache.codec.caches.<name> picks the codec a cache writes; all codecs stay readable.
+        String codec = legacyRollout() ? CacheCodecs.LEGACY : environment.getProperty(
+                "app.cache.codec.caches." + cacheName, environment.getProperty("app.cache.codec.default", CacheCodecs.SMILE));
+        return base.serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                new MeteredRedisSerializer(CacheCodecs.serializer(mapper, valueType, codec), cacheName, meterRegistry)));
     }
 }
 
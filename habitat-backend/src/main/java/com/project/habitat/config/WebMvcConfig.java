@@ -0,0 +1,47 @@
+package com.project.habitat.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.project.habitat.controller.CatalogConditionalGetInterceptor;
+import com.project.habitat.controller.MovieViewInterceptor;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    // @EnableWebMvc switches off spring.mvc.* properties, so the async timeout that bounds
+    // streamed responses such as the catalog export is set here.
+    @Value("${app.async.request-timeout-minutes:30}")
+    private long asyncRequestTimeoutMinutes;
+
+    private final CatalogConditionalGetInterceptor catalogConditionalGetInterceptor;
+    private final MovieViewInterceptor movieViewInterceptor;
+
+    public WebMvcConfig(CatalogConditionalGetInterceptor catalogConditionalGetInterceptor,
+                        MovieViewInterceptor movieViewInterceptor) {
+        this.catalogConditionalGetInterceptor = catalogConditionalGetInterceptor;
+        this.movieViewInterceptor = movieViewInterceptor;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Runs first: a detail page answered with 304 below still counts as a view.
+        registry.addInterceptor(movieViewInterceptor)
+                .addPathPatterns("/movies/get/*");
+        // Everything under these paths is derived from catalog data only; ratings are not.
+        // Leaderboards and view counts move with activity; leaderboards carry their own max-age.
+        registry.addInterceptor(catalogConditionalGetInterceptor)
+                .addPathPatterns("/movies", "/movies/**", "/genres/**", "/format/**", "/language/**")
+                .excludePathPatterns("/movies/leaderboards/**", "/movies/views");
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setDefaultTimeout(TimeUnit.MINUTES.toMillis(asyncRequestTimeoutMinutes));
+    }
+}
@@ -0,0 +1,42 @@
+package com.project.habitat.controller;
+
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.project.habitat.dto.CacheHotKey;
+import com.project.habitat.exception.CrudValidationException;
+import com.project.habitat.service.CacheStatsService;
+
+@RestController
+@RequestMapping("/admin/cache")
+public class CacheAdminController {
+    @Autowired
+    private CacheStatsService cacheStatsService;
+
+    private Logger log = LogManager.getLogger(CacheAdminController.class);
+
+    @GetMapping("/hot-keys")
+    public ResponseEntity<?> getHotKeys(@RequestParam(required = false) String cache,
+                                        @RequestParam(defaultValue = "20") int limit) {
+        try {
+            List<CacheHotKey> hotKeys = cacheStatsService.getHotKeys(cache, limit);
+            log.info("Successfully fetched " + hotKeys.size() + " hot cache keys");
+            return ResponseEntity.status(HttpStatus.OK).body(hotKeys);
+        } catch (CrudValidationException e) {
+            log.error("Error while fetching hot cache keys: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error while fetching hot cache keys: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.project.habitat.controller;
+
+import java.util.Locale;
+import java.util.Set;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.project.habitat.cache.CatalogVersion;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Answers conditional GETs on catalog endpoints from the in-memory catalog version. A
+ * matching {@code If-None-Match} (or an {@code If-Modified-Since} no older than the last
+ * change) ends the request with 304 before the controller, Redis or Postgres is reached.
+ *
+ * <p>Endpoints served from {@link com.project.habitat.cache.ResponseBytesCache} pick their
+ * body by {@code Accept-Encoding}, so only they get a separate gzip ETag and a
+ * {@code Vary: Accept-Encoding}; every other path has one representation per version.
+ */
+@Component
+public class CatalogConditionalGetInterceptor implements HandlerInterceptor {
+
+    // Mapping patterns of the MovieController endpoints that answer with encoded(...).
+    private static final Set<String> PRE_ENCODED_PATTERNS = Set.of(
+            "/movies",
+            "/movies/getall",
+            "/movies/get/{id}",
+            "/movies/genre/{genreName}",
+            "/movies/format/{formatName}",
+            "/movies/language/{languageName}");
+
+    private final CatalogVersion catalogVersion;
+
+    public CatalogConditionalGetInterceptor(CatalogVersion catalogVersion) {
+        this.catalogVersion = catalogVersion;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod())) {
+            return true;
+        }
+        CatalogVersion.Snapshot version = catalogVersion.current();
+        // Caches may keep the response but must revalidate it, which is what makes 304s possible.
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "public, no-cache");
+        boolean gzip = false;
+        if (isPreEncoded(request)) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            gzip = acceptsGzip(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+        }
+        String etag = version.etag(gzip);
+        return !new ServletWebRequest(request, response).checkNotModified(etag, version.modifiedMillis());
+    }
+
+    private static boolean isPreEncoded(HttpServletRequest request) {
+        // Set.of rejects null lookups, and requests that matched no handler carry no pattern.
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null && PRE_ENCODED_PATTERNS.contains(pattern);
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.toLowerCase(Locale.ROOT).split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim();
+            if (!name.equals("gzip") && !name.equals("*")) {
+                continue;
+            }
+            boolean refused = parts.length > 1 && parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
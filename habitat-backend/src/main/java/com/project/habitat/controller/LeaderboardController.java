@@ -0,0 +1,64 @@
+package com.project.habitat.controller;
+
+import java.time.Duration;
+
+import com.project.habitat.dto.Leaderboard;
+import com.project.habitat.dto.LeaderboardKind;
+import com.project.habitat.exception.CrudOperationException;
+import com.project.habitat.exception.CrudValidationException;
+import com.project.habitat.service.LeaderboardService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/movies/leaderboards")
+public class LeaderboardController {
+    private final LeaderboardService leaderboardService;
+    private final CacheControl cacheControl;
+
+    // Clients may reuse a leaderboard as long as the service itself would.
+    public LeaderboardController(LeaderboardService leaderboardService,
+                                 @Value("${app.leaderboards.cache-seconds:30}") long cacheSeconds) {
+        this.leaderboardService = leaderboardService;
+        this.cacheControl = CacheControl.maxAge(Duration.ofSeconds(cacheSeconds)).cachePublic();
+    }
+
+    private Logger log = LogManager.getLogger(LeaderboardController.class);
+
+    @GetMapping("/{kind}")
+    public ResponseEntity<?> getLeaderboard(
+            @PathVariable String kind,
+            @RequestParam(required = false) String genre,
+            @RequestParam(required = false) String language,
+            @RequestParam(defaultValue = "" + LeaderboardService.DEFAULT_LIMIT) int limit) {
+        try {
+            LeaderboardKind leaderboardKind;
+            try {
+                leaderboardKind = LeaderboardKind.fromParam(kind);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Unsupported leaderboard: " + kind);
+            }
+            Leaderboard leaderboard = leaderboardService.getLeaderboard(leaderboardKind, genre, language, limit);
+            log.info("Successfully fetched leaderboard " + leaderboardKind);
+            return ResponseEntity.status(HttpStatus.OK).cacheControl(cacheControl).body(leaderboard);
+        } catch (CrudOperationException e) {
+            log.error("Error while fetching leaderboard: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        } catch (CrudValidationException e) {
+            log.error("Error while fetching leaderboard: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error while fetching leaderboard: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+}
@@ -1,36 +1,78 @@
 package com.project.habitat.controller;
 
+import com.project.habitat.cache.EncodedResponse;
+import com.project.habitat.cache.ResponseBytesCache;
+import com.project.habitat.dto.CatalogFormat;
+import com.project.habitat.dto.FacetFilterResult;
+import com.project.habitat.dto.ImportReport;
+import com.project.habitat.dto.MovieSearchResult;
+import com.project.habitat.dto.MovieSortField;
+import com.project.habitat.dto.MovieViewCount;
+import com.project.habitat.dto.SimilarMovie;
+import com.project.habitat.dto.TitleSuggestion;
 import com.project.habitat.exception.CrudOperationException;
 import com.project.habitat.exception.CrudValidationException;
+import com.project.habitat.index.MovieFacet;
 import com.project.habitat.model.Movie;
+import com.project.habitat.service.CatalogExportService;
+import com.project.habitat.service.CatalogImportService;
+import com.project.habitat.service.MovieViewCounter;
 import com.project.habitat.service.MovieService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.InputStream;
+import java.util.EnumMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/movies")
 public class MovieController {
     private final MovieService movieService;
+    private final CatalogImportService catalogImportService;
+    private final CatalogExportService catalogExportService;
+    private final ResponseBytesCache responseBytesCache;
+    private final MovieViewCounter viewCounter;
 
-    public MovieController(MovieService movieService) {
+    public MovieController(MovieService movieService, CatalogImportService catalogImportService,
+                           CatalogExportService catalogExportService, ResponseBytesCache responseBytesCache,
+                           MovieViewCounter viewCounter) {
         this.movieService = movieService;
+        this.catalogImportService = catalogImportService;
+        this.catalogExportService = catalogExportService;
+        this.responseBytesCache = responseBytesCache;
+        this.viewCounter = viewCounter;
+    }
+
+    // Hot public reads are answered with cached, pre-encoded bytes (see ResponseBytesCache).
+    // Endpoints using this are listed in CatalogConditionalGetInterceptor, which gives them a gzip ETag.
+    private static ResponseEntity<byte[]> encoded(EncodedResponse response, String acceptEncoding) {
+        boolean gzip = response.gzip() != null && CatalogConditionalGetInterceptor.acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return builder.body(gzip ? response.gzip() : response.identity());
     }
 
     private Logger log = LogManager.getLogger(MovieController.class);
 
     @GetMapping("/getall")
-    public ResponseEntity<?> getAllMovies() {
+    public ResponseEntity<?> getAllMovies(@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            List<Movie> movies = movieService.getAllMovies();
-            log.info("Successfully fetched " + movies.size() + " movies");
-            return ResponseEntity.status(HttpStatus.OK).body(movies);
+            EncodedResponse movies = responseBytesCache.get("movies:all", movieService::getAllMovies);
+            log.info("Successfully fetched all movies");
+            return encoded(movies, acceptEncoding);
         } catch (CrudOperationException e) {
             log.error("Error while fetching movies: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
@@ -43,12 +85,146 @@ public class MovieController {
         }
     }
 
+    @GetMapping
+    public ResponseEntity<?> getMoviePage(
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + MovieService.DEFAULT_PAGE_SIZE) int size,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        try {
+            MovieSortField sortField;
+            try {
+                sortField = MovieSortField.fromParam(sort);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Unsupported sort: " + sort);
+            }
+            String key = "movies:page:" + sortField + ":" + size + ":" + (cursor == null ? "" : cursor);
+            EncodedResponse page = responseBytesCache.get(key, () -> movieService.getMoviePage(sortField, cursor, size));
+            log.info("Successfully fetched page of movies sorted by " + sortField);
+            return encoded(page, acceptEncoding);
+        } catch (CrudOperationException e) {
+            log.error("Error while fetching movies: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        } catch (CrudValidationException e) {
+            log.error("Error while fetching movies: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error while fetching movies: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/filter")
+    public ResponseEntity<?> filterMovies(
+            @RequestParam(required = false) List<String> genre,
+            @RequestParam(required = false) List<String> format,
+            @RequestParam(required = false) List<String> language,
+            @RequestParam(required = false) List<String> certificate,
+            @RequestParam(defaultValue = "any") String match,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "" + MovieService.DEFAULT_PAGE_SIZE) int limit) {
+        try {
+            if (!"any".equalsIgnoreCase(match) && !"all".equalsIgnoreCase(match)) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Unsupported match: " + match);
+            }
+            Map<MovieFacet, List<String>> selection = new EnumMap<>(MovieFacet.class);
+            if (genre != null) selection.put(MovieFacet.GENRE, genre);
+            if (format != null) selection.put(MovieFacet.FORMAT, format);
+            if (language != null) selection.put(MovieFacet.LANGUAGE, language);
+            if (certificate != null) selection.put(MovieFacet.CERTIFICATE, certificate);
+            FacetFilterResult result = movieService.filterMovies(selection, "all".equalsIgnoreCase(match), offset, limit);
+            log.info("Successfully filtered " + result.total() + " movies");
+            return ResponseEntity.status(HttpStatus.OK).body(result);
+        } catch (CrudOperationException e) {
+            log.error("Error while filtering movies: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        } catch (CrudValidationException e) {
+            log.error("Error while filtering movies: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error while filtering movies: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<?> searchMovies(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "" + MovieService.DEFAULT_PAGE_SIZE) int limit) {
+        try {
+            MovieSearchResult result = movieService.searchMovies(query, offset, limit);
+            log.info("Successfully searched movies, " + result.total() + " matches");
+            return ResponseEntity.status(HttpStatus.OK).body(result);
+        } catch (CrudOperationException e) {
+            log.error("Error while searching movies: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        } catch (CrudValidationException e) {
+            log.error("Error while searching movies: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error while searching movies: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/autocomplete")
+    public ResponseEntity<?> autocomplete(
+            @RequestParam("q") String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<TitleSuggestion> suggestions = movieService.autocomplete(prefix, limit);
+            return ResponseEntity.status(HttpStatus.OK).body(suggestions);
+        } catch (CrudValidationException e) {
+            log.error("Error while completing movie titles: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error while completing movie titles: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/similar/{id}")
+    public ResponseEntity<?> getSimilarMovies(@PathVariable Long id, @RequestParam(defaultValue = "10") int limit) {
+        try {
+            List<SimilarMovie> similar = movieService.getSimilarMovies(id, limit);
+            log.info("Successfully fetched " + similar.size() + " movies similar to ID: " + id);
+            return ResponseEntity.status(HttpStatus.OK).body(similar);
+        } catch (CrudOperationException e) {
+            log.error("Error while fetching similar movies: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        } catch (CrudValidationException e) {
+            log.error("Error while fetching similar movies: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error while fetching similar movies: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/views")
+    public ResponseEntity<?> getViewCounts(@RequestParam List<Long> movieIds) {
+        try {
+            List<MovieViewCount> counts = viewCounter.getViewCounts(movieIds);
+            log.info("Successfully fetched view counts of " + counts.size() + " movies");
+            return ResponseEntity.status(HttpStatus.OK).body(counts);
+        } catch (CrudValidationException e) {
+            log.error("Error while fetching view counts: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error while fetching view counts: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+
     @GetMapping("/get/{id}")
-    public ResponseEntity<?> getMovieById(@PathVariable Long id) {
+    public ResponseEntity<?> getMovieById(@PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            Optional<Movie> movies = movieService.getMovieById(id);
+            // The view itself is counted by MovieViewInterceptor, before any 304.
+            EncodedResponse movie = responseBytesCache.get("movies:id:" + id, () -> movieService.getMovieById(id));
             log.info("Successfully fetched movie with ID: " + id);
-            return ResponseEntity.status(HttpStatus.OK).body(movies);
+            return encoded(movie, acceptEncoding);
         } catch (CrudOperationException e) {
             log.error("Error while fetching movies: " + e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
@@ -83,6 +259,34 @@ public class MovieController {
         }
     }
 
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportMovies() {
+        StreamingResponseBody body = out -> catalogExportService.exportCatalog(out);
+        return ResponseEntity.status(HttpStatus.OK)
+                .contentType(MediaType.parseMediaType(CatalogFormat.NDJSON.mediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"movies.ndjson\"")
+                .body(body);
+    }
+
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", "text/csv"})
+    public ResponseEntity<?> importMovies(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType, InputStream body) {
+        try {
+            ImportReport report = catalogImportService.importCatalog(body, CatalogFormat.fromContentType(contentType));
+            log.info("Imported " + report.imported() + " of " + report.received() + " movies");
+            return ResponseEntity.status(HttpStatus.OK).body(report);
+        } catch (CrudOperationException e) {
+            log.error("Error while importing movies: " + e.getMessage(), e);
+            String errorMessage = e.getMessage();
+            if (e.getCause() != null) {
+                errorMessage += " - Cause: " + e.getCause().getMessage();
+            }
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(errorMessage);
+        } catch (Exception e) {
+            log.error("Unexpected error while importing movies: " + e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body("Error: " + e.getMessage());
+        }
+    }
+
     @PutMapping("/update")
     public ResponseEntity<?> updateMovie(@RequestBody Movie movie) {
         try {
@@ -127,10 +331,11 @@ public class MovieController {
     }
 
     @GetMapping("/genre/{genreName}")
-    public ResponseEntity<?> getMoviesbyGenre(@PathVariable String genreName){
+    public ResponseEntity<?> getMoviesbyGenre(@PathVariable String genreName,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
         try{
-            List<Movie> movies = movieService.getMoviesByGenre(genreName);
-            return ResponseEntity.status(HttpStatus.OK).body(movies);
+            EncodedResponse movies = responseBytesCache.get("movies:genre:" + genreName, () -> movieService.getMoviesByGenre(genreName));
+            return encoded(movies, acceptEncoding);
         }
         catch(CrudOperationException e){
             log.error("Error while fetching movies: " + e.getMessage(), e);
@@ -147,10 +352,11 @@ public class MovieController {
     }
 
     @GetMapping("/format/{formatName}")
-    public ResponseEntity<?> getMoviesByFormat(@PathVariable String formatName){
+    public ResponseEntity<?> getMoviesByFormat(@PathVariable String formatName,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
         try{
-            List<Movie> movies = movieService.getMoviesByFormat(formatName);
-            return ResponseEntity.status(HttpStatus.OK).body(movies);
+            EncodedResponse movies = responseBytesCache.get("movies:format:" + formatName, () -> movieService.getMoviesByFormat(formatName));
+            return encoded(movies, acceptEncoding);
         }
         catch(CrudOperationException e){
             log.error("Error while fetching movies: " + e.getMessage(), e);
@@ -167,10 +373,11 @@ public class MovieController {
     }
 
     @GetMapping("/language/{languageName}")
-    public ResponseEntity<?> getMoviesByLanguage(@PathVariable String languageName){
+    public ResponseEntity<?> getMoviesByLanguage(@PathVariable String languageName,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding){
         try{
-            List<Movie> movies = movieService.getMoviesByLangauge(languageName);
-            return ResponseEntity.status(HttpStatus.OK).body(movies);
+            EncodedResponse movies = responseBytesCache.get("movies:language:" + languageName, () -> movieService.getMoviesByLangauge(languageName));
+            return encoded(movies, acceptEncoding);
         }
         catch(CrudOperationException e){
             log.error("Error while fetching movies: " + e.getMessage(), e);
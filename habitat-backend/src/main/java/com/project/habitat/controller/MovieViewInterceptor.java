@@ -0,0 +1,43 @@
+package com.project.habitat.controller;
+
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.project.habitat.service.MovieViewCounter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Counts movie detail views. Registered ahead of {@link CatalogConditionalGetInterceptor},
+ * so a browser revalidating a detail page it already holds is counted even though the
+ * request ends there with 304.
+ */
+@Component
+public class MovieViewInterceptor implements HandlerInterceptor {
+
+    private final MovieViewCounter viewCounter;
+
+    public MovieViewInterceptor(MovieViewCounter viewCounter) {
+        this.viewCounter = viewCounter;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!"GET".equals(request.getMethod())) {
+            return true;
+        }
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        if (variables instanceof Map<?, ?> map && map.get("id") instanceof String id) {
+            try {
+                viewCounter.recordView(Long.valueOf(id));
+            } catch (NumberFormatException e) {
+                // Not a movie id; the controller answers 400.
+            }
+        }
+        return true;
+    }
+}
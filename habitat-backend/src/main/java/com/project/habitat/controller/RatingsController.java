@@ -1,17 +1,28 @@
 package com.project.habitat.controller;
 
+import com.project.habitat.dto.CursorPage;
+import com.project.habitat.dto.RatingReceipt;
+import com.project.habitat.dto.RatingRequest;
+import com.project.habitat.dto.RatingSortField;
+import com.project.habitat.dto.RatingSummary;
+import com.project.habitat.dto.RatingView;
+import com.project.habitat.exception.BackpressureException;
 import com.project.habitat.exception.CrudOperationException;
 import com.project.habitat.exception.CrudValidationException;
-import com.project.habitat.model.Rating;
 import com.project.habitat.service.RatingsService;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.List;
@@ -30,7 +41,7 @@ public class RatingsController {
     @GetMapping("/getall/{movieId}")
     public ResponseEntity<?> getAllRatingsByMovieId(@PathVariable Long movieId) {
         try {
-            List<Rating> ratings = ratingsService.getAllRatings(movieId);
+            List<RatingView> ratings = ratingsService.getAllRatings(movieId);
             log.info("Successfully fetched ratings count for movieId {} : {}", movieId);
             return ResponseEntity.status(HttpStatus.OK).body(ratings);
 
@@ -49,6 +60,107 @@ public class RatingsController {
     }
 
 
+    @GetMapping("/movie/{movieId}")
+    public ResponseEntity<?> getRatingPage(
+            @PathVariable Long movieId,
+            @RequestParam(defaultValue = "newest") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + RatingsService.DEFAULT_PAGE_SIZE) int size) {
+        try {
+            RatingSortField sortField;
+            try {
+                sortField = RatingSortField.fromParam(sort);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Unsupported sort: " + sort);
+            }
+            CursorPage<RatingView> page = ratingsService.getRatingPage(movieId, sortField, cursor, size);
+            log.info("Successfully fetched page of ratings for movieId {} sorted by {}", movieId, sortField);
+            return ResponseEntity.status(HttpStatus.OK).body(page);
+
+        } catch (CrudValidationException e) {
+            log.error("Validation error while fetching ratings for movieId {} : {}", movieId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+
+        } catch (CrudOperationException e) {
+            log.error("Operational error while fetching ratings for movieId {} : {}", movieId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+
+        } catch (Exception e) {
+            log.error("Unexpected error while fetching ratings for movieId {} : {}", movieId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        }
+    }
+
+    @PostMapping
+    public ResponseEntity<?> addRating(@RequestBody RatingRequest request, Authentication authentication) {
+        try {
+            RatingReceipt receipt = ratingsService.submitRating(request, authentication.getName());
+            log.info("Successfully {} rating {} for movieId {}", receipt.queued() ? "queued" : "added",
+                    receipt.submissionId(), request.movieId());
+            return ResponseEntity.status(receipt.queued() ? HttpStatus.ACCEPTED : HttpStatus.CREATED).body(receipt);
+
+        } catch (BackpressureException e) {
+            log.warn("Rejected rating while the buffer is full: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(e.getMessage());
+
+        } catch (CrudValidationException e) {
+            log.error("Validation error while adding rating: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+
+        } catch (CrudOperationException e) {
+            log.error("Operational error while adding rating: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+
+        } catch (Exception e) {
+            log.error("Unexpected error while adding rating: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/summary/{movieId}")
+    public ResponseEntity<?> getRatingSummary(@PathVariable Long movieId) {
+        try {
+            RatingSummary summary = ratingsService.getRatingSummary(movieId);
+            log.info("Successfully fetched rating summary for movieId {}", movieId);
+            return ResponseEntity.status(HttpStatus.OK).body(summary);
+
+        } catch (CrudValidationException e) {
+            log.error("Validation error while fetching rating summary for movieId {} : {}", movieId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+
+        } catch (CrudOperationException e) {
+            log.error("Operational error while fetching rating summary for movieId {} : {}", movieId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+
+        } catch (Exception e) {
+            log.error("Unexpected error while fetching rating summary for movieId {} : {}", movieId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/summaries")
+    public ResponseEntity<?> getRatingSummaries(@RequestParam List<Long> movieIds) {
+        try {
+            List<RatingSummary> summaries = ratingsService.getRatingSummaries(movieIds);
+            log.info("Successfully fetched rating summaries for {} movies", summaries.size());
+            return ResponseEntity.status(HttpStatus.OK).body(summaries);
+
+        } catch (CrudValidationException e) {
+            log.error("Validation error while fetching rating summaries: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+
+        } catch (CrudOperationException e) {
+            log.error("Operational error while fetching rating summaries: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+
+        } catch (Exception e) {
+            log.error("Unexpected error while fetching rating summaries: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(e.getMessage());
+        }
+    }
+
     @GetMapping("/count/{movieId}")
     public ResponseEntity<?> getRatingsCountByMovieId(@PathVariable Long movieId) {
         try {
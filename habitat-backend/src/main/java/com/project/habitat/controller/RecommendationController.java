@@ -0,0 +1,48 @@
+package com.project.habitat.controller;
+
+import com.project.habitat.dto.Recommendations;
+import com.project.habitat.exception.CrudOperationException;
+import com.project.habitat.exception.CrudValidationException;
+import com.project.habitat.service.RecommendationService;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/recommendations")
+public class RecommendationController {
+    private final RecommendationService recommendationService;
+
+    public RecommendationController(RecommendationService recommendationService) {
+        this.recommendationService = recommendationService;
+    }
+
+    private Logger log = LogManager.getLogger(RecommendationController.class);
+
+    @GetMapping("/me")
+    public ResponseEntity<?> getMyRecommendations(
+            Authentication authentication,
+            @RequestParam(defaultValue = "" + RecommendationService.DEFAULT_LIMIT) int limit) {
+        try {
+            Recommendations recommendations = recommendationService.getRecommendations(authentication.getName(), limit);
+            log.info("Successfully fetched {} recommendations for {}",
+                    recommendations.personalized() ? "personal" : "trending", authentication.getName());
+            return ResponseEntity.status(HttpStatus.OK).body(recommendations);
+        } catch (CrudOperationException e) {
+            log.error("Error while fetching recommendations: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        } catch (CrudValidationException e) {
+            log.error("Error while fetching recommendations: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        } catch (Exception e) {
+            log.error("Error while fetching recommendations: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.project.habitat.dto;
+
+/**
+ * One of the most read keys of a cache. {@code estimatedReads} may overcount by up to
+ * {@code maxOverestimate}; both are extrapolated from sampled reads since the node started.
+ */
+public record CacheHotKey(String cache, String key, long estimatedReads, long maxOverestimate) {
+}
@@ -0,0 +1,28 @@
+package com.project.habitat.dto;
+
+/**
+ * Wire formats accepted by the catalog import and produced by the export.
+ */
+public enum CatalogFormat {
+    NDJSON("application/x-ndjson"),
+    CSV("text/csv");
+
+    private final String mediaType;
+
+    CatalogFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    public static CatalogFormat fromContentType(String contentType) {
+        for (CatalogFormat format : values()) {
+            if (contentType != null && contentType.toLowerCase().startsWith(format.mediaType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported catalog format: " + contentType);
+    }
+}
@@ -0,0 +1,34 @@
+package com.project.habitat.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One movie as it appears in a catalog import or export stream. References are carried
+ * by name; {@code movieId} is filled in on export and ignored on import.
+ */
+public record CatalogMovieRow(
+        Long movieId,
+        String movieName,
+        String movieDescription,
+        Integer durationMinutes,
+        String certificate,
+        LocalDate releaseDate,
+        Double avgRating,
+        String moviePoster,
+        List<String> genres,
+        List<String> formats,
+        List<String> languages) {
+
+    public List<String> genres() {
+        return genres == null ? List.of() : genres;
+    }
+
+    public List<String> formats() {
+        return formats == null ? List.of() : formats;
+    }
+
+    public List<String> languages() {
+        return languages == null ? List.of() : languages;
+    }
+}
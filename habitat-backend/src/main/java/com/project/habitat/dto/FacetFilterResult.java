@@ -0,0 +1,12 @@
+package com.project.habitat.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One window of a faceted filter: the matching movies, the total match count, and per
+ * facet the number of movies each value would leave.
+ */
+public record FacetFilterResult(long total, int offset, int limit, List<MovieSummary> movies,
+                                Map<String, Map<String, Integer>> facets) {
+}
@@ -0,0 +1,10 @@
+package com.project.habitat.dto;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk import. {@code errors} lists at most the first rejected rows;
+ * {@code failed} counts all of them.
+ */
+public record ImportReport(long received, long imported, long failed, long elapsedMillis, List<ImportRowError> errors) {
+}
@@ -0,0 +1,7 @@
+package com.project.habitat.dto;
+
+/**
+ * A rejected import row, identified by its line number in the uploaded stream.
+ */
+public record ImportRowError(long line, String message) {
+}
@@ -0,0 +1,38 @@
+package com.project.habitat.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a page: the sort column value and the movie id used as
+ * tie breaker. Encoded as URL-safe base64 so clients treat it as an opaque token.
+ */
+public record KeysetCursor(String sort, String value, long id) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        String raw = sort + SEPARATOR + (value == null ? "" : value) + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+        int first = raw.indexOf(SEPARATOR);
+        int last = raw.lastIndexOf(SEPARATOR);
+        if (first < 0 || first == last) {
+            throw new IllegalArgumentException("Malformed cursor");
+        }
+        try {
+            long id = Long.parseLong(raw.substring(last + 1));
+            return new KeysetCursor(raw.substring(0, first), raw.substring(first + 1, last), id);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Malformed cursor", e);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.project.habitat.dto;
+
+import java.util.List;
+
+/**
+ * The top movies of one leaderboard, optionally restricted to a genre and/or language.
+ */
+public record Leaderboard(LeaderboardKind kind, String genre, String language, List<LeaderboardEntry> entries) {
+}
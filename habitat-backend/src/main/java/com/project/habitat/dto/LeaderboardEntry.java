@@ -0,0 +1,8 @@
+package com.project.habitat.dto;
+
+/**
+ * A ranked movie. The score is a time-decayed activity count for trending and a Bayesian
+ * average rating for the top-rated leaderboards.
+ */
+public record LeaderboardEntry(MovieSummary movie, double score) {
+}
@@ -0,0 +1,22 @@
+package com.project.habitat.dto;
+
+import java.util.Locale;
+
+/**
+ * Rankings served by the leaderboards. {@code TRENDING} ranks recent views and ratings,
+ * {@code TOP_RATED_WEEK} the Bayesian average of recent ratings, {@code TOP_RATED} the
+ * Bayesian average of all ratings and {@code MOST_VIEWED} the stored detail view counts.
+ */
+public enum LeaderboardKind {
+    TRENDING,
+    TOP_RATED_WEEK,
+    TOP_RATED,
+    MOST_VIEWED;
+
+    public static LeaderboardKind fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return TRENDING;
+        }
+        return LeaderboardKind.valueOf(value.trim().replace("-", "_").toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,80 @@
+package com.project.habitat.dto;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+
+import com.project.habitat.model.Movie;
+
+/**
+ * Detached copy of a movie and its reference data, safe to cache and to serialize outside
+ * of a persistence context. Ratings are served by the ratings endpoints instead.
+ */
+public record MovieDetail(
+        Long movieId,
+        String movieName,
+        String movieDescription,
+        Integer durationMinutes,
+        String certificate,
+        LocalDate releaseDate,
+        Double avgRating,
+        String moviePoster,
+        List<NamedReference> genres,
+        List<NamedReference> formats,
+        List<NamedReference> languages
+) {
+
+    public static MovieDetail from(Movie movie) {
+        return new MovieDetail(
+                movie.getMovieId(),
+                movie.getMovieName(),
+                movie.getMovieDescription(),
+                movie.getDurationMinutes(),
+                movie.getCertificate(),
+                movie.getReleaseDate(),
+                movie.getAvgRating(),
+                movie.getMoviePoster(),
+                references(movie.getGenres(), g -> new NamedReference(g.getGenreId(), g.getName())),
+                references(movie.getFormats(), f -> new NamedReference(f.getFormatId(), f.getName())),
+                references(movie.getLanguages(), l -> new NamedReference(l.getLanguageId(), l.getName())));
+    }
+
+    public List<String> genreNames() {
+        return names(genres);
+    }
+
+    public List<String> formatNames() {
+        return names(formats);
+    }
+
+    public List<String> languageNames() {
+        return names(languages);
+    }
+
+    /**
+     * Whether the position of this movie in any of the sorted listings may differ from
+     * its position as {@code other}.
+     */
+    public boolean sortsDifferentlyFrom(MovieDetail other) {
+        return !Objects.equals(movieName, other.movieName)
+                || !Objects.equals(releaseDate, other.releaseDate)
+                || !Objects.equals(avgRating, other.avgRating);
+    }
+
+    private static <T> List<NamedReference> references(Collection<T> entities, Function<T, NamedReference> mapper) {
+        if (entities == null) {
+            return List.of();
+        }
+        return entities.stream()
+                .map(mapper)
+                .sorted(Comparator.comparing(NamedReference::name, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    private static List<String> names(List<NamedReference> references) {
+        return references == null ? List.of() : references.stream().map(NamedReference::name).toList();
+    }
+}
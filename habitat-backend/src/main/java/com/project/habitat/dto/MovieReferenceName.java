@@ -0,0 +1,7 @@
+package com.project.habitat.dto;
+
+/**
+ * A (movie, reference name) pair read from one of the movie join tables.
+ */
+public record MovieReferenceName(Long movieId, String name) {
+}
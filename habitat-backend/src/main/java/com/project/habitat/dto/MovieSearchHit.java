@@ -0,0 +1,4 @@
+package com.project.habitat.dto;
+
+public record MovieSearchHit(MovieSummary movie, double score) {
+}
@@ -0,0 +1,9 @@
+package com.project.habitat.dto;
+
+import java.util.List;
+
+/**
+ * One window of ranked search results and the number of movies that matched the query.
+ */
+public record MovieSearchResult(String query, long total, int offset, int limit, List<MovieSearchHit> hits) {
+}
@@ -0,0 +1,25 @@
+package com.project.habitat.dto;
+
+import java.util.Locale;
+
+/**
+ * Sort orders supported by the paginated movie listing. Every order is made total by
+ * breaking ties on the movie id, which is what makes keyset pagination stable.
+ */
+public enum MovieSortField {
+    ID,
+    RELEASE_DATE,
+    RATING,
+    NAME;
+
+    public static MovieSortField fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return ID;
+        }
+        String normalized = value.trim().replace("-", "_").toUpperCase(Locale.ROOT);
+        if ("RELEASEDATE".equals(normalized)) {
+            return RELEASE_DATE;
+        }
+        return MovieSortField.valueOf(normalized);
+    }
+}
@@ -0,0 +1,34 @@
+package com.project.habitat.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Read-only projection of a movie used by list views. Carries only the reference data
+ * names, never the ratings or the lazy entity collections.
+ */
+public record MovieSummary(
+        Long movieId,
+        String movieName,
+        String moviePoster,
+        String certificate,
+        LocalDate releaseDate,
+        Double avgRating,
+        List<String> genres,
+        List<String> formats,
+        List<String> languages
+) {
+
+    /**
+     * Used by JPQL constructor expressions; reference names are attached afterwards.
+     */
+    public MovieSummary(Long movieId, String movieName, String moviePoster, String certificate,
+                        LocalDate releaseDate, Double avgRating) {
+        this(movieId, movieName, moviePoster, certificate, releaseDate, avgRating, List.of(), List.of(), List.of());
+    }
+
+    public MovieSummary withReferences(List<String> genres, List<String> formats, List<String> languages) {
+        return new MovieSummary(movieId, movieName, moviePoster, certificate, releaseDate, avgRating,
+                genres, formats, languages);
+    }
+}
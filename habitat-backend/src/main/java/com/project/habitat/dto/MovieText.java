@@ -0,0 +1,7 @@
+package com.project.habitat.dto;
+
+/**
+ * The searchable text of a movie together with the rating used to boost popular titles.
+ */
+public record MovieText(Long movieId, String movieName, String movieDescription, Double avgRating) {
+}
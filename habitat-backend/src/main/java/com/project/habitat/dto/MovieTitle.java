@@ -0,0 +1,4 @@
+package com.project.habitat.dto;
+
+public record MovieTitle(Long movieId, String movieName, Double avgRating) {
+}
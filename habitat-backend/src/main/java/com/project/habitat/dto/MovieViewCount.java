@@ -0,0 +1,7 @@
+package com.project.habitat.dto;
+
+/**
+ * Detail views of a movie stored so far; views of the last flush interval are not included.
+ */
+public record MovieViewCount(Long movieId, long viewCount) {
+}
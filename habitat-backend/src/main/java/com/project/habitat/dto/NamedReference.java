@@ -0,0 +1,7 @@
+package com.project.habitat.dto;
+
+/**
+ * Id and name of a genre, format or language as exposed on movie details.
+ */
+public record NamedReference(Long id, String name) {
+}
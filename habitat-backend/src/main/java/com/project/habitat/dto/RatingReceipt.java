@@ -0,0 +1,8 @@
+package com.project.habitat.dto;
+
+/**
+ * Acknowledgement of a rating submission. A {@code queued} rating is buffered and will be
+ * stored and counted within the flush interval; {@code ratingId} is only known once stored.
+ */
+public record RatingReceipt(String submissionId, Long movieId, Long ratingId, boolean queued) {
+}
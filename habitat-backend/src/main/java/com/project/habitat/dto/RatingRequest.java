@@ -0,0 +1,7 @@
+package com.project.habitat.dto;
+
+/**
+ * Body of a rating submission: 1 to 5 stars for a movie, with an optional review.
+ */
+public record RatingRequest(Long movieId, Integer rating, String review) {
+}
@@ -0,0 +1,21 @@
+package com.project.habitat.dto;
+
+import java.util.Locale;
+
+/**
+ * Sort orders supported by the paginated ratings listing of a movie. Ties are broken on the
+ * rating id, so every order is total and keyset pagination is stable: newest and highest
+ * list later ratings first, lowest lists earlier ratings first.
+ */
+public enum RatingSortField {
+    NEWEST,
+    HIGHEST,
+    LOWEST;
+
+    public static RatingSortField fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return NEWEST;
+        }
+        return RatingSortField.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
@@ -0,0 +1,37 @@
+package com.project.habitat.dto;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.project.habitat.model.MovieRatingSummary;
+
+/**
+ * Rating aggregates of a movie. {@code distribution} maps 1 to 5 stars to the number of
+ * ratings with that many stars; {@code averageRating} is {@code null} without ratings.
+ */
+public record RatingSummary(Long movieId, long ratingCount, Double averageRating, Map<Integer, Long> distribution) {
+
+    public static final int MIN_STARS = 1;
+    public static final int MAX_STARS = 5;
+
+    public static RatingSummary from(MovieRatingSummary summary) {
+        Map<Integer, Long> distribution = new LinkedHashMap<>();
+        for (int stars = MIN_STARS; stars <= MAX_STARS; stars++) {
+            distribution.put(stars, summary.getStars(stars));
+        }
+        return new RatingSummary(summary.getMovieId(), summary.getRatingCount(),
+                average(summary.getRatingSum(), summary.getRatingCount()), distribution);
+    }
+
+    public static RatingSummary empty(Long movieId) {
+        Map<Integer, Long> distribution = new LinkedHashMap<>();
+        for (int stars = MIN_STARS; stars <= MAX_STARS; stars++) {
+            distribution.put(stars, 0L);
+        }
+        return new RatingSummary(movieId, 0, null, distribution);
+    }
+
+    public static Double average(long sum, long count) {
+        return count == 0 ? null : (double) sum / count;
+    }
+}
@@ -0,0 +1,10 @@
+package com.project.habitat.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * A rating as listed under its movie, read straight from the columns so the movie is
+ * neither loaded nor serialized.
+ */
+public record RatingView(Long ratingId, Integer rating, String review, LocalDateTime createdAt) {
+}
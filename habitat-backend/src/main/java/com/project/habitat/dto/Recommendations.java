@@ -0,0 +1,10 @@
+package com.project.habitat.dto;
+
+import java.util.List;
+
+/**
+ * Movies recommended to the current user, best first. Users the model knows nothing about
+ * yet get the trending movies, with {@code personalized} false.
+ */
+public record Recommendations(boolean personalized, List<RecommendedMovie> movies) {
+}
@@ -0,0 +1,8 @@
+package com.project.habitat.dto;
+
+/**
+ * A recommended movie. The score is the predicted rating in stars for personal
+ * recommendations and the trending score otherwise.
+ */
+public record RecommendedMovie(MovieSummary movie, double score) {
+}
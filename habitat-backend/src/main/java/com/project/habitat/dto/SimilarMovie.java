@@ -0,0 +1,7 @@
+package com.project.habitat.dto;
+
+/**
+ * A movie similar to the one asked about; {@code score} is between 0 and 1.
+ */
+public record SimilarMovie(MovieSummary movie, double score) {
+}
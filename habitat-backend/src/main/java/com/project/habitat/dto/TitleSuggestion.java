@@ -0,0 +1,8 @@
+package com.project.habitat.dto;
+
+/**
+ * One autocomplete suggestion. {@code fuzzy} marks suggestions found by the typo-tolerant
+ * fallback rather than by a prefix match.
+ */
+public record TitleSuggestion(Long movieId, String movieName, boolean fuzzy) {
+}
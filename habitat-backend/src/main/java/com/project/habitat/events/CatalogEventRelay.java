@@ -0,0 +1,67 @@
+package com.project.habitat.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Forwards catalog change events between nodes over a Redis topic, so that every node's
+ * in-memory indexes follow writes made on any node.
+ */
+@Component
+public class CatalogEventRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogEventRelay.class);
+    private static final String TOPIC = "habitat:catalog-events";
+    private static final String SEPARATOR = "|";
+
+    private final RTopic topic;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public CatalogEventRelay(RedissonClient redissonClient, ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+        this.topic = redissonClient.getTopic(TOPIC, StringCodec.INSTANCE);
+        this.topic.addListener(String.class, (channel, message) -> onRemoteMessage(message));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void forward(MovieChangedEvent event) {
+        if (event.isRemote()) {
+            return;
+        }
+        StringBuilder message = new StringBuilder()
+                .append(nodeId).append(SEPARATOR)
+                .append(event.getChangeType().name());
+        for (Long movieId : event.getMovieIds()) {
+            message.append(SEPARATOR).append(movieId);
+        }
+        topic.publishAsync(message.toString());
+    }
+
+    private void onRemoteMessage(String message) {
+        String[] parts = message.split("\\" + SEPARATOR);
+        if (parts.length < 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            MovieChangeType changeType = MovieChangeType.valueOf(parts[1]);
+            List<Long> movieIds = new ArrayList<>(parts.length - 2);
+            for (int i = 2; i < parts.length; i++) {
+                movieIds.add(Long.parseLong(parts[i]));
+            }
+            eventPublisher.publishEvent(new MovieChangedEvent(changeType, movieIds, true));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed catalog event: {}", message);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.project.habitat.events;
+
+public enum MovieChangeType {
+    SAVED,
+    DELETED,
+    /** Only the rating aggregates (average) changed; titles, text and tags did not. */
+    RATED
+}
@@ -0,0 +1,50 @@
+package com.project.habitat.events;
+
+import java.util.List;
+
+/**
+ * Published after movies have been written. In-memory indexes listen for it and reload
+ * the listed movies; {@link CatalogEventRelay} forwards locally raised events to the other
+ * nodes, where they are raised again with {@code remote} set.
+ */
+public class MovieChangedEvent {
+
+    private final MovieChangeType changeType;
+    private final List<Long> movieIds;
+    private final boolean remote;
+
+    public MovieChangedEvent(MovieChangeType changeType, List<Long> movieIds, boolean remote) {
+        this.changeType = changeType;
+        this.movieIds = List.copyOf(movieIds);
+        this.remote = remote;
+    }
+
+    public static MovieChangedEvent saved(Long movieId) {
+        return new MovieChangedEvent(MovieChangeType.SAVED, List.of(movieId), false);
+    }
+
+    public static MovieChangedEvent deleted(Long movieId) {
+        return new MovieChangedEvent(MovieChangeType.DELETED, List.of(movieId), false);
+    }
+
+    public MovieChangeType getChangeType() {
+        return changeType;
+    }
+
+    public List<Long> getMovieIds() {
+        return movieIds;
+    }
+
+    public boolean isRemote() {
+        return remote;
+    }
+
+    @Override
+    public String toString() {
+        return "MovieChangedEvent{" +
+                "changeType=" + changeType +
+                ", movieIds=" + movieIds +
+                ", remote=" + remote +
+                '}';
+    }
+}
@@ -0,0 +1,25 @@
+package com.project.habitat.exception;
+
+/**
+ * Thrown when a bounded buffer cannot take more work. Callers should answer with
+ * 503 Service Unavailable and let the client retry after {@link #getRetryAfterSeconds()}.
+ */
+public class BackpressureException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public BackpressureException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    public static BackpressureException asQueueFull(String queue, long retryAfterSeconds) {
+        return new BackpressureException("Queue is full: " + queue + ", retry in " + retryAfterSeconds + " s",
+                retryAfterSeconds);
+    }
+}
@@ -66,6 +66,10 @@ public class CrudValidationException extends RuntimeException {
         return new CrudValidationException(item + " Cannot be Zero");
     }
 
+    public static CrudValidationException asInvalidArgument(Class<?> affectedEntity, String message) {
+        return new CrudValidationException(affectedEntity, message, CrudValidationErrorCode.DATA_VALIDATION);
+    }
+
     public String getViolationsAsString() {
         StringBuffer buffer = new StringBuffer();
 
@@ -0,0 +1,11 @@
+package com.project.habitat.index;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Outcome of a facet query: the matching ids in the requested window, the total number
+ * of matches and, per facet, the number of matches each facet value would give.
+ */
+public record FacetMatch(long total, List<Long> movieIds, Map<String, Map<String, Integer>> counts) {
+}
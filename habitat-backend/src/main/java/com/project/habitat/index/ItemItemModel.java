@@ -0,0 +1,435 @@
+package com.project.habitat.index;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Item-item collaborative filtering over explicit ratings, held entirely in primitive
+ * arrays. Ratings are centred on each user's mean and stored twice in compressed sparse
+ * row form, per user and per movie. The similarity of two movies is the cosine of their
+ * centred rating vectors, computed for every movie in parallel by walking the users who
+ * rated it; each movie keeps its {@code neighbours} most similar movies that at least
+ * {@code minCoRaters} users rated together.
+ *
+ * <p>A user's predicted rating of an unseen movie is their mean plus the similarity-weighted
+ * centred ratings of the neighbouring movies they rated, shrunk towards the mean when the
+ * evidence is thin.
+ */
+public final class ItemItemModel {
+
+    /** Top-N lists of many users: user {@code i} owns {@code offsets[i]} up to {@code offsets[i + 1]}. */
+    public record TopN(long[] userIds, int[] offsets, long[] movieIds, float[] scores) {
+
+        public int users() {
+            return userIds.length;
+        }
+    }
+
+    /** Collects (user, movie, rating) triples without boxing. */
+    public static final class Builder {
+        private long[] users = new long[1024];
+        private long[] movies = new long[1024];
+        private float[] ratings = new float[1024];
+        private int size;
+
+        public Builder add(long userId, long movieId, float rating) {
+            if (size == users.length) {
+                int capacity = size * 2;
+                users = Arrays.copyOf(users, capacity);
+                movies = Arrays.copyOf(movies, capacity);
+                ratings = Arrays.copyOf(ratings, capacity);
+            }
+            users[size] = userId;
+            movies[size] = movieId;
+            ratings[size] = rating;
+            size++;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        /** Builds the model; each (user, movie) pair must occur at most once. */
+        public ItemItemModel build(int neighbours, int minCoRaters, ForkJoinPool pool) {
+            return new ItemItemModel(this, neighbours, minCoRaters, pool);
+        }
+    }
+
+    private final long[] userIds;
+    private final long[] movieIds;
+    private final float[] userMeans;
+
+    private final int[] userOffsets;
+    private final int[] userItems;
+    private final float[] userValues;
+
+    private final int[] itemOffsets;
+    private final int[] itemUsers;
+    private final float[] itemValues;
+    private final double[] itemNorms;
+
+    private final int neighbours;
+    private final int[] neighbourCounts;
+    private final int[] neighbourItems;
+    private final float[] neighbourScores;
+
+    private final ForkJoinPool pool;
+    private final ThreadLocal<Workspace> workspaces;
+
+    private ItemItemModel(Builder input, int neighbours, int minCoRaters, ForkJoinPool pool) {
+        this.pool = pool;
+        this.neighbours = neighbours;
+        int size = input.size;
+        userIds = distinct(input.users, size);
+        movieIds = distinct(input.movies, size);
+        workspaces = ThreadLocal.withInitial(() -> new Workspace(movieIds.length));
+
+        int[] userIndex = new int[size];
+        int[] itemIndex = new int[size];
+        for (int k = 0; k < size; k++) {
+            userIndex[k] = Arrays.binarySearch(userIds, input.users[k]);
+            itemIndex[k] = Arrays.binarySearch(movieIds, input.movies[k]);
+        }
+
+        userMeans = new float[userIds.length];
+        int[] userCounts = new int[userIds.length];
+        double[] userSums = new double[userIds.length];
+        for (int k = 0; k < size; k++) {
+            userCounts[userIndex[k]]++;
+            userSums[userIndex[k]] += input.ratings[k];
+        }
+        for (int u = 0; u < userIds.length; u++) {
+            userMeans[u] = (float) (userSums[u] / userCounts[u]);
+        }
+
+        userOffsets = offsets(userIndex, size, userIds.length);
+        itemOffsets = offsets(itemIndex, size, movieIds.length);
+        userItems = new int[size];
+        userValues = new float[size];
+        itemUsers = new int[size];
+        itemValues = new float[size];
+        int[] userFill = Arrays.copyOf(userOffsets, userIds.length);
+        int[] itemFill = Arrays.copyOf(itemOffsets, movieIds.length);
+        for (int k = 0; k < size; k++) {
+            int u = userIndex[k];
+            int i = itemIndex[k];
+            float centred = input.ratings[k] - userMeans[u];
+            userItems[userFill[u]] = i;
+            userValues[userFill[u]++] = centred;
+            itemUsers[itemFill[i]] = u;
+            itemValues[itemFill[i]++] = centred;
+        }
+
+        itemNorms = new double[movieIds.length];
+        for (int i = 0; i < movieIds.length; i++) {
+            double squares = 0;
+            for (int k = itemOffsets[i]; k < itemOffsets[i + 1]; k++) {
+                squares += (double) itemValues[k] * itemValues[k];
+            }
+            itemNorms[i] = Math.sqrt(squares);
+        }
+
+        neighbourCounts = new int[movieIds.length];
+        neighbourItems = new int[movieIds.length * neighbours];
+        neighbourScores = new float[movieIds.length * neighbours];
+        pool.submit(() -> IntStream.range(0, movieIds.length).parallel()
+                .forEach(i -> computeNeighbours(i, minCoRaters))).join();
+    }
+
+    public int users() {
+        return userIds.length;
+    }
+
+    public int movies() {
+        return movieIds.length;
+    }
+
+    public int ratings() {
+        return userItems.length;
+    }
+
+    private void computeNeighbours(int item, int minCoRaters) {
+        if (itemNorms[item] == 0) {
+            return;
+        }
+        Workspace workspace = workspaces.get();
+        for (int k = itemOffsets[item]; k < itemOffsets[item + 1]; k++) {
+            int user = itemUsers[k];
+            float value = itemValues[k];
+            for (int l = userOffsets[user]; l < userOffsets[user + 1]; l++) {
+                int other = userItems[l];
+                if (other != item) {
+                    workspace.accumulate(other, (double) value * userValues[l]);
+                }
+            }
+        }
+        TopHeap heap = workspace.heap(neighbours);
+        for (int t = 0; t < workspace.touchedCount; t++) {
+            int other = workspace.touched[t];
+            if (workspace.support[other] >= minCoRaters && itemNorms[other] > 0) {
+                double similarity = workspace.sums[other] / (itemNorms[item] * itemNorms[other]);
+                if (similarity > 0) {
+                    heap.offer(other, similarity);
+                }
+            }
+        }
+        workspace.clear();
+        neighbourCounts[item] = heap.drainInto(neighbourItems, neighbourScores, item * neighbours);
+    }
+
+    /** Top {@code n} unseen movies of every user, computed in parallel. */
+    public TopN recommendAll(int n) {
+        return recommendRange(0, userIds.length, n);
+    }
+
+    /**
+     * Top {@code n} unseen movies of the users at positions {@code from} (inclusive) to
+     * {@code to} (exclusive) in ascending user id order, computed in parallel. Lets callers
+     * walk all users in slices instead of holding every list at once.
+     */
+    public TopN recommendRange(int from, int to, int n) {
+        int users = to - from;
+        int[] counts = new int[users];
+        long[] movies = new long[users * n];
+        float[] scores = new float[users * n];
+        pool.submit(() -> IntStream.range(from, to).parallel().forEach(user -> {
+            Workspace workspace = workspaces.get();
+            for (int k = userOffsets[user]; k < userOffsets[user + 1]; k++) {
+                workspace.markRated(userItems[k]);
+                spread(workspace, userItems[k], userValues[k]);
+            }
+            counts[user - from] = collect(workspace, userMeans[user], n, movies, scores, (user - from) * n);
+        })).join();
+
+        int[] offsets = new int[users + 1];
+        for (int u = 0; u < users; u++) {
+            offsets[u + 1] = offsets[u] + counts[u];
+        }
+        long[] packedMovies = new long[offsets[users]];
+        float[] packedScores = new float[offsets[users]];
+        for (int u = 0; u < users; u++) {
+            System.arraycopy(movies, u * n, packedMovies, offsets[u], counts[u]);
+            System.arraycopy(scores, u * n, packedScores, offsets[u], counts[u]);
+        }
+        return new TopN(Arrays.copyOfRange(userIds, from, to), offsets, packedMovies, packedScores);
+    }
+
+    /**
+     * Top {@code n} unseen movies for one user from their current ratings, using the movie
+     * similarities of this model; movies unknown to the model are ignored.
+     */
+    public TopN recommend(long userId, long[] ratedMovieIds, float[] ratings, int n) {
+        Workspace workspace = workspaces.get();
+        double sum = 0;
+        for (float rating : ratings) {
+            sum += rating;
+        }
+        float mean = ratings.length == 0 ? 0 : (float) (sum / ratings.length);
+        for (int k = 0; k < ratedMovieIds.length; k++) {
+            int item = Arrays.binarySearch(movieIds, ratedMovieIds[k]);
+            if (item >= 0) {
+                workspace.markRated(item);
+                spread(workspace, item, ratings[k] - mean);
+            }
+        }
+        long[] movies = new long[n];
+        float[] scores = new float[n];
+        int count = collect(workspace, mean, n, movies, scores, 0);
+        return new TopN(new long[] {userId}, new int[] {0, count}, Arrays.copyOf(movies, count),
+                Arrays.copyOf(scores, count));
+    }
+
+    private void spread(Workspace workspace, int item, float centred) {
+        int from = item * neighbours;
+        for (int k = from; k < from + neighbourCounts[item]; k++) {
+            int candidate = neighbourItems[k];
+            workspace.accumulate(candidate, (double) neighbourScores[k] * centred);
+            workspace.weights[candidate] += neighbourScores[k];
+        }
+    }
+
+    private int collect(Workspace workspace, float mean, int n, long[] movies, float[] scores, int offset) {
+        TopHeap heap = workspace.heap(n);
+        for (int t = 0; t < workspace.touchedCount; t++) {
+            int candidate = workspace.touched[t];
+            if (!workspace.rated[candidate]) {
+                // The +1 pulls predictions backed by little similarity towards the user's mean.
+                heap.offer(candidate, mean + workspace.sums[candidate] / (workspace.weights[candidate] + 1));
+            }
+        }
+        workspace.clear();
+        int[] items = new int[n];
+        float[] predicted = new float[n];
+        int count = heap.drainInto(items, predicted, 0);
+        for (int k = 0; k < count; k++) {
+            movies[offset + k] = movieIds[items[k]];
+            scores[offset + k] = predicted[k];
+        }
+        return count;
+    }
+
+    /** Per-thread dense accumulators, reset through the list of touched slots. */
+    private static final class Workspace {
+        final double[] sums;
+        final double[] weights;
+        final int[] support;
+        final boolean[] rated;
+        final int[] touched;
+        int touchedCount;
+        private final int[] ratedItems;
+        private int ratedCount;
+        private TopHeap heap;
+
+        Workspace(int items) {
+            sums = new double[items];
+            weights = new double[items];
+            support = new int[items];
+            rated = new boolean[items];
+            touched = new int[items];
+            ratedItems = new int[items];
+        }
+
+        void accumulate(int item, double value) {
+            if (support[item]++ == 0) {
+                touched[touchedCount++] = item;
+            }
+            sums[item] += value;
+        }
+
+        void markRated(int item) {
+            if (!rated[item]) {
+                rated[item] = true;
+                ratedItems[ratedCount++] = item;
+            }
+        }
+
+        TopHeap heap(int capacity) {
+            if (heap == null || heap.capacity() != capacity) {
+                heap = new TopHeap(capacity);
+            }
+            return heap;
+        }
+
+        void clear() {
+            for (int t = 0; t < touchedCount; t++) {
+                int item = touched[t];
+                sums[item] = 0;
+                weights[item] = 0;
+                support[item] = 0;
+            }
+            touchedCount = 0;
+            for (int r = 0; r < ratedCount; r++) {
+                rated[ratedItems[r]] = false;
+            }
+            ratedCount = 0;
+        }
+    }
+
+    /** Min-heap keeping the best {@code capacity} (item, score) pairs; ties favour lower items. */
+    private static final class TopHeap {
+        private final int[] items;
+        private final double[] scores;
+        private int size;
+
+        TopHeap(int capacity) {
+            items = new int[capacity];
+            scores = new double[capacity];
+        }
+
+        int capacity() {
+            return items.length;
+        }
+
+        void offer(int item, double score) {
+            if (items.length == 0) {
+                return;
+            }
+            if (size < items.length) {
+                items[size] = item;
+                scores[size] = score;
+                int slot = size++;
+                while (slot > 0 && below(slot, (slot - 1) >>> 1)) {
+                    swap(slot, (slot - 1) >>> 1);
+                    slot = (slot - 1) >>> 1;
+                }
+            } else if (score > scores[0] || (score == scores[0] && item < items[0])) {
+                items[0] = item;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        /** Writes the entries best first and empties the heap; returns how many were written. */
+        int drainInto(int[] targetItems, float[] targetScores, int offset) {
+            int count = size;
+            for (int k = count - 1; k >= 0; k--) {
+                targetItems[offset + k] = items[0];
+                targetScores[offset + k] = (float) scores[0];
+                size--;
+                if (size > 0) {
+                    items[0] = items[size];
+                    scores[0] = scores[size];
+                    siftDown(0);
+                }
+            }
+            return count;
+        }
+
+        private boolean below(int a, int b) {
+            return scores[a] < scores[b] || (scores[a] == scores[b] && items[a] > items[b]);
+        }
+
+        private void siftDown(int slot) {
+            while (true) {
+                int lowest = slot;
+                int left = 2 * slot + 1;
+                int right = left + 1;
+                if (left < size && below(left, lowest)) {
+                    lowest = left;
+                }
+                if (right < size && below(right, lowest)) {
+                    lowest = right;
+                }
+                if (lowest == slot) {
+                    return;
+                }
+                swap(slot, lowest);
+                slot = lowest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            int item = items[a];
+            items[a] = items[b];
+            items[b] = item;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+    }
+
+    private static long[] distinct(long[] values, int size) {
+        long[] sorted = Arrays.copyOf(values, size);
+        Arrays.sort(sorted);
+        int unique = 0;
+        for (int k = 0; k < size; k++) {
+            if (unique == 0 || sorted[k] != sorted[unique - 1]) {
+                sorted[unique++] = sorted[k];
+            }
+        }
+        return Arrays.copyOf(sorted, unique);
+    }
+
+    private static int[] offsets(int[] index, int size, int rows) {
+        int[] offsets = new int[rows + 1];
+        for (int k = 0; k < size; k++) {
+            offsets[index[k] + 1]++;
+        }
+        for (int r = 0; r < rows; r++) {
+            offsets[r + 1] += offsets[r];
+        }
+        return offsets;
+    }
+}
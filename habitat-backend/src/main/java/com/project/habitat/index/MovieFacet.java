@@ -0,0 +1,22 @@
+package com.project.habitat.index;
+
+/**
+ * Movie attributes that the facet index keeps a bitmap per value for.
+ */
+public enum MovieFacet {
+    GENRE("genre"),
+    FORMAT("format"),
+    LANGUAGE("language"),
+    CERTIFICATE("certificate");
+
+    private final String param;
+
+    MovieFacet(String param) {
+        this.param = param;
+    }
+
+    /** Name used for the facet in request parameters and responses. */
+    public String param() {
+        return param;
+    }
+}
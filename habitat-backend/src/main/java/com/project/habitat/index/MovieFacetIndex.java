@@ -0,0 +1,289 @@
+package com.project.habitat.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.project.habitat.dto.MovieReferenceName;
+import com.project.habitat.events.MovieChangeType;
+import com.project.habitat.events.MovieChangedEvent;
+import com.project.habitat.repository.MovieRepository;
+
+/**
+ * In-memory inverted index holding one compressed bitmap of movie ids per genre, format,
+ * language and certificate. Built once at startup and then patched per movie from
+ * {@link MovieChangedEvent}s, so combined filters and per-value counts are answered with
+ * bitmap intersections instead of one join per facet.
+ *
+ * <p>A rebuild reads the catalog without holding the lock, so changes that land while it
+ * runs may be missing from what it read. They are applied to the live bitmaps as usual and
+ * also recorded, then applied again to the rebuilt bitmaps right after the swap.
+ *
+ * <p>Bitmaps hold 32-bit ints, so only movie ids from 0 to {@link Integer#MAX_VALUE} can be
+ * indexed; {@link #toBitmapId} rejects any other id rather than truncating it.
+ */
+@Component
+public class MovieFacetIndex implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieFacetIndex.class);
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    private final MovieRepository movieRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Map<MovieFacet, Map<String, RoaringBitmap>> bitmaps = emptyBitmaps();
+    private RoaringBitmap allMovies = new RoaringBitmap();
+    // Changes applied while a rebuild is reading; null when no rebuild is running.
+    private List<MovieChangedEvent> changedDuringRebuild;
+
+    public MovieFacetIndex(MovieRepository movieRepository) {
+        this.movieRepository = movieRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        lock.writeLock().lock();
+        try {
+            changedDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Map<MovieFacet, Map<String, RoaringBitmap>> fresh = emptyBitmaps();
+        addRows(fresh, MovieFacet.GENRE, movieRepository.findAllGenreNames());
+        addRows(fresh, MovieFacet.FORMAT, movieRepository.findAllFormatNames());
+        addRows(fresh, MovieFacet.LANGUAGE, movieRepository.findAllLanguageNames());
+        addRows(fresh, MovieFacet.CERTIFICATE, movieRepository.findAllCertificates());
+        RoaringBitmap freshAll = new RoaringBitmap();
+        for (Long movieId : movieRepository.findAllIds()) {
+            freshAll.add(toBitmapId(movieId));
+        }
+        fresh.values().forEach(values -> values.values().forEach(RoaringBitmap::runOptimize));
+        freshAll.runOptimize();
+
+        List<MovieChangedEvent> missed;
+        lock.writeLock().lock();
+        try {
+            bitmaps = fresh;
+            allMovies = freshAll;
+            missed = changedDuringRebuild;
+            changedDuringRebuild = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        // Each change reloads its movies' current rows, so replaying one that the rebuild
+        // already saw is harmless.
+        missed.forEach(this::apply);
+        log.info("Built facet index over {} movies in {} ms, replayed {} changes made meanwhile",
+                freshAll.getCardinality(), (System.nanoTime() - start) / 1_000_000, missed.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        if (event.getChangeType() == MovieChangeType.RATED) {
+            return;
+        }
+        apply(event);
+    }
+
+    private void apply(MovieChangedEvent event) {
+        List<Long> movieIds = event.getMovieIds();
+        Map<MovieFacet, List<MovieReferenceName>> rows = new EnumMap<>(MovieFacet.class);
+        if (event.getChangeType() == MovieChangeType.SAVED) {
+            rows.put(MovieFacet.GENRE, loadChunked(movieIds, movieRepository::findGenreNames));
+            rows.put(MovieFacet.FORMAT, loadChunked(movieIds, movieRepository::findFormatNames));
+            rows.put(MovieFacet.LANGUAGE, loadChunked(movieIds, movieRepository::findLanguageNames));
+            rows.put(MovieFacet.CERTIFICATE, loadChunked(movieIds, movieRepository::findCertificates));
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (changedDuringRebuild != null) {
+                changedDuringRebuild.add(event);
+            }
+            for (Long movieId : movieIds) {
+                int id = toBitmapId(movieId);
+                allMovies.remove(id);
+                bitmaps.values().forEach(values -> values.values().forEach(bitmap -> bitmap.remove(id)));
+            }
+            if (event.getChangeType() == MovieChangeType.SAVED) {
+                movieIds.forEach(movieId -> allMovies.add(toBitmapId(movieId)));
+                rows.forEach((facet, facetRows) -> addRows(bitmaps, facet, facetRows));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Whether the movie was in the catalog as of the last change this node has applied. */
+    public boolean contains(Long movieId) {
+        lock.readLock().lock();
+        try {
+            return allMovies.contains(toBitmapId(movieId));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Values within one facet are OR-ed ({@code matchAll = false}) or AND-ed; facets are
+     * always AND-ed with each other. Counts follow the usual filter-badge convention: with
+     * OR semantics a facet's counts ignore that facet's own selection, so they show what
+     * adding a value would yield.
+     */
+    public FacetMatch query(Map<MovieFacet, ? extends Collection<String>> selection, boolean matchAll,
+                            int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            Map<MovieFacet, RoaringBitmap> perFacet = new EnumMap<>(MovieFacet.class);
+            selection.forEach((facet, values) -> {
+                if (values != null && !values.isEmpty()) {
+                    perFacet.put(facet, combine(facet, values, matchAll));
+                }
+            });
+
+            RoaringBitmap matches = intersect(perFacet, null);
+            Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+            for (MovieFacet facet : MovieFacet.values()) {
+                RoaringBitmap base = matchAll ? matches : intersect(perFacet, facet);
+                Map<String, Integer> facetCounts = new TreeMap<>();
+                bitmaps.get(facet).forEach((value, bitmap) -> {
+                    int count = RoaringBitmap.andCardinality(base, bitmap);
+                    if (count > 0) {
+                        facetCounts.put(value, count);
+                    }
+                });
+                counts.put(facet.param(), facetCounts);
+            }
+            return new FacetMatch(matches.getLongCardinality(), window(matches, offset, limit), counts);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Values of one facet that the given movie is indexed under. */
+    public List<String> valuesOf(Long movieId, MovieFacet facet) {
+        int id = toBitmapId(movieId);
+        lock.readLock().lock();
+        try {
+            List<String> values = new ArrayList<>();
+            bitmaps.get(facet).forEach((value, bitmap) -> {
+                if (bitmap.contains(id)) {
+                    values.add(value);
+                }
+            });
+            return values;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public RoaringBitmap moviesWith(MovieFacet facet, String value) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap bitmap = bitmaps.get(facet).get(value);
+            return bitmap == null ? new RoaringBitmap() : bitmap.clone();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Whether a set of movies returned by {@link #moviesWith} includes the given movie. */
+    public static boolean contains(RoaringBitmap movies, Long movieId) {
+        return movies.contains(toBitmapId(movieId));
+    }
+
+    private RoaringBitmap combine(MovieFacet facet, Collection<String> values, boolean matchAll) {
+        RoaringBitmap combined = null;
+        for (String value : new TreeSet<>(values)) {
+            RoaringBitmap bitmap = bitmaps.get(facet).getOrDefault(value, new RoaringBitmap());
+            if (combined == null) {
+                combined = bitmap.clone();
+            } else if (matchAll) {
+                combined.and(bitmap);
+            } else {
+                combined.or(bitmap);
+            }
+        }
+        return combined;
+    }
+
+    private RoaringBitmap intersect(Map<MovieFacet, RoaringBitmap> perFacet, MovieFacet excluded) {
+        RoaringBitmap result = allMovies.clone();
+        perFacet.forEach((facet, bitmap) -> {
+            if (facet != excluded) {
+                result.and(bitmap);
+            }
+        });
+        return result;
+    }
+
+    private static List<Long> window(RoaringBitmap matches, int offset, int limit) {
+        List<Long> ids = new ArrayList<>(Math.min(limit, matches.getCardinality()));
+        IntIterator iterator = matches.getIntIterator();
+        int skipped = 0;
+        while (iterator.hasNext() && ids.size() < limit) {
+            int id = iterator.next();
+            if (skipped++ >= offset) {
+                ids.add((long) id);
+            }
+        }
+        return ids;
+    }
+
+    private static void addRows(Map<MovieFacet, Map<String, RoaringBitmap>> target, MovieFacet facet,
+                                List<MovieReferenceName> rows) {
+        Map<String, RoaringBitmap> values = target.get(facet);
+        for (MovieReferenceName row : rows) {
+            if (row.name() != null) {
+                values.computeIfAbsent(row.name(), name -> new RoaringBitmap()).add(toBitmapId(row.movieId()));
+            }
+        }
+    }
+
+    private static List<MovieReferenceName> loadChunked(List<Long> movieIds,
+                                                        Function<List<Long>, List<MovieReferenceName>> query) {
+        List<MovieReferenceName> rows = new ArrayList<>();
+        for (int from = 0; from < movieIds.size(); from += ID_CHUNK_SIZE) {
+            rows.addAll(query.apply(movieIds.subList(from, Math.min(movieIds.size(), from + ID_CHUNK_SIZE))));
+        }
+        return rows;
+    }
+
+    private static Map<MovieFacet, Map<String, RoaringBitmap>> emptyBitmaps() {
+        Map<MovieFacet, Map<String, RoaringBitmap>> empty = new EnumMap<>(MovieFacet.class);
+        for (MovieFacet facet : MovieFacet.values()) {
+            empty.put(facet, new HashMap<>());
+        }
+        return empty;
+    }
+
+    static int toBitmapId(Long movieId) {
+        if (movieId == null || movieId < 0 || movieId > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Movie id " + movieId
+                    + " is outside the range the in-memory indexes hold (0 to " + Integer.MAX_VALUE + ")");
+        }
+        return (int) movieId.longValue();
+    }
+}
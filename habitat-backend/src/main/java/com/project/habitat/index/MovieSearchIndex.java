@@ -0,0 +1,489 @@
+package com.project.habitat.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.project.habitat.dto.MovieText;
+import com.project.habitat.events.MovieChangeType;
+import com.project.habitat.events.MovieChangedEvent;
+import com.project.habitat.repository.MovieRepository;
+
+/**
+ * In-memory inverted index over movie names and descriptions, ranked with BM25. Name
+ * terms count {@value #NAME_WEIGHT} times as much as description terms, the last query
+ * token also matches as a prefix, and the final score is scaled up with the average
+ * rating so that popular titles win ties. Kept current from {@link MovieChangedEvent}s.
+ *
+ * <p>Scoring is term at a time with MaxScore pruning: query tokens are scored in order of
+ * their largest possible contribution, and once the remaining tokens together cannot lift
+ * an unseen movie past the current {@code offset + limit}-th score, their postings are no
+ * longer walked; they are only looked up for movies that are already candidates. The
+ * match count comes from the union of the tokens' posting bitmaps.
+ */
+@Component
+public class MovieSearchIndex implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(MovieSearchIndex.class);
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_WEIGHT = 3;
+    private static final double PREFIX_WEIGHT = 0.7;
+    // Bounds the postings walked for very short prefixes such as "a". The expansions kept
+    // are the terms found in the most movies, the ones most likely to be meant.
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final double RATING_BOOST_PER_STAR = 0.1;
+    private static final int LOAD_PAGE_SIZE = 5000;
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    private final MovieRepository movieRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private InvertedIndex index = new InvertedIndex();
+
+    public MovieSearchIndex(MovieRepository movieRepository) {
+        this.movieRepository = movieRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.nanoTime();
+        InvertedIndex fresh = new InvertedIndex();
+        long afterId = 0L;
+        List<MovieText> page;
+        do {
+            page = movieRepository.findTextPage(afterId, PageRequest.of(0, LOAD_PAGE_SIZE));
+            page.forEach(fresh::add);
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).movieId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Built search index over {} movies and {} terms in {} ms", fresh.documents.size(),
+                fresh.postings.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        List<Long> movieIds = event.getMovieIds();
+        List<MovieText> texts = new ArrayList<>();
+        // Ranking uses the average rating, so rating changes reload the movies too.
+        if (event.getChangeType() != MovieChangeType.DELETED) {
+            for (int from = 0; from < movieIds.size(); from += ID_CHUNK_SIZE) {
+                texts.addAll(movieRepository.findTexts(
+                        movieIds.subList(from, Math.min(movieIds.size(), from + ID_CHUNK_SIZE))));
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            movieIds.forEach(movieId -> index.remove(MovieFacetIndex.toBitmapId(movieId)));
+            texts.forEach(index::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public SearchMatch search(String query, int offset, int limit) {
+        List<String> tokens = TextTokenizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return new SearchMatch(0, List.of());
+        }
+        // A trailing space means the user finished the last word, so it is not a prefix.
+        boolean prefixLast = !Character.isWhitespace(query.charAt(query.length() - 1));
+        int wanted = (int) Math.min((long) offset + limit, Integer.MAX_VALUE);
+
+        lock.readLock().lock();
+        try {
+            List<TokenTerms> groups = new ArrayList<>();
+            for (int i = 0; i < tokens.size(); i++) {
+                TokenTerms group = index.terms(tokens.get(i), prefixLast && i == tokens.size() - 1);
+                if (group.terms().length > 0) {
+                    groups.add(group);
+                }
+            }
+            if (groups.isEmpty()) {
+                return new SearchMatch(0, List.of());
+            }
+            long total = FastAggregation.or(groups.stream()
+                    .flatMap(group -> Arrays.stream(group.terms()))
+                    .map(term -> term.posting().documents)
+                    .iterator()).getLongCardinality();
+
+            ScoreAccumulator scores = index.score(groups, wanted);
+
+            Comparator<ScoredMovie> ranking = Comparator.comparingDouble(ScoredMovie::score)
+                    .thenComparing(ScoredMovie::movieId, Comparator.reverseOrder());
+            PriorityQueue<ScoredMovie> top = new PriorityQueue<>(ranking);
+            for (int slot = 0; slot < scores.capacity(); slot++) {
+                if (!scores.used(slot)) {
+                    continue;
+                }
+                int id = scores.key(slot);
+                ScoredMovie candidate = new ScoredMovie((long) id,
+                        scores.value(slot) * index.documents.get(id).ratingBoost());
+                if (top.size() < wanted) {
+                    top.add(candidate);
+                } else if (ranking.compare(candidate, top.peek()) > 0) {
+                    top.poll();
+                    top.add(candidate);
+                }
+            }
+
+            List<ScoredMovie> ranked = new ArrayList<>(top);
+            ranked.sort(ranking.reversed());
+            List<ScoredMovie> window = offset >= ranked.size()
+                    ? List.of()
+                    : ranked.subList(offset, ranked.size());
+            return new SearchMatch(total, List.copyOf(window));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private record Document(String[] terms, int length, double ratingBoost) {
+    }
+
+    /** One dictionary term of a query token, with the weight its matches count at. */
+    private record WeightedTerm(Posting posting, double weight, double idf) {
+    }
+
+    /**
+     * The terms one query token matches: itself, or for a prefix its expansions. A movie
+     * scores the best of them, so {@code bound} is the largest BM25 score any of them can give.
+     */
+    private record TokenTerms(WeightedTerm[] terms, double bound) {
+    }
+
+    /**
+     * The movies containing one term, as a bitmap of ids, and each one's weighted term
+     * frequency at the id's rank in the bitmap.
+     */
+    private static final class Posting {
+
+        private final RoaringBitmap documents = new RoaringBitmap();
+        private int[] frequencies = new int[4];
+
+        int size() {
+            return documents.getCardinality();
+        }
+
+        int frequency(int id) {
+            return documents.contains(id) ? frequencies[(int) documents.rank(id) - 1] : 0;
+        }
+
+        void put(int id, int frequency) {
+            int rank = (int) documents.rank(id);
+            if (documents.contains(id)) {
+                frequencies[rank - 1] = frequency;
+                return;
+            }
+            int size = size();
+            if (size == frequencies.length) {
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            System.arraycopy(frequencies, rank, frequencies, rank + 1, size - rank);
+            frequencies[rank] = frequency;
+            documents.add(id);
+        }
+
+        void remove(int id) {
+            if (!documents.contains(id)) {
+                return;
+            }
+            int rank = (int) documents.rank(id);
+            System.arraycopy(frequencies, rank, frequencies, rank - 1, size() - rank);
+            documents.remove(id);
+        }
+    }
+
+    /**
+     * Term dictionary and postings. The dictionary is sorted so that prefix matches are a
+     * range scan.
+     */
+    private static final class InvertedIndex {
+
+        private final TreeMap<String, Posting> postings = new TreeMap<>();
+        private final Map<Integer, Document> documents = new HashMap<>();
+        private long totalLength;
+        // Never lowered on removal, so it stays an upper bound of every movie's boost.
+        private double maxRatingBoost = 1.0;
+
+        void add(MovieText text) {
+            int id = MovieFacetIndex.toBitmapId(text.movieId());
+            Map<String, Integer> frequencies = new HashMap<>();
+            TextTokenizer.tokenize(text.movieName())
+                    .forEach(term -> frequencies.merge(term, NAME_WEIGHT, Integer::sum));
+            TextTokenizer.tokenizeWithoutStopWords(text.movieDescription())
+                    .forEach(term -> frequencies.merge(term, 1, Integer::sum));
+
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : frequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new Posting()).put(id, entry.getValue());
+                length += entry.getValue();
+            }
+            double rating = text.avgRating() == null ? 0.0 : text.avgRating();
+            Document document = new Document(frequencies.keySet().toArray(String[]::new), length,
+                    1.0 + RATING_BOOST_PER_STAR * rating);
+            documents.put(id, document);
+            maxRatingBoost = Math.max(maxRatingBoost, document.ratingBoost());
+            totalLength += length;
+        }
+
+        void remove(int id) {
+            Document document = documents.remove(id);
+            if (document == null) {
+                return;
+            }
+            for (String term : document.terms()) {
+                Posting posting = postings.get(term);
+                if (posting != null) {
+                    posting.remove(id);
+                    if (posting.size() == 0) {
+                        postings.remove(term);
+                    }
+                }
+            }
+            totalLength -= document.length();
+        }
+
+        /** The token itself, or for a prefix the token and its most frequent expansions. */
+        TokenTerms terms(String token, boolean prefix) {
+            List<WeightedTerm> terms = new ArrayList<>();
+            Posting exact = postings.get(token);
+            if (exact != null) {
+                terms.add(weighted(exact, 1.0));
+            }
+            if (prefix) {
+                // Smallest document frequency on top, so it is the one pushed out.
+                PriorityQueue<Posting> frequent = new PriorityQueue<>(Comparator.comparingInt(Posting::size));
+                int room = MAX_PREFIX_EXPANSIONS - terms.size();
+                for (Map.Entry<String, Posting> entry
+                        : postings.subMap(token, false, token + Character.MAX_VALUE, true).entrySet()) {
+                    if (frequent.size() < room) {
+                        frequent.add(entry.getValue());
+                    } else if (room > 0 && entry.getValue().size() > frequent.peek().size()) {
+                        frequent.poll();
+                        frequent.add(entry.getValue());
+                    }
+                }
+                frequent.forEach(posting -> terms.add(weighted(posting, PREFIX_WEIGHT)));
+            }
+            // tf * (K1 + 1) / (tf + norm) stays below K1 + 1 whatever the frequency and length.
+            double bound = terms.stream().mapToDouble(term -> term.weight() * term.idf() * (K1 + 1)).max().orElse(0);
+            return new TokenTerms(terms.toArray(WeightedTerm[]::new), bound);
+        }
+
+        private WeightedTerm weighted(Posting posting, double weight) {
+            int documentCount = documents.size();
+            return new WeightedTerm(posting, weight,
+                    Math.log(1.0 + (documentCount - posting.size() + 0.5) / (posting.size() + 0.5)));
+        }
+
+        /**
+         * Summed BM25 scores, before the rating boost, of every movie that can still rank
+         * among the best {@code wanted}. Tokens go in order of falling bound; once the bounds
+         * left cannot beat the {@code wanted}-th boosted score so far, an unseen movie cannot
+         * make the cut, and the rest are only looked up for movies already scored.
+         */
+        ScoreAccumulator score(List<TokenTerms> groups, int wanted) {
+            List<TokenTerms> ordered = new ArrayList<>(groups);
+            ordered.sort(Comparator.comparingDouble(TokenTerms::bound).reversed());
+            double[] remaining = new double[ordered.size() + 1];
+            for (int i = ordered.size() - 1; i >= 0; i--) {
+                remaining[i] = remaining[i + 1] + ordered.get(i).bound();
+            }
+            double averageLength = documents.isEmpty() ? 1.0 : (double) totalLength / documents.size();
+
+            ScoreAccumulator scores = new ScoreAccumulator();
+            int essential = 0;
+            while (essential < ordered.size()) {
+                ScoreAccumulator best = new ScoreAccumulator();
+                for (WeightedTerm term : ordered.get(essential).terms()) {
+                    IntIterator ids = term.posting().documents.getIntIterator();
+                    for (int rank = 0; ids.hasNext(); rank++) {
+                        int id = ids.next();
+                        best.max(id, bm25(term, term.posting().frequencies[rank], id, averageLength));
+                    }
+                }
+                best.forEach(scores::add);
+                essential++;
+                if (essential < ordered.size()
+                        && remaining[essential] * maxRatingBoost < threshold(scores, wanted)) {
+                    break;
+                }
+            }
+            for (int i = essential; i < ordered.size(); i++) {
+                WeightedTerm[] terms = ordered.get(i).terms();
+                for (int slot = 0; slot < scores.capacity(); slot++) {
+                    if (!scores.used(slot)) {
+                        continue;
+                    }
+                    int id = scores.key(slot);
+                    double best = 0;
+                    for (WeightedTerm term : terms) {
+                        int frequency = term.posting().frequency(id);
+                        if (frequency > 0) {
+                            best = Math.max(best, bm25(term, frequency, id, averageLength));
+                        }
+                    }
+                    scores.add(id, best);
+                }
+            }
+            return scores;
+        }
+
+        private double bm25(WeightedTerm term, int frequency, int id, double averageLength) {
+            double norm = K1 * (1 - B + B * documents.get(id).length() / averageLength);
+            return term.weight() * term.idf() * frequency * (K1 + 1) / (frequency + norm);
+        }
+
+        // The wanted-th best boosted score so far; scores only grow, so it is a lower bound.
+        private double threshold(ScoreAccumulator scores, int wanted) {
+            if (wanted < 1) {
+                return Double.POSITIVE_INFINITY;
+            }
+            if (scores.size() < wanted) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            PriorityQueue<Double> top = new PriorityQueue<>();
+            for (int slot = 0; slot < scores.capacity(); slot++) {
+                if (!scores.used(slot)) {
+                    continue;
+                }
+                double score = scores.value(slot) * documents.get(scores.key(slot)).ratingBoost();
+                if (top.size() < wanted) {
+                    top.add(score);
+                } else if (score > top.peek()) {
+                    top.poll();
+                    top.add(score);
+                }
+            }
+            return top.peek();
+        }
+    }
+
+    /** Open-addressing map of int movie ids to double scores, without boxing. */
+    private static final class ScoreAccumulator {
+
+        interface Visitor {
+            void accept(int id, double score);
+        }
+
+        private int[] keys = new int[64];
+        private double[] values = new double[64];
+        private boolean[] used = new boolean[64];
+        private int size;
+
+        int size() {
+            return size;
+        }
+
+        int capacity() {
+            return keys.length;
+        }
+
+        boolean used(int slot) {
+            return used[slot];
+        }
+
+        int key(int slot) {
+            return keys[slot];
+        }
+
+        double value(int slot) {
+            return values[slot];
+        }
+
+        void add(int id, double delta) {
+            int slot = slotOf(id);
+            values[slot] += delta;
+        }
+
+        void max(int id, double score) {
+            int slot = slotOf(id);
+            values[slot] = Math.max(values[slot], score);
+        }
+
+        void forEach(Visitor visitor) {
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (used[slot]) {
+                    visitor.accept(keys[slot], values[slot]);
+                }
+            }
+        }
+
+        // Only a new id can grow the table, so updating scored ids while walking the slots is safe.
+        private int slotOf(int id) {
+            int slot = probe(id);
+            if (used[slot]) {
+                return slot;
+            }
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+                slot = probe(id);
+            }
+            used[slot] = true;
+            keys[slot] = id;
+            size++;
+            return slot;
+        }
+
+        private int probe(int id) {
+            int mask = keys.length - 1;
+            int slot = mix(id) & mask;
+            while (used[slot] && keys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void grow() {
+            int[] oldKeys = keys;
+            double[] oldValues = values;
+            boolean[] oldUsed = used;
+            keys = new int[oldKeys.length * 2];
+            values = new double[oldKeys.length * 2];
+            used = new boolean[oldKeys.length * 2];
+            size = 0;
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldUsed[slot]) {
+                    values[slotOf(oldKeys[slot])] = oldValues[slot];
+                }
+            }
+        }
+
+        private static int mix(int id) {
+            int h = id * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
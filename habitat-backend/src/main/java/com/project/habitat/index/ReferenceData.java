@@ -0,0 +1,13 @@
+package com.project.habitat.index;
+
+import com.project.habitat.model.Format;
+import com.project.habitat.model.Genre;
+import com.project.habitat.model.Language;
+
+/**
+ * One version of all reference data. The entities are detached copies that belong to the
+ * snapshot; callers must not modify them.
+ */
+public record ReferenceData(long version, ReferenceTable<Genre> genres, ReferenceTable<Format> formats,
+                            ReferenceTable<Language> languages) {
+}
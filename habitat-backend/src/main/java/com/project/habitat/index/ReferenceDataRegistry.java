@@ -0,0 +1,95 @@
+package com.project.habitat.index;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.project.habitat.dto.MovieReferenceName;
+import com.project.habitat.events.MovieChangeType;
+import com.project.habitat.events.MovieChangedEvent;
+import com.project.habitat.model.Format;
+import com.project.habitat.model.Genre;
+import com.project.habitat.model.Language;
+import com.project.habitat.repository.FormatRepository;
+import com.project.habitat.repository.GenreRepository;
+import com.project.habitat.repository.LanguageRepository;
+import com.project.habitat.repository.MovieRepository;
+
+/**
+ * In-process copy of the genre, format and language tables. Readers take the current
+ * {@link ReferenceData} without locking; a reload builds a complete new snapshot and swaps
+ * it in, so a reader never sees a half-updated table.
+ *
+ * <p>Reference rows are only created as a side effect of saving or importing movies, so
+ * after a save (local or relayed from another node) the saved movies' genre, format and
+ * language names are looked up, and the snapshot is reloaded only if one of them is new.
+ */
+@Component
+public class ReferenceDataRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceDataRegistry.class);
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    private final GenreRepository genreRepository;
+    private final FormatRepository formatRepository;
+    private final LanguageRepository languageRepository;
+    private final MovieRepository movieRepository;
+    private final AtomicReference<ReferenceData> current = new AtomicReference<>();
+
+    public ReferenceDataRegistry(GenreRepository genreRepository, FormatRepository formatRepository,
+                                 LanguageRepository languageRepository, MovieRepository movieRepository) {
+        this.genreRepository = genreRepository;
+        this.formatRepository = formatRepository;
+        this.languageRepository = languageRepository;
+        this.movieRepository = movieRepository;
+    }
+
+    public ReferenceData current() {
+        ReferenceData data = current.get();
+        return data != null ? data : reload();
+    }
+
+    public synchronized ReferenceData reload() {
+        ReferenceData previous = current.get();
+        ReferenceData fresh = new ReferenceData(previous == null ? 1 : previous.version() + 1,
+                ReferenceTable.of(genreRepository.findAll().stream()
+                        .map(genre -> new Genre(genre.getGenreId(), genre.getName())).toList(),
+                        Genre::getGenreId, Genre::getName),
+                ReferenceTable.of(formatRepository.findAll().stream()
+                        .map(format -> new Format(format.getFormatId(), format.getName())).toList(),
+                        Format::getFormatId, Format::getName),
+                ReferenceTable.of(languageRepository.findAll().stream()
+                        .map(language -> new Language(language.getLanguageId(), language.getName())).toList(),
+                        Language::getLanguageId, Language::getName));
+        current.set(fresh);
+        log.info("Loaded reference data version {}: {} genres, {} formats, {} languages", fresh.version(),
+                fresh.genres().all().size(), fresh.formats().all().size(), fresh.languages().all().size());
+        return fresh;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        ReferenceData data = current.get();
+        if (event.getChangeType() != MovieChangeType.SAVED || data == null) {
+            return;
+        }
+        List<Long> movieIds = event.getMovieIds();
+        for (int from = 0; from < movieIds.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = movieIds.subList(from, Math.min(movieIds.size(), from + ID_CHUNK_SIZE));
+            if (anyMissing(data.genres(), movieRepository.findGenreNames(chunk))
+                    || anyMissing(data.formats(), movieRepository.findFormatNames(chunk))
+                    || anyMissing(data.languages(), movieRepository.findLanguageNames(chunk))) {
+                reload();
+                return;
+            }
+        }
+    }
+
+    private static boolean anyMissing(ReferenceTable<?> table, List<MovieReferenceName> names) {
+        return names.stream().map(MovieReferenceName::name).anyMatch(name -> table.named(name) == null);
+    }
+}
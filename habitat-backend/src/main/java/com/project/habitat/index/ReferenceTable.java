@@ -0,0 +1,36 @@
+package com.project.habitat.index;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable copy of one reference table, ordered by id, with lookups by id and by name.
+ */
+public record ReferenceTable<T>(List<T> all, Map<Long, T> byId, Map<String, T> byName) {
+
+    static <T> ReferenceTable<T> of(List<T> rows, Function<T, Long> id, Function<T, String> name) {
+        List<T> sorted = rows.stream()
+                .sorted(Comparator.comparing(id, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+        Map<Long, T> byId = new HashMap<>();
+        Map<String, T> byName = new HashMap<>();
+        for (T row : sorted) {
+            byId.put(id.apply(row), row);
+            if (name.apply(row) != null) {
+                byName.put(name.apply(row), row);
+            }
+        }
+        return new ReferenceTable<>(sorted, Map.copyOf(byId), Map.copyOf(byName));
+    }
+
+    public T get(Long id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    public T named(String name) {
+        return name == null ? null : byName.get(name);
+    }
+}
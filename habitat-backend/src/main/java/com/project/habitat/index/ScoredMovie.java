@@ -0,0 +1,4 @@
+package com.project.habitat.index;
+
+public record ScoredMovie(Long movieId, double score) {
+}
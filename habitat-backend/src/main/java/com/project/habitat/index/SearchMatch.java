@@ -0,0 +1,9 @@
+package com.project.habitat.index;
+
+import java.util.List;
+
+/**
+ * One ranked window of search hits and the number of movies that matched at all.
+ */
+public record SearchMatch(long total, List<ScoredMovie> hits) {
+}
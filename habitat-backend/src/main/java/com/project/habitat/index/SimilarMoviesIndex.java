@@ -0,0 +1,449 @@
+package com.project.habitat.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.project.habitat.dto.MovieReferenceName;
+import com.project.habitat.dto.MovieSummary;
+import com.project.habitat.events.MovieChangeType;
+import com.project.habitat.events.MovieChangedEvent;
+import com.project.habitat.repository.MovieRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Precomputed content-based neighbours: the {@link #TOP_K} most similar movies of every
+ * movie, so a lookup is a map read and a copy of at most K entries.
+ *
+ * <p>Similarity is a weighted Jaccard over genre, language, format and certificate tags
+ * (shared tag weight over the weight of the union), blended with release-year proximity.
+ * Movies that share no tag are never neighbours. All lists are computed in parallel on a
+ * fork/join pool with one bounded heap per movie. A {@link MovieChangedEvent} only
+ * recomputes the lists of the changed movies and of the movies that had one of them as a
+ * neighbour; the others merely take a changed movie in if it now beats their weakest entry.
+ *
+ * <p>That update still scores every movie against the changed ones, so it runs on a
+ * background thread rather than in the committing request. Changes that arrive while an
+ * update runs are coalesced per movie, the latest kind of change winning, and applied
+ * together in the next pass; lookups serve the previous lists until then.
+ */
+@Component
+public class SimilarMoviesIndex implements ApplicationRunner {
+
+    public static final int TOP_K = 20;
+
+    private static final Logger log = LoggerFactory.getLogger(SimilarMoviesIndex.class);
+    private static final int ID_CHUNK_SIZE = 1000;
+    private static final int SEQUENTIAL_THRESHOLD = 64;
+
+    private static final double GENRE_WEIGHT = 3.0;
+    private static final double LANGUAGE_WEIGHT = 2.0;
+    private static final double FORMAT_WEIGHT = 1.0;
+    private static final double CERTIFICATE_WEIGHT = 1.0;
+    // Share of the score taken by the tags; the rest comes from release-year proximity,
+    // which halves roughly every seven years apart.
+    private static final double TAG_SHARE = 0.85;
+    private static final double YEAR_SCALE = 10.0;
+    private static final int UNKNOWN_YEAR = Integer.MIN_VALUE;
+
+    /** Tags as sorted token ids with their weights, and the release year. */
+    private record Features(long movieId, int[] tokens, double[] weights, double weightSum, int year) {
+
+        boolean sameAs(Features other) {
+            return other != null && year == other.year && Arrays.equals(tokens, other.tokens);
+        }
+    }
+
+    private final MovieRepository movieRepository;
+    // Written only under the monitor; tokens are never reused, so ids stay stable.
+    private final Map<String, Integer> tokenIds = new HashMap<>();
+
+    private volatile Map<Long, Features> features = new ConcurrentHashMap<>();
+    private volatile Map<Long, List<ScoredMovie>> neighbours = new ConcurrentHashMap<>();
+
+    private final Map<Long, MovieChangeType> pendingChanges = new ConcurrentHashMap<>();
+    private final AtomicBoolean updateScheduled = new AtomicBoolean();
+    private final ExecutorService updateThread = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "similar-movies-update");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SimilarMoviesIndex(MovieRepository movieRepository) {
+        this.movieRepository = movieRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        updateThread.shutdownNow();
+    }
+
+    public synchronized void rebuild() {
+        long start = System.nanoTime();
+        Map<Long, Features> fresh = new ConcurrentHashMap<>(toFeatures(movieRepository.findAllSummaries(),
+                movieRepository.findAllGenreNames(), movieRepository.findAllLanguageNames(),
+                movieRepository.findAllFormatNames()));
+        Features[] all = fresh.values().toArray(new Features[0]);
+        Map<Long, List<ScoredMovie>> lists = new ConcurrentHashMap<>(computeNeighbours(all, all));
+        features = fresh;
+        neighbours = lists;
+        log.info("Computed {} similar movies for each of {} movies in {} ms", TOP_K, all.length,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        if (event.getChangeType() == MovieChangeType.RATED) {
+            return;
+        }
+        event.getMovieIds().forEach(movieId -> pendingChanges.put(movieId, event.getChangeType()));
+        if (updateScheduled.compareAndSet(false, true)) {
+            updateThread.execute(this::applyPendingChanges);
+        }
+    }
+
+    private void applyPendingChanges() {
+        // Cleared before draining, so a change recorded from here on schedules another pass.
+        updateScheduled.set(false);
+        List<Long> saved = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+        for (Long movieId : pendingChanges.keySet()) {
+            MovieChangeType changeType = pendingChanges.get(movieId);
+            // Only take the change seen; a newer one for the same movie stays for the next pass.
+            if (changeType != null && pendingChanges.remove(movieId, changeType)) {
+                (changeType == MovieChangeType.SAVED ? saved : deleted).add(movieId);
+            }
+        }
+        saved.sort(null);
+        deleted.sort(null);
+        try {
+            applyChanges(saved, deleted);
+        } catch (RuntimeException e) {
+            log.warn("Could not update similar movies after changes to {} movies: {}",
+                    saved.size() + deleted.size(), e.getMessage(), e);
+        }
+    }
+
+    private synchronized void applyChanges(List<Long> saved, List<Long> deleted) {
+        Map<Long, Features> current = features;
+        Map<Long, Features> changed = new HashMap<>();
+        Set<Long> removed = new HashSet<>();
+        if (!saved.isEmpty()) {
+            toFeatures(loadChunked(saved, movieRepository::findSummariesByIds),
+                    loadChunked(saved, movieRepository::findGenreNames),
+                    loadChunked(saved, movieRepository::findLanguageNames),
+                    loadChunked(saved, movieRepository::findFormatNames))
+                    .forEach((movieId, updated) -> {
+                        // Most saves edit other fields and leave the tags alone.
+                        if (!updated.sameAs(current.get(movieId))) {
+                            changed.put(movieId, updated);
+                        }
+                    });
+        }
+        deleted.stream().filter(current::containsKey).forEach(removed::add);
+        if (changed.isEmpty() && removed.isEmpty()) {
+            return;
+        }
+        if ((changed.size() + removed.size()) * 8L > current.size()) {
+            rebuild();
+            return;
+        }
+        long start = System.nanoTime();
+        removed.forEach(movieId -> {
+            current.remove(movieId);
+            neighbours.remove(movieId);
+        });
+        current.putAll(changed);
+        Features[] all = current.values().toArray(new Features[0]);
+
+        Set<Long> touched = new HashSet<>(removed);
+        touched.addAll(changed.keySet());
+        List<Features> stale = new ArrayList<>(changed.values());
+        for (Features movie : all) {
+            if (changed.containsKey(movie.movieId())) {
+                continue;
+            }
+            List<ScoredMovie> list = neighbours.getOrDefault(movie.movieId(), List.of());
+            if (list.stream().anyMatch(neighbour -> touched.contains(neighbour.movieId()))) {
+                // A neighbour got less similar or went away; a movie beyond the old K may move up.
+                stale.add(movie);
+                continue;
+            }
+            List<ScoredMovie> merged = list;
+            for (Features candidate : changed.values()) {
+                merged = offer(merged, candidate.movieId(), similarity(movie, candidate));
+            }
+            if (merged != list) {
+                neighbours.put(movie.movieId(), merged);
+            }
+        }
+        neighbours.putAll(computeNeighbours(stale.toArray(new Features[0]), all));
+        log.info("Updated similar movies of {} movies after {} changes in {} ms", stale.size(), touched.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Up to {@code limit} most similar movies, best first. */
+    public List<ScoredMovie> similarTo(Long movieId, int limit) {
+        List<ScoredMovie> list = neighbours.getOrDefault(movieId, List.of());
+        return list.size() > limit ? list.subList(0, limit) : list;
+    }
+
+    private static List<ScoredMovie> offer(List<ScoredMovie> list, long movieId, double score) {
+        if (score <= 0 || (list.size() == TOP_K && !ranksBefore(score, movieId, list.get(TOP_K - 1)))) {
+            return list;
+        }
+        List<ScoredMovie> merged = new ArrayList<>(list.size() + 1);
+        boolean placed = false;
+        for (ScoredMovie neighbour : list) {
+            if (!placed && ranksBefore(score, movieId, neighbour)) {
+                merged.add(new ScoredMovie(movieId, score));
+                placed = true;
+            }
+            merged.add(neighbour);
+        }
+        if (!placed) {
+            merged.add(new ScoredMovie(movieId, score));
+        }
+        return List.copyOf(merged.size() > TOP_K ? merged.subList(0, TOP_K) : merged);
+    }
+
+    private static boolean ranksBefore(double score, long movieId, ScoredMovie other) {
+        return score > other.score() || (score == other.score() && movieId < other.movieId());
+    }
+
+    private static Map<Long, List<ScoredMovie>> computeNeighbours(Features[] targets, Features[] all) {
+        @SuppressWarnings("unchecked")
+        List<ScoredMovie>[] results = new List[targets.length];
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            pool.invoke(new NeighbourTask(targets, all, results, 0, targets.length));
+        } finally {
+            pool.shutdown();
+        }
+        Map<Long, List<ScoredMovie>> lists = new HashMap<>(targets.length * 2);
+        for (int i = 0; i < targets.length; i++) {
+            lists.put(targets[i].movieId(), results[i]);
+        }
+        return lists;
+    }
+
+    private static final class NeighbourTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Features[] targets;
+        private final Features[] all;
+        private final List<ScoredMovie>[] results;
+        private final int from;
+        private final int to;
+
+        NeighbourTask(Features[] targets, Features[] all, List<ScoredMovie>[] results, int from, int to) {
+            this.targets = targets;
+            this.all = all;
+            this.results = results;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    results[i] = topK(targets[i], all);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new NeighbourTask(targets, all, results, from, middle),
+                    new NeighbourTask(targets, all, results, middle, to));
+        }
+    }
+
+    private static List<ScoredMovie> topK(Features movie, Features[] all) {
+        BoundedHeap heap = new BoundedHeap(TOP_K);
+        for (Features other : all) {
+            if (other.movieId() != movie.movieId()) {
+                double score = similarity(movie, other);
+                if (score > 0) {
+                    heap.offer(other.movieId(), score);
+                }
+            }
+        }
+        return heap.toList();
+    }
+
+    private static double similarity(Features a, Features b) {
+        double shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.tokens().length && j < b.tokens().length) {
+            int left = a.tokens()[i];
+            int right = b.tokens()[j];
+            if (left == right) {
+                shared += a.weights()[i];
+                i++;
+                j++;
+            } else if (left < right) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        if (shared == 0) {
+            return 0;
+        }
+        double jaccard = shared / (a.weightSum() + b.weightSum() - shared);
+        double years = a.year() == UNKNOWN_YEAR || b.year() == UNKNOWN_YEAR
+                ? 0
+                : Math.exp(-Math.abs(a.year() - b.year()) / YEAR_SCALE);
+        return TAG_SHARE * jaccard + (1 - TAG_SHARE) * years;
+    }
+
+    /** Min-heap of the best {@code capacity} movies seen, in primitive arrays. */
+    private static final class BoundedHeap {
+        private final long[] ids;
+        private final double[] scores;
+        private int size;
+
+        BoundedHeap(int capacity) {
+            ids = new long[capacity];
+            scores = new double[capacity];
+        }
+
+        void offer(long id, double score) {
+            if (size < ids.length) {
+                ids[size] = id;
+                scores[size] = score;
+                siftUp(size++);
+            } else if (worse(0, id, score)) {
+                ids[0] = id;
+                scores[0] = score;
+                siftDown(0);
+            }
+        }
+
+        // Whether the entry at the slot ranks below (id, score).
+        private boolean worse(int slot, long id, double score) {
+            return scores[slot] < score || (scores[slot] == score && ids[slot] > id);
+        }
+
+        private void siftUp(int slot) {
+            while (slot > 0) {
+                int parent = (slot - 1) >>> 1;
+                if (!worse(slot, ids[parent], scores[parent])) {
+                    return;
+                }
+                swap(slot, parent);
+                slot = parent;
+            }
+        }
+
+        private void siftDown(int slot) {
+            while (true) {
+                int smallest = slot;
+                for (int child = 2 * slot + 1; child <= 2 * slot + 2 && child < size; child++) {
+                    if (worse(child, ids[smallest], scores[smallest])) {
+                        smallest = child;
+                    }
+                }
+                if (smallest == slot) {
+                    return;
+                }
+                swap(slot, smallest);
+                slot = smallest;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long id = ids[a];
+            ids[a] = ids[b];
+            ids[b] = id;
+            double score = scores[a];
+            scores[a] = scores[b];
+            scores[b] = score;
+        }
+
+        List<ScoredMovie> toList() {
+            List<ScoredMovie> list = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                list.add(new ScoredMovie(ids[i], scores[i]));
+            }
+            list.sort(Comparator.comparingDouble(ScoredMovie::score).reversed().thenComparing(ScoredMovie::movieId));
+            return List.copyOf(list);
+        }
+    }
+
+    private Map<Long, Features> toFeatures(List<MovieSummary> movies, List<MovieReferenceName> genres,
+                                           List<MovieReferenceName> languages, List<MovieReferenceName> formats) {
+        Map<Long, TreeMap<Integer, Double>> tags = new HashMap<>();
+        addTags(tags, "genre:", GENRE_WEIGHT, genres);
+        addTags(tags, "language:", LANGUAGE_WEIGHT, languages);
+        addTags(tags, "format:", FORMAT_WEIGHT, formats);
+        Map<Long, Features> result = new HashMap<>(movies.size() * 2);
+        for (MovieSummary movie : movies) {
+            TreeMap<Integer, Double> movieTags = tags.computeIfAbsent(movie.movieId(), id -> new TreeMap<>());
+            if (movie.certificate() != null) {
+                movieTags.put(tokenId("certificate:" + movie.certificate()), CERTIFICATE_WEIGHT);
+            }
+            int[] tokens = new int[movieTags.size()];
+            double[] weights = new double[movieTags.size()];
+            double weightSum = 0;
+            int i = 0;
+            for (Map.Entry<Integer, Double> tag : movieTags.entrySet()) {
+                tokens[i] = tag.getKey();
+                weights[i] = tag.getValue();
+                weightSum += weights[i++];
+            }
+            int year = movie.releaseDate() == null ? UNKNOWN_YEAR : movie.releaseDate().getYear();
+            result.put(movie.movieId(), new Features(movie.movieId(), tokens, weights, weightSum, year));
+        }
+        return result;
+    }
+
+    private void addTags(Map<Long, TreeMap<Integer, Double>> tags, String prefix, double weight,
+                         List<MovieReferenceName> rows) {
+        for (MovieReferenceName row : rows) {
+            if (row.name() != null) {
+                tags.computeIfAbsent(row.movieId(), id -> new TreeMap<>()).put(tokenId(prefix + row.name()), weight);
+            }
+        }
+    }
+
+    private int tokenId(String tag) {
+        return tokenIds.computeIfAbsent(tag, key -> tokenIds.size());
+    }
+
+    private static <T> List<T> loadChunked(List<Long> movieIds, Function<Collection<Long>, List<T>> query) {
+        List<T> rows = new ArrayList<>();
+        for (int from = 0; from < movieIds.size(); from += ID_CHUNK_SIZE) {
+            rows.addAll(query.apply(movieIds.subList(from, Math.min(movieIds.size(), from + ID_CHUNK_SIZE))));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,166 @@
+package com.project.habitat.index;
+
+import java.util.Arrays;
+
+/**
+ * Counters keyed by positive {@code long} ids, striped like {@link java.util.concurrent.atomic.LongAdder}:
+ * each thread increments its own stripe, an open-addressing table of primitive keys and
+ * counts, so a hot id never makes threads contend on one cell and an increment allocates
+ * nothing once the id has a slot. {@link #drain()} takes and sums the counts of all stripes.
+ */
+public class StripedCounterTable {
+
+    /** Summed counts taken by {@link #drain()}; {@code ids[i]} was counted {@code counts[i]} times. */
+    public record Counts(long[] ids, long[] counts) {
+
+        public int size() {
+            return ids.length;
+        }
+
+        public long total() {
+            long total = 0;
+            for (long count : counts) {
+                total += count;
+            }
+            return total;
+        }
+    }
+
+    private static final long PROBE_MIX = 0x9E3779B97F4A7C15L;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Stripe[] stripes;
+    private final int mask;
+
+    public StripedCounterTable(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            this.stripes[i] = new Stripe(INITIAL_CAPACITY);
+        }
+        this.mask = size - 1;
+    }
+
+    public void add(long id, long delta) {
+        if (id <= 0) {
+            throw new IllegalArgumentException("Ids must be positive: " + id);
+        }
+        // Threads keep their stripe, so its lock is nearly always uncontended.
+        long probe = Thread.currentThread().getId() * PROBE_MIX;
+        Stripe stripe = stripes[(int) (probe >>> 32) & mask];
+        synchronized (stripe) {
+            stripe.add(id, delta);
+        }
+    }
+
+    public void increment(long id) {
+        add(id, 1);
+    }
+
+    /** Counts added since the last drain, in ascending id order. */
+    public Counts drain() {
+        Stripe merged = new Stripe(INITIAL_CAPACITY);
+        for (Stripe stripe : stripes) {
+            long[] keys;
+            long[] values;
+            synchronized (stripe) {
+                if (stripe.size == 0) {
+                    continue;
+                }
+                keys = stripe.keys;
+                values = stripe.values;
+                stripe.reset(INITIAL_CAPACITY);
+            }
+            for (int i = 0; i < keys.length; i++) {
+                if (keys[i] != 0) {
+                    merged.add(keys[i], values[i]);
+                }
+            }
+        }
+        return merged.sorted();
+    }
+
+    /** Ids currently holding a count, summed over the stripes; approximate while counting goes on. */
+    public int pendingIds() {
+        int pending = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                pending += stripe.size;
+            }
+        }
+        return pending;
+    }
+
+    /** Linear-probing table; key 0 marks a free slot. */
+    private static final class Stripe {
+        private long[] keys;
+        private long[] values;
+        private int size;
+
+        Stripe(int capacity) {
+            reset(capacity);
+        }
+
+        void reset(int capacity) {
+            keys = new long[capacity];
+            values = new long[capacity];
+            size = 0;
+        }
+
+        void add(long key, long delta) {
+            int slot = slot(key, keys.length);
+            while (keys[slot] != 0) {
+                if (keys[slot] == key) {
+                    values[slot] += delta;
+                    return;
+                }
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            keys[slot] = key;
+            values[slot] = delta;
+            if (++size * 2 > keys.length) {
+                grow();
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldValues = values;
+            reset(oldKeys.length * 2);
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != 0) {
+                    add(oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        Counts sorted() {
+            long[] ids = new long[size];
+            int n = 0;
+            for (long key : keys) {
+                if (key != 0) {
+                    ids[n++] = key;
+                }
+            }
+            Arrays.sort(ids);
+            long[] counts = new long[size];
+            for (int i = 0; i < size; i++) {
+                counts[i] = values[find(ids[i])];
+            }
+            return new Counts(ids, counts);
+        }
+
+        private int find(long key) {
+            int slot = slot(key, keys.length);
+            while (keys[slot] != key) {
+                slot = (slot + 1) & (keys.length - 1);
+            }
+            return slot;
+        }
+
+        private static int slot(long key, int capacity) {
+            long mixed = key * PROBE_MIX;
+            return (int) (mixed >>> 32) & (capacity - 1);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.project.habitat.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Splits text into lower-cased, accent-free tokens of letters and digits. Shared by the
+ * in-memory indexes so that indexing and querying normalise text the same way.
+ */
+final class TextTokenizer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "into", "is",
+            "it", "of", "on", "or", "that", "the", "their", "this", "to", "was", "with");
+
+    private TextTokenizer() {
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return decomposed.replaceAll("\\p{M}+", "").toLowerCase(Locale.ROOT);
+    }
+
+    static List<String> tokenize(String text) {
+        return tokenize(text, false);
+    }
+
+    /** Tokenizes and drops common English function words, which carry no ranking signal. */
+    static List<String> tokenizeWithoutStopWords(String text) {
+        return tokenize(text, true);
+    }
+
+    private static List<String> tokenize(String text, boolean dropStopWords) {
+        String normalized = normalize(text);
+        List<String> tokens = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean wordChar = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = normalized.substring(start, i);
+                if (!dropStopWords || !STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,345 @@
+package com.project.habitat.index;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.project.habitat.dto.MovieTitle;
+import com.project.habitat.dto.TitleSuggestion;
+import com.project.habitat.events.MovieChangeType;
+import com.project.habitat.events.MovieChangedEvent;
+import com.project.habitat.repository.MovieRepository;
+
+/**
+ * Title autocomplete. Titles are inserted into a character trie once from every word
+ * start, so "mat" finds "The Matrix", and every trie node caches its {@value #TOP_K} most
+ * popular titles so that a lookup is a walk down the prefix plus a copy. When a movie
+ * leaves a node's cached top list the list is dropped and recomputed from the subtree on
+ * the next lookup. Prefixes that find too little fall back to trigram similarity, which
+ * tolerates typos. Kept current from {@link MovieChangedEvent}s.
+ */
+@Component
+public class TitleAutocompleteIndex implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(TitleAutocompleteIndex.class);
+
+    public static final int TOP_K = 10;
+    private static final int MIN_FUZZY_LENGTH = 3;
+    private static final double MIN_TRIGRAM_SIMILARITY = 0.3;
+    private static final int LOAD_PAGE_SIZE = 5000;
+    private static final int ID_CHUNK_SIZE = 1000;
+
+    private static final Comparator<Entry> BY_POPULARITY = Comparator.comparingDouble(Entry::popularity).reversed()
+            .thenComparingInt(entry -> entry.title().length())
+            .thenComparingLong(Entry::movieId);
+
+    private final MovieRepository movieRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private Titles titles = new Titles();
+
+    public TitleAutocompleteIndex(MovieRepository movieRepository) {
+        this.movieRepository = movieRepository;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        rebuild();
+    }
+
+    public void rebuild() {
+        long start = System.nanoTime();
+        Titles fresh = new Titles();
+        long afterId = 0L;
+        List<MovieTitle> page;
+        do {
+            page = movieRepository.findTitlePage(afterId, PageRequest.of(0, LOAD_PAGE_SIZE));
+            page.forEach(fresh::add);
+            if (!page.isEmpty()) {
+                afterId = page.get(page.size() - 1).movieId();
+            }
+        } while (page.size() == LOAD_PAGE_SIZE);
+
+        lock.writeLock().lock();
+        try {
+            titles = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Built autocomplete index over {} titles in {} ms", fresh.entries.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        List<Long> movieIds = event.getMovieIds();
+        List<MovieTitle> changed = new ArrayList<>();
+        // Ranking uses the average rating, so rating changes reload the movies too.
+        if (event.getChangeType() != MovieChangeType.DELETED) {
+            for (int from = 0; from < movieIds.size(); from += ID_CHUNK_SIZE) {
+                changed.addAll(movieRepository.findTitles(
+                        movieIds.subList(from, Math.min(movieIds.size(), from + ID_CHUNK_SIZE))));
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            movieIds.forEach(titles::remove);
+            changed.forEach(titles::add);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<TitleSuggestion> suggest(String prefix, int limit) {
+        String key = normalizeTitle(prefix);
+        if (key.isEmpty()) {
+            return List.of();
+        }
+        int wanted = Math.min(limit, TOP_K);
+
+        lock.readLock().lock();
+        try {
+            Set<Long> seen = new HashSet<>();
+            List<TitleSuggestion> suggestions = new ArrayList<>(wanted);
+            for (Entry entry : titles.topFor(key)) {
+                if (suggestions.size() == wanted) {
+                    break;
+                }
+                if (seen.add(entry.movieId())) {
+                    suggestions.add(new TitleSuggestion(entry.movieId(), entry.title(), false));
+                }
+            }
+            if (suggestions.size() < wanted && key.length() >= MIN_FUZZY_LENGTH) {
+                for (Entry entry : titles.similarTo(key, wanted)) {
+                    if (suggestions.size() == wanted) {
+                        break;
+                    }
+                    if (seen.add(entry.movieId())) {
+                        suggestions.add(new TitleSuggestion(entry.movieId(), entry.title(), true));
+                    }
+                }
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static String normalizeTitle(String title) {
+        return String.join(" ", TextTokenizer.tokenize(title));
+    }
+
+    private static Set<String> trigrams(String key) {
+        String padded = "  " + key + " ";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private record Entry(long movieId, String title, String key, double popularity, int trigramCount) {
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private List<Entry> terminal;
+        // Cached most popular titles of this subtree; null once it must be recomputed.
+        private volatile Entry[] top = new Entry[0];
+
+        boolean isEmpty() {
+            return children.isEmpty() && (terminal == null || terminal.isEmpty());
+        }
+    }
+
+    /** Trie plus trigram postings over the same set of titles. */
+    private static final class Titles {
+
+        private final Node root = new Node();
+        private final Map<Long, Entry> entries = new HashMap<>();
+        private final Map<String, Set<Long>> trigramPostings = new HashMap<>();
+
+        void add(MovieTitle title) {
+            String key = normalizeTitle(title.movieName());
+            if (key.isEmpty()) {
+                return;
+            }
+            Set<String> keyTrigrams = trigrams(key);
+            Entry entry = new Entry(title.movieId(), title.movieName(), key,
+                    title.avgRating() == null ? 0.0 : title.avgRating(), keyTrigrams.size());
+            entries.put(entry.movieId(), entry);
+            for (int start : wordStarts(key)) {
+                insert(key.substring(start), entry);
+            }
+            keyTrigrams.forEach(trigram -> trigramPostings.computeIfAbsent(trigram, t -> new HashSet<>()).add(entry.movieId()));
+        }
+
+        void remove(Long movieId) {
+            Entry entry = entries.remove(movieId);
+            if (entry == null) {
+                return;
+            }
+            for (int start : wordStarts(entry.key())) {
+                delete(entry.key().substring(start), entry);
+            }
+            for (String trigram : trigrams(entry.key())) {
+                Set<Long> posting = trigramPostings.get(trigram);
+                if (posting != null) {
+                    posting.remove(movieId);
+                    if (posting.isEmpty()) {
+                        trigramPostings.remove(trigram);
+                    }
+                }
+            }
+        }
+
+        List<Entry> topFor(String prefix) {
+            Node node = root;
+            for (int i = 0; i < prefix.length() && node != null; i++) {
+                node = node.children.get(prefix.charAt(i));
+            }
+            if (node == null) {
+                return List.of();
+            }
+            Entry[] top = node.top;
+            if (top == null) {
+                top = collectTop(node);
+                node.top = top;
+            }
+            return Arrays.asList(top);
+        }
+
+        /** Titles ranked by trigram Jaccard similarity to the key, then popularity. */
+        List<Entry> similarTo(String key, int limit) {
+            Set<String> queryTrigrams = trigrams(key);
+            Map<Long, Integer> shared = new HashMap<>();
+            for (String trigram : queryTrigrams) {
+                Set<Long> posting = trigramPostings.get(trigram);
+                if (posting != null) {
+                    posting.forEach(movieId -> shared.merge(movieId, 1, Integer::sum));
+                }
+            }
+            Map<Entry, Double> similarity = new HashMap<>();
+            shared.forEach((movieId, count) -> {
+                Entry entry = entries.get(movieId);
+                double score = (double) count / (queryTrigrams.size() + entry.trigramCount() - count);
+                if (score >= MIN_TRIGRAM_SIMILARITY) {
+                    similarity.put(entry, score);
+                }
+            });
+            return similarity.entrySet().stream()
+                    .sorted(Map.Entry.<Entry, Double>comparingByValue().reversed()
+                            .thenComparing(Map.Entry.comparingByKey(BY_POPULARITY)))
+                    .limit(limit)
+                    .map(Map.Entry::getKey)
+                    .toList();
+        }
+
+        private void insert(String suffix, Entry entry) {
+            Node node = root;
+            for (int i = 0; i < suffix.length(); i++) {
+                node = node.children.computeIfAbsent(suffix.charAt(i), c -> new Node());
+                offer(node, entry);
+            }
+            if (node.terminal == null) {
+                node.terminal = new ArrayList<>(1);
+            }
+            node.terminal.add(entry);
+        }
+
+        private void delete(String suffix, Entry entry) {
+            Deque<Node> path = new ArrayDeque<>();
+            Node node = root;
+            for (int i = 0; i < suffix.length() && node != null; i++) {
+                node = node.children.get(suffix.charAt(i));
+                if (node != null) {
+                    path.push(node);
+                    Entry[] top = node.top;
+                    if (top != null && Arrays.stream(top).anyMatch(cached -> cached.movieId() == entry.movieId())) {
+                        node.top = null;
+                    }
+                }
+            }
+            if (node == null || path.size() != suffix.length()) {
+                return;
+            }
+            if (node.terminal != null) {
+                node.terminal.removeIf(terminal -> terminal.movieId() == entry.movieId());
+            }
+            // Prune nodes that no longer lead to any title.
+            for (int i = suffix.length() - 1; i >= 0; i--) {
+                Node child = path.pop();
+                if (!child.isEmpty()) {
+                    break;
+                }
+                Node parent = path.isEmpty() ? root : path.peek();
+                parent.children.remove(suffix.charAt(i));
+            }
+        }
+
+        private static void offer(Node node, Entry entry) {
+            Entry[] top = node.top;
+            if (top == null) {
+                return;
+            }
+            for (Entry cached : top) {
+                if (cached.movieId() == entry.movieId()) {
+                    return;
+                }
+            }
+            if (top.length == TOP_K && BY_POPULARITY.compare(entry, top[TOP_K - 1]) >= 0) {
+                return;
+            }
+            Entry[] updated = Arrays.copyOf(top, Math.min(TOP_K, top.length + 1));
+            int position = top.length;
+            while (position > 0 && BY_POPULARITY.compare(entry, top[position - 1]) < 0) {
+                position--;
+            }
+            System.arraycopy(top, position, updated, position + 1, updated.length - position - 1);
+            updated[position] = entry;
+            node.top = updated;
+        }
+
+        private static Entry[] collectTop(Node node) {
+            Map<Long, Entry> subtree = new HashMap<>();
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(node);
+            while (!pending.isEmpty()) {
+                Node current = pending.pop();
+                if (current.terminal != null) {
+                    current.terminal.forEach(entry -> subtree.putIfAbsent(entry.movieId(), entry));
+                }
+                pending.addAll(current.children.values());
+            }
+            return subtree.values().stream().sorted(BY_POPULARITY).limit(TOP_K).toArray(Entry[]::new);
+        }
+
+        private static List<Integer> wordStarts(String key) {
+            List<Integer> starts = new ArrayList<>();
+            starts.add(0);
+            for (int i = 1; i < key.length(); i++) {
+                if (key.charAt(i - 1) == ' ') {
+                    starts.add(i);
+                }
+            }
+            return starts;
+        }
+    }
+}
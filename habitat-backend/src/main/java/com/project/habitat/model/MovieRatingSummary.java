@@ -0,0 +1,66 @@
+package com.project.habitat.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Running rating aggregates of one movie. Rows are only written with SQL upserts by the
+ * ratings service and the reconciler, so the entity is read-only.
+ */
+@Entity
+@Immutable
+@Table(schema = "dev", name = "movie_rating_summaries")
+public class MovieRatingSummary {
+
+    @Id
+    @Column(name = "movie_id")
+    private Long movieId;
+
+    @Column(name = "rating_count")
+    private long ratingCount;
+
+    @Column(name = "rating_sum")
+    private long ratingSum;
+
+    @Column(name = "stars_1")
+    private long stars1;
+
+    @Column(name = "stars_2")
+    private long stars2;
+
+    @Column(name = "stars_3")
+    private long stars3;
+
+    @Column(name = "stars_4")
+    private long stars4;
+
+    @Column(name = "stars_5")
+    private long stars5;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    protected MovieRatingSummary() {}
+
+    public Long getMovieId() { return movieId; }
+
+    public long getRatingCount() { return ratingCount; }
+
+    public long getRatingSum() { return ratingSum; }
+
+    /** Number of ratings with the given number of stars, 1 to 5. */
+    public long getStars(int stars) {
+        return switch (stars) {
+            case 1 -> stars1;
+            case 2 -> stars2;
+            case 3 -> stars3;
+            case 4 -> stars4;
+            case 5 -> stars5;
+            default -> throw new IllegalArgumentException("Stars should be between 1 and 5: " + stars);
+        };
+    }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
@@ -1,9 +1,11 @@
 package com.project.habitat.model;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
 @Table(schema = "dev", name = "ratings")
@@ -25,14 +27,25 @@ public class Rating {
 	@JsonBackReference
 	private Movie movie;
 
+	@ManyToOne(fetch = FetchType.LAZY)
+	@JoinColumn(name = "user_id")
+	@JsonIgnore
+	private User user;
+
 	@Column(name = "created_at")
 	private LocalDateTime createdAt;
 
+	// Client-independent id of the submission; makes replays of a buffered rating no-ops.
+	@Column(name = "submission_id", unique = true)
+	private UUID submissionId;
+
 	public Rating() {}
 
 	@PrePersist
 	protected void onCreate() {
-		this.createdAt = LocalDateTime.now();
+		if (this.createdAt == null) {
+			this.createdAt = LocalDateTime.now();
+		}
 	}
 
 	public Long getRatingId() {
@@ -67,6 +80,14 @@ public class Rating {
 		this.movie = movie;
 	}
 
+	public User getUser() {
+		return user;
+	}
+
+	public void setUser(User user) {
+		this.user = user;
+	}
+
 	public LocalDateTime getCreatedAt() {
 		return createdAt;
 	}
@@ -75,6 +96,14 @@ public class Rating {
 		this.createdAt = createdAt;
 	}
 
+	public UUID getSubmissionId() {
+		return submissionId;
+	}
+
+	public void setSubmissionId(UUID submissionId) {
+		this.submissionId = submissionId;
+	}
+
 	@Override
 	public String toString() {
 		return "Rating{" +
@@ -1,9 +1,13 @@
 package com.project.habitat.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.project.habitat.model.Format;
 
 public interface FormatRepository extends JpaRepository<Format, Long>{
-    
+
+    List<Format> findByNameIn(Collection<String> names);
 }
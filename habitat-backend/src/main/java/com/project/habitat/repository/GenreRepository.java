@@ -1,9 +1,13 @@
 package com.project.habitat.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.project.habitat.model.Genre;
 
 public interface GenreRepository extends JpaRepository<Genre, Long>{
-    
+
+    List<Genre> findByNameIn(Collection<String> names);
 }
@@ -1,9 +1,13 @@
 package com.project.habitat.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import com.project.habitat.model.Language;
 
 public interface LanguageRepository extends JpaRepository<Language, Long>{
-    
+
+    List<Language> findByNameIn(Collection<String> names);
 }
@@ -0,0 +1,7 @@
+package com.project.habitat.repository;
+
+import com.project.habitat.model.MovieRatingSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface MovieRatingSummaryRepository extends JpaRepository<MovieRatingSummary, Long> {
+}
@@ -1,40 +1,235 @@
 package com.project.habitat.repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import com.project.habitat.dto.MovieReferenceName;
+import com.project.habitat.dto.MovieSummary;
+import com.project.habitat.dto.MovieText;
+import com.project.habitat.dto.MovieTitle;
 import com.project.habitat.model.Movie;
 
+import jakarta.persistence.QueryHint;
+
 public interface MovieRepository extends JpaRepository<Movie, Long>{
 
 	Movie save(Movie movie);
 
 	List<Movie> findAll();
 
+	/* ---------- LIST PROJECTIONS ---------- */
+	// List views read MovieSummary rows and then attach reference names with one query per
+	// join table, so the number of statements does not depend on the number of movies.
+
 	@Query("""
-        SELECT DISTINCT m
-        FROM Movie m
-        JOIN m.genres g
-        WHERE g.name = :genre
-    """)
-    List<Movie> findMoviesByGenre(@Param("genre") String genre);
+		SELECT new com.project.habitat.dto.MovieSummary(
+			m.movieId, m.movieName, m.moviePoster, m.certificate, m.releaseDate, m.avgRating)
+		FROM Movie m
+		ORDER BY m.movieId
+			""")
+	List<MovieSummary> findAllSummaries();
 
 	@Query("""
-		SELECT DISTINCT m
+		SELECT DISTINCT new com.project.habitat.dto.MovieSummary(
+			m.movieId, m.movieName, m.moviePoster, m.certificate, m.releaseDate, m.avgRating)
+		FROM Movie m
+		JOIN m.genres g
+		WHERE g.name = :genre
+			""")
+    List<MovieSummary> findMoviesByGenre(@Param("genre") String genre);
+
+	@Query("""
+		SELECT DISTINCT new com.project.habitat.dto.MovieSummary(
+			m.movieId, m.movieName, m.moviePoster, m.certificate, m.releaseDate, m.avgRating)
 		FROM Movie m
 		JOIN m.formats f
 		where f.name = :format
 			""")
-	List<Movie> findMoviesByFormat(@Param("format") String format);
+	List<MovieSummary> findMoviesByFormat(@Param("format") String format);
 
 	@Query("""
-		SELECT DISTINCT m
+		SELECT DISTINCT new com.project.habitat.dto.MovieSummary(
+			m.movieId, m.movieName, m.moviePoster, m.certificate, m.releaseDate, m.avgRating)
 		FROM Movie m
 		JOIN m.languages l
 		where l.name = :language
 			""")
-	List<Movie> findMoviesByLanguage(@Param("language") String language);
+	List<MovieSummary> findMoviesByLanguage(@Param("language") String language);
+
+	@Query("""
+		SELECT new com.project.habitat.dto.MovieReferenceName(m.movieId, g.name)
+		FROM Movie m
+		JOIN m.genres g
+		WHERE m.movieId IN :movieIds
+			""")
+	List<MovieReferenceName> findGenreNames(@Param("movieIds") Collection<Long> movieIds);
+
+	@Query("""
+		SELECT new com.project.habitat.dto.MovieReferenceName(m.movieId, f.name)
+		FROM Movie m
+		JOIN m.formats f
+		WHERE m.movieId IN :movieIds
+			""")
+	List<MovieReferenceName> findFormatNames(@Param("movieIds") Collection<Long> movieIds);
+
+	@Query("""
+		SELECT new com.project.habitat.dto.MovieReferenceName(m.movieId, l.name)
+		FROM Movie m
+		JOIN m.languages l
+		WHERE m.movieId IN :movieIds
+			""")
+	List<MovieReferenceName> findLanguageNames(@Param("movieIds") Collection<Long> movieIds);
+
+	/* ---------- KEYSET PAGINATION ---------- */
+	// Each query seeks past the last row of the previous page instead of using OFFSET,
+	// so the cost of a page does not depend on how deep into the listing it is.
+	// Nullable sort columns are coalesced so that every row has a well defined position.
+	// The coalesced expressions must stay exactly as the expression indexes of the
+	// movies-listing-sort-indexes migration spell them, with constants rather than
+	// parameters, or the planner cannot use those indexes. The redundant <= / >= bound
+	// gives the index scan its starting point; the OR alone is only a filter.
+
+	@Query("""
+		SELECT new com.project.habitat.dto.MovieSummary(
+			m.movieId, m.movieName, m.moviePoster, m.certificate, m.releaseDate, m.avgRating)
+		FROM Movie m
+		WHERE m.movieId > :afterId
+		ORDER BY m.movieId
+			""")
+	List<MovieSummary> findPageOrderById(@Param("afterId") Long afterId, Pageable pageable);
+
+	@Query("""
+		SELECT new com.project.habitat.dto.MovieSummary(
+			m.movieId, m.movieName, m.moviePoster, m.certificate, m.releaseDate, m.avgRating)
+		FROM Movie m
+		WHERE COALESCE(m.releaseDate, {d '0001-01-01'}) <= :afterDate
+			AND (COALESCE(m.releaseDate, {d '0001-01-01'}) < :afterDate OR m.movieId > :afterId)
+		ORDER BY COALESCE(m.releaseDate, {d '0001-01-01'}) DESC, m.movieId
+			""")
+	List<MovieSummary> findPageOrderByReleaseDate(@Param("afterDate") LocalDate afterDate,
+			@Param("afterId") Long afterId, Pageable pageable);
+
+	@Query("""
+		SELECT new com.project.habitat.dto.MovieSummary(
+			m.movieId, m.movieName, m.moviePoster, m.certificate, m.releaseDate, m.avgRating)
+		FROM Movie m
+		WHERE COALESCE(m.avgRating, 0.0) <= :afterRating
+			AND (COALESCE(m.avgRating, 0.0) < :afterRating OR m.movieId > :afterId)
+		ORDER BY COALESCE(m.avgRating, 0.0) DESC, m.movieId
+			""")
+	List<MovieSummary> findPageOrderByRating(@Param("afterRating") Double afterRating,
+			@Param("afterId") Long afterId, Pageable pageable);
+
+	@Query("""
+		SELECT new com.project.habitat.dto.MovieSummary(
+			m.movieId, m.movieName, m.moviePoster, m.certificate, m.releaseDate, m.avgRating)
+		FROM Movie m
+		WHERE COALESCE(m.movieName, '') >= :afterName
+			AND (COALESCE(m.movieName, '') > :afterName OR m.movieId > :afterId)
+		ORDER BY COALESCE(m.movieName, ''), m.movieId
+			""")
+	List<MovieSummary> findPageOrderByName(@Param("afterName") String afterName,
+			@Param("afterId") Long afterId, Pageable pageable);
+
+	/* ---------- INDEX LOADING ---------- */
+
+	@Query("SELECT m.movieId FROM Movie m")
+	List<Long> findAllIds();
+
+	@Query("""
+		SELECT new com.project.habitat.dto.MovieReferenceName(m.movieId, g.name)
+		FROM Movie m
+		JOIN m.genres g
+			""")
+	List<MovieReferenceName> findAllGenreNames();
+
+	@Query("""
+		SELECT new com.project.habitat.dto.MovieReferenceName(m.movieId, f.name)
+		FROM Movie m
+		JOIN m.formats f
+			""")
+	List<MovieReferenceName> findAllFormatNames();
+
+	@Query("""
+		SELECT new com.project.habitat.dto.MovieReferenceName(m.movieId, l.name)
+		FROM Movie m
+		JOIN m.languages l
+			""")
+	List<MovieReferenceName> findAllLanguageNames();
+
+	@Query("""
+		SELECT new com.project.habitat.dto.MovieReferenceName(m.movieId, m.certificate)
+		FROM Movie m
+		WHERE m.certificate IS NOT NULL
+			""")
+	List<MovieReferenceName> findAllCertificates();
+
+	@Query("""
+		SELECT new com.project.habitat.dto.MovieReferenceName(m.movieId, m.certificate)
+		FROM Movie m
+		WHERE m.certificate IS NOT NULL AND m.movieId IN :movieIds
+			""")
+	List<MovieReferenceName> findCertificates(@Param("movieIds") Collection<Long> movieIds);
+
+	@Query("""
+		SELECT new com.project.habitat.dto.MovieSummary(
+			m.movieId, m.movieName, m.moviePoster, m.certificate, m.releaseDate, m.avgRating)
+		FROM Movie m
+		WHERE m.movieId IN :movieIds
+		ORDER BY m.movieId
+			""")
+	List<MovieSummary> findSummariesByIds(@Param("movieIds") Collection<Long> movieIds);
+
+	/* ---------- SEARCH INDEX ---------- */
+
+	@Query("""
+		SELECT new com.project.habitat.dto.MovieText(m.movieId, m.movieName, m.movieDescription, m.avgRating)
+		FROM Movie m
+		WHERE m.movieId > :afterId
+		ORDER BY m.movieId
+			""")
+	List<MovieText> findTextPage(@Param("afterId") Long afterId, Pageable pageable);
+
+	@Query("""
+		SELECT new com.project.habitat.dto.MovieText(m.movieId, m.movieName, m.movieDescription, m.avgRating)
+		FROM Movie m
+		WHERE m.movieId IN :movieIds
+			""")
+	List<MovieText> findTexts(@Param("movieIds") Collection<Long> movieIds);
+
+	/* ---------- AUTOCOMPLETE ---------- */
+
+	@Query("""
+		SELECT new com.project.habitat.dto.MovieTitle(m.movieId, m.movieName, m.avgRating)
+		FROM Movie m
+		WHERE m.movieId > :afterId
+		ORDER BY m.movieId
+			""")
+	List<MovieTitle> findTitlePage(@Param("afterId") Long afterId, Pageable pageable);
+
+	@Query("""
+		SELECT new com.project.habitat.dto.MovieTitle(m.movieId, m.movieName, m.avgRating)
+		FROM Movie m
+		WHERE m.movieId IN :movieIds
+			""")
+	List<MovieTitle> findTitles(@Param("movieIds") Collection<Long> movieIds);
+
+	/* ---------- EXPORT ---------- */
+
+	// Read through a server-side cursor; callers must consume the stream inside a
+	// transaction and clear the persistence context as they go.
+	@QueryHints({
+		@QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+		@QueryHint(name = "org.hibernate.readOnly", value = "true")
+	})
+	@Query("SELECT m FROM Movie m ORDER BY m.movieId")
+	Stream<Movie> streamAllOrderById();
 }
@@ -1,12 +1,14 @@
 package com.project.habitat.repository;
 
-import com.project.habitat.model.Movie;
+import com.project.habitat.dto.RatingView;
 import com.project.habitat.model.Rating;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
@@ -15,5 +17,45 @@ public interface RatingsRepository extends JpaRepository<Rating, Long> {
     @Query("SELECT COUNT(r) FROM Rating r WHERE r.movie.movieId = :movieId")
     long countByMovieId(@Param("movieId") Long movieId);
 
-    List<Rating> findAllRatingsByMovieMovieId(Long movieId);
+    @Query("""
+        SELECT new com.project.habitat.dto.RatingView(r.ratingId, r.rating, r.review, r.createdAt)
+        FROM Rating r
+        WHERE r.movie.movieId = :movieId
+        ORDER BY r.ratingId
+            """)
+    List<RatingView> findAllViewsByMovieId(@Param("movieId") Long movieId);
+
+    // The keyset pages compare row values, which Postgres turns into a start position in
+    // ratings_movie_created_idx and ratings_movie_rating_idx instead of a filter on every
+    // skipped row.
+
+    @Query("""
+        SELECT new com.project.habitat.dto.RatingView(r.ratingId, r.rating, r.review, r.createdAt)
+        FROM Rating r
+        WHERE r.movie.movieId = :movieId
+            AND (r.createdAt, r.ratingId) < (:afterCreatedAt, :afterId)
+        ORDER BY r.createdAt DESC, r.ratingId DESC
+            """)
+    List<RatingView> findPageOrderByNewest(@Param("movieId") Long movieId,
+            @Param("afterCreatedAt") LocalDateTime afterCreatedAt, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("""
+        SELECT new com.project.habitat.dto.RatingView(r.ratingId, r.rating, r.review, r.createdAt)
+        FROM Rating r
+        WHERE r.movie.movieId = :movieId
+            AND (r.rating, r.ratingId) < (:afterRating, :afterId)
+        ORDER BY r.rating DESC, r.ratingId DESC
+            """)
+    List<RatingView> findPageOrderByHighest(@Param("movieId") Long movieId,
+            @Param("afterRating") Integer afterRating, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("""
+        SELECT new com.project.habitat.dto.RatingView(r.ratingId, r.rating, r.review, r.createdAt)
+        FROM Rating r
+        WHERE r.movie.movieId = :movieId
+            AND (r.rating, r.ratingId) > (:afterRating, :afterId)
+        ORDER BY r.rating, r.ratingId
+            """)
+    List<RatingView> findPageOrderByLowest(@Param("movieId") Long movieId,
+            @Param("afterRating") Integer afterRating, @Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,53 @@
+package com.project.habitat.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+
+import com.project.habitat.cache.TwoTierCache;
+import com.project.habitat.dto.CacheHotKey;
+import com.project.habitat.exception.CrudValidationException;
+
+@Service
+public class CacheStatsService {
+
+	public static final int MAX_HOT_KEYS = 100;
+
+	@Autowired
+	private CacheManager cacheManager;
+
+	/**
+	 * Most read keys of one cache, or of every cache when {@code cacheName} is blank. Counts
+	 * are per node.
+	 */
+	@PreAuthorize("hasRole('ADMIN')")
+	public List<CacheHotKey> getHotKeys(String cacheName, int limit) throws CrudValidationException {
+		if (limit < 1 || limit > MAX_HOT_KEYS) {
+			throw CrudValidationException.asInvalidArgument(CacheHotKey.class, "Limit should be between 1 and " + MAX_HOT_KEYS);
+		}
+		List<String> names = new ArrayList<>();
+		if (cacheName == null || cacheName.isBlank()) {
+			names.addAll(cacheManager.getCacheNames());
+		} else if (cacheManager.getCacheNames().contains(cacheName)) {
+			names.add(cacheName);
+		} else {
+			throw CrudValidationException.asInvalidArgument(CacheHotKey.class, "Unknown cache: " + cacheName);
+		}
+		List<CacheHotKey> hotKeys = new ArrayList<>();
+		for (String name : names) {
+			Cache cache = cacheManager.getCache(name);
+			if (cache instanceof TwoTierCache twoTierCache) {
+				twoTierCache.hotKeys(limit).forEach(entry ->
+						hotKeys.add(new CacheHotKey(name, entry.key(), entry.count(), entry.error())));
+			}
+		}
+		hotKeys.sort(Comparator.comparingLong(CacheHotKey::estimatedReads).reversed());
+		return hotKeys.size() > limit ? hotKeys.subList(0, limit) : hotKeys;
+	}
+}
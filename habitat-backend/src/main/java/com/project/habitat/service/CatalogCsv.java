@@ -0,0 +1,109 @@
+package com.project.habitat.service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import com.project.habitat.dto.CatalogMovieRow;
+
+/**
+ * Minimal RFC 4180 reader for catalog CSV files. Columns are matched by header name, so
+ * their order is free; multi-valued columns separate values with {@code |}. Quoted
+ * fields may contain commas and doubled quotes but not line breaks.
+ */
+final class CatalogCsv {
+
+    static final String VALUE_SEPARATOR = "|";
+
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    private CatalogCsv(String header) {
+        List<String> names = parseLine(header);
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("moviename")) {
+            throw new IllegalArgumentException("CSV header must contain a movieName column");
+        }
+    }
+
+    static CatalogCsv withHeader(String header) {
+        if (header == null) {
+            throw new IllegalArgumentException("CSV input is empty");
+        }
+        return new CatalogCsv(header);
+    }
+
+    CatalogMovieRow parse(String line) {
+        List<String> fields = parseLine(line);
+        String releaseDate = field(fields, "releasedate");
+        String duration = field(fields, "durationminutes");
+        String rating = field(fields, "avgrating");
+        return new CatalogMovieRow(
+                null,
+                field(fields, "moviename"),
+                field(fields, "moviedescription"),
+                duration == null ? null : Integer.valueOf(duration),
+                field(fields, "certificate"),
+                releaseDate == null ? null : LocalDate.parse(releaseDate),
+                rating == null ? null : Double.valueOf(rating),
+                field(fields, "movieposter"),
+                values(field(fields, "genres")),
+                values(field(fields, "formats")),
+                values(field(fields, "languages")));
+    }
+
+    private String field(List<String> fields, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static List<String> values(String field) {
+        if (field == null) {
+            return List.of();
+        }
+        return Arrays.stream(field.split("\\" + VALUE_SEPARATOR))
+                .map(String::trim)
+                .filter(value -> !value.isEmpty())
+                .toList();
+    }
+
+    static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    current.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(current.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,123 @@
+package com.project.habitat.service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.habitat.dto.CatalogMovieRow;
+import com.project.habitat.dto.MovieReferenceName;
+import com.project.habitat.exception.CrudOperationException;
+import com.project.habitat.model.Movie;
+import com.project.habitat.repository.MovieRepository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Writes the whole catalog as NDJSON while holding at most {@value #CHUNK_SIZE} movies in
+ * memory: rows come from a database cursor, reference names are fetched per chunk, and the
+ * persistence context is cleared after every chunk has been written out.
+ */
+@Service
+public class CatalogExportService {
+
+    static final int CHUNK_SIZE = 1000;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    private TransactionTemplate readOnlyTransaction;
+
+    private Logger log = LogManager.getLogger(CatalogExportService.class);
+
+    @Autowired
+    void setTransactionManager(PlatformTransactionManager transactionManager) {
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    @PreAuthorize("permitAll()")
+    public long exportCatalog(OutputStream target) throws CrudOperationException {
+        long start = System.nanoTime();
+        try {
+            BufferedOutputStream out = new BufferedOutputStream(target, BUFFER_SIZE);
+            Long written = readOnlyTransaction.execute(status -> {
+                long count = 0;
+                try (Stream<Movie> movies = movieRepository.streamAllOrderById()) {
+                    List<Movie> chunk = new ArrayList<>(CHUNK_SIZE);
+                    Iterator<Movie> iterator = movies.iterator();
+                    while (iterator.hasNext()) {
+                        chunk.add(iterator.next());
+                        if (chunk.size() == CHUNK_SIZE || !iterator.hasNext()) {
+                            count += writeChunk(chunk, out);
+                            chunk.clear();
+                            entityManager.clear();
+                        }
+                    }
+                }
+                return count;
+            });
+            out.flush();
+            log.info("Exported {} movies in {} ms", written, (System.nanoTime() - start) / 1_000_000);
+            return written == null ? 0 : written;
+        } catch (IOException | UncheckedIOException e) {
+            // Usually the client went away mid-download.
+            log.warn("Catalog export aborted: {}", e.getMessage());
+            throw CrudOperationException.asFailedGetOperation(Movie.class, e);
+        }
+    }
+
+    private int writeChunk(List<Movie> chunk, OutputStream out) {
+        List<Long> ids = chunk.stream().map(Movie::getMovieId).toList();
+        Map<Long, List<String>> genres = namesByMovie(movieRepository.findGenreNames(ids));
+        Map<Long, List<String>> formats = namesByMovie(movieRepository.findFormatNames(ids));
+        Map<Long, List<String>> languages = namesByMovie(movieRepository.findLanguageNames(ids));
+        try {
+            for (Movie movie : chunk) {
+                Long id = movie.getMovieId();
+                CatalogMovieRow row = new CatalogMovieRow(id, movie.getMovieName(), movie.getMovieDescription(),
+                        movie.getDurationMinutes(), movie.getCertificate(), movie.getReleaseDate(),
+                        movie.getAvgRating(), movie.getMoviePoster(),
+                        genres.getOrDefault(id, List.of()),
+                        formats.getOrDefault(id, List.of()),
+                        languages.getOrDefault(id, List.of()));
+                out.write(jsonMapper.writeValueAsBytes(row));
+                out.write('\n');
+            }
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return chunk.size();
+    }
+
+    private static Map<Long, List<String>> namesByMovie(List<MovieReferenceName> rows) {
+        Map<Long, List<String>> names = new HashMap<>();
+        rows.forEach(row -> names.computeIfAbsent(row.movieId(), id -> new ArrayList<>()).add(row.name()));
+        names.values().forEach(list -> list.sort(null));
+        return names;
+    }
+}
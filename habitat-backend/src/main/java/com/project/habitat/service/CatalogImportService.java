@@ -0,0 +1,290 @@
+package com.project.habitat.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.habitat.dto.CatalogFormat;
+import com.project.habitat.dto.CatalogMovieRow;
+import com.project.habitat.dto.ImportReport;
+import com.project.habitat.dto.ImportRowError;
+import com.project.habitat.events.MovieChangeType;
+import com.project.habitat.events.MovieChangedEvent;
+import com.project.habitat.exception.CrudOperationException;
+import com.project.habitat.index.ReferenceData;
+import com.project.habitat.index.ReferenceDataRegistry;
+import com.project.habitat.model.Format;
+import com.project.habitat.model.Genre;
+import com.project.habitat.model.Language;
+import com.project.habitat.model.Movie;
+import com.project.habitat.repository.FormatRepository;
+import com.project.habitat.repository.GenreRepository;
+import com.project.habitat.repository.LanguageRepository;
+
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Streams a catalog file into the database {@value #CHUNK_SIZE} rows at a time. Each chunk
+ * resolves its genre, format and language names with one query per table, takes its movie
+ * ids from the sequence in one round trip (IDENTITY keys would otherwise force row-by-row
+ * inserts) and writes movies and join rows as JDBC batches in a transaction of its own.
+ * Bad rows are reported by line number and never fail the rest of the file.
+ */
+@Service
+public class CatalogImportService {
+
+    static final int CHUNK_SIZE = 1000;
+    static final int MAX_REPORTED_ERRORS = 1000;
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final double MAX_RATING = 5.0;
+
+    private static final String ALLOCATE_MOVIE_IDS =
+            "SELECT nextval(pg_get_serial_sequence('dev.movies', 'movie_id')) FROM generate_series(1, ?)";
+    private static final String INSERT_MOVIE =
+            "INSERT INTO dev.movies (movie_id, movie_name, movie_description, duration_minutes, certificate, "
+            + "release_date, avg_rating, movie_poster) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_MOVIE_GENRE = "INSERT INTO dev.movie_genres (movie_id, genre_id) VALUES (?, ?)";
+    private static final String INSERT_MOVIE_FORMAT = "INSERT INTO dev.movie_formats (movie_id, format_id) VALUES (?, ?)";
+    private static final String INSERT_MOVIE_LANGUAGE = "INSERT INTO dev.movie_languages (movie_id, language_id) VALUES (?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private FormatRepository formatRepository;
+
+    @Autowired
+    private LanguageRepository languageRepository;
+
+    @Autowired
+    private ReferenceDataRegistry referenceData;
+
+    @Autowired
+    private JsonMapper jsonMapper;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private MovieCacheMaintainer cacheMaintainer;
+
+    private Logger log = LogManager.getLogger(CatalogImportService.class);
+
+    private record ParsedRow(long line, CatalogMovieRow row) {
+    }
+
+    /**
+     * Running totals for one import, plus the name-to-id lookups already resolved. Lookups
+     * start from the reference data snapshot, so only names it does not know are queried.
+     */
+    private static final class ImportRun {
+        private long received;
+        private long imported;
+        private long failed;
+        private final List<ImportRowError> errors = new ArrayList<>();
+        private final Map<String, Long> genreIds = new HashMap<>();
+        private final Map<String, Long> formatIds = new HashMap<>();
+        private final Map<String, Long> languageIds = new HashMap<>();
+
+        ImportRun(ReferenceData known) {
+            known.genres().all().forEach(genre -> genreIds.put(genre.getName(), genre.getGenreId()));
+            known.formats().all().forEach(format -> formatIds.put(format.getName(), format.getFormatId()));
+            known.languages().all().forEach(language -> languageIds.put(language.getName(), language.getLanguageId()));
+        }
+
+        void reject(long line, String message) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportRowError(line, message));
+            }
+        }
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    public ImportReport importCatalog(InputStream input, CatalogFormat format) throws CrudOperationException {
+        long start = System.nanoTime();
+        ImportRun run = new ImportRun(referenceData.current());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            Function<String, CatalogMovieRow> parser;
+            if (format == CatalogFormat.CSV) {
+                CatalogCsv csv = CatalogCsv.withHeader(reader.readLine());
+                lineNumber++;
+                parser = csv::parse;
+            } else {
+                parser = line -> jsonMapper.readValue(line, CatalogMovieRow.class);
+            }
+
+            List<ParsedRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                run.received++;
+                try {
+                    CatalogMovieRow row = parser.apply(line);
+                    String problem = checkRow(row);
+                    if (problem != null) {
+                        run.reject(lineNumber, problem);
+                    } else {
+                        chunk.add(new ParsedRow(lineNumber, row));
+                    }
+                } catch (RuntimeException e) {
+                    run.reject(lineNumber, "Unreadable row: " + e.getMessage());
+                }
+                if (chunk.size() == CHUNK_SIZE) {
+                    writeChunk(chunk, run);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, run);
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("Catalog import aborted after {} rows: {}", run.received, e.getMessage());
+            throw CrudOperationException.asFailedAddOperation(Movie.class, e);
+        } finally {
+            if (run.imported > 0) {
+                cacheMaintainer.onMoviesImported();
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Imported {} of {} catalog rows in {} ms ({} rejected)", run.imported, run.received, elapsedMillis, run.failed);
+        return new ImportReport(run.received, run.imported, run.failed, elapsedMillis, List.copyOf(run.errors));
+    }
+
+    private static String checkRow(CatalogMovieRow row) {
+        if (row == null || row.movieName() == null || row.movieName().isBlank()) {
+            return "movieName is required";
+        }
+        if (row.movieName().length() > MAX_NAME_LENGTH) {
+            return "movieName is longer than " + MAX_NAME_LENGTH + " characters";
+        }
+        if (row.durationMinutes() != null && row.durationMinutes() <= 0) {
+            return "durationMinutes should be > 0";
+        }
+        if (row.avgRating() != null && (row.avgRating() < 0 || row.avgRating() > MAX_RATING)) {
+            return "avgRating should be between 0 and " + MAX_RATING;
+        }
+        return null;
+    }
+
+    private void writeChunk(List<ParsedRow> chunk, ImportRun run) {
+        resolve(chunk, CatalogMovieRow::genres, run.genreIds,
+                names -> idsByName(genreRepository.findByNameIn(names), Genre::getName, Genre::getGenreId));
+        resolve(chunk, CatalogMovieRow::formats, run.formatIds,
+                names -> idsByName(formatRepository.findByNameIn(names), Format::getName, Format::getFormatId));
+        resolve(chunk, CatalogMovieRow::languages, run.languageIds,
+                names -> idsByName(languageRepository.findByNameIn(names), Language::getName, Language::getLanguageId));
+
+        List<ParsedRow> accepted = new ArrayList<>(chunk.size());
+        for (ParsedRow parsed : chunk) {
+            String problem = firstUnknown("genre", parsed.row().genres(), run.genreIds);
+            if (problem == null) {
+                problem = firstUnknown("format", parsed.row().formats(), run.formatIds);
+            }
+            if (problem == null) {
+                problem = firstUnknown("language", parsed.row().languages(), run.languageIds);
+            }
+            if (problem == null) {
+                accepted.add(parsed);
+            } else {
+                run.reject(parsed.line(), problem);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> insertChunk(accepted, run));
+            run.imported += accepted.size();
+        } catch (DataAccessException e) {
+            log.error("Failed to write import chunk starting at line {}: {}", accepted.get(0).line(), e.getMessage());
+            String message = "Chunk write failed: " + e.getMostSpecificCause().getMessage();
+            accepted.forEach(parsed -> run.reject(parsed.line(), message));
+        }
+    }
+
+    private void insertChunk(List<ParsedRow> rows, ImportRun run) {
+        List<Long> movieIds = jdbcTemplate.queryForList(ALLOCATE_MOVIE_IDS, Long.class, rows.size());
+        List<Object[]> movies = new ArrayList<>(rows.size());
+        List<Object[]> genres = new ArrayList<>();
+        List<Object[]> formats = new ArrayList<>();
+        List<Object[]> languages = new ArrayList<>();
+        for (int i = 0; i < rows.size(); i++) {
+            Long movieId = movieIds.get(i);
+            CatalogMovieRow row = rows.get(i).row();
+            movies.add(new Object[] { movieId, row.movieName().trim(), row.movieDescription(), row.durationMinutes(),
+                    row.certificate(), row.releaseDate(), row.avgRating(), row.moviePoster() });
+            new HashSet<>(row.genres()).forEach(name -> genres.add(new Object[] { movieId, run.genreIds.get(name) }));
+            new HashSet<>(row.formats()).forEach(name -> formats.add(new Object[] { movieId, run.formatIds.get(name) }));
+            new HashSet<>(row.languages()).forEach(name -> languages.add(new Object[] { movieId, run.languageIds.get(name) }));
+        }
+        jdbcTemplate.batchUpdate(INSERT_MOVIE, movies);
+        jdbcTemplate.batchUpdate(INSERT_MOVIE_GENRE, genres);
+        jdbcTemplate.batchUpdate(INSERT_MOVIE_FORMAT, formats);
+        jdbcTemplate.batchUpdate(INSERT_MOVIE_LANGUAGE, languages);
+        // Delivered after commit, so the in-memory indexes load the chunk in one pass.
+        eventPublisher.publishEvent(new MovieChangedEvent(MovieChangeType.SAVED, movieIds, false));
+    }
+
+    private static void resolve(List<ParsedRow> chunk, Function<CatalogMovieRow, List<String>> names,
+                                Map<String, Long> resolved, Function<Collection<String>, Map<String, Long>> lookup) {
+        Set<String> missing = new HashSet<>();
+        for (ParsedRow parsed : chunk) {
+            for (String name : names.apply(parsed.row())) {
+                if (!resolved.containsKey(name)) {
+                    missing.add(name);
+                }
+            }
+        }
+        if (!missing.isEmpty()) {
+            resolved.putAll(lookup.apply(missing));
+        }
+    }
+
+    private static <T> Map<String, Long> idsByName(List<T> entities, Function<T, String> name, Function<T, Long> id) {
+        Map<String, Long> ids = new HashMap<>();
+        entities.forEach(entity -> ids.putIfAbsent(name.apply(entity), id.apply(entity)));
+        return ids;
+    }
+
+    private static String firstUnknown(String kind, List<String> names, Map<String, Long> resolved) {
+        for (String name : names) {
+            if (!resolved.containsKey(name)) {
+                return "Unknown " + kind + ": " + name;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,183 @@
+package com.project.habitat.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import com.project.habitat.cache.CatalogSnapshot;
+import com.project.habitat.cache.CatalogVersion;
+import com.project.habitat.config.CacheNames;
+import com.project.habitat.dto.CursorPage;
+import com.project.habitat.dto.MovieDetail;
+import com.project.habitat.dto.MovieSortField;
+import com.project.habitat.dto.MovieSummary;
+import com.project.habitat.model.Format;
+import com.project.habitat.model.Genre;
+import com.project.habitat.model.Language;
+
+/**
+ * Fills the catalog caches before the node reports ready. Spring Boot only moves the
+ * readiness state to accepting traffic once every {@link ApplicationRunner} has returned,
+ * so this runner holds the probe back until the catalog, the first page of every listing,
+ * the per-genre, format and language lists and the top rated movie details are cached, or
+ * until the warm-up timeout passes.
+ *
+ * <p>With the snapshot enabled, a usable snapshot is seeded first and the node reports
+ * ready straight away; the database warm-up then runs in the background and writes a new
+ * snapshot when it is done.
+ */
+@Component
+public class CatalogWarmup implements ApplicationRunner {
+
+	@Autowired
+	private MovieService movieService;
+
+	@Autowired
+	private GenreService genreService;
+
+	@Autowired
+	private FormatService formatService;
+
+	@Autowired
+	private LanguageService languageService;
+
+	@Autowired
+	private MovieCacheMaintainer cacheMaintainer;
+
+	@Autowired
+	private CatalogSnapshot catalogSnapshot;
+
+	@Autowired
+	private CatalogVersion catalogVersion;
+
+	@Value("${app.warmup.enabled:true}")
+	private boolean enabled;
+
+	@Value("${app.warmup.timeout-seconds:60}")
+	private long timeoutSeconds;
+
+	@Value("${app.warmup.top-movies:100}")
+	private int topMovies;
+
+	private Logger log = LogManager.getLogger(CatalogWarmup.class);
+
+	private static final Executor WARMUP_THREAD = runnable -> {
+		Thread thread = new Thread(runnable, "catalog-warmup");
+		thread.setDaemon(true);
+		thread.start();
+	};
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (!enabled) {
+			return;
+		}
+		long start = System.nanoTime();
+		boolean seeded = seedFromSnapshot();
+		CompletableFuture<Void> warmup = CompletableFuture.runAsync(this::warmFromDatabase, WARMUP_THREAD);
+		if (seeded) {
+			log.info("Seeded catalog caches from snapshot in {} ms; warming from the database in the background",
+					elapsedMillis(start));
+			return;
+		}
+		try {
+			warmup.get(timeoutSeconds, TimeUnit.SECONDS);
+			log.info("Warmed catalog caches in {} ms", elapsedMillis(start));
+		} catch (TimeoutException e) {
+			log.warn("Catalog warm-up still running after {} s; reporting ready and finishing in the background",
+					timeoutSeconds);
+		} catch (ExecutionException e) {
+			log.warn("Catalog warm-up failed; starting with cold caches: " + e.getCause().getMessage(), e.getCause());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private boolean seedFromSnapshot() {
+		CatalogSnapshot.Contents snapshot = catalogSnapshot.load();
+		if (snapshot == null) {
+			return false;
+		}
+		// Versions only move forward, so a lower one means the catalog changed after the
+		// snapshot was written. An unknown version (Redis down) reads as 0 and is trusted.
+		if (snapshot.catalogVersion() < catalogVersion.current().version()) {
+			log.info("Ignoring catalog snapshot at version {}, the catalog is at version {}",
+					snapshot.catalogVersion(), catalogVersion.current().version());
+			return false;
+		}
+		cacheMaintainer.seed(CacheNames.ALL_MOVIES, CacheNames.ALL_MOVIES_KEY, snapshot.catalog(),
+				snapshot.writtenAtMillis());
+		for (MovieDetail detail : snapshot.details()) {
+			cacheMaintainer.seed(CacheNames.MOVIE_BY_ID, detail.movieId(), detail, snapshot.writtenAtMillis());
+		}
+		return true;
+	}
+
+	private void warmFromDatabase() {
+		// The public reads are guarded by permitAll(), which still expects an authentication.
+		SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("catalog-warmup",
+				"catalog-warmup", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+		try {
+			long version = catalogVersion.current().version();
+			List<MovieSummary> catalog = movieService.getAllMovies();
+			for (MovieSortField sort : MovieSortField.values()) {
+				movieService.getMoviePage(sort, null, MovieService.DEFAULT_PAGE_SIZE);
+			}
+			for (Genre genre : genreService.getAllGenres()) {
+				movieService.getMoviesByGenre(genre.getName());
+			}
+			for (Format format : formatService.getAllFormats()) {
+				movieService.getMoviesByFormat(format.getName());
+			}
+			for (Language language : languageService.getAllLanguages()) {
+				movieService.getMoviesByLangauge(language.getName());
+			}
+			List<MovieDetail> details = warmTopRated();
+			if (catalogSnapshot.isEnabled()) {
+				catalogSnapshot.save(new CatalogSnapshot.Contents(version, System.currentTimeMillis(), catalog, details));
+			}
+			log.info("Warmed {} movies, reference lists and {} top rated details from the database",
+					catalog.size(), details.size());
+		} finally {
+			SecurityContextHolder.clearContext();
+		}
+	}
+
+	private List<MovieDetail> warmTopRated() {
+		List<MovieDetail> details = new ArrayList<>();
+		if (topMovies < 1) {
+			return details;
+		}
+		String cursor = null;
+		do {
+			CursorPage<MovieSummary> page = movieService.getMoviePage(MovieSortField.RATING, cursor,
+					Math.min(MovieService.MAX_PAGE_SIZE, topMovies - details.size()));
+			for (MovieSummary movie : page.items()) {
+				Optional<MovieDetail> detail = movieService.getMovieById(movie.movieId());
+				detail.ifPresent(details::add);
+			}
+			cursor = page.nextCursor();
+		} while (cursor != null && details.size() < topMovies);
+		return details;
+	}
+
+	private static long elapsedMillis(long startNanos) {
+		return (System.nanoTime() - startNanos) / 1_000_000;
+	}
+}
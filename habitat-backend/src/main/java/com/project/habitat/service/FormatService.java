@@ -5,15 +5,15 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.project.habitat.index.ReferenceDataRegistry;
 import com.project.habitat.model.Format;
-import com.project.habitat.repository.FormatRepository;
 
 @Service
 public class FormatService {
     @Autowired
-    private FormatRepository formatRepository;
+    private ReferenceDataRegistry referenceData;
 
     public List<Format> getAllFormats(){
-        return formatRepository.findAll();
+        return referenceData.current().formats().all();
     }
 }
@@ -6,15 +6,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 
+import com.project.habitat.index.ReferenceDataRegistry;
 import com.project.habitat.model.Genre;
-import com.project.habitat.repository.GenreRepository;
 
 @Service
 public class GenreService {
     @Autowired
-    private GenreRepository genreRepository;
+    private ReferenceDataRegistry referenceData;
 
     public List<Genre> getAllGenres(){
-        return genreRepository.findAll();
+        return referenceData.current().genres().all();
     }
 }
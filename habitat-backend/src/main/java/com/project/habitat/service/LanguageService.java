@@ -5,15 +5,15 @@ import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.project.habitat.index.ReferenceDataRegistry;
 import com.project.habitat.model.Language;
-import com.project.habitat.repository.LanguageRepository;
 
 @Service
 public class LanguageService {
     @Autowired
-    private LanguageRepository languageRepository;
+    private ReferenceDataRegistry referenceData;
 
     public List<Language> getAllLanguages(){
-        return languageRepository.findAll();
+        return referenceData.current().languages().all();
     }
 }
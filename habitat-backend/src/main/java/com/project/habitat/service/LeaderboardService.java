@@ -0,0 +1,465 @@
+package com.project.habitat.service;
+
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.project.habitat.dto.Leaderboard;
+import com.project.habitat.dto.LeaderboardEntry;
+import com.project.habitat.dto.LeaderboardKind;
+import com.project.habitat.dto.MovieSummary;
+import com.project.habitat.dto.RatingSummary;
+import com.project.habitat.events.MovieChangeType;
+import com.project.habitat.events.MovieChangedEvent;
+import com.project.habitat.exception.CrudOperationException;
+import com.project.habitat.exception.CrudValidationException;
+import com.project.habitat.index.MovieFacet;
+import com.project.habitat.index.MovieFacetIndex;
+import com.project.habitat.model.Movie;
+import com.project.habitat.repository.MovieRepository;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * Trending and top-rated leaderboards kept in Redis sorted sets with exponentially
+ * time-decayed scores, shared by all nodes.
+ *
+ * <p>Decay uses a landmark time {@code L}: an event at time {@code t} adds
+ * {@code amount * e^(rate * (t - L))}, so older contributions never have to be touched and
+ * the ranking at any instant equals the ranking by {@code amount * e^(-rate * age)}. A
+ * periodic rebase divides every score by {@code e^(rate * (now - L))} and moves {@code L}
+ * to now, which keeps the numbers small and drops movies whose score has decayed away.
+ * Both run as Lua scripts, so increments and the rebase never see different landmarks.
+ *
+ * <p>Views and ratings are counted locally and written in one batch per flush interval.
+ * The all-time most viewed ranking is read from the stored view counts.
+ * Top-rated rankings use the Bayesian average {@code (C * m + sum) / (C + count)}, with
+ * {@code m} the mean over all movies and {@code C} the prior weight, so a movie needs a
+ * fair number of ratings before it can outrank well-established titles.
+ */
+@Service
+public class LeaderboardService {
+
+	public static final int DEFAULT_LIMIT = 10;
+
+	private static final String LANDMARK_KEY = "habitat:{leaderboard}:landmark";
+	private static final String TRENDING_KEY = "habitat:{leaderboard}:trending";
+	private static final String WEEK_STARS_KEY = "habitat:{leaderboard}:week:stars";
+	private static final String WEEK_COUNT_KEY = "habitat:{leaderboard}:week:count";
+
+	// Movies are read from the trending set in chunks until enough pass the facet filter.
+	private static final int SCAN_CHUNK = 200;
+	// Decayed scores below this are dropped on rebase: about 1% of a single view.
+	private static final double PRUNE_BELOW = 0.01;
+
+	private static final RedisScript<Long> RECORD = new DefaultRedisScript<>("""
+			local landmark = tonumber(redis.call('GET', KEYS[1]))
+			if not landmark then
+			    landmark = tonumber(ARGV[1])
+			    redis.call('SET', KEYS[1], ARGV[1])
+			end
+			local weight = math.exp(tonumber(ARGV[2]) * (tonumber(ARGV[1]) - landmark))
+			for i = 3, #ARGV, 2 do
+			    redis.call('ZINCRBY', KEYS[2], tonumber(ARGV[i + 1]) * weight, ARGV[i])
+			end
+			return landmark
+			""", Long.class);
+
+	private static final RedisScript<Long> REBASE = new DefaultRedisScript<>("""
+			local landmark = tonumber(redis.call('GET', KEYS[1]))
+			if not landmark then
+			    return 0
+			end
+			local now = tonumber(ARGV[1])
+			for i = 2, #KEYS do
+			    local factor = math.exp(-tonumber(ARGV[i]) * (now - landmark))
+			    redis.call('ZUNIONSTORE', KEYS[i], 1, KEYS[i], 'WEIGHTS', factor)
+			    redis.call('ZREMRANGEBYSCORE', KEYS[i], '-inf', '(' .. ARGV[#ARGV])
+			end
+			redis.call('SET', KEYS[1], ARGV[1])
+			return 1
+			""", Long.class);
+
+	private static final String TOP_RATED = """
+			WITH prior AS (
+			    SELECT COALESCE(SUM(rating_sum)::float8 / NULLIF(SUM(rating_count), 0), 0) AS mean
+			    FROM dev.movie_rating_summaries
+			)
+			SELECT s.movie_id, (? * prior.mean + s.rating_sum) / (? + s.rating_count) AS score
+			FROM dev.movie_rating_summaries s, prior
+			WHERE s.rating_count > 0 AND (? OR s.movie_id = ANY (?))
+			ORDER BY score DESC, s.movie_id
+			LIMIT ?
+			""";
+
+	private static final String MOST_VIEWED = """
+			SELECT movie_id, view_count FROM dev.movie_view_counts
+			WHERE (? OR movie_id = ANY (?))
+			ORDER BY view_count DESC, movie_id
+			LIMIT ?
+			""";
+
+	@Autowired
+	private StringRedisTemplate redisTemplate;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private MovieFacetIndex facetIndex;
+
+	@Autowired
+	private MovieRepository movieRepository;
+
+	@Autowired
+	private MovieSummaryAssembler summaryAssembler;
+
+	@Value("${app.leaderboards.trending.half-life-hours:24}")
+	private double trendingHalfLifeHours;
+
+	@Value("${app.leaderboards.trending.rating-weight:5}")
+	private long ratingWeight;
+
+	@Value("${app.leaderboards.top-rated.half-life-hours:84}")
+	private double weekHalfLifeHours;
+
+	@Value("${app.leaderboards.top-rated.prior-weight:10}")
+	private double priorWeight;
+
+	@Value("${app.leaderboards.cache-seconds:30}")
+	private long cacheSeconds;
+
+	private Logger log = LogManager.getLogger(LeaderboardService.class);
+
+	// Per movie: views, ratings and stars since the last flush.
+	private final Map<Long, long[]> pending = new ConcurrentHashMap<>();
+	private Cache<String, Leaderboard> recent;
+	private double trendingRate;
+	private double weekRate;
+
+	@PostConstruct
+	void init() {
+		trendingRate = decayRatePerMilli(trendingHalfLifeHours);
+		weekRate = decayRatePerMilli(weekHalfLifeHours);
+		recent = Caffeine.newBuilder()
+				.maximumSize(1_000)
+				.expireAfterWrite(Duration.ofSeconds(cacheSeconds))
+				.build();
+	}
+
+	private static double decayRatePerMilli(double halfLifeHours) {
+		return Math.log(2) / (halfLifeHours * 3_600_000);
+	}
+
+	/** Called by {@link MovieViewCounter} with the views it has just stored. */
+	public void recordViews(Long movieId, long views) {
+		pending.compute(movieId, (id, counts) -> {
+			long[] updated = counts == null ? new long[3] : counts;
+			updated[0] += views;
+			return updated;
+		});
+	}
+
+	/** Called by {@link RatingsService} once a rating it stored right away has committed. */
+	public void recordRating(Long movieId, int stars) {
+		pending.compute(movieId, (id, counts) -> {
+			long[] updated = counts == null ? new long[3] : counts;
+			updated[1]++;
+			updated[2] += stars;
+			return updated;
+		});
+	}
+
+	/**
+	 * Called by {@link RatingWriteBehindQueue} with the rows a flush has just committed, per
+	 * movie the number of new ratings with 1 to 5 stars.
+	 */
+	public void recordRatings(Map<Long, long[]> histograms) {
+		histograms.forEach((movieId, histogram) -> {
+			long ratings = 0;
+			long stars = 0;
+			for (int i = 0; i < histogram.length; i++) {
+				ratings += histogram[i];
+				stars += histogram[i] * (i + RatingSummary.MIN_STARS);
+			}
+			if (ratings == 0) {
+				return;
+			}
+			long count = ratings;
+			long sum = stars;
+			pending.compute(movieId, (id, counts) -> {
+				long[] updated = counts == null ? new long[3] : counts;
+				updated[1] += count;
+				updated[2] += sum;
+				return updated;
+			});
+		});
+	}
+
+	@Scheduled(fixedDelayString = "${app.leaderboards.flush-interval-millis:5000}")
+	public void flush() {
+		if (pending.isEmpty()) {
+			return;
+		}
+		List<String> trending = new ArrayList<>();
+		List<String> weekStars = new ArrayList<>();
+		List<String> weekCount = new ArrayList<>();
+		for (Long movieId : Set.copyOf(pending.keySet())) {
+			long[] counts = pending.remove(movieId);
+			if (counts == null) {
+				continue;
+			}
+			String member = movieId.toString();
+			addPair(trending, member, counts[0] + ratingWeight * counts[1]);
+			if (counts[1] > 0) {
+				addPair(weekStars, member, counts[2]);
+				addPair(weekCount, member, counts[1]);
+			}
+		}
+		long now = System.currentTimeMillis();
+		try {
+			record(TRENDING_KEY, trendingRate, now, trending);
+			record(WEEK_STARS_KEY, weekRate, now, weekStars);
+			record(WEEK_COUNT_KEY, weekRate, now, weekCount);
+		} catch (DataAccessException e) {
+			// Losing a few seconds of activity only nudges the rankings; keep serving.
+			log.warn("Could not update leaderboards: " + e.getMessage());
+		}
+	}
+
+	private static void addPair(List<String> args, String member, long amount) {
+		if (amount > 0) {
+			args.add(member);
+			args.add(Long.toString(amount));
+		}
+	}
+
+	private void record(String key, double rate, long now, List<String> pairs) {
+		if (pairs.isEmpty()) {
+			return;
+		}
+		List<String> args = new ArrayList<>(pairs.size() + 2);
+		args.add(Long.toString(now));
+		args.add(Double.toString(rate));
+		args.addAll(pairs);
+		redisTemplate.execute(RECORD, List.of(LANDMARK_KEY, key), args.toArray());
+	}
+
+	/** Every node may run this; a rebase right after another one is a no-op in effect. */
+	@Scheduled(initialDelayString = "${app.leaderboards.rebase-interval-millis:3600000}",
+			fixedDelayString = "${app.leaderboards.rebase-interval-millis:3600000}")
+	public void rebase() {
+		try {
+			redisTemplate.execute(REBASE, List.of(LANDMARK_KEY, TRENDING_KEY, WEEK_STARS_KEY, WEEK_COUNT_KEY),
+					Long.toString(System.currentTimeMillis()), Double.toString(trendingRate),
+					Double.toString(weekRate), Double.toString(weekRate), Double.toString(PRUNE_BELOW));
+		} catch (DataAccessException e) {
+			log.warn("Could not rebase leaderboards: " + e.getMessage());
+		}
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onMovieChanged(MovieChangedEvent event) {
+		if (event.getChangeType() != MovieChangeType.DELETED || event.isRemote()) {
+			return;
+		}
+		Object[] members = event.getMovieIds().stream().map(String::valueOf).toArray();
+		try {
+			for (String key : List.of(TRENDING_KEY, WEEK_STARS_KEY, WEEK_COUNT_KEY)) {
+				redisTemplate.opsForZSet().remove(key, members);
+			}
+		} catch (DataAccessException e) {
+			log.warn("Could not remove deleted movies from leaderboards: " + e.getMessage());
+		}
+	}
+
+	@PreAuthorize("permitAll()")
+	public Leaderboard getLeaderboard(LeaderboardKind kind, String genre, String language, int limit)
+			throws CrudOperationException, CrudValidationException {
+		if (limit < 1 || limit > MovieService.MAX_PAGE_SIZE) {
+			throw CrudValidationException.asInvalidArgument(Movie.class, "Limit should be between 1 and " + MovieService.MAX_PAGE_SIZE);
+		}
+		String cacheKey = kind + "|" + genre + "|" + language + "|" + limit;
+		Leaderboard cached = recent.getIfPresent(cacheKey);
+		if (cached != null) {
+			return cached;
+		}
+		try {
+			RoaringBitmap candidates = candidates(genre, language);
+			Map<Long, Double> scores = switch (kind) {
+				case TRENDING -> topTrending(candidates, limit);
+				case TOP_RATED_WEEK -> topRatedRecently(candidates, limit);
+				case TOP_RATED -> topRatedOverall(candidates, limit);
+				case MOST_VIEWED -> topMostViewed(candidates, limit);
+			};
+			Leaderboard leaderboard = new Leaderboard(kind, genre, language, withSummaries(scores));
+			recent.put(cacheKey, leaderboard);
+			log.info("Ranked {} movies for leaderboard {} (genre {}, language {})", scores.size(), kind, genre, language);
+			return leaderboard;
+		} catch (Exception e) {
+			throw CrudOperationException.asFailedGetOperation(getClass(), e);
+		}
+	}
+
+	/** Movies allowed by the filter, or {@code null} for every movie in the catalog. */
+	private RoaringBitmap candidates(String genre, String language) {
+		RoaringBitmap candidates = null;
+		if (genre != null && !genre.isBlank()) {
+			candidates = facetIndex.moviesWith(MovieFacet.GENRE, genre);
+		}
+		if (language != null && !language.isBlank()) {
+			RoaringBitmap speaking = facetIndex.moviesWith(MovieFacet.LANGUAGE, language);
+			candidates = candidates == null ? speaking : RoaringBitmap.and(candidates, speaking);
+		}
+		return candidates;
+	}
+
+	private boolean allowed(RoaringBitmap candidates, Long movieId) {
+		return candidates == null ? facetIndex.contains(movieId) : MovieFacetIndex.contains(candidates, movieId);
+	}
+
+	private Map<Long, Double> topTrending(RoaringBitmap candidates, int limit) {
+		double scale = currentScale(trendingRate);
+		Map<Long, Double> top = new LinkedHashMap<>();
+		for (long start = 0; top.size() < limit; start += SCAN_CHUNK) {
+			Set<TypedTuple<String>> chunk = redisTemplate.opsForZSet()
+					.reverseRangeWithScores(TRENDING_KEY, start, start + SCAN_CHUNK - 1);
+			if (chunk == null || chunk.isEmpty()) {
+				break;
+			}
+			for (TypedTuple<String> entry : chunk) {
+				Long movieId = Long.valueOf(entry.getValue());
+				if (top.size() < limit && allowed(candidates, movieId)) {
+					top.put(movieId, entry.getScore() * scale);
+				}
+			}
+			if (chunk.size() < SCAN_CHUNK) {
+				break;
+			}
+		}
+		return top;
+	}
+
+	private Map<Long, Double> topRatedRecently(RoaringBitmap candidates, int limit) {
+		double scale = currentScale(weekRate);
+		Map<Long, Double> counts = scores(WEEK_COUNT_KEY, scale);
+		Map<Long, Double> stars = scores(WEEK_STARS_KEY, scale);
+		double totalCount = 0;
+		double totalStars = 0;
+		for (Map.Entry<Long, Double> count : counts.entrySet()) {
+			Double sum = stars.get(count.getKey());
+			if (sum != null) {
+				totalCount += count.getValue();
+				totalStars += sum;
+			}
+		}
+		double mean = totalCount == 0 ? 0 : totalStars / totalCount;
+		List<Map.Entry<Long, Double>> ranked = new ArrayList<>();
+		counts.forEach((movieId, count) -> {
+			Double sum = stars.get(movieId);
+			if (sum != null && allowed(candidates, movieId)) {
+				ranked.add(Map.entry(movieId, (priorWeight * mean + sum) / (priorWeight + count)));
+			}
+		});
+		ranked.sort(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+		Map<Long, Double> top = new LinkedHashMap<>();
+		ranked.stream().limit(limit).forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+		return top;
+	}
+
+	private Map<Long, Double> scores(String key, double scale) {
+		Map<Long, Double> scores = new HashMap<>();
+		Set<TypedTuple<String>> entries = redisTemplate.opsForZSet().rangeWithScores(key, 0, -1);
+		if (entries != null) {
+			entries.forEach(entry -> scores.put(Long.valueOf(entry.getValue()), entry.getScore() * scale));
+		}
+		return scores;
+	}
+
+	private Map<Long, Double> topMostViewed(RoaringBitmap candidates, int limit) {
+		Long[] ids = toIds(candidates);
+		Map<Long, Double> top = new LinkedHashMap<>();
+		jdbcTemplate.query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(MOST_VIEWED);
+			statement.setBoolean(1, candidates == null);
+			statement.setArray(2, connection.createArrayOf("bigint", ids));
+			statement.setInt(3, limit);
+			return statement;
+		}, resultSet -> {
+			top.put(resultSet.getLong("movie_id"), (double) resultSet.getLong("view_count"));
+		});
+		return top;
+	}
+
+	private static Long[] toIds(RoaringBitmap candidates) {
+		return candidates == null ? new Long[0] : candidates.stream().mapToObj(Long::valueOf).toArray(Long[]::new);
+	}
+
+	private Map<Long, Double> topRatedOverall(RoaringBitmap candidates, int limit) {
+		Long[] ids = toIds(candidates);
+		Map<Long, Double> top = new LinkedHashMap<>();
+		jdbcTemplate.query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(TOP_RATED);
+			statement.setDouble(1, priorWeight);
+			statement.setDouble(2, priorWeight);
+			statement.setBoolean(3, candidates == null);
+			statement.setArray(4, connection.createArrayOf("bigint", ids));
+			statement.setInt(5, limit);
+			return statement;
+		}, resultSet -> {
+			top.put(resultSet.getLong("movie_id"), resultSet.getDouble("score"));
+		});
+		return top;
+	}
+
+	/** Factor that turns stored scores into scores decayed to the present. */
+	private double currentScale(double rate) {
+		String landmark = redisTemplate.opsForValue().get(LANDMARK_KEY);
+		if (landmark == null) {
+			return 1.0;
+		}
+		return Math.exp(-rate * (System.currentTimeMillis() - Long.parseLong(landmark)));
+	}
+
+	private List<LeaderboardEntry> withSummaries(Map<Long, Double> scores) {
+		if (scores.isEmpty()) {
+			return List.of();
+		}
+		Map<Long, MovieSummary> summaries = new HashMap<>();
+		summaryAssembler.withReferences(movieRepository.findSummariesByIds(scores.keySet()))
+				.forEach(summary -> summaries.put(summary.movieId(), summary));
+		// Keep the ranking; a movie deleted meanwhile simply drops out.
+		List<LeaderboardEntry> entries = new ArrayList<>(scores.size());
+		scores.forEach((movieId, score) -> {
+			MovieSummary summary = summaries.get(movieId);
+			if (summary != null) {
+				entries.add(new LeaderboardEntry(summary, score));
+			}
+		});
+		return entries;
+	}
+}
@@ -0,0 +1,199 @@
+package com.project.habitat.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.project.habitat.cache.CacheTagIndex;
+import com.project.habitat.cache.CatalogVersion;
+import com.project.habitat.cache.TwoTierCache;
+import com.project.habitat.config.CacheNames;
+import com.project.habitat.dto.CursorPage;
+import com.project.habitat.dto.MovieDetail;
+import com.project.habitat.dto.MovieSummary;
+
+/**
+ * Keeps the catalog caches in step with movie writes. The by-id entry is written through
+ * with the saved state; derived views are evicted only where the change can show up:
+ * the facet lists the movie belonged to before or after the write, and the listing pages
+ * that contain it (or every page, when its sort position may have moved).
+ */
+@Component
+public class MovieCacheMaintainer {
+
+    private static final String MOVIE_TAG_PREFIX = "movie:";
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CacheTagIndex cacheTags;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    private Logger log = LogManager.getLogger(MovieCacheMaintainer.class);
+
+    public static String genreKey(String genre) {
+        return "genre:" + genre;
+    }
+
+    public static String formatKey(String format) {
+        return "format:" + format;
+    }
+
+    public static String languageKey(String language) {
+        return "language:" + language;
+    }
+
+    /**
+     * Programmatic counterpart of {@code @Cacheable}: loader failures surface as the
+     * original runtime exception instead of a {@link Cache.ValueRetrievalException}.
+     */
+    public <T> T getOrLoad(String cacheName, Object key, Callable<T> loader) {
+        try {
+            return cache(cacheName).get(key, loader);
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Fills an entry from a source other than its loader (a startup snapshot), keeping any
+     * entry the cache already has.
+     */
+    public void seed(String cacheName, Object key, Object value, long writtenAtMillis) {
+        Cache cache = cache(cacheName);
+        if (cache instanceof TwoTierCache twoTierCache) {
+            twoTierCache.warm(key, value, writtenAtMillis);
+        } else {
+            cache.putIfAbsent(key, value);
+        }
+    }
+
+    /**
+     * Loads a listing page through the cache and tags it with the movies it shows. Tags are
+     * written once the page is stored, and a page loaded while the catalog moved is dropped
+     * again: a write committing mid-load may have invalidated its tags before the stale page
+     * landed in the cache.
+     */
+    public CursorPage<MovieSummary> getOrLoadPage(String pageKey, Callable<CursorPage<MovieSummary>> loader) {
+        CatalogVersion.Snapshot version = catalogVersion.current();
+        AtomicBoolean loaded = new AtomicBoolean();
+        CursorPage<MovieSummary> page = getOrLoad(CacheNames.MOVIE_PAGES, pageKey, () -> {
+            loaded.set(true);
+            return loader.call();
+        });
+        if (loaded.get()) {
+            List<String> tags = page.items().stream().map(item -> movieTag(item.movieId())).toList();
+            cacheTags.tag(CacheNames.MOVIE_PAGES, pageKey, tags);
+            if (!catalogVersion.current().equals(version)) {
+                cache(CacheNames.MOVIE_PAGES).evict(pageKey);
+                log.debug("Dropped page {} loaded while the catalog changed", pageKey);
+            }
+        }
+        return page;
+    }
+
+    public void onMovieSaved(MovieDetail before, MovieDetail after) {
+        afterCommit(() -> {
+            cache(CacheNames.MOVIE_BY_ID).put(after.movieId(), after);
+            cache(CacheNames.ALL_MOVIES).evict(CacheNames.ALL_MOVIES_KEY);
+            evictFacetLists(before);
+            evictFacetLists(after);
+            if (before == null || after.sortsDifferentlyFrom(before)) {
+                cache(CacheNames.MOVIE_PAGES).clear();
+            } else {
+                cacheTags.invalidate(List.of(movieTag(after.movieId())));
+            }
+            log.info("Refreshed cached entries for movie ID {}", after.movieId());
+        });
+    }
+
+    public void onMovieDeleted(Long movieId, MovieDetail before) {
+        afterCommit(() -> {
+            cache(CacheNames.MOVIE_BY_ID).evict(movieId);
+            cache(CacheNames.ALL_MOVIES).evict(CacheNames.ALL_MOVIES_KEY);
+            evictFacetLists(before);
+            // Removing a row never moves the others, so only pages that show it go stale.
+            cacheTags.invalidate(List.of(movieTag(movieId)));
+            log.info("Evicted cached entries for deleted movie ID {}", movieId);
+        });
+    }
+
+    /** Bulk writes touch too many views to track individually, so every list view is dropped. */
+    public void onMoviesImported() {
+        afterCommit(() -> {
+            cache(CacheNames.ALL_MOVIES).evict(CacheNames.ALL_MOVIES_KEY);
+            cache(CacheNames.MOVIES_BY_FACET).clear();
+            cache(CacheNames.MOVIE_PAGES).clear();
+            log.info("Cleared catalog list caches after bulk import");
+        });
+    }
+
+    /**
+     * New ratings move averages, which every list view shows and the rating sort orders by,
+     * so the lists are dropped along with the rated movies' own entries.
+     */
+    public void onRatingsChanged(Collection<Long> movieIds) {
+        afterCommit(() -> {
+            Cache byId = cache(CacheNames.MOVIE_BY_ID);
+            movieIds.forEach(byId::evict);
+            cache(CacheNames.ALL_MOVIES).evict(CacheNames.ALL_MOVIES_KEY);
+            cache(CacheNames.MOVIES_BY_FACET).clear();
+            cache(CacheNames.MOVIE_PAGES).clear();
+            log.info("Evicted cached entries after rating changes on {} movies", movieIds.size());
+        });
+    }
+
+    private void evictFacetLists(MovieDetail movie) {
+        if (movie == null) {
+            return;
+        }
+        List<String> keys = new ArrayList<>();
+        movie.genreNames().forEach(name -> keys.add(genreKey(name)));
+        movie.formatNames().forEach(name -> keys.add(formatKey(name)));
+        movie.languageNames().forEach(name -> keys.add(languageKey(name)));
+        Cache facetCache = cache(CacheNames.MOVIES_BY_FACET);
+        keys.forEach(facetCache::evict);
+    }
+
+    private static String movieTag(Long movieId) {
+        return MOVIE_TAG_PREFIX + movieId;
+    }
+
+    private Cache cache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            throw new IllegalStateException("No cache configured with name " + name);
+        }
+        return cache;
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -1,22 +1,52 @@
 package com.project.habitat.service;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
-import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.project.habitat.config.CacheNames;
+import com.project.habitat.dto.CursorPage;
+import com.project.habitat.dto.FacetFilterResult;
+import com.project.habitat.dto.KeysetCursor;
+import com.project.habitat.dto.MovieDetail;
+import com.project.habitat.dto.MovieSearchHit;
+import com.project.habitat.dto.MovieSearchResult;
+import com.project.habitat.dto.MovieSortField;
+import com.project.habitat.dto.MovieSummary;
+import com.project.habitat.dto.SimilarMovie;
+import com.project.habitat.dto.TitleSuggestion;
+import com.project.habitat.events.MovieChangedEvent;
 import com.project.habitat.exception.CrudOperationException;
 import com.project.habitat.exception.CrudValidationException;
+import com.project.habitat.index.FacetMatch;
+import com.project.habitat.index.MovieFacet;
+import com.project.habitat.index.MovieFacetIndex;
+import com.project.habitat.index.MovieSearchIndex;
+import com.project.habitat.index.ReferenceData;
+import com.project.habitat.index.ReferenceDataRegistry;
+import com.project.habitat.index.ReferenceTable;
+import com.project.habitat.index.ScoredMovie;
+import com.project.habitat.index.SearchMatch;
+import com.project.habitat.index.SimilarMoviesIndex;
+import com.project.habitat.index.TitleAutocompleteIndex;
 import com.project.habitat.model.Format;
 import com.project.habitat.model.Genre;
 import com.project.habitat.model.Language;
@@ -40,9 +70,49 @@ public class MovieService {
 	
 	@Autowired
 	private Validator validator;
+
+	@Autowired
+	private MovieSummaryAssembler summaryAssembler;
+
+	@Autowired
+	private MovieCacheMaintainer cacheMaintainer;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private MovieFacetIndex facetIndex;
+
+	@Autowired
+	private MovieSearchIndex searchIndex;
+
+	@Autowired
+	private TitleAutocompleteIndex autocompleteIndex;
+
+	@Autowired
+	private SimilarMoviesIndex similarMoviesIndex;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	@Autowired
+	private ReferenceDataRegistry referenceData;
 	
-	private static final String CACHE_ALL_MOVIES = "allMovies";
-	private static final String CACHE_MOVIE_BY_ID = "movie";
+	private static final String CACHE_ALL_MOVIES = CacheNames.ALL_MOVIES;
+	private static final String CACHE_MOVIE_BY_ID = CacheNames.MOVIE_BY_ID;
+	private static final String CACHE_MOVIES_BY_FACET = CacheNames.MOVIES_BY_FACET;
+
+	public static final int DEFAULT_PAGE_SIZE = 20;
+	public static final int MAX_PAGE_SIZE = 100;
+	public static final int MAX_QUERY_LENGTH = 200;
+	// Deepest result reachable by offset paging: the search ranks offset + limit hits per
+	// request and the facet filter walks past offset matches.
+	public static final int MAX_RESULT_WINDOW = 10_000;
+
+	// Sentinels that stand in for NULL sort values and for "before the first row". The NULL
+	// sentinels are the COALESCE defaults of MovieRepository's keyset queries.
+	private static final LocalDate NULL_RELEASE_DATE = LocalDate.of(1, 1, 1);
+	private static final LocalDate FIRST_RELEASE_DATE = LocalDate.of(9999, 12, 31);
 	
 	private void checkForNull(Movie movie) {
 		if(movie == null) {
@@ -65,43 +135,36 @@ public class MovieService {
     }
 
     private void attachRelatedEntities(Movie movie) {
+        ReferenceData known = referenceData.current();
         if (movie.getGenres() != null && !movie.getGenres().isEmpty()) {
-            Set<Genre> managedGenres = movie.getGenres().stream()
-                .map(genre -> {
-                    if (genre.getGenreId() != null) {
-                        return entityManager.getReference(Genre.class, genre.getGenreId());
-                    }
-                    return entityManager.merge(genre);
-                })
-                .collect(Collectors.toSet());
-            movie.setGenres(managedGenres);
+            movie.setGenres(managed(movie.getGenres(), Genre.class, known.genres(), Genre::getGenreId, Genre::getName));
         }
-        
         if (movie.getFormats() != null && !movie.getFormats().isEmpty()) {
-            Set<Format> managedFormats = movie.getFormats().stream()
-                .map(format -> {
-                    if (format.getFormatId() != null) {
-                        return entityManager.getReference(Format.class, format.getFormatId());
-                    }
-                    return entityManager.merge(format);
-                })
-                .collect(Collectors.toSet());
-            movie.setFormats(managedFormats);
+            movie.setFormats(managed(movie.getFormats(), Format.class, known.formats(), Format::getFormatId, Format::getName));
         }
-        
         if (movie.getLanguages() != null && !movie.getLanguages().isEmpty()) {
-            Set<Language> managedLanguages = movie.getLanguages().stream()
-                .map(language -> {
-                    if (language.getLanguageId() != null) {
-                        return entityManager.getReference(Language.class, language.getLanguageId());
-                    }
-                    return entityManager.merge(language);
-                })
-                .collect(Collectors.toSet());
-            movie.setLanguages(managedLanguages);
+            movie.setLanguages(managed(movie.getLanguages(), Language.class, known.languages(),
+                    Language::getLanguageId, Language::getName));
         }
     }
 
+    /**
+     * Reference rows given by id, or by a name the snapshot knows, become references without
+     * a query; only rows the snapshot has never seen are merged.
+     */
+    private <T> Set<T> managed(Set<T> rows, Class<T> type, ReferenceTable<T> known,
+                               Function<T, Long> idOf, Function<T, String> nameOf) {
+        return rows.stream()
+            .map(row -> {
+                if (idOf.apply(row) != null) {
+                    return entityManager.getReference(type, idOf.apply(row));
+                }
+                T existing = known.named(nameOf.apply(row));
+                return existing != null ? entityManager.getReference(type, idOf.apply(existing)) : entityManager.merge(row);
+            })
+            .collect(Collectors.toSet());
+    }
+
     private Movie createNewMovieEntity(Movie movie) {
         Movie newMovie = new Movie();
         newMovie.setMovieName(movie.getMovieName());
@@ -153,11 +216,11 @@ public class MovieService {
     }
     
     @PreAuthorize("permitAll()")
-    @Cacheable(value = CACHE_ALL_MOVIES, key = "'all'")
-    public List<Movie> getAllMovies() throws CrudOperationException{
+    @Cacheable(value = CACHE_ALL_MOVIES, key = "'" + CacheNames.ALL_MOVIES_KEY + "'", sync = true)
+    public List<MovieSummary> getAllMovies() throws CrudOperationException{
     	try {
     		log.info("Fetching all movies from database");
-    		List<Movie> movies = movieRepository.findAll();
+    		List<MovieSummary> movies = summaryAssembler.withReferences(movieRepository.findAllSummaries());
     		log.info("Fetched {} movies from database", movies.size());
     		return movies;
     	}
@@ -166,11 +229,85 @@ public class MovieService {
     	}
     }
 
-//	@Cacheable(value = CACHE_MOVIE_BY_ID, key = "#id")
-	public Optional<Movie> getMovieById(Long id) throws CrudOperationException {
+    @PreAuthorize("permitAll()")
+    public CursorPage<MovieSummary> getMoviePage(MovieSortField sort, String cursor, int size)
+    		throws CrudOperationException, CrudValidationException {
+    	if (size < 1 || size > MAX_PAGE_SIZE) {
+    		throw CrudValidationException.asInvalidArgument(Movie.class, "Page size should be between 1 and " + MAX_PAGE_SIZE);
+    	}
+    	KeysetCursor after = decodeCursor(sort, cursor);
+    	String pageKey = sort.name() + ":" + size + ":" + (after == null ? "first" : cursor);
+    	return cacheMaintainer.getOrLoadPage(pageKey, () -> loadMoviePage(sort, after, size));
+    }
+
+    private CursorPage<MovieSummary> loadMoviePage(MovieSortField sort, KeysetCursor after, int size)
+    		throws CrudOperationException {
+    	try {
+    		// One extra row tells us whether another page exists without a COUNT query.
+    		Pageable limit = PageRequest.of(0, size + 1);
+    		List<MovieSummary> rows = switch (sort) {
+    			case ID -> movieRepository.findPageOrderById(
+    					after == null ? 0L : after.id(), limit);
+    			case RELEASE_DATE -> movieRepository.findPageOrderByReleaseDate(
+    					after == null ? FIRST_RELEASE_DATE : LocalDate.parse(after.value()),
+    					after == null ? 0L : after.id(), limit);
+    			case RATING -> movieRepository.findPageOrderByRating(
+    					after == null ? Double.MAX_VALUE : Double.valueOf(after.value()),
+    					after == null ? 0L : after.id(), limit);
+    			case NAME -> movieRepository.findPageOrderByName(
+    					after == null ? "" : after.value(),
+    					after == null ? 0L : after.id(), limit);
+    		};
+    		boolean hasMore = rows.size() > size;
+    		List<MovieSummary> items = summaryAssembler.withReferences(hasMore ? rows.subList(0, size) : rows);
+    		String nextCursor = hasMore ? cursorAfter(sort, items.get(items.size() - 1)) : null;
+    		log.info("Fetched page of {} movies sorted by {}", items.size(), sort);
+    		return new CursorPage<>(items, nextCursor, hasMore);
+    	}
+    	catch(Exception e) {
+    		throw CrudOperationException.asFailedGetOperation(getClass(), e);
+    	}
+    }
+
+    private KeysetCursor decodeCursor(MovieSortField sort, String cursor) throws CrudValidationException {
+    	if (cursor == null || cursor.isBlank()) {
+    		return null;
+    	}
+    	try {
+    		KeysetCursor decoded = KeysetCursor.decode(cursor);
+    		if (!sort.name().equals(decoded.sort())) {
+    			throw new IllegalArgumentException("Cursor was issued for sort " + decoded.sort());
+    		}
+    		// Fail fast on values that the typed queries would not be able to bind.
+    		if (sort == MovieSortField.RELEASE_DATE) {
+    			LocalDate.parse(decoded.value());
+    		} else if (sort == MovieSortField.RATING) {
+    			Double.parseDouble(decoded.value());
+    		}
+    		return decoded;
+    	} catch (RuntimeException e) {
+    		throw CrudValidationException.asInvalidArgument(Movie.class, "Invalid cursor: " + e.getMessage());
+    	}
+    }
+
+    private String cursorAfter(MovieSortField sort, MovieSummary last) {
+    	String value = switch (sort) {
+    		case ID -> "";
+    		case RELEASE_DATE -> (last.releaseDate() == null ? NULL_RELEASE_DATE : last.releaseDate()).toString();
+    		case RATING -> String.valueOf(last.avgRating() == null ? 0.0 : last.avgRating());
+    		case NAME -> last.movieName() == null ? "" : last.movieName();
+    	};
+    	return new KeysetCursor(sort.name(), value, last.movieId()).encode();
+    }
+
+	// sync routes misses through the cache's single-flight loader, which never stores nulls.
+	// The loader may be re-run by a background refresh, outside this proxy's transaction,
+	// so it opens its own.
+	@Cacheable(value = CACHE_MOVIE_BY_ID, key = "#id", sync = true)
+	public Optional<MovieDetail> getMovieById(Long id) throws CrudOperationException {
 		try{
 			log.info("Fetching movie with ID {} from database", id);
-			Optional<Movie> movie = movieRepository.findById(id);
+			Optional<MovieDetail> movie = Optional.ofNullable(loadDetail(id));
 			if (movie.isPresent()) {
 				log.info("Movie with ID {} found in database", id);
 			} else {
@@ -183,46 +320,52 @@ public class MovieService {
 		}
 	}
 
+	private MovieDetail loadDetail(Long id) {
+		// Read in a transaction of its own so the lazy collections can be copied even
+		// when the caller has no open persistence context.
+		return transactionTemplate.execute(status ->
+				movieRepository.findById(id).map(MovieDetail::from).orElse(null));
+	}
+
 	@PreAuthorize("hasRole('ADMIN')")
-	@CacheEvict(value = CACHE_ALL_MOVIES, allEntries = true)
 	public Movie addMovie(Movie movie) throws CrudOperationException {
 		checkForNull(movie);
 		movie.setMovieId(null);
 		validate(movie);
 		Movie savedMovie = saveMovie(movie);
-		log.info("Cleared cache for all movies after adding new movie");
+		cacheMaintainer.onMovieSaved(null, loadDetail(savedMovie.getMovieId()));
+		eventPublisher.publishEvent(MovieChangedEvent.saved(savedMovie.getMovieId()));
+		log.info("Refreshed caches after adding movie ID {}", savedMovie.getMovieId());
 		return savedMovie;
 	}
 
 	@PreAuthorize("hasRole('ADMIN')")
-	@Caching(evict = {
-		@CacheEvict(value = CACHE_ALL_MOVIES, allEntries = true),
-		@CacheEvict(value = CACHE_MOVIE_BY_ID, key = "#movie.movieId")
-	})
 	public Movie updateMovie(Movie movie) throws CrudOperationException {
 		checkForNull(movie);
 		checkId(movie.getMovieId());
 		validate(movie);
+		MovieDetail before = loadDetail(movie.getMovieId());
 		Movie savedMovie = saveMovie(movie);
-		log.info("Cleared cache for movie ID {} and all movies after update", movie.getMovieId());
+		cacheMaintainer.onMovieSaved(before, loadDetail(savedMovie.getMovieId()));
+		eventPublisher.publishEvent(MovieChangedEvent.saved(savedMovie.getMovieId()));
+		log.info("Refreshed caches for movie ID {} after update", movie.getMovieId());
 		return savedMovie;
 	}
 
 	@PreAuthorize("hasRole('ADMIN')")
 	@Transactional
-	@Caching(evict = {
-		@CacheEvict(value = CACHE_ALL_MOVIES, allEntries = true),
-		@CacheEvict(value = CACHE_MOVIE_BY_ID, key = "#id")
-	})
 	public void deleteMovie(Long id) throws CrudOperationException {
 		checkId(id);
 		try {
-			if (!movieRepository.existsById(id)) {
+			Optional<Movie> existing = movieRepository.findById(id);
+			if (existing.isEmpty()) {
 				throw CrudOperationException.asEntityNotFound(Movie.class, id);
 			}
+			MovieDetail before = MovieDetail.from(existing.get());
 			movieRepository.deleteById(id);
+			cacheMaintainer.onMovieDeleted(id, before);
+			eventPublisher.publishEvent(MovieChangedEvent.deleted(id));
 			log.info("Deleted MoviesModel with ID: " + id);
-			log.info("Cleared cache for movie ID {} and all movies after deletion", id);
 		} catch (org.springframework.dao.DataIntegrityViolationException e) {
 			log.error("Cannot delete movie with ID " + id + " due to foreign key constraints: " + e.getMessage(), e);
 			throw CrudOperationException.asFailedDeleteOperation(Movie.class, e);
@@ -232,21 +375,124 @@ public class MovieService {
 		}
 	}
 
-    public List<Movie> getMoviesByGenre(String genreName){
-        List<Movie> movies = movieRepository.findMoviesByGenre(genreName);
+    public List<MovieSummary> getMoviesByGenre(String genreName){
+        List<MovieSummary> movies = cacheMaintainer.getOrLoad(CACHE_MOVIES_BY_FACET, MovieCacheMaintainer.genreKey(genreName),
+                () -> summaryAssembler.withReferences(movieRepository.findMoviesByGenre(genreName)));
         log.info("Successfully fetched " + movies.size() + " movies based on Genre:"+genreName);
         return movies;
     }
 
-    public List<Movie> getMoviesByFormat(String format){
-        List<Movie> movies = movieRepository.findMoviesByFormat(format);
+    public List<MovieSummary> getMoviesByFormat(String format){
+        List<MovieSummary> movies = cacheMaintainer.getOrLoad(CACHE_MOVIES_BY_FACET, MovieCacheMaintainer.formatKey(format),
+                () -> summaryAssembler.withReferences(movieRepository.findMoviesByFormat(format)));
         log.info("Successfully fetched " + movies.size() + " movies based on Format:"+format);
         return movies;
     }
 
-    public List<Movie> getMoviesByLangauge(String language){
-        List<Movie> movies = movieRepository.findMoviesByLanguage(language);
+    public List<MovieSummary> getMoviesByLangauge(String language){
+        List<MovieSummary> movies = cacheMaintainer.getOrLoad(CACHE_MOVIES_BY_FACET, MovieCacheMaintainer.languageKey(language),
+                () -> summaryAssembler.withReferences(movieRepository.findMoviesByLanguage(language)));
         log.info("Successfully fetched "+movies.size()+" movies based on Language:"+ language);
         return movies;
     }
+
+    @PreAuthorize("permitAll()")
+    public FacetFilterResult filterMovies(Map<MovieFacet, ? extends Collection<String>> selection, boolean matchAll,
+    		int offset, int limit) throws CrudOperationException, CrudValidationException {
+    	if (offset < 0) {
+    		throw CrudValidationException.asInvalidArgument(Movie.class, "Offset should be >= 0");
+    	}
+    	if (limit < 1 || limit > MAX_PAGE_SIZE) {
+    		throw CrudValidationException.asInvalidArgument(Movie.class, "Limit should be between 1 and " + MAX_PAGE_SIZE);
+    	}
+    	// The facet index walks past offset matches under its read lock.
+    	if (offset > MAX_RESULT_WINDOW - limit) {
+    		throw CrudValidationException.asInvalidArgument(Movie.class, "Offset plus limit should be at most " + MAX_RESULT_WINDOW);
+    	}
+    	try {
+    		FacetMatch match = facetIndex.query(selection, matchAll, offset, limit);
+    		List<MovieSummary> movies = match.movieIds().isEmpty()
+    				? List.of()
+    				: summaryAssembler.withReferences(movieRepository.findSummariesByIds(match.movieIds()));
+    		log.info("Filtered {} of {} matching movies for {}", movies.size(), match.total(), selection);
+    		return new FacetFilterResult(match.total(), offset, limit, movies, match.counts());
+    	}
+    	catch(Exception e) {
+    		throw CrudOperationException.asFailedGetOperation(getClass(), e);
+    	}
+    }
+
+    @PreAuthorize("permitAll()")
+    public MovieSearchResult searchMovies(String query, int offset, int limit)
+    		throws CrudOperationException, CrudValidationException {
+    	if (query == null || query.isBlank() || query.length() > MAX_QUERY_LENGTH) {
+    		throw CrudValidationException.asInvalidArgument(Movie.class, "Query should be between 1 and " + MAX_QUERY_LENGTH + " characters");
+    	}
+    	if (offset < 0) {
+    		throw CrudValidationException.asInvalidArgument(Movie.class, "Offset should be >= 0");
+    	}
+    	if (limit < 1 || limit > MAX_PAGE_SIZE) {
+    		throw CrudValidationException.asInvalidArgument(Movie.class, "Limit should be between 1 and " + MAX_PAGE_SIZE);
+    	}
+    	if (offset > MAX_RESULT_WINDOW - limit) {
+    		throw CrudValidationException.asInvalidArgument(Movie.class, "Offset plus limit should be at most " + MAX_RESULT_WINDOW);
+    	}
+    	try {
+    		SearchMatch match = searchIndex.search(query, offset, limit);
+    		List<Long> ids = match.hits().stream().map(ScoredMovie::movieId).toList();
+    		Map<Long, MovieSummary> summaries = new HashMap<>();
+    		if (!ids.isEmpty()) {
+    			summaryAssembler.withReferences(movieRepository.findSummariesByIds(ids))
+    					.forEach(summary -> summaries.put(summary.movieId(), summary));
+    		}
+    		// Keep the index's ranking; a movie deleted since the search simply drops out.
+    		List<MovieSearchHit> hits = match.hits().stream()
+    				.filter(hit -> summaries.containsKey(hit.movieId()))
+    				.map(hit -> new MovieSearchHit(summaries.get(hit.movieId()), hit.score()))
+    				.toList();
+    		log.info("Search for '{}' matched {} movies", query, match.total());
+    		return new MovieSearchResult(query, match.total(), offset, limit, hits);
+    	}
+    	catch(Exception e) {
+    		throw CrudOperationException.asFailedGetOperation(getClass(), e);
+    	}
+    }
+
+    @PreAuthorize("permitAll()")
+    public List<SimilarMovie> getSimilarMovies(Long id, int limit) throws CrudOperationException, CrudValidationException {
+    	if (id == null || id <= 0) {
+    		throw CrudValidationException.asInvalidEntityId(Movie.class);
+    	}
+    	if (limit < 1 || limit > SimilarMoviesIndex.TOP_K) {
+    		throw CrudValidationException.asInvalidArgument(Movie.class, "Limit should be between 1 and " + SimilarMoviesIndex.TOP_K);
+    	}
+    	try {
+    		List<ScoredMovie> neighbours = similarMoviesIndex.similarTo(id, limit);
+    		if (neighbours.isEmpty()) {
+    			return List.of();
+    		}
+    		Map<Long, MovieSummary> summaries = new HashMap<>();
+    		summaryAssembler.withReferences(movieRepository.findSummariesByIds(
+    				neighbours.stream().map(ScoredMovie::movieId).toList()))
+    				.forEach(summary -> summaries.put(summary.movieId(), summary));
+    		return neighbours.stream()
+    				.filter(neighbour -> summaries.containsKey(neighbour.movieId()))
+    				.map(neighbour -> new SimilarMovie(summaries.get(neighbour.movieId()), neighbour.score()))
+    				.toList();
+    	}
+    	catch(Exception e) {
+    		throw CrudOperationException.asFailedGetOperation(getClass(), e);
+    	}
+    }
+
+    @PreAuthorize("permitAll()")
+    public List<TitleSuggestion> autocomplete(String prefix, int limit) throws CrudValidationException {
+    	if (prefix == null || prefix.isBlank() || prefix.length() > MAX_QUERY_LENGTH) {
+    		throw CrudValidationException.asInvalidArgument(Movie.class, "Prefix should be between 1 and " + MAX_QUERY_LENGTH + " characters");
+    	}
+    	if (limit < 1 || limit > TitleAutocompleteIndex.TOP_K) {
+    		throw CrudValidationException.asInvalidArgument(Movie.class, "Limit should be between 1 and " + TitleAutocompleteIndex.TOP_K);
+    	}
+    	return autocompleteIndex.suggest(prefix, limit);
+    }
 }
@@ -0,0 +1,61 @@
+package com.project.habitat.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.project.habitat.dto.MovieReferenceName;
+import com.project.habitat.dto.MovieSummary;
+import com.project.habitat.repository.MovieRepository;
+
+/**
+ * Attaches genre, format and language names to {@link MovieSummary} rows using one query
+ * per join table for every {@value #ID_CHUNK_SIZE} movies, instead of walking the lazy
+ * collections of each entity.
+ */
+@Component
+public class MovieSummaryAssembler {
+
+    static final int ID_CHUNK_SIZE = 1000;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    public List<MovieSummary> withReferences(List<MovieSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = summaries.stream().map(MovieSummary::movieId).toList();
+        Map<Long, List<String>> genres = namesByMovie(ids, movieRepository::findGenreNames);
+        Map<Long, List<String>> formats = namesByMovie(ids, movieRepository::findFormatNames);
+        Map<Long, List<String>> languages = namesByMovie(ids, movieRepository::findLanguageNames);
+
+        List<MovieSummary> result = new ArrayList<>(summaries.size());
+        for (MovieSummary summary : summaries) {
+            Long id = summary.movieId();
+            result.add(summary.withReferences(
+                    genres.getOrDefault(id, List.of()),
+                    formats.getOrDefault(id, List.of()),
+                    languages.getOrDefault(id, List.of())));
+        }
+        return result;
+    }
+
+    private Map<Long, List<String>> namesByMovie(List<Long> ids,
+                                                 Function<List<Long>, List<MovieReferenceName>> query) {
+        Map<Long, List<String>> names = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += ID_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(ids.size(), from + ID_CHUNK_SIZE));
+            for (MovieReferenceName row : query.apply(chunk)) {
+                names.computeIfAbsent(row.movieId(), id -> new ArrayList<>()).add(row.name());
+            }
+        }
+        names.values().forEach(list -> list.sort(null));
+        return names;
+    }
+}
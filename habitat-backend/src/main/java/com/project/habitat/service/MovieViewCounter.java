@@ -0,0 +1,179 @@
+package com.project.habitat.service;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.project.habitat.dto.MovieViewCount;
+import com.project.habitat.exception.CrudValidationException;
+import com.project.habitat.index.MovieFacetIndex;
+import com.project.habitat.index.StripedCounterTable;
+import com.project.habitat.model.Movie;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Counts movie detail views in memory and adds them to {@code dev.movie_view_counts} with
+ * one batched upsert per flush interval, instead of one update per page view. Each flush
+ * also feeds the views to the trending leaderboard.
+ *
+ * <p>Loss bound: counts live only in this node's memory until their flush commits. A failed
+ * flush puts its counts back for the next one, and a graceful shutdown flushes, so only a
+ * crash loses views: at most those of the last flush interval (plus the interval of a
+ * flush that was in flight).
+ */
+@Component
+public class MovieViewCounter {
+
+	public static final int MAX_BATCH = 200;
+
+	private static final String UPSERT_COUNTS = """
+			INSERT INTO dev.movie_view_counts AS c (movie_id, view_count, updated_at)
+			SELECT t.movie_id, t.view_count, now()
+			FROM unnest(?::bigint[], ?::bigint[]) AS t(movie_id, view_count)
+			WHERE EXISTS (SELECT 1 FROM dev.movies m WHERE m.movie_id = t.movie_id)
+			ON CONFLICT (movie_id) DO UPDATE SET
+			    view_count = c.view_count + EXCLUDED.view_count,
+			    updated_at = now()
+			""";
+
+	private static final String SELECT_COUNTS = """
+			SELECT movie_id, view_count FROM dev.movie_view_counts WHERE movie_id = ANY (?)
+			""";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private LeaderboardService leaderboardService;
+
+	@Autowired
+	private MovieFacetIndex facetIndex;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${app.views.stripes:0}")
+	private int stripes;
+
+	private Logger log = LogManager.getLogger(MovieViewCounter.class);
+
+	private StripedCounterTable counters;
+	private Timer flushTimer;
+	private Counter flushedViews;
+	private Counter failedFlushes;
+
+	@PostConstruct
+	void init() {
+		counters = new StripedCounterTable(stripes > 0 ? stripes : 2 * Runtime.getRuntime().availableProcessors());
+		Gauge.builder("habitat.views.pending", counters, StripedCounterTable::pendingIds)
+				.description("Movies with views not yet stored")
+				.register(meterRegistry);
+		flushTimer = Timer.builder("habitat.views.flush.duration")
+				.description("Time to store one batch of view counts")
+				.register(meterRegistry);
+		flushedViews = Counter.builder("habitat.views.flushed")
+				.description("Movie views stored")
+				.register(meterRegistry);
+		failedFlushes = Counter.builder("habitat.views.flush.failures")
+				.description("View count flushes that failed and were retried")
+				.register(meterRegistry);
+	}
+
+	/** Counts a view of a catalog movie; ids not in the catalog are ignored. */
+	public void recordView(Long movieId) {
+		// Unknown ids would grow the table until the next flush and reach the trending set.
+		if (movieId != null && movieId > 0 && facetIndex.contains(movieId)) {
+			counters.increment(movieId);
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${app.views.flush-interval-millis:5000}")
+	public void flush() {
+		StripedCounterTable.Counts counts = counters.drain();
+		if (counts.size() == 0) {
+			return;
+		}
+		long start = System.nanoTime();
+		try {
+			// Ids are sorted, so concurrent flushes from other nodes lock rows in the same order.
+			jdbcTemplate.update(connection -> {
+				PreparedStatement statement = connection.prepareStatement(UPSERT_COUNTS);
+				statement.setArray(1, connection.createArrayOf("bigint", boxed(counts.ids())));
+				statement.setArray(2, connection.createArrayOf("bigint", boxed(counts.counts())));
+				return statement;
+			});
+		} catch (Exception e) {
+			failedFlushes.increment();
+			for (int i = 0; i < counts.size(); i++) {
+				counters.add(counts.ids()[i], counts.counts()[i]);
+			}
+			log.warn("Could not store views of {} movies, retrying with the next flush: {}", counts.size(),
+					e.getMessage());
+			return;
+		}
+		flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		flushedViews.increment(counts.total());
+		for (int i = 0; i < counts.size(); i++) {
+			leaderboardService.recordViews(counts.ids()[i], counts.counts()[i]);
+		}
+		log.info("Stored {} views of {} movies in {} ms", counts.total(), counts.size(),
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	@PreDestroy
+	void flushOnShutdown() {
+		flush();
+	}
+
+	/** Stored view counts in the order the ids were given, without duplicates. */
+	public List<MovieViewCount> getViewCounts(List<Long> movieIds) throws CrudValidationException {
+		if (movieIds == null || movieIds.isEmpty()) {
+			return List.of();
+		}
+		Set<Long> ids = new LinkedHashSet<>(movieIds);
+		if (ids.size() > MAX_BATCH || ids.contains(null)) {
+			throw CrudValidationException.asInvalidArgument(Movie.class,
+					"Between 1 and " + MAX_BATCH + " movie ids can be requested at once");
+		}
+		Map<Long, Long> stored = new LinkedHashMap<>();
+		jdbcTemplate.query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(SELECT_COUNTS);
+			statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+			return statement;
+		}, resultSet -> {
+			stored.put(resultSet.getLong("movie_id"), resultSet.getLong("view_count"));
+		});
+		List<MovieViewCount> counts = new ArrayList<>(ids.size());
+		for (Long id : ids) {
+			counts.add(new MovieViewCount(id, stored.getOrDefault(id, 0L)));
+		}
+		return counts;
+	}
+
+	private static Long[] boxed(long[] values) {
+		Long[] boxed = new Long[values.length];
+		for (int i = 0; i < values.length; i++) {
+			boxed[i] = values[i];
+		}
+		return boxed;
+	}
+}
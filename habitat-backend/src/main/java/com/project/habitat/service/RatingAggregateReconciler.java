@@ -0,0 +1,192 @@
+package com.project.habitat.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Recomputes the rating aggregates from {@code dev.ratings} and repairs the summary rows and
+ * movie averages that have drifted, e.g. through ratings written outside the service. Movie
+ * ids are split into ranges that are repaired in parallel, each in its own transaction, and
+ * only one node reconciles at a time.
+ *
+ * <p>Each range first locks its existing summary rows. A rating submitted meanwhile waits
+ * for that lock before adding itself to the summary, so it is either counted here or added
+ * after the repair, never both or neither. Movies without any rating keep the average they
+ * were imported with.
+ */
+@Component
+public class RatingAggregateReconciler {
+
+	private static final String LOCK_NAME = "habitat:ratings:reconcile";
+
+	private static final String ID_RANGE = "SELECT min(movie_id) AS min_id, max(movie_id) AS max_id FROM dev.movies";
+
+	private static final String LOCK_SUMMARIES = """
+			SELECT movie_id FROM dev.movie_rating_summaries
+			WHERE movie_id > ? AND movie_id <= ?
+			ORDER BY movie_id
+			FOR UPDATE
+			""";
+
+	private static final String REPAIR_SUMMARIES = """
+			UPDATE dev.movie_rating_summaries s SET
+			    rating_count = t.rating_count, rating_sum = t.rating_sum,
+			    stars_1 = t.stars_1, stars_2 = t.stars_2, stars_3 = t.stars_3, stars_4 = t.stars_4, stars_5 = t.stars_5,
+			    updated_at = now()
+			FROM (
+			    SELECT s2.movie_id,
+			           COUNT(r.rating) AS rating_count,
+			           COALESCE(SUM(r.rating), 0) AS rating_sum,
+			           COUNT(*) FILTER (WHERE r.rating = 1) AS stars_1,
+			           COUNT(*) FILTER (WHERE r.rating = 2) AS stars_2,
+			           COUNT(*) FILTER (WHERE r.rating = 3) AS stars_3,
+			           COUNT(*) FILTER (WHERE r.rating = 4) AS stars_4,
+			           COUNT(*) FILTER (WHERE r.rating = 5) AS stars_5
+			    FROM dev.movie_rating_summaries s2
+			    LEFT JOIN dev.ratings r ON r.movie_id = s2.movie_id AND r.rating BETWEEN 1 AND 5
+			    WHERE s2.movie_id > ? AND s2.movie_id <= ?
+			    GROUP BY s2.movie_id
+			) t
+			WHERE s.movie_id = t.movie_id
+			  AND (s.rating_count, s.rating_sum, s.stars_1, s.stars_2, s.stars_3, s.stars_4, s.stars_5)
+			      IS DISTINCT FROM (t.rating_count, t.rating_sum, t.stars_1, t.stars_2, t.stars_3, t.stars_4, t.stars_5)
+			RETURNING s.movie_id
+			""";
+
+	// Rows created concurrently by a rating are already exact, so conflicts are left alone.
+	private static final String INSERT_MISSING_SUMMARIES = """
+			INSERT INTO dev.movie_rating_summaries
+			    (movie_id, rating_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5, updated_at)
+			SELECT r.movie_id, COUNT(*), SUM(r.rating),
+			       COUNT(*) FILTER (WHERE r.rating = 1),
+			       COUNT(*) FILTER (WHERE r.rating = 2),
+			       COUNT(*) FILTER (WHERE r.rating = 3),
+			       COUNT(*) FILTER (WHERE r.rating = 4),
+			       COUNT(*) FILTER (WHERE r.rating = 5),
+			       now()
+			FROM dev.ratings r
+			WHERE r.movie_id > ? AND r.movie_id <= ? AND r.rating BETWEEN 1 AND 5
+			  AND NOT EXISTS (SELECT 1 FROM dev.movie_rating_summaries s WHERE s.movie_id = r.movie_id)
+			GROUP BY r.movie_id
+			ON CONFLICT (movie_id) DO NOTHING
+			RETURNING movie_id
+			""";
+
+	private static final String REPAIR_AVERAGES = """
+			UPDATE dev.movies m
+			SET avg_rating = s.rating_sum::float8 / s.rating_count
+			FROM dev.movie_rating_summaries s
+			WHERE s.movie_id = m.movie_id
+			  AND m.movie_id > ? AND m.movie_id <= ?
+			  AND s.rating_count > 0
+			  AND m.avg_rating IS DISTINCT FROM s.rating_sum::float8 / s.rating_count
+			RETURNING m.movie_id
+			""";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private RedissonClient redissonClient;
+
+	@Autowired
+	private RatingChangeNotifier ratingChangeNotifier;
+
+	@Value("${app.ratings.reconcile.chunk-size:1000}")
+	private long chunkSize;
+
+	@Value("${app.ratings.reconcile.threads:4}")
+	private int threads;
+
+	@Value("${app.ratings.reconcile.lease-minutes:30}")
+	private long leaseMinutes;
+
+	private Logger log = LogManager.getLogger(RatingAggregateReconciler.class);
+
+	@Scheduled(initialDelayString = "${app.ratings.reconcile.initial-delay-millis:60000}",
+			fixedDelayString = "${app.ratings.reconcile.interval-millis:21600000}")
+	public void reconcileOnSchedule() {
+		RLock lock = redissonClient.getLock(LOCK_NAME);
+		boolean locked = false;
+		try {
+			locked = lock.tryLock(0, leaseMinutes, TimeUnit.MINUTES);
+			if (!locked) {
+				log.info("Skipping rating reconciliation, another node is running it");
+				return;
+			}
+			reconcile();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			log.error("Rating reconciliation failed: " + e.getMessage(), e);
+		} finally {
+			if (locked && lock.isHeldByCurrentThread()) {
+				lock.unlock();
+			}
+		}
+	}
+
+	/** Repairs every range and returns the ids of the movies whose aggregates were wrong. */
+	public Set<Long> reconcile() {
+		long start = System.nanoTime();
+		Map<String, Object> range = jdbcTemplate.queryForMap(ID_RANGE);
+		if (range.get("min_id") == null) {
+			return Set.of();
+		}
+		long minId = ((Number) range.get("min_id")).longValue();
+		long maxId = ((Number) range.get("max_id")).longValue();
+
+		ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, threads));
+		try {
+			List<CompletableFuture<List<Long>>> chunks = new ArrayList<>();
+			for (long from = minId - 1; from < maxId; from += chunkSize) {
+				long lower = from;
+				long upper = Math.min(from + chunkSize, maxId);
+				chunks.add(CompletableFuture.supplyAsync(() -> reconcileRange(lower, upper), pool));
+			}
+			Set<Long> repaired = new LinkedHashSet<>();
+			chunks.forEach(chunk -> repaired.addAll(chunk.join()));
+			if (!repaired.isEmpty()) {
+				ratingChangeNotifier.markChanged(repaired);
+			}
+			log.info("Reconciled rating aggregates of movies {} to {} in {} chunks in {} ms, repaired {}",
+					minId, maxId, chunks.size(), (System.nanoTime() - start) / 1_000_000, repaired.size());
+			return repaired;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/** Repairs movies with {@code lower < movie_id <= upper}. */
+	private List<Long> reconcileRange(long lower, long upper) {
+		return transactionTemplate.execute(status -> {
+			jdbcTemplate.queryForList(LOCK_SUMMARIES, Long.class, lower, upper);
+			List<Long> repaired = new ArrayList<>();
+			repaired.addAll(jdbcTemplate.queryForList(REPAIR_SUMMARIES, Long.class, lower, upper));
+			repaired.addAll(jdbcTemplate.queryForList(INSERT_MISSING_SUMMARIES, Long.class, lower, upper));
+			repaired.addAll(jdbcTemplate.queryForList(REPAIR_AVERAGES, Long.class, lower, upper));
+			return repaired;
+		});
+	}
+}
@@ -0,0 +1,81 @@
+package com.project.habitat.service;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.project.habitat.dto.RatingSummary;
+
+/**
+ * Adds new ratings to the per-movie summaries and the movie averages. Must run in the
+ * transaction that inserted the ratings: the summary upsert takes the row lock that
+ * serializes writers of one movie until commit, which keeps the averages exact.
+ */
+@Component
+public class RatingAggregateWriter {
+
+	private static final String UPSERT_SUMMARY = """
+			INSERT INTO dev.movie_rating_summaries AS s
+			    (movie_id, rating_count, rating_sum, stars_1, stars_2, stars_3, stars_4, stars_5, updated_at)
+			VALUES (?, ?, ?, ?, ?, ?, ?, ?, now())
+			ON CONFLICT (movie_id) DO UPDATE SET
+			    rating_count = s.rating_count + EXCLUDED.rating_count,
+			    rating_sum = s.rating_sum + EXCLUDED.rating_sum,
+			    stars_1 = s.stars_1 + EXCLUDED.stars_1,
+			    stars_2 = s.stars_2 + EXCLUDED.stars_2,
+			    stars_3 = s.stars_3 + EXCLUDED.stars_3,
+			    stars_4 = s.stars_4 + EXCLUDED.stars_4,
+			    stars_5 = s.stars_5 + EXCLUDED.stars_5,
+			    updated_at = now()
+			""";
+
+	private static final String UPDATE_AVERAGES = """
+			UPDATE dev.movies m
+			SET avg_rating = s.rating_sum::float8 / s.rating_count
+			FROM dev.movie_rating_summaries s
+			WHERE s.movie_id = m.movie_id AND s.rating_count > 0 AND m.movie_id = ANY (?)
+			""";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	/** Counts one rating of {@code stars} for the movie. */
+	public void add(Long movieId, int stars) {
+		long[] histogram = new long[RatingSummary.MAX_STARS];
+		histogram[stars - RatingSummary.MIN_STARS] = 1;
+		addAll(Map.of(movieId, histogram));
+	}
+
+	/**
+	 * Counts new ratings per movie, given as the number of ratings with 1 to 5 stars.
+	 * Movies are written in id order, so concurrent batches lock rows in the same order.
+	 */
+	public void addAll(Map<Long, long[]> histograms) {
+		if (histograms.isEmpty()) {
+			return;
+		}
+		List<Object[]> rows = new ArrayList<>(histograms.size());
+		new TreeMap<>(histograms).forEach((movieId, histogram) -> {
+			long count = 0;
+			long sum = 0;
+			for (int i = 0; i < histogram.length; i++) {
+				count += histogram[i];
+				sum += histogram[i] * (i + RatingSummary.MIN_STARS);
+			}
+			rows.add(new Object[] {movieId, count, sum,
+					histogram[0], histogram[1], histogram[2], histogram[3], histogram[4]});
+		});
+		jdbcTemplate.batchUpdate(UPSERT_SUMMARY, rows);
+		jdbcTemplate.update(connection -> {
+			PreparedStatement statement = connection.prepareStatement(UPDATE_AVERAGES);
+			statement.setArray(1, connection.createArrayOf("bigint", histograms.keySet().toArray()));
+			return statement;
+		});
+	}
+}
@@ -0,0 +1,70 @@
+package com.project.habitat.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.project.habitat.events.MovieChangeType;
+import com.project.habitat.events.MovieChangedEvent;
+
+/**
+ * Batches the catalog side effects of new ratings. A rating changes the movie's average,
+ * which shows up in every list view, so publishing each one would bust the catalog caches
+ * and ETags on every vote. Instead the rated movies are collected and published together,
+ * at most once per {@code app.ratings.publish-interval-millis}, as a
+ * {@link MovieChangeType#RATED} event that indexes built on tags alone can skip.
+ */
+@Component
+public class RatingChangeNotifier {
+
+	@Autowired
+	private MovieCacheMaintainer cacheMaintainer;
+
+	@Autowired
+	private ApplicationEventPublisher eventPublisher;
+
+	private final Set<Long> changedMovieIds = ConcurrentHashMap.newKeySet();
+
+	private Logger log = LogManager.getLogger(RatingChangeNotifier.class);
+
+	/** Marks movies whose aggregates changed; takes effect once the current transaction commits. */
+	public void markChanged(Collection<Long> movieIds) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					changedMovieIds.addAll(movieIds);
+				}
+			});
+		} else {
+			changedMovieIds.addAll(movieIds);
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${app.ratings.publish-interval-millis:30000}")
+	public void publishChanges() {
+		List<Long> movieIds = new ArrayList<>();
+		for (Iterator<Long> pending = changedMovieIds.iterator(); pending.hasNext(); ) {
+			movieIds.add(pending.next());
+			pending.remove();
+		}
+		if (movieIds.isEmpty()) {
+			return;
+		}
+		cacheMaintainer.onRatingsChanged(movieIds);
+		eventPublisher.publishEvent(new MovieChangedEvent(MovieChangeType.RATED, movieIds, false));
+		log.info("Published rating changes for {} movies", movieIds.size());
+	}
+}
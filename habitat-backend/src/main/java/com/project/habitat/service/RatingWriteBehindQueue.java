@@ -0,0 +1,408 @@
+package com.project.habitat.service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.habitat.dto.RatingSummary;
+import com.project.habitat.exception.BackpressureException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Bounded, durable buffer for rating submissions during traffic spikes. Submissions are
+ * appended to a Redis list shared by all nodes and acknowledged straight away; one node at
+ * a time drains the list in batches, each stored with a single multi-row insert and one
+ * aggregate update per movie.
+ *
+ * <p>A batch is removed from the list only after its transaction has committed, so a crash
+ * in between replays it. Replays are harmless: every rating carries its submission id,
+ * which is unique in {@code dev.ratings}, and rows that already exist are neither inserted
+ * nor counted again. Ratings of movies deleted meanwhile are dropped.
+ *
+ * <p>Entries that can never be stored, e.g. unreadable JSON or a rating by a user deleted
+ * after submitting it, are moved to the dead-letter list {@code habitat:ratings:dead}
+ * (keeping the newest {@code dead-letter-capacity}) so they cannot hold up the queue.
+ */
+@Component
+public class RatingWriteBehindQueue {
+
+	/** A buffered submission, stored in the list as JSON. */
+	public record QueuedRating(String submissionId, Long movieId, Long userId, Integer rating, String review,
+			long submittedAtMillis) {
+	}
+
+	private static final String QUEUE_KEY = "habitat:ratings:pending";
+	private static final String LOCK_NAME = "habitat:ratings:flush";
+	private static final String DEAD_LETTER_KEY = "habitat:ratings:dead";
+
+	// Checks the length and appends in one step, so concurrent submitters cannot overshoot.
+	private static final RedisScript<Long> BOUNDED_PUSH = new DefaultRedisScript<>("""
+			if redis.call('LLEN', KEYS[1]) >= tonumber(ARGV[2]) then
+			    return -1
+			end
+			return redis.call('RPUSH', KEYS[1], ARGV[1])
+			""", Long.class);
+
+	private static final String INSERT_RATINGS = """
+			INSERT INTO dev.ratings (submission_id, movie_id, user_id, rating, review, created_at)
+			SELECT t.submission_id, t.movie_id, t.user_id, t.rating, t.review, t.created_at
+			FROM unnest(?::uuid[], ?::bigint[], ?::bigint[], ?::integer[], ?::text[], ?::timestamp[])
+			    AS t(submission_id, movie_id, user_id, rating, review, created_at)
+			WHERE EXISTS (SELECT 1 FROM dev.movies m WHERE m.movie_id = t.movie_id)
+			ON CONFLICT (submission_id) DO NOTHING
+			RETURNING movie_id, rating
+			""";
+
+	@Autowired
+	private StringRedisTemplate redisTemplate;
+
+	@Autowired
+	private RedissonClient redissonClient;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private RatingAggregateWriter aggregateWriter;
+
+	@Autowired
+	private RatingChangeNotifier ratingChangeNotifier;
+
+	@Autowired
+	private LeaderboardService leaderboardService;
+
+	@Autowired
+	private JsonMapper jsonMapper;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${app.ratings.write-behind.enabled:false}")
+	private boolean enabled;
+
+	@Value("${app.ratings.write-behind.capacity:100000}")
+	private long capacity;
+
+	@Value("${app.ratings.write-behind.batch-size:1000}")
+	private int batchSize;
+
+	@Value("${app.ratings.write-behind.max-batches-per-flush:20}")
+	private int maxBatchesPerFlush;
+
+	@Value("${app.ratings.write-behind.retry-after-seconds:5}")
+	private long retryAfterSeconds;
+
+	@Value("${app.ratings.write-behind.dead-letter-capacity:10000}")
+	private long deadLetterCapacity;
+
+	private Logger log = LogManager.getLogger(RatingWriteBehindQueue.class);
+
+	private final AtomicLong depth = new AtomicLong();
+	private final AtomicBoolean flushRequested = new AtomicBoolean();
+	private ExecutorService flushThread;
+	private Timer flushTimer;
+	private DistributionSummary flushBatchSize;
+	private Counter rejected;
+	private Counter deadLettered;
+
+	@PostConstruct
+	void init() {
+		flushThread = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "rating-flush");
+			thread.setDaemon(true);
+			return thread;
+		});
+		Gauge.builder("habitat.ratings.queue.depth", depth, AtomicLong::get)
+				.description("Rating submissions waiting to be stored, as last seen by this node")
+				.register(meterRegistry);
+		flushTimer = Timer.builder("habitat.ratings.flush.duration")
+				.description("Time to store one batch of buffered ratings")
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+		flushBatchSize = DistributionSummary.builder("habitat.ratings.flush.batch.size")
+				.description("Buffered ratings stored per batch")
+				.register(meterRegistry);
+		rejected = Counter.builder("habitat.ratings.queue.rejected")
+				.description("Rating submissions turned away because the buffer was full")
+				.register(meterRegistry);
+		deadLettered = Counter.builder("habitat.ratings.queue.dead.lettered")
+				.description("Buffered ratings that could not be stored and were moved to the dead-letter list")
+				.register(meterRegistry);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		flushThread.shutdownNow();
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Buffers a submission. Returns {@code false} when Redis cannot be reached, in which case
+	 * the caller should store the rating itself.
+	 *
+	 * @throws BackpressureException when the buffer holds {@code capacity} submissions
+	 */
+	public boolean offer(QueuedRating rating) {
+		Long length;
+		try {
+			length = redisTemplate.execute(BOUNDED_PUSH, List.of(QUEUE_KEY),
+					jsonMapper.writeValueAsString(rating), String.valueOf(capacity));
+		} catch (DataAccessException e) {
+			log.warn("Could not buffer rating " + rating.submissionId() + ": " + e.getMessage());
+			return false;
+		}
+		if (length == null) {
+			return false;
+		}
+		if (length < 0) {
+			rejected.increment();
+			throw BackpressureException.asQueueFull("ratings", retryAfterSeconds);
+		}
+		depth.set(length);
+		if (length >= batchSize && flushRequested.compareAndSet(false, true)) {
+			flushThread.execute(() -> {
+				flushRequested.set(false);
+				flush();
+			});
+		}
+		return true;
+	}
+
+	@Scheduled(fixedDelayString = "${app.ratings.write-behind.flush-interval-millis:1000}")
+	public void flushOnSchedule() {
+		if (enabled) {
+			flush();
+		}
+	}
+
+	/** Stores buffered ratings until the list is empty or {@code max-batches-per-flush} is reached. */
+	public void flush() {
+		try {
+			Long pending = redisTemplate.opsForList().size(QUEUE_KEY);
+			depth.set(pending == null ? 0 : pending);
+			if (pending == null || pending == 0) {
+				return;
+			}
+		} catch (DataAccessException e) {
+			log.warn("Could not read the rating buffer: " + e.getMessage());
+			return;
+		}
+		// No lease: the lock watchdog keeps it while this node is alive, so a slow batch
+		// cannot be flushed and trimmed by a second node as well.
+		RLock lock = redissonClient.getLock(LOCK_NAME);
+		boolean locked = false;
+		try {
+			locked = lock.tryLock(0, TimeUnit.SECONDS);
+			if (!locked) {
+				return;
+			}
+			for (int i = 0; i < maxBatchesPerFlush; i++) {
+				if (flushBatch() < batchSize) {
+					break;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			log.error("Flushing buffered ratings failed: " + e.getMessage(), e);
+		} finally {
+			if (locked && lock.isHeldByCurrentThread()) {
+				lock.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Stores the oldest batch and removes it from the list; returns the number of entries
+	 * taken. Entries that cannot be stored, because they are unreadable, invalid or rejected
+	 * by the database on their own, go to the dead-letter list instead of blocking the queue.
+	 */
+	private int flushBatch() {
+		List<String> payloads = redisTemplate.opsForList().range(QUEUE_KEY, 0, batchSize - 1L);
+		if (payloads == null || payloads.isEmpty()) {
+			depth.set(0);
+			return 0;
+		}
+		List<StoredRating> batch = new ArrayList<>(payloads.size());
+		List<String> rejectedPayloads = new ArrayList<>();
+		for (String payload : payloads) {
+			try {
+				batch.add(StoredRating.of(payload, jsonMapper.readValue(payload, QueuedRating.class)));
+			} catch (RuntimeException e) {
+				log.error("Dead-lettering unreadable buffered rating " + payload + ": " + e.getMessage());
+				rejectedPayloads.add(payload);
+			}
+		}
+		long start = System.nanoTime();
+		Map<Long, long[]> histograms = new HashMap<>();
+		store(batch, histograms, rejectedPayloads);
+		flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		flushBatchSize.record(batch.size());
+
+		// Dead letters are kept before the batch leaves the queue; a crash in between only duplicates them.
+		if (!rejectedPayloads.isEmpty()) {
+			redisTemplate.opsForList().rightPushAll(DEAD_LETTER_KEY, rejectedPayloads);
+			redisTemplate.opsForList().trim(DEAD_LETTER_KEY, -deadLetterCapacity, -1);
+			deadLettered.increment(rejectedPayloads.size());
+		}
+		redisTemplate.opsForList().trim(QUEUE_KEY, payloads.size(), -1);
+		depth.updateAndGet(current -> Math.max(0, current - payloads.size()));
+		if (!histograms.isEmpty()) {
+			ratingChangeNotifier.markChanged(histograms.keySet());
+		}
+		log.info("Stored {} of {} buffered ratings for {} movies in {} ms, dead-lettered {}", countAll(histograms),
+				payloads.size(), histograms.size(), (System.nanoTime() - start) / 1_000_000, rejectedPayloads.size());
+		return payloads.size();
+	}
+
+	/**
+	 * Stores the ratings in one transaction. When the database rejects the data, the halves
+	 * are stored separately until the offending rows are isolated and dead-lettered. Any
+	 * other failure, such as a lost connection, propagates so the whole batch is retried.
+	 */
+	private void store(List<StoredRating> ratings, Map<Long, long[]> histograms, List<String> rejectedPayloads) {
+		if (ratings.isEmpty()) {
+			return;
+		}
+		try {
+			Map<Long, long[]> inserted = transactionTemplate.execute(status -> {
+				Map<Long, long[]> rows = insert(ratings);
+				aggregateWriter.addAll(rows);
+				return rows;
+			});
+			// Only committed rows count, so a replayed or rejected submission never ranks a movie.
+			leaderboardService.recordRatings(inserted);
+			inserted.forEach((movieId, histogram) -> {
+				long[] total = histograms.computeIfAbsent(movieId, id -> new long[RatingSummary.MAX_STARS]);
+				for (int i = 0; i < histogram.length; i++) {
+					total[i] += histogram[i];
+				}
+			});
+		} catch (DataIntegrityViolationException e) {
+			if (ratings.size() == 1) {
+				log.error("Dead-lettering buffered rating " + ratings.get(0).payload() + ": " + e.getMessage());
+				rejectedPayloads.add(ratings.get(0).payload());
+				return;
+			}
+			int half = ratings.size() / 2;
+			store(ratings.subList(0, half), histograms, rejectedPayloads);
+			store(ratings.subList(half, ratings.size()), histograms, rejectedPayloads);
+		}
+	}
+
+	/** Inserts the ratings and returns, per movie, the number of new ratings with 1 to 5 stars. */
+	private Map<Long, long[]> insert(List<StoredRating> batch) {
+		int size = batch.size();
+		UUID[] submissionIds = new UUID[size];
+		Long[] movieIds = new Long[size];
+		Long[] userIds = new Long[size];
+		Integer[] ratings = new Integer[size];
+		String[] reviews = new String[size];
+		Timestamp[] createdAt = new Timestamp[size];
+		for (int i = 0; i < size; i++) {
+			StoredRating rating = batch.get(i);
+			submissionIds[i] = rating.submissionId();
+			movieIds[i] = rating.movieId();
+			userIds[i] = rating.userId();
+			ratings[i] = rating.rating();
+			reviews[i] = rating.review();
+			createdAt[i] = rating.createdAt();
+		}
+		Map<Long, long[]> histograms = new HashMap<>();
+		jdbcTemplate.query((Connection connection) -> {
+			PreparedStatement statement = connection.prepareStatement(INSERT_RATINGS);
+			setArray(statement, 1, "uuid", submissionIds);
+			setArray(statement, 2, "bigint", movieIds);
+			setArray(statement, 3, "bigint", userIds);
+			setArray(statement, 4, "integer", ratings);
+			setArray(statement, 5, "text", reviews);
+			setArray(statement, 6, "timestamp", createdAt);
+			return statement;
+		}, resultSet -> {
+			long[] histogram = histograms.computeIfAbsent(resultSet.getLong("movie_id"),
+					movieId -> new long[RatingSummary.MAX_STARS]);
+			histogram[resultSet.getInt("rating") - RatingSummary.MIN_STARS]++;
+		});
+		return histograms;
+	}
+
+	/** A buffered rating checked and converted for the insert, with the payload it came from. */
+	private record StoredRating(String payload, UUID submissionId, Long movieId, Long userId, Integer rating,
+			String review, Timestamp createdAt) {
+
+		/** @throws IllegalArgumentException when the entry could never be stored */
+		static StoredRating of(String payload, QueuedRating rating) {
+			if (rating == null || rating.submissionId() == null) {
+				throw new IllegalArgumentException("missing submission id");
+			}
+			if (rating.movieId() == null || rating.movieId() <= 0) {
+				throw new IllegalArgumentException("invalid movie id " + rating.movieId());
+			}
+			if (rating.userId() != null && rating.userId() <= 0) {
+				throw new IllegalArgumentException("invalid user id " + rating.userId());
+			}
+			Integer stars = rating.rating();
+			if (stars == null || stars < RatingSummary.MIN_STARS || stars > RatingSummary.MAX_STARS) {
+				throw new IllegalArgumentException("invalid rating " + stars);
+			}
+			return new StoredRating(payload, UUID.fromString(rating.submissionId()), rating.movieId(),
+					rating.userId(), stars, rating.review(), new Timestamp(rating.submittedAtMillis()));
+		}
+	}
+
+	private static void setArray(PreparedStatement statement, int index, String type, Object[] values)
+			throws SQLException {
+		statement.setArray(index, statement.getConnection().createArrayOf(type, values));
+	}
+
+	private static long countAll(Map<Long, long[]> histograms) {
+		long count = 0;
+		for (long[] histogram : histograms.values()) {
+			for (long stars : histogram) {
+				count += stars;
+			}
+		}
+		return count;
+	}
+}
@@ -1,26 +1,84 @@
 package com.project.habitat.service;
 
+import com.project.habitat.dto.CursorPage;
+import com.project.habitat.dto.KeysetCursor;
+import com.project.habitat.dto.RatingReceipt;
+import com.project.habitat.dto.RatingRequest;
+import com.project.habitat.dto.RatingSortField;
+import com.project.habitat.dto.RatingSummary;
+import com.project.habitat.dto.RatingView;
+import com.project.habitat.exception.BackpressureException;
 import com.project.habitat.exception.CrudOperationException;
 import com.project.habitat.exception.CrudValidationException;
+import com.project.habitat.index.MovieFacetIndex;
+import com.project.habitat.model.Movie;
+import com.project.habitat.model.MovieRatingSummary;
 import com.project.habitat.model.Rating;
 import com.project.habitat.model.User;
+import com.project.habitat.repository.MovieRatingSummaryRepository;
+import com.project.habitat.repository.MovieRepository;
 import com.project.habitat.repository.RatingsRepository;
+import com.project.habitat.repository.UserRepository;
 import jakarta.validation.ConstraintViolation;
 import jakarta.validation.Validator;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.UUID;
 
 @Service
 public class RatingsService {
 
+    public static final int DEFAULT_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_SUMMARY_BATCH = 200;
+
+    // Sort values that come before every rating.
+    private static final LocalDateTime FIRST_CREATED_AT = LocalDateTime.of(9999, 12, 31, 0, 0);
+
     @Autowired
     private RatingsRepository ratingsRepository;
 
+    @Autowired
+    private MovieRatingSummaryRepository summaryRepository;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RatingAggregateWriter aggregateWriter;
+
+    @Autowired
+    private RatingChangeNotifier ratingChangeNotifier;
+
+    @Autowired
+    private RatingWriteBehindQueue writeBehindQueue;
+
+    @Autowired
+    private MovieFacetIndex movieFacetIndex;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private LeaderboardService leaderboardService;
+
     @Autowired
     private Validator validator;
 
@@ -57,12 +115,171 @@ public class RatingsService {
         }
     }
 
+    private void checkRequest(RatingRequest request) throws CrudOperationException, CrudValidationException {
+        if (request == null) {
+            throw CrudOperationException.asNullEntity(Rating.class);
+        }
+        if (request.movieId() == null) {
+            throw CrudValidationException.asInvalidArgument(Rating.class, "Movie ID is required");
+        }
+        checkId(request.movieId());
+        Integer stars = request.rating();
+        if (stars == null || stars < RatingSummary.MIN_STARS || stars > RatingSummary.MAX_STARS) {
+            throw CrudValidationException.asInvalidArgument(Rating.class,
+                    "Rating should be between " + RatingSummary.MIN_STARS + " and " + RatingSummary.MAX_STARS);
+        }
+        // The facet index answers from memory; it can only lag behind for movies added moments ago.
+        if (!movieFacetIndex.contains(request.movieId()) && !movieRepository.existsById(request.movieId())) {
+            throw CrudValidationException.asMissingEntity(Movie.class, request.movieId());
+        }
+    }
+
+    /**
+     * Accepts a rating. With the write-behind buffer enabled the rating is queued and stored
+     * within the flush interval; otherwise, or when Redis is unreachable, it is stored and
+     * folded into the movie's aggregates and average right away. The rating is kept against
+     * the submitting user, whose recommendations it feeds.
+     *
+     * @throws BackpressureException when the buffer is full
+     */
+    @PreAuthorize("isAuthenticated()")
+    public RatingReceipt submitRating(RatingRequest request, String username)
+            throws CrudOperationException, CrudValidationException, BackpressureException {
+        checkRequest(request);
+        Long userId = userRepository.findByUsername(username)
+                .map(User::getId)
+                .orElseThrow(() -> CrudValidationException.asInvalidArgument(User.class, "Unknown user " + username));
+        UUID submissionId = UUID.randomUUID();
+        if (writeBehindQueue.isEnabled() && writeBehindQueue.offer(new RatingWriteBehindQueue.QueuedRating(
+                submissionId.toString(), request.movieId(), userId, request.rating(), request.review(),
+                System.currentTimeMillis()))) {
+            return new RatingReceipt(submissionId.toString(), request.movieId(), null, true);
+        }
+        Rating savedRating = transactionTemplate.execute(status -> storeRating(submissionId, userId, request));
+        // Queued ratings reach the leaderboards from the flush that stores them.
+        leaderboardService.recordRating(request.movieId(), request.rating());
+        return new RatingReceipt(submissionId.toString(), request.movieId(), savedRating.getRatingId(), false);
+    }
+
+    private Rating storeRating(UUID submissionId, Long userId, RatingRequest request) throws CrudOperationException {
+        Rating rating = new Rating();
+        rating.setRating(request.rating());
+        rating.setReview(request.review());
+        rating.setSubmissionId(submissionId);
+        rating.setMovie(movieRepository.getReferenceById(request.movieId()));
+        rating.setUser(userRepository.getReferenceById(userId));
+        validate(rating);
+        Rating savedRating = saveRating(rating);
+        try {
+            aggregateWriter.add(request.movieId(), request.rating());
+        } catch (Exception e) {
+            throw CrudOperationException.asFailedAddOperation(Rating.class, e);
+        }
+        ratingChangeNotifier.markChanged(List.of(request.movieId()));
+        return savedRating;
+    }
+
+    public RatingSummary getRatingSummary(Long movieId) throws CrudValidationException {
+        checkId(movieId);
+        return summaryRepository.findById(movieId)
+                .map(RatingSummary::from)
+                .orElseGet(() -> RatingSummary.empty(movieId));
+    }
+
+    /**
+     * Summaries of several movies from one primary-key lookup, in the order the ids were
+     * given, without duplicates. Movies without ratings get an empty summary.
+     */
+    public List<RatingSummary> getRatingSummaries(List<Long> movieIds) throws CrudValidationException {
+        if (movieIds == null || movieIds.isEmpty()) {
+            return List.of();
+        }
+        Set<Long> ids = new LinkedHashSet<>(movieIds);
+        if (ids.size() > MAX_SUMMARY_BATCH) {
+            throw CrudValidationException.asInvalidArgument(Rating.class,
+                    "At most " + MAX_SUMMARY_BATCH + " movie ids can be requested at once");
+        }
+        for (Long id : ids) {
+            if (id == null) {
+                throw CrudValidationException.asInvalidArgument(Rating.class, "Movie ID is required");
+            }
+            checkId(id);
+        }
+        Map<Long, MovieRatingSummary> found = summaryRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(MovieRatingSummary::getMovieId, Function.identity()));
+        List<RatingSummary> summaries = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            MovieRatingSummary summary = found.get(id);
+            summaries.add(summary == null ? RatingSummary.empty(id) : RatingSummary.from(summary));
+        }
+        return summaries;
+    }
+
     public Long getRatingsCountByMovieId(Long movieId){
         checkId(movieId);
-        return ratingsRepository.countByMovieId(movieId);
+        return summaryRepository.findById(movieId)
+                .map(MovieRatingSummary::getRatingCount)
+                .orElse(0L);
+    }
+
+    public List<RatingView> getAllRatings(Long movieId){
+        return ratingsRepository.findAllViewsByMovieId(movieId);
+    }
+
+    public CursorPage<RatingView> getRatingPage(Long movieId, RatingSortField sort, String cursor, int size)
+            throws CrudOperationException, CrudValidationException {
+        checkId(movieId);
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw CrudValidationException.asInvalidArgument(Rating.class, "Page size should be between 1 and " + MAX_PAGE_SIZE);
+        }
+        KeysetCursor after = decodeCursor(sort, cursor);
+        try {
+            // One extra row tells us whether another page exists without a COUNT query.
+            PageRequest limit = PageRequest.of(0, size + 1);
+            List<RatingView> rows = switch (sort) {
+                case NEWEST -> ratingsRepository.findPageOrderByNewest(movieId,
+                        after == null ? FIRST_CREATED_AT : LocalDateTime.parse(after.value()),
+                        after == null ? Long.MAX_VALUE : after.id(), limit);
+                case HIGHEST -> ratingsRepository.findPageOrderByHighest(movieId,
+                        after == null ? Integer.MAX_VALUE : Integer.valueOf(after.value()),
+                        after == null ? Long.MAX_VALUE : after.id(), limit);
+                case LOWEST -> ratingsRepository.findPageOrderByLowest(movieId,
+                        after == null ? Integer.MIN_VALUE : Integer.valueOf(after.value()),
+                        after == null ? 0L : after.id(), limit);
+            };
+            boolean hasMore = rows.size() > size;
+            List<RatingView> items = hasMore ? rows.subList(0, size) : rows;
+            String nextCursor = hasMore ? cursorAfter(sort, items.get(items.size() - 1)) : null;
+            log.info("Fetched page of {} ratings for movie {} sorted by {}", items.size(), movieId, sort);
+            return new CursorPage<>(items, nextCursor, hasMore);
+        } catch (Exception e) {
+            throw CrudOperationException.asFailedGetOperation(getClass(), e);
+        }
+    }
+
+    static KeysetCursor decodeCursor(RatingSortField sort, String cursor) throws CrudValidationException {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            KeysetCursor decoded = KeysetCursor.decode(cursor);
+            if (!sort.name().equals(decoded.sort())) {
+                throw new IllegalArgumentException("Cursor was issued for sort " + decoded.sort());
+            }
+            // Fail fast on values that the typed queries would not be able to bind.
+            if (sort == RatingSortField.NEWEST) {
+                LocalDateTime.parse(decoded.value());
+            } else {
+                Integer.parseInt(decoded.value());
+            }
+            return decoded;
+        } catch (RuntimeException e) {
+            throw CrudValidationException.asInvalidArgument(Rating.class, "Invalid cursor: " + e.getMessage());
+        }
     }
 
-    public List<Rating> getAllRatings(Long movieId){
-        return ratingsRepository.findAllRatingsByMovieMovieId(movieId);
+    private String cursorAfter(RatingSortField sort, RatingView last) {
+        String value = sort == RatingSortField.NEWEST ? last.createdAt().toString() : String.valueOf(last.rating());
+        return new KeysetCursor(sort.name(), value, last.ratingId()).encode();
     }
 }
@@ -0,0 +1,357 @@
+package com.project.habitat.service;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.habitat.index.ItemItemModel;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Builds the item-item recommendation model from the ratings of signed-in users and stores
+ * every user's top movies in Redis as {@code movieId:score,...}, so serving them is a single
+ * key lookup. One node at a time runs the full build; the node holding the newest model
+ * then refreshes, every few minutes, the lists of users who rated something since, using
+ * the movie similarities it already has. Similarities themselves only change with the next
+ * full build.
+ *
+ * <p>New ratings are found by rating id. A rating whose transaction commits after a pass
+ * has read past its id is picked up by the next full build.
+ */
+@Component
+public class RecommendationJob {
+
+	private static final String KEY_PREFIX = "habitat:recommendations:user:";
+	private static final String MODEL_KEY = "habitat:recommendations:model";
+	private static final String LOCK_NAME = "habitat:recommendations:build";
+
+	// Users whose lists are computed and written together.
+	private static final int SLICE = 5_000;
+	private static final int FETCH_SIZE = 10_000;
+
+	private static final String LAST_RATING_ID = "SELECT COALESCE(MAX(rating_id), 0) FROM dev.ratings";
+
+	// A user who rated a movie more than once counts with their latest rating.
+	private static final String SELECT_RATINGS = """
+			SELECT DISTINCT ON (user_id, movie_id) user_id, movie_id, rating
+			FROM dev.ratings
+			WHERE user_id IS NOT NULL AND rating BETWEEN 1 AND 5 AND rating_id <= ?
+			ORDER BY user_id, movie_id, created_at DESC, rating_id DESC
+			""";
+
+	private static final String SELECT_RATINGS_OF_RECENT_RATERS = """
+			SELECT DISTINCT ON (r.user_id, r.movie_id) r.user_id, r.movie_id, r.rating
+			FROM dev.ratings r
+			WHERE r.user_id IN (
+			    SELECT DISTINCT user_id FROM dev.ratings
+			    WHERE rating_id > ? AND rating_id <= ? AND user_id IS NOT NULL
+			)
+			  AND r.rating BETWEEN 1 AND 5 AND r.rating_id <= ?
+			ORDER BY r.user_id, r.movie_id, r.created_at DESC, r.rating_id DESC
+			""";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private StringRedisTemplate redisTemplate;
+
+	@Autowired
+	private RedissonClient redissonClient;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Value("${app.recommendations.top-n:50}")
+	private int topN;
+
+	@Value("${app.recommendations.neighbours:50}")
+	private int neighbours;
+
+	@Value("${app.recommendations.min-co-raters:3}")
+	private int minCoRaters;
+
+	@Value("${app.recommendations.threads:0}")
+	private int threads;
+
+	@Value("${app.recommendations.ttl-hours:30}")
+	private long ttlHours;
+
+	@Value("${app.recommendations.lease-minutes:60}")
+	private long leaseMinutes;
+
+	private Logger log = LogManager.getLogger(RecommendationJob.class);
+
+	private ForkJoinPool pool;
+	private Timer buildTimer;
+	private Timer refreshTimer;
+	private final AtomicInteger modelUsers = new AtomicInteger();
+
+	// Newest model built on this node, its id in Redis and the last rating id it has seen.
+	private volatile ItemItemModel model;
+	private volatile String modelId;
+	private volatile long lastRatingId;
+
+	@PostConstruct
+	void init() {
+		pool = new ForkJoinPool(threads > 0 ? threads : Runtime.getRuntime().availableProcessors());
+		buildTimer = Timer.builder("habitat.recommendations.build.duration")
+				.description("Time to build the recommendation model and store every user's list")
+				.register(meterRegistry);
+		refreshTimer = Timer.builder("habitat.recommendations.refresh.duration")
+				.description("Time to refresh the lists of users who rated since the last pass")
+				.register(meterRegistry);
+		Gauge.builder("habitat.recommendations.model.users", modelUsers, AtomicInteger::get)
+				.description("Users in the recommendation model held by this node")
+				.register(meterRegistry);
+	}
+
+	@PreDestroy
+	void shutdown() {
+		pool.shutdownNow();
+	}
+
+	static String userKey(long userId) {
+		return KEY_PREFIX + userId;
+	}
+
+	@Scheduled(initialDelayString = "${app.recommendations.initial-delay-millis:120000}",
+			fixedDelayString = "${app.recommendations.build-interval-millis:21600000}")
+	public void buildOnSchedule() {
+		RLock lock = redissonClient.getLock(LOCK_NAME);
+		boolean locked = false;
+		try {
+			locked = lock.tryLock(0, leaseMinutes, TimeUnit.MINUTES);
+			if (!locked) {
+				log.info("Skipping recommendation build, another node is running it");
+				return;
+			}
+			build();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			log.error("Recommendation build failed: " + e.getMessage(), e);
+		} finally {
+			if (locked && lock.isHeldByCurrentThread()) {
+				lock.unlock();
+			}
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${app.recommendations.refresh-interval-millis:300000}")
+	public void refreshOnSchedule() {
+		if (model == null) {
+			return;
+		}
+		RLock lock = redissonClient.getLock(LOCK_NAME);
+		boolean locked = false;
+		try {
+			locked = lock.tryLock(0, leaseMinutes, TimeUnit.MINUTES);
+			if (!locked) {
+				return;
+			}
+			// A newer model built elsewhere owns the lists now.
+			if (!modelId.equals(redisTemplate.opsForValue().get(MODEL_KEY))) {
+				log.info("Dropping recommendation model {}, a newer one was built", modelId);
+				model = null;
+				modelUsers.set(0);
+				return;
+			}
+			refresh();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (Exception e) {
+			log.error("Recommendation refresh failed: " + e.getMessage(), e);
+		} finally {
+			if (locked && lock.isHeldByCurrentThread()) {
+				lock.unlock();
+			}
+		}
+	}
+
+	/** Rebuilds the model from every rating by a known user and stores all users' lists. */
+	public ItemItemModel build() {
+		long start = System.nanoTime();
+		long upToRatingId = jdbcTemplate.queryForObject(LAST_RATING_ID, Long.class);
+		ItemItemModel.Builder ratings = new ItemItemModel.Builder();
+		load(ratings, upToRatingId);
+		long loaded = System.nanoTime();
+
+		ItemItemModel built = ratings.build(neighbours, minCoRaters, pool);
+		long modelled = System.nanoTime();
+		int stored = 0;
+		for (int from = 0; from < built.users(); from += SLICE) {
+			stored += store(built.recommendRange(from, Math.min(from + SLICE, built.users()), topN));
+		}
+
+		String id = UUID.randomUUID().toString();
+		redisTemplate.opsForValue().set(MODEL_KEY, id);
+		model = built;
+		modelId = id;
+		lastRatingId = upToRatingId;
+		modelUsers.set(built.users());
+		buildTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		log.info("Built recommendations from {} ratings of {} users on {} movies: loaded in {} ms, "
+				+ "similarities in {} ms, {} lists stored in {} ms", built.ratings(), built.users(), built.movies(),
+				(loaded - start) / 1_000_000, (modelled - loaded) / 1_000_000, stored,
+				(System.nanoTime() - modelled) / 1_000_000);
+		return built;
+	}
+
+	/** Recomputes the lists of users who rated since the last pass, with the current model. */
+	public int refresh() {
+		ItemItemModel current = model;
+		long since = lastRatingId;
+		long upToRatingId = jdbcTemplate.queryForObject(LAST_RATING_ID, Long.class);
+		if (current == null || upToRatingId <= since) {
+			return 0;
+		}
+		long start = System.nanoTime();
+		UserRatings recent = new UserRatings(current, topN);
+		transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(SELECT_RATINGS_OF_RECENT_RATERS);
+			statement.setLong(1, since);
+			statement.setLong(2, upToRatingId);
+			statement.setLong(3, upToRatingId);
+			return statement;
+		}, resultSet -> {
+			recent.add(resultSet.getLong("user_id"), resultSet.getLong("movie_id"), resultSet.getInt("rating"));
+		}));
+		recent.finish();
+		int stored = recent.lists.isEmpty() ? 0 : store(merge(recent.lists));
+		lastRatingId = upToRatingId;
+		refreshTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		log.info("Refreshed recommendations of {} users in {} ms", stored, (System.nanoTime() - start) / 1_000_000);
+		return stored;
+	}
+
+	private void load(ItemItemModel.Builder ratings, long upToRatingId) {
+		// Streams the rows: the driver only honours the fetch size inside a transaction.
+		transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+			PreparedStatement statement = connection.prepareStatement(SELECT_RATINGS);
+			statement.setFetchSize(FETCH_SIZE);
+			statement.setLong(1, upToRatingId);
+			return statement;
+		}, resultSet -> {
+			ratings.add(resultSet.getLong("user_id"), resultSet.getLong("movie_id"), resultSet.getInt("rating"));
+		}));
+	}
+
+	/** Writes the lists in one pipeline; users without recommendations lose their old list. */
+	private int store(ItemItemModel.TopN lists) {
+		long ttlSeconds = TimeUnit.HOURS.toSeconds(ttlHours);
+		redisTemplate.executePipelined((RedisCallback<Object>) (RedisConnection connection) -> {
+			StringRedisConnection strings = (StringRedisConnection) connection;
+			for (int u = 0; u < lists.users(); u++) {
+				String key = userKey(lists.userIds()[u]);
+				int from = lists.offsets()[u];
+				int to = lists.offsets()[u + 1];
+				if (from == to) {
+					strings.del(key);
+					continue;
+				}
+				StringBuilder value = new StringBuilder((to - from) * 12);
+				for (int k = from; k < to; k++) {
+					if (k > from) {
+						value.append(',');
+					}
+					value.append(lists.movieIds()[k]).append(':').append(lists.scores()[k]);
+				}
+				strings.setEx(key, ttlSeconds, value.toString());
+			}
+			return null;
+		});
+		return lists.users();
+	}
+
+	private static ItemItemModel.TopN merge(List<ItemItemModel.TopN> lists) {
+		int users = 0;
+		int entries = 0;
+		for (ItemItemModel.TopN list : lists) {
+			users += list.users();
+			entries += list.movieIds().length;
+		}
+		long[] userIds = new long[users];
+		int[] offsets = new int[users + 1];
+		long[] movieIds = new long[entries];
+		float[] scores = new float[entries];
+		int u = 0;
+		int e = 0;
+		for (ItemItemModel.TopN list : lists) {
+			System.arraycopy(list.userIds(), 0, userIds, u, list.users());
+			System.arraycopy(list.movieIds(), 0, movieIds, e, list.movieIds().length);
+			System.arraycopy(list.scores(), 0, scores, e, list.scores().length);
+			for (int i = 0; i < list.users(); i++) {
+				offsets[u + i + 1] = e + list.offsets()[i + 1];
+			}
+			u += list.users();
+			e += list.movieIds().length;
+		}
+		return new ItemItemModel.TopN(userIds, offsets, movieIds, scores);
+	}
+
+	/** Gathers the rows of one user at a time (they arrive ordered by user) and scores them. */
+	private static final class UserRatings {
+		private final ItemItemModel model;
+		private final int topN;
+		private final List<ItemItemModel.TopN> lists = new ArrayList<>();
+		private long userId = -1;
+		private long[] movieIds = new long[64];
+		private float[] ratings = new float[64];
+		private int size;
+
+		UserRatings(ItemItemModel model, int topN) {
+			this.model = model;
+			this.topN = topN;
+		}
+
+		void add(long user, long movieId, int rating) {
+			if (user != userId) {
+				finish();
+				userId = user;
+			}
+			if (size == movieIds.length) {
+				movieIds = Arrays.copyOf(movieIds, size * 2);
+				ratings = Arrays.copyOf(ratings, size * 2);
+			}
+			movieIds[size] = movieId;
+			ratings[size] = rating;
+			size++;
+		}
+
+		void finish() {
+			if (size > 0) {
+				lists.add(model.recommend(userId, Arrays.copyOf(movieIds, size), Arrays.copyOf(ratings, size), topN));
+			}
+			size = 0;
+		}
+	}
+}
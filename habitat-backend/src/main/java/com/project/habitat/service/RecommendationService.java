@@ -0,0 +1,125 @@
+package com.project.habitat.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+
+import com.project.habitat.dto.LeaderboardEntry;
+import com.project.habitat.dto.LeaderboardKind;
+import com.project.habitat.dto.MovieSummary;
+import com.project.habitat.dto.RecommendedMovie;
+import com.project.habitat.dto.Recommendations;
+import com.project.habitat.exception.CrudOperationException;
+import com.project.habitat.exception.CrudValidationException;
+import com.project.habitat.model.Movie;
+import com.project.habitat.model.User;
+import com.project.habitat.repository.MovieRepository;
+import com.project.habitat.repository.UserRepository;
+
+/**
+ * Serves the lists stored by {@link RecommendationJob}: one Redis read per request plus the
+ * summaries of the listed movies. Users without a list, and every user while Redis is
+ * unreachable, get the trending leaderboard instead.
+ */
+@Service
+public class RecommendationService {
+
+	public static final int DEFAULT_LIMIT = 20;
+
+	@Autowired
+	private StringRedisTemplate redisTemplate;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private MovieRepository movieRepository;
+
+	@Autowired
+	private MovieSummaryAssembler summaryAssembler;
+
+	@Autowired
+	private LeaderboardService leaderboardService;
+
+	@Value("${app.recommendations.top-n:50}")
+	private int topN;
+
+	private Logger log = LogManager.getLogger(RecommendationService.class);
+
+	@PreAuthorize("isAuthenticated()")
+	public Recommendations getRecommendations(String username, int limit)
+			throws CrudOperationException, CrudValidationException {
+		if (limit < 1 || limit > topN) {
+			throw CrudValidationException.asInvalidArgument(Movie.class, "Limit should be between 1 and " + topN);
+		}
+		Long userId = userRepository.findByUsername(username)
+				.map(User::getId)
+				.orElseThrow(() -> CrudValidationException.asInvalidArgument(User.class, "Unknown user " + username));
+		Map<Long, Double> scores = storedScores(userId, limit);
+		if (!scores.isEmpty()) {
+			try {
+				List<RecommendedMovie> movies = withSummaries(scores);
+				if (!movies.isEmpty()) {
+					return new Recommendations(true, movies);
+				}
+			} catch (Exception e) {
+				throw CrudOperationException.asFailedGetOperation(getClass(), e);
+			}
+		}
+		List<RecommendedMovie> trending = new ArrayList<>();
+		for (LeaderboardEntry entry : leaderboardService.getLeaderboard(LeaderboardKind.TRENDING, null, null, limit)
+				.entries()) {
+			trending.add(new RecommendedMovie(entry.movie(), entry.score()));
+		}
+		return new Recommendations(false, trending);
+	}
+
+	/** The user's best {@code limit} movies and predicted ratings, or nothing without a list. */
+	private Map<Long, Double> storedScores(Long userId, int limit) {
+		String stored;
+		try {
+			stored = redisTemplate.opsForValue().get(RecommendationJob.userKey(userId));
+		} catch (DataAccessException e) {
+			log.warn("Could not read recommendations of user " + userId + ": " + e.getMessage());
+			return Map.of();
+		}
+		if (stored == null || stored.isEmpty()) {
+			return Map.of();
+		}
+		Map<Long, Double> scores = new LinkedHashMap<>();
+		for (String entry : stored.split(",")) {
+			if (scores.size() == limit) {
+				break;
+			}
+			int separator = entry.indexOf(':');
+			scores.put(Long.valueOf(entry.substring(0, separator)), Double.valueOf(entry.substring(separator + 1)));
+		}
+		return scores;
+	}
+
+	private List<RecommendedMovie> withSummaries(Map<Long, Double> scores) {
+		Map<Long, MovieSummary> summaries = new HashMap<>();
+		summaryAssembler.withReferences(movieRepository.findSummariesByIds(scores.keySet()))
+				.forEach(summary -> summaries.put(summary.movieId(), summary));
+		// Keep the ranking; a movie deleted since the last build simply drops out.
+		List<RecommendedMovie> movies = new ArrayList<>(scores.size());
+		scores.forEach((movieId, score) -> {
+			MovieSummary summary = summaries.get(movieId);
+			if (summary != null) {
+				movies.add(new RecommendedMovie(summary, score));
+			}
+		});
+		return movies;
+	}
+}
@@ -0,0 +1,100 @@
+package com.project.habitat.service;
+
+import java.util.List;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+
+/**
+ * One-off changes to tables the application shares with the rest of the schema. Unlike
+ * {@code schema.sql}, which runs on every start and must stay limited to cheap
+ * {@code CREATE ... IF NOT EXISTS}, each migration here runs once per database: applied
+ * ids are recorded in {@code dev.schema_migrations}, and a start that finds every id
+ * recorded only reads that table, so no node takes a table lock on a routine boot.
+ *
+ * <p>Migrations run before the scheduled jobs start, each in its own transaction under an
+ * advisory lock, so concurrent starts apply it once. DDL waits at most
+ * {@link #LOCK_TIMEOUT} for its table lock instead of queueing ahead of every reader
+ * behind a long query; the start then fails and the migration is retried on the next one.
+ * Migrations are append-only, and every statement stays safe on a database that already
+ * has the change.
+ */
+@Component
+public class SchemaMigrations {
+
+	private record Migration(String id, List<String> statements) {
+	}
+
+	private static final long ADVISORY_LOCK_KEY = 0x6861626974617401L;
+	private static final String LOCK_TIMEOUT = "10s";
+
+	private static final List<Migration> MIGRATIONS = List.of(
+			// Lets buffered ratings be inserted with ON CONFLICT DO NOTHING, so a batch replayed
+			// after a crash between commit and dequeue is not counted twice.
+			new Migration("ratings-submission-id", List.of(
+					"ALTER TABLE dev.ratings ADD COLUMN IF NOT EXISTS submission_id UUID",
+					"CREATE UNIQUE INDEX IF NOT EXISTS ratings_submission_id_key ON dev.ratings (submission_id)")),
+			// Ratings without a timestamp would fall out of the newest-first pages, so new rows
+			// default to the insert time and old ones get the epoch.
+			new Migration("ratings-created-at-default", List.of(
+					"ALTER TABLE dev.ratings ALTER COLUMN created_at SET DEFAULT now()")),
+			new Migration("ratings-created-at-backfill", List.of(
+					"UPDATE dev.ratings SET created_at = TIMESTAMP '1970-01-01 00:00:00' WHERE created_at IS NULL")),
+			// Who gave a rating, for personal recommendations. Older ratings stay anonymous.
+			new Migration("ratings-user-id", List.of(
+					"ALTER TABLE dev.ratings ADD COLUMN IF NOT EXISTS user_id BIGINT REFERENCES dev.users (id) ON DELETE SET NULL",
+					"CREATE INDEX IF NOT EXISTS ratings_user_idx ON dev.ratings (user_id, movie_id) WHERE user_id IS NOT NULL")),
+			// Access paths of the keyset-paginated movie listing, one per sort. The expressions
+			// match the ORDER BY of MovieRepository's findPageOrderBy* queries.
+			new Migration("movies-listing-sort-indexes", List.of(
+					"CREATE INDEX IF NOT EXISTS movies_release_date_idx ON dev.movies "
+							+ "((COALESCE(release_date, DATE '0001-01-01')) DESC, movie_id)",
+					"CREATE INDEX IF NOT EXISTS movies_avg_rating_idx ON dev.movies ((COALESCE(avg_rating, 0.0)) DESC, movie_id)",
+					"CREATE INDEX IF NOT EXISTS movies_name_idx ON dev.movies ((COALESCE(movie_name, '')), movie_id)")));
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	private Logger log = LogManager.getLogger(SchemaMigrations.class);
+
+	@PostConstruct
+	void migrate() {
+		List<String> applied = jdbcTemplate.queryForList("SELECT id FROM dev.schema_migrations", String.class);
+		for (Migration migration : MIGRATIONS) {
+			if (!applied.contains(migration.id())) {
+				apply(migration);
+			}
+		}
+	}
+
+	private void apply(Migration migration) {
+		long start = System.nanoTime();
+		boolean ran = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+			jdbcTemplate.execute("SELECT pg_advisory_xact_lock(" + ADVISORY_LOCK_KEY + ")");
+			// Another node may have applied it while this one waited for the lock.
+			Integer done = jdbcTemplate.queryForObject(
+					"SELECT count(*) FROM dev.schema_migrations WHERE id = ?", Integer.class, migration.id());
+			if (done != null && done > 0) {
+				return false;
+			}
+			jdbcTemplate.execute("SET LOCAL lock_timeout = '" + LOCK_TIMEOUT + "'");
+			for (String statement : migration.statements()) {
+				jdbcTemplate.execute(statement);
+			}
+			jdbcTemplate.update("INSERT INTO dev.schema_migrations (id) VALUES (?)", migration.id());
+			return true;
+		}));
+		if (ran) {
+			log.info("Applied schema migration {} in {} ms", migration.id(), (System.nanoTime() - start) / 1_000_000);
+		}
+	}
+}
@@ -0,0 +1,36 @@
+-- Tables owned by the application. Every statement must be idempotent: this script runs on
+-- every start (spring.sql.init.mode=always) against a database whose base tables already exist.
+-- Keep it to cheap CREATE ... IF NOT EXISTS; anything that alters, locks or rewrites an
+-- existing table belongs in SchemaMigrations, which runs it once.
+
+-- One-off migrations applied by SchemaMigrations.
+CREATE TABLE IF NOT EXISTS dev.schema_migrations (
+    id         TEXT PRIMARY KEY,
+    applied_at TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- Running rating aggregates per movie, maintained by RatingsService on every rating and
+-- repaired by RatingAggregateReconciler.
+CREATE TABLE IF NOT EXISTS dev.movie_rating_summaries (
+    movie_id     BIGINT PRIMARY KEY REFERENCES dev.movies (movie_id) ON DELETE CASCADE,
+    rating_count BIGINT NOT NULL DEFAULT 0,
+    rating_sum   BIGINT NOT NULL DEFAULT 0,
+    stars_1      BIGINT NOT NULL DEFAULT 0,
+    stars_2      BIGINT NOT NULL DEFAULT 0,
+    stars_3      BIGINT NOT NULL DEFAULT 0,
+    stars_4      BIGINT NOT NULL DEFAULT 0,
+    stars_5      BIGINT NOT NULL DEFAULT 0,
+    updated_at   TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- Access paths of the keyset-paginated ratings listing: newest first, and by stars.
+CREATE INDEX IF NOT EXISTS ratings_movie_created_idx ON dev.ratings (movie_id, created_at, rating_id);
+CREATE INDEX IF NOT EXISTS ratings_movie_rating_idx ON dev.ratings (movie_id, rating, rating_id);
+
+-- Movie detail views, counted in memory by MovieViewCounter and added in batches.
+CREATE TABLE IF NOT EXISTS dev.movie_view_counts (
+    movie_id   BIGINT PRIMARY KEY REFERENCES dev.movies (movie_id) ON DELETE CASCADE,
+    view_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT now()
+);
+CREATE INDEX IF NOT EXISTS movie_view_counts_count_idx ON dev.movie_view_counts (view_count DESC, movie_id);
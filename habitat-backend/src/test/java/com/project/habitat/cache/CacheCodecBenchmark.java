@@ -0,0 +1,114 @@
+package com.project.habitat.cache;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Function;
+
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.project.habitat.dto.MovieSummary;
+
+/**
+ * Compares the Redis value serializers on the shape the catalog caches actually hold: a
+ * list of {@link MovieSummary} rows. Reports payload size, encode/decode throughput and
+ * bytes allocated per operation.
+ *
+ * <p>Run with {@code java -cp <test classpath> com.project.habitat.cache.CacheCodecBenchmark [movies]}.
+ */
+public class CacheCodecBenchmark {
+
+    private static final String[] GENRES = { "Action", "Comedy", "Drama", "Horror", "Romance", "Sci-Fi", "Thriller" };
+    private static final String[] FORMATS = { "2D", "3D", "IMAX 2D", "IMAX 3D", "4DX" };
+    private static final String[] LANGUAGES = { "English", "Hindi", "Telugu", "Tamil", "Kannada", "Malayalam" };
+    private static final String[] CERTIFICATES = { "U", "UA", "A" };
+
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int MEASURED_ROUNDS = 500;
+
+    public static void main(String[] args) {
+        int movies = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        List<MovieSummary> value = sampleMovies(movies, new Random(42));
+
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        JavaType listType = mapper.getTypeFactory().constructCollectionType(List.class, MovieSummary.class);
+
+        System.out.printf("%d movies per value, %d rounds%n", movies, MEASURED_ROUNDS);
+        System.out.printf("%-24s %10s %14s %14s %14s %14s%n",
+                "serializer", "bytes", "encode ops/s", "decode ops/s", "enc B/op", "dec B/op");
+        run("generic json (current)", new GenericJackson2JsonRedisSerializer(mapper.copy()), value);
+        run("typed json", CacheCodecs.serializer(mapper, listType, CacheCodecs.JSON), value);
+        run("typed smile", CacheCodecs.serializer(mapper, listType, CacheCodecs.SMILE), value);
+    }
+
+    private static void run(String name, RedisSerializer<Object> serializer, Object value) {
+        byte[] encoded = serializer.serialize(value);
+        Object decoded = serializer.deserialize(encoded);
+        if (!(decoded instanceof List<?> list) || list.size() != ((List<?>) value).size()) {
+            throw new IllegalStateException(name + " did not round-trip the value");
+        }
+
+        measure(WARMUP_ROUNDS, serializer::serialize, value);
+        measure(WARMUP_ROUNDS, serializer::deserialize, encoded);
+        long[] encode = measure(MEASURED_ROUNDS, serializer::serialize, value);
+        long[] decode = measure(MEASURED_ROUNDS, serializer::deserialize, encoded);
+
+        System.out.printf("%-24s %10d %14.0f %14.0f %14d %14d%n", name, encoded.length,
+                MEASURED_ROUNDS * 1e9 / encode[0], MEASURED_ROUNDS * 1e9 / decode[0],
+                encode[1] / MEASURED_ROUNDS, decode[1] / MEASURED_ROUNDS);
+    }
+
+    /** Returns elapsed nanos and bytes allocated by the current thread. */
+    private static <T> long[] measure(int rounds, Function<T, ?> operation, T input) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        long start = System.nanoTime();
+        Object sink = null;
+        for (int i = 0; i < rounds; i++) {
+            sink = operation.apply(input);
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+        if (sink == null) {
+            throw new IllegalStateException("Operation produced no result");
+        }
+        return new long[] { elapsed, allocated };
+    }
+
+    private static List<MovieSummary> sampleMovies(int count, Random random) {
+        List<MovieSummary> movies = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            movies.add(new MovieSummary((long) i + 1, "Movie title number " + (i + 1),
+                    "https://images.example.com/posters/" + (i + 1) + ".jpg",
+                    CERTIFICATES[random.nextInt(CERTIFICATES.length)],
+                    LocalDate.of(1990, 1, 1).plusDays(random.nextInt(12_000)),
+                    Math.round(random.nextDouble() * 50) / 10.0,
+                    pick(GENRES, 1 + random.nextInt(3), random),
+                    pick(FORMATS, 1 + random.nextInt(2), random),
+                    pick(LANGUAGES, 1 + random.nextInt(3), random)));
+        }
+        return movies;
+    }
+
+    private static List<String> pick(String[] values, int count, Random random) {
+        List<String> picked = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String value = values[random.nextInt(values.length)];
+            if (!picked.contains(value)) {
+                picked.add(value);
+            }
+        }
+        picked.sort(null);
+        return picked;
+    }
+}
@@ -0,0 +1,80 @@
+package com.project.habitat.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.project.habitat.dto.MovieDetail;
+import com.project.habitat.dto.MovieSummary;
+import com.project.habitat.dto.NamedReference;
+
+class CatalogSnapshotTest {
+
+    private static final MovieSummary HEAT_SUMMARY = new MovieSummary(1L, "Heat", "heat.jpg", "R",
+            LocalDate.of(1995, 12, 15), 4.5, List.of("Crime"), List.of("2D"), List.of("English"));
+    private static final MovieDetail HEAT_DETAIL = new MovieDetail(1L, "Heat", "A crime drama", 170, "R",
+            LocalDate.of(1995, 12, 15), 4.5, "heat.jpg", List.of(new NamedReference(3L, "Crime")), List.of(),
+            List.of(new NamedReference(1L, "English")));
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void savedSnapshotLoadsBack() {
+        CatalogSnapshot snapshot = snapshot(24);
+        long now = System.currentTimeMillis();
+
+        snapshot.save(new CatalogSnapshot.Contents(7, now, List.of(HEAT_SUMMARY), List.of(HEAT_DETAIL)));
+
+        assertEquals(new CatalogSnapshot.Contents(7, now, List.of(HEAT_SUMMARY), List.of(HEAT_DETAIL)),
+                snapshot.load());
+    }
+
+    @Test
+    void snapshotsPastTheMaximumAgeAreIgnored() {
+        CatalogSnapshot snapshot = snapshot(1);
+        long twoHoursAgo = System.currentTimeMillis() - 2 * 60 * 60 * 1000;
+
+        snapshot.save(new CatalogSnapshot.Contents(7, twoHoursAgo, List.of(HEAT_SUMMARY), List.of()));
+
+        assertNull(snapshot.load());
+    }
+
+    @Test
+    void unreadableFilesAreIgnored() throws Exception {
+        CatalogSnapshot snapshot = snapshot(24);
+        snapshot.save(new CatalogSnapshot.Contents(7, System.currentTimeMillis(), List.of(HEAT_SUMMARY),
+                List.of(HEAT_DETAIL)));
+        Path file = directory.resolve("catalog.snapshot");
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+
+        assertNull(snapshot.load());
+
+        Files.writeString(file, "not a snapshot");
+        assertNull(snapshot.load());
+    }
+
+    @Test
+    void disabledSnapshotNeitherWritesNorReads() {
+        CatalogSnapshot snapshot = new CatalogSnapshot(false, directory.resolve("catalog.snapshot").toString(), 24);
+
+        snapshot.save(new CatalogSnapshot.Contents(7, System.currentTimeMillis(), List.of(HEAT_SUMMARY), List.of()));
+
+        assertFalse(Files.exists(directory.resolve("catalog.snapshot")));
+        assertNull(snapshot.load());
+    }
+
+    private CatalogSnapshot snapshot(long maxAgeHours) {
+        return new CatalogSnapshot(true, directory.resolve("catalog.snapshot").toString(), maxAgeHours);
+    }
+}
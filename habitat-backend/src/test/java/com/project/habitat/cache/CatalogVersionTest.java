@@ -0,0 +1,133 @@
+package com.project.habitat.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import com.project.habitat.config.CacheNames;
+import com.project.habitat.events.MovieChangeType;
+import com.project.habitat.events.MovieChangedEvent;
+
+class CatalogVersionTest {
+
+    private static final List<String> KEYS = List.of("habitat:catalog-version", "habitat:catalog-version:modified",
+            "habitat:catalog-version:epoch");
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> values = mock(ValueOperations.class);
+    private final TwoTierCacheManager cacheManager = mock(TwoTierCacheManager.class);
+
+    CatalogVersionTest() {
+        when(redisTemplate.opsForValue()).thenReturn(values);
+    }
+
+    @Test
+    void startsFromTheSharedCounter() {
+        when(values.multiGet(KEYS)).thenReturn(List.of("5", "1000", "e1"));
+
+        CatalogVersion version = new CatalogVersion(redisTemplate, cacheManager);
+
+        assertEquals(new CatalogVersion.Snapshot("e1", 5, 1000), version.current());
+        assertEquals("\"catalog-e1-5\"", version.current().etag());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void localChangesBumpTheSharedCounter() {
+        when(values.multiGet(KEYS)).thenReturn(Arrays.asList(null, null, null));
+        when(redisTemplate.execute(any(RedisScript.class), eq(KEYS), any(Object[].class))).thenReturn(List.of("8", "e1"));
+        CatalogVersion version = new CatalogVersion(redisTemplate, cacheManager);
+
+        version.onMovieChanged(MovieChangedEvent.saved(1L));
+
+        assertEquals("e1", version.current().epoch());
+        assertEquals(8, version.current().version());
+    }
+
+    @Test
+    void remoteChangesReadTheCounterAndNeverMoveBack() {
+        when(values.multiGet(KEYS)).thenReturn(List.of("5", "1000", "e1"));
+        CatalogVersion version = new CatalogVersion(redisTemplate, cacheManager);
+
+        when(values.multiGet(KEYS)).thenReturn(List.of("9", "2000", "e1"));
+        version.onMovieChanged(new MovieChangedEvent(MovieChangeType.SAVED, List.of(1L), true));
+        assertEquals(new CatalogVersion.Snapshot("e1", 9, 2000), version.current());
+
+        when(values.multiGet(KEYS)).thenReturn(List.of("7", "1500", "e1"));
+        version.onMovieChanged(new MovieChangedEvent(MovieChangeType.SAVED, List.of(1L), true));
+        assertEquals(9, version.current().version());
+    }
+
+    @Test
+    void aRestartedCounterIsFollowedUnderItsNewEpoch() {
+        when(values.multiGet(KEYS)).thenReturn(List.of("9", "2000", "e1"));
+        CatalogVersion version = new CatalogVersion(redisTemplate, cacheManager);
+
+        when(values.multiGet(KEYS)).thenReturn(List.of("1", "3000", "e2"));
+        version.onMovieChanged(new MovieChangedEvent(MovieChangeType.SAVED, List.of(1L), true));
+
+        assertEquals(new CatalogVersion.Snapshot("e2", 1, 3000), version.current());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unreachableRedisCountsUnderALocalEpoch() {
+        when(values.multiGet(KEYS)).thenReturn(List.of("5", "1000", "e1"));
+        CatalogVersion version = new CatalogVersion(redisTemplate, cacheManager);
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new QueryTimeoutException("down"));
+
+        version.bump();
+
+        assertNotEquals("e1", version.current().epoch());
+        assertEquals(6, version.current().version());
+        // The shared counter reaching 6 later is a different state with a different ETag.
+        String localEtag = version.current().etag();
+        when(values.multiGet(KEYS)).thenReturn(List.of("6", "2000", "e1"));
+        version.onMovieChanged(new MovieChangedEvent(MovieChangeType.SAVED, List.of(1L), true));
+        assertEquals("\"catalog-e1-6\"", version.current().etag());
+        assertNotEquals(localEtag, version.current().etag());
+    }
+
+    @Test
+    void aCounterWithoutEpochIsNotTrusted() {
+        when(values.multiGet(KEYS)).thenReturn(List.of("5", "1000", "e1"));
+        CatalogVersion version = new CatalogVersion(redisTemplate, cacheManager);
+
+        when(values.multiGet(KEYS)).thenReturn(Arrays.asList("6", "2000", null));
+        version.onMovieChanged(new MovieChangedEvent(MovieChangeType.SAVED, List.of(1L), true));
+
+        assertNotEquals("e1", version.current().epoch());
+        assertEquals(6, version.current().version());
+    }
+
+    @Test
+    void remoteChangesDropLocalCopiesBeforeTheVersionMoves() {
+        when(values.multiGet(KEYS)).thenReturn(List.of("5", "1000", "e1"));
+        CatalogVersion version = new CatalogVersion(redisTemplate, cacheManager);
+
+        version.onMovieChanged(new MovieChangedEvent(MovieChangeType.SAVED, List.of(1L, 2L), true));
+
+        InOrder order = inOrder(cacheManager, values);
+        order.verify(cacheManager).evictLocal(CacheNames.MOVIE_BY_ID, List.of(1L, 2L));
+        order.verify(cacheManager).clearLocal(CacheNames.MOVIES_BY_FACET);
+        order.verify(cacheManager).clearLocal(CacheNames.MOVIE_PAGES);
+        order.verify(values).multiGet(anyList());
+    }
+}
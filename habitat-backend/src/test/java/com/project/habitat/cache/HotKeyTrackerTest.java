@@ -0,0 +1,60 @@
+package com.project.habitat.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class HotKeyTrackerTest {
+
+    @Test
+    void countsEveryReadWithoutSampling() {
+        HotKeyTracker tracker = new HotKeyTracker(3, 1);
+        record(tracker, "heat", 5);
+        record(tracker, "alien", 2);
+
+        assertEquals(List.of(new HotKeyTracker.Entry("heat", 5, 0), new HotKeyTracker.Entry("alien", 2, 0)),
+                tracker.top(10));
+        assertEquals(List.of(new HotKeyTracker.Entry("heat", 5, 0)), tracker.top(1));
+    }
+
+    @Test
+    void newKeyTakesTheLeastCountedSlotWithItsCountAsError() {
+        HotKeyTracker tracker = new HotKeyTracker(2, 1);
+        record(tracker, "heat", 5);
+        record(tracker, "alien", 2);
+
+        tracker.record("ronin");
+
+        assertEquals(List.of(new HotKeyTracker.Entry("heat", 5, 0), new HotKeyTracker.Entry("ronin", 3, 2)),
+                tracker.top(10));
+    }
+
+    @Test
+    void sampledCountsAreScaledBackUp() {
+        HotKeyTracker tracker = new HotKeyTracker(10, 10);
+        record(tracker, "heat", 100_000);
+
+        long estimate = tracker.top(1).get(0).count();
+        assertTrue(estimate > 90_000 && estimate < 110_000, "estimate " + estimate);
+        assertEquals(0, estimate % 10);
+    }
+
+    @Test
+    void resetForgetsEverything() {
+        HotKeyTracker tracker = new HotKeyTracker(10, 1);
+        record(tracker, "heat", 3);
+
+        tracker.reset();
+
+        assertEquals(List.of(), tracker.top(10));
+    }
+
+    private static void record(HotKeyTracker tracker, String key, int times) {
+        for (int i = 0; i < times; i++) {
+            tracker.record(key);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.project.habitat.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tools.jackson.databind.json.JsonMapper;
+
+class ResponseBytesCacheTest {
+
+    private final CatalogVersion catalogVersion = mock(CatalogVersion.class);
+    private final ResponseBytesCache cache = new ResponseBytesCache(catalogVersion, JsonMapper.builder().build(),
+            new SimpleMeterRegistry(), 1, 60);
+
+    @Test
+    void encodesOncePerKeyAndVersion() {
+        when(catalogVersion.current()).thenReturn(new CatalogVersion.Snapshot("e1", 1, 0));
+        AtomicInteger loads = new AtomicInteger();
+
+        EncodedResponse first = cache.get("movies:all", () -> List.of("v" + loads.incrementAndGet()));
+        EncodedResponse second = cache.get("movies:all", () -> List.of("v" + loads.incrementAndGet()));
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+        assertEquals("[\"v1\"]", new String(first.identity(), StandardCharsets.UTF_8));
+        assertEquals(1, first.version());
+    }
+
+    @Test
+    void newCatalogVersionEncodesAgain() {
+        when(catalogVersion.current()).thenReturn(new CatalogVersion.Snapshot("e1", 1, 0));
+        cache.get("movies:all", () -> "old");
+
+        when(catalogVersion.current()).thenReturn(new CatalogVersion.Snapshot("e1", 2, 0));
+        EncodedResponse fresh = cache.get("movies:all", () -> "new");
+
+        assertEquals("\"new\"", new String(fresh.identity(), StandardCharsets.UTF_8));
+        assertEquals(2, fresh.version());
+    }
+
+    @Test
+    void sameVersionOfANewEpochEncodesAgain() {
+        when(catalogVersion.current()).thenReturn(new CatalogVersion.Snapshot("e1", 1, 0));
+        cache.get("movies:all", () -> "old");
+
+        when(catalogVersion.current()).thenReturn(new CatalogVersion.Snapshot("e2", 1, 0));
+
+        assertEquals("\"new\"", new String(cache.get("movies:all", () -> "new").identity(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void onlyLargeBodiesCarryAGzipCopy() throws IOException {
+        when(catalogVersion.current()).thenReturn(new CatalogVersion.Snapshot("e1", 1, 0));
+
+        assertNull(cache.get("small", () -> "tiny").gzip());
+
+        EncodedResponse large = cache.get("large", () -> "x".repeat(4096));
+        assertNotNull(large.gzip());
+        try (GZIPInputStream gunzip = new GZIPInputStream(new ByteArrayInputStream(large.gzip()))) {
+            assertArrayEquals(large.identity(), gunzip.readAllBytes());
+        }
+    }
+}
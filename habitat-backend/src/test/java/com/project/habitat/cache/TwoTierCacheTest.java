@@ -0,0 +1,194 @@
+package com.project.habitat.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RLock;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TwoTierCacheTest {
+
+    private final ConcurrentMapCacheManager remoteManager = new ConcurrentMapCacheManager("movies");
+    private final RedissonClient redissonClient = mock(RedissonClient.class);
+    private final RLock lease = mock(RLock.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+    TwoTierCacheTest() throws InterruptedException {
+        when(redissonClient.getTopic(anyString(), eq(StringCodec.INSTANCE))).thenReturn(mock(RTopic.class));
+        when(redissonClient.getLock(anyString())).thenReturn(lease);
+        when(lease.tryLock(anyLong(), anyLong(), eq(TimeUnit.MILLISECONDS))).thenReturn(true);
+        when(lease.isHeldByCurrentThread()).thenReturn(true);
+    }
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void concurrentMissesOnOneNodeRunTheLoaderOnce() throws Exception {
+        Cache cache = cache();
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+
+        List<Future<String>> callers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            callers.add(executor.submit(() -> cache.get("heat", () -> {
+                loads.incrementAndGet();
+                release.await();
+                return "Heat";
+            })));
+        }
+        // Let every caller reach the in-flight load before it completes.
+        Thread.sleep(200);
+        release.countDown();
+
+        for (Future<String> caller : callers) {
+            assertEquals("Heat", caller.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals("Heat", remoteManager.getCache("movies").get("heat").get());
+        assertEquals(1.0, loadCount("loaded"));
+        assertEquals(7.0, loadCount("coalesced_local"));
+    }
+
+    @Test
+    void valueStoredByTheLeaseHolderIsNotLoadedAgain() throws Exception {
+        Cache cache = cache();
+        // Another node fills the entry while this one waits for the lease.
+        when(lease.tryLock(anyLong(), anyLong(), eq(TimeUnit.MILLISECONDS))).thenAnswer(invocation -> {
+            remoteManager.getCache("movies").put("heat", "Heat");
+            return true;
+        });
+
+        assertEquals("Heat", cache.get("heat", () -> {
+            throw new AssertionError("loader must not run");
+        }));
+        assertEquals(1.0, loadCount("coalesced_remote"));
+    }
+
+    @Test
+    void leaseTimeoutStillLoads() throws Exception {
+        when(lease.tryLock(anyLong(), anyLong(), eq(TimeUnit.MILLISECONDS))).thenReturn(false);
+
+        assertEquals("Heat", cache().get("heat", () -> "Heat"));
+        assertEquals(1.0, loadCount("lease_timeout"));
+    }
+
+    @Test
+    void failedLoadIsNotCachedAndIsRetried() {
+        Cache cache = cache();
+
+        assertThrows(Cache.ValueRetrievalException.class, () -> cache.get("heat", () -> {
+            throw new IllegalStateException("database down");
+        }));
+
+        assertEquals("Heat", cache.get("heat", () -> "Heat"));
+    }
+
+    @Test
+    void staleEntryIsServedWhileOneBackgroundReloadRuns() throws Exception {
+        TwoTierCacheManager manager = new TwoTierCacheManager(remoteManager, redissonClient, meterRegistry, 100, 60);
+        manager.enableRefresh(List.of("movies"), new RefreshPolicy(50, 50, Integer.MAX_VALUE), 2, 10);
+        Cache cache = manager.getCache("movies");
+        cache.put("heat", "Heat");
+        Thread.sleep(80);
+
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 5; i++) {
+            assertEquals("Heat", cache.get("heat", () -> {
+                loads.incrementAndGet();
+                release.await();
+                return "Heat (1995)";
+            }));
+        }
+        release.countDown();
+        awaitRefreshes(1);
+
+        assertEquals("Heat (1995)", cache.get("heat", () -> {
+            throw new AssertionError("loader must not run");
+        }));
+        assertEquals(1, loads.get());
+        assertEquals(5.0, refreshCount("stale_served"));
+    }
+
+    @Test
+    void warmingNeverOverwritesTheRemoteEntry() {
+        TwoTierCache cache = (TwoTierCache) cache();
+        remoteManager.getCache("movies").put("heat", "Heat (1995)");
+
+        cache.warm("heat", "Heat", 1L);
+        cache.warm("alien", "Alien", 1L);
+
+        assertEquals("Heat (1995)", cache.get("heat").get());
+        assertEquals("Alien", remoteManager.getCache("movies").get("alien").get());
+    }
+
+    @Test
+    void recordsLoadsWritesEvictionsAndHotKeys() throws Exception {
+        TwoTierCacheManager manager = new TwoTierCacheManager(remoteManager, redissonClient, meterRegistry, 100, 60);
+        manager.setHotKeys(10, 1);
+        TwoTierCache cache = (TwoTierCache) manager.getCache("movies");
+
+        cache.get("heat", () -> "Heat");
+        cache.get("heat", () -> "Heat");
+        cache.get("alien", () -> "Alien");
+        assertThrows(Cache.ValueRetrievalException.class, () -> cache.get("ronin", () -> {
+            throw new IllegalStateException("database down");
+        }));
+        cache.evict("alien");
+        cache.clear();
+
+        assertEquals(2, meterRegistry.get("habitat.cache.load.duration").tag("result", "success").timer().count());
+        assertEquals(1, meterRegistry.get("habitat.cache.load.duration").tag("result", "failure").timer().count());
+        assertEquals(2.0, meterRegistry.get("habitat.cache.puts").counter().count());
+        assertEquals(1.0, meterRegistry.get("habitat.cache.evictions").tag("scope", "key").counter().count());
+        assertEquals(1.0, meterRegistry.get("habitat.cache.evictions").tag("scope", "all").counter().count());
+        assertEquals("heat", cache.hotKeys(1).get(0).key());
+        assertEquals(2, cache.hotKeys(1).get(0).count());
+    }
+
+    private Cache cache() {
+        return new TwoTierCacheManager(remoteManager, redissonClient, meterRegistry, 100, 60).getCache("movies");
+    }
+
+    private void awaitRefreshes(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (refreshCount("refreshed") < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, refreshCount("refreshed"));
+    }
+
+    private double refreshCount(String outcome) {
+        return meterRegistry.get("habitat.cache.refreshes").tag("outcome", outcome).counter().count();
+    }
+
+    private double loadCount(String outcome) {
+        return meterRegistry.get("habitat.cache.loads").tag("outcome", outcome).counter().count();
+    }
+}
@@ -0,0 +1,90 @@
+package com.project.habitat.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class VersionedRedisSerializerTest {
+
+    record Sample(String name, List<String> genres) {
+    }
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JavaType TYPE = MAPPER.constructType(Sample.class);
+    private static final Sample VALUE = new Sample("Heat", List.of("Crime", "Drama", "Crime"));
+
+    @Test
+    void writesTheHeaderOfTheConfiguredCodec() {
+        byte[] bytes = CacheCodecs.serializer(MAPPER, TYPE, CacheCodecs.SMILE).serialize(VALUE);
+
+        assertEquals(VersionedRedisSerializer.MAGIC, bytes[0]);
+        assertEquals(VersionedRedisSerializer.FORMAT_VERSION, bytes[1]);
+        assertEquals(JacksonCacheValueCodec.SMILE_ID, bytes[2]);
+    }
+
+    @Test
+    void readsValuesWrittenByEitherCodec() {
+        VersionedRedisSerializer json = CacheCodecs.serializer(MAPPER, TYPE, CacheCodecs.JSON);
+        VersionedRedisSerializer smile = CacheCodecs.serializer(MAPPER, TYPE, CacheCodecs.SMILE);
+
+        assertEquals(VALUE, json.deserialize(smile.serialize(VALUE)));
+        assertEquals(VALUE, smile.deserialize(json.serialize(VALUE)));
+        assertEquals(VALUE, smile.deserialize(smile.serialize(VALUE)));
+    }
+
+    @Test
+    void readsHeaderlessJsonThroughTheLegacyCodec() {
+        byte[] legacy = "{\"name\":\"Heat\",\"genres\":[\"Crime\",\"Drama\",\"Crime\"],\"dropped\":1}"
+                .getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(VALUE, CacheCodecs.serializer(MAPPER, TYPE, CacheCodecs.SMILE).deserialize(legacy));
+    }
+
+    @Test
+    void legacyModeWritesJsonThatPreHeaderNodesRead() throws Exception {
+        VersionedRedisSerializer legacy = CacheCodecs.serializer(MAPPER, TYPE, CacheCodecs.LEGACY);
+
+        byte[] bytes = legacy.serialize(new CacheEnvelope(VALUE, 1_700_000_000_000L));
+
+        assertEquals(VALUE, MAPPER.readValue(bytes, TYPE));
+        assertEquals(VALUE, legacy.deserialize(bytes));
+    }
+
+    @Test
+    void unknownCodecsAndFormatsReadAsMisses() {
+        VersionedRedisSerializer serializer = CacheCodecs.serializer(MAPPER, TYPE, CacheCodecs.JSON);
+        byte[] bytes = serializer.serialize(VALUE);
+
+        byte[] unknownCodec = bytes.clone();
+        unknownCodec[2] = 99;
+        byte[] newerFormat = bytes.clone();
+        newerFormat[1] = VersionedRedisSerializer.FORMAT_VERSION_TIMESTAMPED + 1;
+
+        assertNull(serializer.deserialize(unknownCodec));
+        assertNull(serializer.deserialize(newerFormat));
+        assertNull(serializer.deserialize(new byte[0]));
+    }
+
+    @Test
+    void envelopesKeepTheirWriteTime() {
+        VersionedRedisSerializer serializer = CacheCodecs.serializer(MAPPER, TYPE, CacheCodecs.SMILE);
+
+        byte[] bytes = serializer.serialize(new CacheEnvelope(VALUE, 1_700_000_000_000L));
+
+        assertEquals(VersionedRedisSerializer.FORMAT_VERSION_TIMESTAMPED, bytes[1]);
+        assertEquals(new CacheEnvelope(VALUE, 1_700_000_000_000L), serializer.deserialize(bytes));
+    }
+
+    @Test
+    void rejectsUnknownWriteCodecs() {
+        assertThrows(IllegalStateException.class, () -> CacheCodecs.serializer(MAPPER, TYPE, "protobuf"));
+    }
+}
@@ -0,0 +1,198 @@
+package com.project.habitat.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+import org.redisson.api.RLock;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.serializer.support.SerializationDelegate;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.project.habitat.cache.CacheEnvelope;
+import com.project.habitat.cache.RefreshPolicy;
+import com.project.habitat.cache.TwoTierCacheManager;
+import com.project.habitat.dto.MovieDetail;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Builds the cache manager from the shipped {@code application.yml}, so the codec and refresh
+ * defaults are checked as deployed.
+ */
+class RedisConfigTest {
+
+    private static final byte MAGIC = (byte) 0xCB;
+    private static final MovieDetail HEAT = new MovieDetail(1L, "Heat", null, 170, "R",
+            LocalDate.of(1995, 12, 15), 4.5, null, List.of(), List.of(), List.of());
+    private static final MovieDetail HEAT_RELOADED = new MovieDetail(1L, "Heat", null, 170, "R",
+            LocalDate.of(1995, 12, 15), 4.6, null, List.of(), List.of(), List.of());
+
+    @Test
+    void shippedConfigStoresWriteTimesAndRefreshes() throws IOException {
+        CacheManager cacheManager = cacheManager(shippedEnvironment());
+
+        byte[] stored = write(cacheManager, new CacheEnvelope(HEAT, 1_700_000_000_000L));
+
+        assertEquals(MAGIC, stored[0]);
+        assertEquals(new CacheEnvelope(HEAT, 1_700_000_000_000L), read(cacheManager, stored));
+        assertNotNull(ReflectionTestUtils.getField(cacheManager.getCache(CacheNames.MOVIE_BY_ID), "refreshPolicy"));
+    }
+
+    @Test
+    void legacyRolloutWritesHeaderlessJsonWithoutRefresh() throws IOException {
+        MockEnvironment environment = shippedEnvironment();
+        environment.setProperty("app.cache.codec.legacy-rollout", "true");
+        CacheManager cacheManager = cacheManager(environment);
+
+        byte[] stored = write(cacheManager, new CacheEnvelope(HEAT, 1_700_000_000_000L));
+
+        assertEquals('{', stored[0]);
+        assertEquals(HEAT, read(cacheManager, stored));
+        assertNull(ReflectionTestUtils.getField(cacheManager.getCache(CacheNames.MOVIE_BY_ID), "refreshPolicy"));
+    }
+
+    /**
+     * Two nodes share a remote tier that stores what the shipped serializer writes, so the
+     * write time the reading node ages the entry by has been through the Smile envelope.
+     */
+    @Test
+    void staleEntryIsServedWhileOneReloadRunsThroughTheShippedSerializer() throws Exception {
+        CacheManager shipped = cacheManager(shippedEnvironment());
+        RefreshPolicy policy = (RefreshPolicy) ReflectionTestUtils.getField(
+                shipped.getCache(CacheNames.MOVIE_BY_ID), "refreshPolicy");
+        SimpleCacheManager remoteManager = serializingRemote(
+                remote(shipped).getCacheConfiguration().getValueSerializationPair());
+        AtomicLong now = new AtomicLong(1_700_000_000_000L);
+
+        node(remoteManager, policy, now, new SimpleMeterRegistry()).getCache(CacheNames.MOVIE_BY_ID).put(1L, HEAT);
+        Map<?, ?> store = (Map<?, ?>) remoteManager.getCache(CacheNames.MOVIE_BY_ID).getNativeCache();
+        assertEquals(MAGIC, ((byte[]) store.get(1L))[0]);
+
+        now.addAndGet(policy.softTtlMillis());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        Cache reader = node(remoteManager, policy, now, meterRegistry).getCache(CacheNames.MOVIE_BY_ID);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        Callable<MovieDetail> loader = () -> {
+            loads.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return HEAT_RELOADED;
+        };
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(HEAT, reader.get(1L, loader));
+        }
+        release.countDown();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (refreshes(meterRegistry) < 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertEquals(HEAT_RELOADED, reader.get(1L, loader));
+        assertEquals(1, loads.get());
+        assertEquals(1.0, refreshes(meterRegistry));
+    }
+
+    private static MockEnvironment shippedEnvironment() throws IOException {
+        MockEnvironment environment = new MockEnvironment();
+        for (PropertySource<?> source : new YamlPropertySourceLoader()
+                .load("application.yml", new ClassPathResource("application.yml"))) {
+            environment.getPropertySources().addLast(source);
+        }
+        return environment;
+    }
+
+    private static CacheManager cacheManager(MockEnvironment environment) {
+        RedissonClient redissonClient = mock(RedissonClient.class);
+        when(redissonClient.getTopic(anyString(), eq(StringCodec.INSTANCE))).thenReturn(mock(RTopic.class));
+        RedisConfig config = new RedisConfig();
+        ReflectionTestUtils.setField(config, "environment", environment);
+        return config.cacheManager(mock(RedisConnectionFactory.class), redissonClient, new SimpleMeterRegistry(),
+                Duration.ofHours(1), 100, 60, 5_000, 30_000);
+    }
+
+    private static RedisCache remote(CacheManager cacheManager) {
+        return (RedisCache) ReflectionTestUtils.getField(cacheManager.getCache(CacheNames.MOVIE_BY_ID), "remote");
+    }
+
+    private static byte[] write(CacheManager cacheManager, Object value) {
+        ByteBuffer buffer = remote(cacheManager).getCacheConfiguration().getValueSerializationPair().write(value);
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static Object read(CacheManager cacheManager, byte[] bytes) {
+        return remote(cacheManager).getCacheConfiguration().getValueSerializationPair().read(ByteBuffer.wrap(bytes));
+    }
+
+    private static SimpleCacheManager serializingRemote(SerializationPair<Object> pair) {
+        SerializationDelegate delegate = new SerializationDelegate(
+                (value, out) -> {
+                    ByteBuffer buffer = pair.write(value);
+                    byte[] bytes = new byte[buffer.remaining()];
+                    buffer.get(bytes);
+                    out.write(bytes);
+                },
+                in -> pair.read(ByteBuffer.wrap(in.readAllBytes())));
+        SimpleCacheManager remoteManager = new SimpleCacheManager();
+        remoteManager.setCaches(List.of(
+                new ConcurrentMapCache(CacheNames.MOVIE_BY_ID, new ConcurrentHashMap<>(), false, delegate) { }));
+        remoteManager.afterPropertiesSet();
+        return remoteManager;
+    }
+
+    private static TwoTierCacheManager node(CacheManager remoteManager, RefreshPolicy policy, AtomicLong now,
+                                            SimpleMeterRegistry meterRegistry) throws InterruptedException {
+        RedissonClient redissonClient = mock(RedissonClient.class);
+        RLock lease = mock(RLock.class);
+        when(redissonClient.getTopic(anyString(), eq(StringCodec.INSTANCE))).thenReturn(mock(RTopic.class));
+        when(redissonClient.getLock(anyString())).thenReturn(lease);
+        when(lease.tryLock(anyLong(), anyLong(), eq(TimeUnit.MILLISECONDS))).thenReturn(true);
+        when(lease.isHeldByCurrentThread()).thenReturn(true);
+        Clock clock = mock(Clock.class);
+        when(clock.millis()).thenAnswer(invocation -> now.get());
+        TwoTierCacheManager manager = new TwoTierCacheManager(remoteManager, redissonClient, meterRegistry, 100, 60);
+        manager.setClock(clock);
+        manager.enableRefresh(List.of(CacheNames.MOVIE_BY_ID), policy, 1, 10);
+        return manager;
+    }
+
+    private static double refreshes(SimpleMeterRegistry meterRegistry) {
+        return meterRegistry.get("habitat.cache.refreshes").tag("outcome", "refreshed").counter().count();
+    }
+}
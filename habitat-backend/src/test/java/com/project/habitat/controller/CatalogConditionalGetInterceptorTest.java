@@ -0,0 +1,110 @@
+package com.project.habitat.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import com.project.habitat.cache.CatalogVersion;
+
+class CatalogConditionalGetInterceptorTest {
+
+    private static final long MODIFIED = 1_700_000_000_000L;
+
+    private final CatalogVersion catalogVersion = mock(CatalogVersion.class);
+    private final CatalogConditionalGetInterceptor interceptor = new CatalogConditionalGetInterceptor(catalogVersion);
+
+    CatalogConditionalGetInterceptorTest() {
+        when(catalogVersion.current()).thenReturn(new CatalogVersion.Snapshot("e1", 3, MODIFIED));
+    }
+
+    @Test
+    void unconditionalGetReachesTheControllerWithValidators() {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(new MockHttpServletRequest("GET", "/movies/getall"), response, null));
+        assertEquals("\"catalog-e1-3\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals("public, no-cache", response.getHeader(HttpHeaders.CACHE_CONTROL));
+    }
+
+    @Test
+    void currentEtagIsAnsweredWithNotModified() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/movies/getall");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"catalog-e1-3\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(interceptor.preHandle(request, response, null));
+        assertEquals(304, response.getStatus());
+    }
+
+    @Test
+    void staleEtagReachesTheController() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/movies/getall");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"catalog-e1-2\"");
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void sameVersionOfAnotherEpochReachesTheController() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/movies/getall");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"catalog-e0-3\"");
+
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void gzipClientsGetTheirOwnEtag() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/movies/getall");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/movies/getall");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "br, gzip");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"catalog-e1-3\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, null));
+        assertEquals("\"catalog-e1-3-gzip\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeader(HttpHeaders.VARY));
+    }
+
+    @Test
+    void otherEndpointsKeepOneRepresentation() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/movies/search");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/movies/search");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, null));
+        assertEquals("\"catalog-e1-3\"", response.getHeader(HttpHeaders.ETAG));
+        assertNull(response.getHeader(HttpHeaders.VARY));
+    }
+
+    @Test
+    void parsesAcceptEncoding() {
+        assertTrue(CatalogConditionalGetInterceptor.acceptsGzip("gzip"));
+        assertTrue(CatalogConditionalGetInterceptor.acceptsGzip("deflate, GZIP;q=0.5"));
+        assertTrue(CatalogConditionalGetInterceptor.acceptsGzip("*"));
+        assertFalse(CatalogConditionalGetInterceptor.acceptsGzip(null));
+        assertFalse(CatalogConditionalGetInterceptor.acceptsGzip("br, deflate"));
+        assertFalse(CatalogConditionalGetInterceptor.acceptsGzip("gzip;q=0"));
+        assertFalse(CatalogConditionalGetInterceptor.acceptsGzip("gzip; q=0.000"));
+    }
+
+    @Test
+    void writesAreNotConditional() {
+        MockHttpServletRequest request = new MockHttpServletRequest("PUT", "/movies/update");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"catalog-e1-3\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertTrue(interceptor.preHandle(request, response, null));
+        assertNull(response.getHeader(HttpHeaders.ETAG));
+    }
+}
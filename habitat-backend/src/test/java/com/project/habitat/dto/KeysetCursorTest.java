@@ -0,0 +1,43 @@
+package com.project.habitat.dto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.jupiter.api.Test;
+
+class KeysetCursorTest {
+
+    @Test
+    void roundTripsThroughItsEncoding() {
+        KeysetCursor cursor = new KeysetCursor("NEWEST", "2024-05-01T10:15:30", 42L);
+
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void valuesMayContainTheSeparator() {
+        KeysetCursor cursor = new KeysetCursor("NAME", "Face|Off", 7L);
+
+        assertEquals(cursor, KeysetCursor.decode(cursor.encode()));
+    }
+
+    @Test
+    void missingValueDecodesAsEmpty() {
+        assertEquals(new KeysetCursor("ID", "", 3L), KeysetCursor.decode(new KeysetCursor("ID", null, 3L).encode()));
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not base64!"));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(encode("NEWEST")));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(encode("NEWEST|42")));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(encode("NEWEST|value|x")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,112 @@
+package com.project.habitat.index;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Measures the recommendation job's in-memory work against rating volume: building the
+ * model (similarities included) and computing every user's top 50. Ratings are synthetic,
+ * with movie popularity following a Zipf-like curve so a few titles collect most ratings,
+ * as in the real catalog; loading from Postgres and writing to Redis are not included.
+ *
+ * <p>Run with {@code java -cp <test classpath> com.project.habitat.index.ItemItemModelBenchmark [ratings...]}.
+ */
+public class ItemItemModelBenchmark {
+
+    private static final int MOVIES = 5_000;
+    private static final int RATINGS_PER_USER = 40;
+    private static final int NEIGHBOURS = 50;
+    private static final int MIN_CO_RATERS = 3;
+    private static final int TOP_N = 50;
+
+    public static void main(String[] args) {
+        int[] volumes = args.length > 0 ? new int[args.length] : new int[] { 100_000, 300_000, 1_000_000, 3_000_000 };
+        for (int i = 0; i < args.length; i++) {
+            volumes[i] = Integer.parseInt(args[i]);
+        }
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        // Warm up the JIT on a small model before measuring.
+        run(sampleRatings(50_000, new Random(7)), pool, false);
+
+        System.out.printf("%d movies, %d ratings per user, %d threads%n", MOVIES, RATINGS_PER_USER,
+                pool.getParallelism());
+        System.out.printf("%12s %10s %10s %12s %14s %12s%n", "ratings", "users", "movies", "build ms",
+                "recommend ms", "heap MB");
+        for (int volume : volumes) {
+            run(sampleRatings(volume, new Random(42)), pool, true);
+        }
+        pool.shutdown();
+    }
+
+    private static void run(ItemItemModel.Builder ratings, ForkJoinPool pool, boolean report) {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        long heapBefore = runtime.totalMemory() - runtime.freeMemory();
+        long start = System.nanoTime();
+        ItemItemModel model = ratings.build(NEIGHBOURS, MIN_CO_RATERS, pool);
+        long built = System.nanoTime();
+        ItemItemModel.TopN lists = model.recommendAll(TOP_N);
+        long recommended = System.nanoTime();
+        long heapAfter = runtime.totalMemory() - runtime.freeMemory();
+        if (lists.users() != model.users()) {
+            throw new IllegalStateException("Expected a list for every user");
+        }
+        if (report) {
+            System.out.printf("%12d %10d %10d %12d %14d %12d%n", model.ratings(), model.users(), model.movies(),
+                    (built - start) / 1_000_000, (recommended - built) / 1_000_000,
+                    Math.max(0, heapAfter - heapBefore) / (1024 * 1024));
+        }
+    }
+
+    /** Distinct (user, movie) pairs; stars lean on a per-movie quality so similarities exist. */
+    private static ItemItemModel.Builder sampleRatings(int count, Random random) {
+        double[] cumulative = new double[MOVIES];
+        double total = 0;
+        for (int m = 0; m < MOVIES; m++) {
+            total += 1.0 / Math.pow(m + 1, 0.8);
+            cumulative[m] = total;
+        }
+        double[] quality = new double[MOVIES];
+        for (int m = 0; m < MOVIES; m++) {
+            quality[m] = 1 + 4 * random.nextDouble();
+        }
+
+        ItemItemModel.Builder ratings = new ItemItemModel.Builder();
+        long user = 0;
+        boolean[] seen = new boolean[MOVIES];
+        int[] picked = new int[RATINGS_PER_USER];
+        while (ratings.size() < count) {
+            user++;
+            double taste = random.nextGaussian();
+            int n = Math.min(RATINGS_PER_USER, count - ratings.size());
+            for (int k = 0; k < n; k++) {
+                int movie;
+                do {
+                    movie = pick(cumulative, random.nextDouble() * total);
+                } while (seen[movie]);
+                seen[movie] = true;
+                picked[k] = movie;
+                double stars = quality[movie] + taste * (movie % 2 == 0 ? 1 : -1) + random.nextGaussian() * 0.5;
+                ratings.add(user, movie + 1L, (float) Math.max(1, Math.min(5, Math.round(stars))));
+            }
+            for (int k = 0; k < n; k++) {
+                seen[picked[k]] = false;
+            }
+        }
+        return ratings;
+    }
+
+    private static int pick(double[] cumulative, double target) {
+        int low = 0;
+        int high = cumulative.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (cumulative[mid] < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+}
@@ -0,0 +1,73 @@
+package com.project.habitat.index;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Three users and three movies, small enough to check by hand. Centred on each user's mean:
+ *
+ * <pre>
+ *              movie 10   movie 20   movie 30
+ *   user 1 (4)    +1         -2         +1
+ *   user 2 (3)    +2         -2          0
+ *   user 3 (3)    +1         -1          -
+ * </pre>
+ *
+ * Movies 10 and 30 share two raters and sim(10, 30) = (1 + 0) / (sqrt(6) * 1); every pair
+ * with movie 20 has a negative cosine and is dropped. User 3 therefore gets movie 30 at
+ * 3 + (sim * 1) / (sim + 1) = 3 + 1 / (1 + sqrt(6)).
+ */
+class ItemItemModelTest {
+
+    private static final double SIMILARITY = 1 / Math.sqrt(6);
+
+    private final ForkJoinPool pool = new ForkJoinPool(2);
+
+    @AfterEach
+    void shutDownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    void recommendsTheUnseenMovieFromItsOnlyNeighbour() {
+        ItemItemModel model = ratings().build(10, 2, pool);
+
+        ItemItemModel.TopN lists = model.recommendAll(5);
+
+        assertArrayEquals(new long[] { 1, 2, 3 }, lists.userIds());
+        assertArrayEquals(new int[] { 0, 0, 0, 1 }, lists.offsets());
+        assertArrayEquals(new long[] { 30 }, lists.movieIds());
+        assertEquals(3 + SIMILARITY / (SIMILARITY + 1), lists.scores()[0], 1e-5);
+    }
+
+    @Test
+    void pairsBelowMinimumCoRatersAreNotNeighbours() {
+        ItemItemModel model = ratings().build(10, 3, pool);
+
+        assertEquals(0, model.recommendAll(5).movieIds().length);
+    }
+
+    @Test
+    void recommendsFromCurrentRatingsOfAnyUser() {
+        ItemItemModel model = ratings().build(10, 2, pool);
+
+        // Mean 3, so movie 10 is +2 and movie 20 is -2; unknown movie 99 is ignored.
+        ItemItemModel.TopN list = model.recommend(7, new long[] { 10, 20, 99 }, new float[] { 5, 1, 3 }, 5);
+
+        assertArrayEquals(new int[] { 0, 1 }, list.offsets());
+        assertArrayEquals(new long[] { 30 }, list.movieIds());
+        assertEquals(3 + 2 * SIMILARITY / (SIMILARITY + 1), list.scores()[0], 1e-5);
+    }
+
+    private static ItemItemModel.Builder ratings() {
+        return new ItemItemModel.Builder()
+                .add(1, 10, 5).add(1, 20, 2).add(1, 30, 5)
+                .add(2, 10, 5).add(2, 20, 1).add(2, 30, 3)
+                .add(3, 10, 4).add(3, 20, 2);
+    }
+}
@@ -0,0 +1,60 @@
+package com.project.habitat.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.project.habitat.dto.MovieReferenceName;
+import com.project.habitat.events.MovieChangedEvent;
+import com.project.habitat.repository.MovieRepository;
+
+class MovieFacetIndexTest {
+
+    private final MovieRepository movieRepository = mock(MovieRepository.class);
+    private final MovieFacetIndex index = new MovieFacetIndex(movieRepository);
+
+    @Test
+    void idsBeyondIntRangeAreRejected() {
+        assertEquals(Integer.MAX_VALUE, MovieFacetIndex.toBitmapId((long) Integer.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> MovieFacetIndex.toBitmapId(Integer.MAX_VALUE + 1L));
+        assertThrows(IllegalArgumentException.class, () -> MovieFacetIndex.toBitmapId(-1L));
+        assertThrows(IllegalArgumentException.class, () -> MovieFacetIndex.toBitmapId(null));
+    }
+
+    @Test
+    void changesMadeDuringARebuildSurviveTheSwap() {
+        when(movieRepository.findAllGenreNames()).thenReturn(List.of(new MovieReferenceName(1L, "Crime")));
+        when(movieRepository.findGenreNames(List.of(3L))).thenReturn(List.of(new MovieReferenceName(3L, "Drama")));
+        // Movie 3 commits after the rebuild read its rows but before it swapped them in.
+        when(movieRepository.findAllIds()).thenAnswer(invocation -> {
+            index.onMovieChanged(MovieChangedEvent.saved(3L));
+            return List.of(1L, 2L);
+        });
+
+        index.rebuild();
+
+        assertTrue(index.contains(3L));
+        assertEquals(List.of(3L), index.query(Map.of(MovieFacet.GENRE, List.of("Drama")), false, 0, 10).movieIds());
+    }
+
+    @Test
+    void deletionsDuringARebuildSurviveTheSwap() {
+        when(movieRepository.findAllIds()).thenAnswer(invocation -> {
+            index.onMovieChanged(MovieChangedEvent.deleted(2L));
+            return List.of(1L, 2L);
+        });
+
+        index.rebuild();
+
+        assertTrue(index.contains(1L));
+        assertFalse(index.contains(2L));
+    }
+}
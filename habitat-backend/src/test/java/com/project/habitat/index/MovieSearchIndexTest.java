@@ -0,0 +1,144 @@
+package com.project.habitat.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import com.project.habitat.dto.MovieText;
+import com.project.habitat.events.MovieChangedEvent;
+import com.project.habitat.repository.MovieRepository;
+
+class MovieSearchIndexTest {
+
+    private final MovieRepository movieRepository = mock(MovieRepository.class);
+
+    @Test
+    void nameMatchesOutrankDescriptionMatches() {
+        MovieSearchIndex index = indexOf(
+                new MovieText(1L, "Collateral", "A long night of heat in Los Angeles", 4.0),
+                new MovieText(2L, "Heat", "A crime drama", 4.0),
+                new MovieText(3L, "Alien", "Space horror", 4.0));
+
+        SearchMatch match = index.search("heat ", 0, 10);
+
+        assertEquals(2, match.total());
+        assertEquals(List.of(2L, 1L), ids(match));
+    }
+
+    @Test
+    void lastTokenMatchesAsPrefixUnlessFollowedBySpace() {
+        MovieSearchIndex index = indexOf(
+                new MovieText(1L, "Heat", null, null),
+                new MovieText(2L, "Heathers", null, null));
+
+        assertEquals(List.of(1L, 2L), ids(index.search("heat", 0, 10)));
+        assertEquals(List.of(1L), ids(index.search("heat ", 0, 10)));
+    }
+
+    @Test
+    void higherRatingBreaksEqualTextScores() {
+        MovieSearchIndex index = indexOf(
+                new MovieText(1L, "The Matrix", "Hackers", 2.0),
+                new MovieText(2L, "The Matrix", "Hackers", 4.5));
+
+        assertEquals(List.of(2L, 1L), ids(index.search("matrix ", 0, 10)));
+    }
+
+    @Test
+    void pagesAreConsecutiveSlicesOfTheFullRanking() {
+        List<MovieText> movies = new ArrayList<>();
+        for (long id = 1; id <= 25; id++) {
+            // Ratings repeat, so equal scores must fall back to a stable id order.
+            movies.add(new MovieText(id, "Movie " + id, null, (double) (id % 5)));
+        }
+        MovieSearchIndex index = indexOf(movies.toArray(MovieText[]::new));
+
+        SearchMatch all = index.search("movie", 0, 25);
+        List<Long> paged = new ArrayList<>();
+        for (int offset = 0; offset < 25; offset += 10) {
+            SearchMatch page = index.search("movie", offset, 10);
+            assertEquals(25, page.total());
+            assertTrue(page.hits().size() <= 10);
+            paged.addAll(ids(page));
+        }
+
+        assertEquals(25, all.hits().size());
+        assertEquals(ids(all), paged);
+        assertEquals(List.of(4L, 9L, 14L, 19L, 24L), ids(all).subList(0, 5));
+        assertEquals(0, index.search("movie", 30, 10).hits().size());
+        assertEquals(25, index.search("movie", 30, 10).total());
+    }
+
+    @Test
+    void prefixExpansionsPreferTermsFoundInMoreMovies() {
+        List<MovieText> movies = new ArrayList<>();
+        // 70 single-movie terms sort before "azure", which three movies share.
+        for (int i = 0; i < 70; i++) {
+            movies.add(new MovieText(i + 1L, "a" + (char) ('a' + i / 26) + (char) ('a' + i % 26), null, null));
+        }
+        for (long id = 101; id <= 103; id++) {
+            movies.add(new MovieText(id, "Azure", null, null));
+        }
+        MovieSearchIndex index = indexOf(movies.toArray(MovieText[]::new));
+
+        SearchMatch match = index.search("a", 0, 100);
+
+        assertTrue(ids(match).containsAll(List.of(101L, 102L, 103L)));
+        assertEquals(66, match.total());
+    }
+
+    @Test
+    void prunedPagesMatchTheFullRanking() {
+        List<MovieText> movies = new ArrayList<>();
+        for (long id = 1; id <= 200; id++) {
+            movies.add(new MovieText(id, "Film " + id, "A common story", (double) (id % 5)));
+        }
+        for (long id = 201; id <= 205; id++) {
+            movies.add(new MovieText(id, "Rare " + id, "A common story", (double) (id % 5)));
+        }
+        MovieSearchIndex index = indexOf(movies.toArray(MovieText[]::new));
+
+        SearchMatch full = index.search("rare common ", 0, 300);
+        SearchMatch top = index.search("rare common ", 0, 3);
+
+        assertEquals(205, full.total());
+        assertEquals(205, top.total());
+        assertEquals(full.hits().subList(0, 3), top.hits());
+        assertEquals(List.of(204L, 203L, 202L), ids(top));
+    }
+
+    @Test
+    void changesReloadOrDropMovies() {
+        MovieSearchIndex index = indexOf(
+                new MovieText(1L, "The Matrix", "Hackers", 2.0),
+                new MovieText(2L, "The Matrix", "Hackers", 4.5),
+                new MovieText(3L, "Heat", "A crime drama", 4.0));
+
+        when(movieRepository.findTexts(any())).thenReturn(List.of(new MovieText(1L, "The Matrix", "Hackers", 5.0)));
+        index.onMovieChanged(MovieChangedEvent.saved(1L));
+        assertEquals(List.of(1L, 2L), ids(index.search("matrix ", 0, 10)));
+
+        index.onMovieChanged(MovieChangedEvent.deleted(3L));
+        assertEquals(0, index.search("heat ", 0, 10).total());
+    }
+
+    private MovieSearchIndex indexOf(MovieText... movies) {
+        when(movieRepository.findTextPage(eq(0L), any(Pageable.class))).thenReturn(List.of(movies));
+        MovieSearchIndex index = new MovieSearchIndex(movieRepository);
+        index.rebuild();
+        return index;
+    }
+
+    private static List<Long> ids(SearchMatch match) {
+        return match.hits().stream().map(ScoredMovie::movieId).toList();
+    }
+}
@@ -0,0 +1,93 @@
+package com.project.habitat.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.project.habitat.dto.MovieReferenceName;
+import com.project.habitat.events.MovieChangedEvent;
+import com.project.habitat.model.Format;
+import com.project.habitat.model.Genre;
+import com.project.habitat.model.Language;
+import com.project.habitat.repository.FormatRepository;
+import com.project.habitat.repository.GenreRepository;
+import com.project.habitat.repository.LanguageRepository;
+import com.project.habitat.repository.MovieRepository;
+
+class ReferenceDataRegistryTest {
+
+    private final GenreRepository genreRepository = mock(GenreRepository.class);
+    private final FormatRepository formatRepository = mock(FormatRepository.class);
+    private final LanguageRepository languageRepository = mock(LanguageRepository.class);
+    private final MovieRepository movieRepository = mock(MovieRepository.class);
+    private final ReferenceDataRegistry registry =
+            new ReferenceDataRegistry(genreRepository, formatRepository, languageRepository, movieRepository);
+
+    ReferenceDataRegistryTest() {
+        when(genreRepository.findAll()).thenReturn(List.of(new Genre(2L, "Drama"), new Genre(1L, "Crime")));
+        when(formatRepository.findAll()).thenReturn(List.of(new Format(1L, "2D")));
+        when(languageRepository.findAll()).thenReturn(List.of(new Language(1L, "English")));
+    }
+
+    @Test
+    void loadsOnceAndLooksUpByIdAndName() {
+        ReferenceData data = registry.current();
+
+        assertSame(data, registry.current());
+        assertEquals(1, data.version());
+        assertEquals(List.of("Crime", "Drama"), data.genres().all().stream().map(Genre::getName).toList());
+        assertEquals("Drama", data.genres().get(2L).getName());
+        assertEquals(1L, data.formats().named("2D").getFormatId());
+        assertNull(data.languages().named("French"));
+        assertNull(data.languages().get(null));
+        verify(genreRepository, times(1)).findAll();
+    }
+
+    @Test
+    void savedMoviesWithANewNameReloadTheSnapshot() {
+        registry.current();
+        when(genreRepository.findAll()).thenReturn(List.of(new Genre(1L, "Crime"), new Genre(3L, "Thriller")));
+        when(movieRepository.findGenreNames(List.of(7L))).thenReturn(List.of(
+                new MovieReferenceName(7L, "Crime"), new MovieReferenceName(7L, "Thriller")));
+
+        registry.onMovieChanged(MovieChangedEvent.saved(7L));
+
+        ReferenceData data = registry.current();
+        assertEquals(2, data.version());
+        assertEquals("Thriller", data.genres().get(3L).getName());
+        assertNull(data.genres().named("Drama"));
+    }
+
+    @Test
+    void savedMoviesWithKnownNamesKeepTheSnapshot() {
+        ReferenceData data = registry.current();
+        when(movieRepository.findGenreNames(List.of(7L))).thenReturn(List.of(new MovieReferenceName(7L, "Drama")));
+        when(movieRepository.findFormatNames(List.of(7L))).thenReturn(List.of(new MovieReferenceName(7L, "2D")));
+        when(movieRepository.findLanguageNames(List.of(7L))).thenReturn(List.of(new MovieReferenceName(7L, "English")));
+
+        registry.onMovieChanged(MovieChangedEvent.saved(7L));
+
+        assertSame(data, registry.current());
+        verify(genreRepository, times(1)).findAll();
+    }
+
+    @Test
+    void deletedMoviesKeepTheSnapshot() {
+        ReferenceData data = registry.current();
+
+        registry.onMovieChanged(MovieChangedEvent.deleted(7L));
+
+        assertSame(data, registry.current());
+        verify(movieRepository, never()).findGenreNames(anyList());
+    }
+}
@@ -0,0 +1,91 @@
+package com.project.habitat.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import com.project.habitat.dto.MovieReferenceName;
+import com.project.habitat.dto.MovieSummary;
+import com.project.habitat.events.MovieChangedEvent;
+import com.project.habitat.repository.MovieRepository;
+
+class SimilarMoviesIndexTest {
+
+    private static final int MOVIES = 40;
+
+    private final MovieRepository movieRepository = mock(MovieRepository.class);
+    private final SimilarMoviesIndex index = new SimilarMoviesIndex(movieRepository);
+
+    SimilarMoviesIndexTest() {
+        List<Long> all = new ArrayList<>();
+        for (long id = 1; id <= MOVIES; id++) {
+            all.add(id);
+        }
+        when(movieRepository.findAllSummaries()).thenReturn(summaries(all));
+        when(movieRepository.findAllGenreNames()).thenReturn(dramas(all));
+        index.rebuild();
+    }
+
+    @AfterEach
+    void shutDown() {
+        index.shutdown();
+    }
+
+    @Test
+    void changesAreAppliedInTheBackgroundAndCoalesced() throws InterruptedException {
+        CountDownLatch updating = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(movieRepository.findSummariesByIds(any())).thenAnswer(invocation -> {
+            updating.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return summaries(invocation.getArgument(0));
+        });
+        // Movie 1 turns into a crime movie and shares no tag with the rest any more.
+        when(movieRepository.findGenreNames(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> new MovieReferenceName(id, id == 1L ? "Crime" : "Drama")).toList();
+        });
+        assertEquals(SimilarMoviesIndex.TOP_K, index.similarTo(1L, 100).size());
+
+        index.onMovieChanged(MovieChangedEvent.saved(1L));
+        assertTrue(updating.await(5, TimeUnit.SECONDS));
+        // The listener returned while the first pass is still loading; these two wait for it.
+        index.onMovieChanged(MovieChangedEvent.saved(2L));
+        index.onMovieChanged(MovieChangedEvent.saved(3L));
+        release.countDown();
+
+        verify(movieRepository, timeout(5_000)).findSummariesByIds(List.of(2L, 3L));
+        verify(movieRepository, times(2)).findSummariesByIds(any());
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!index.similarTo(1L, 100).isEmpty() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of(), index.similarTo(1L, 100));
+        assertTrue(index.similarTo(2L, 100).stream().noneMatch(neighbour -> neighbour.movieId() == 1L));
+    }
+
+    private static List<MovieSummary> summaries(Collection<Long> ids) {
+        return ids.stream()
+                .map(id -> new MovieSummary(id, "Movie " + id, null, null, LocalDate.of(2000, 1, 1), null))
+                .toList();
+    }
+
+    private static List<MovieReferenceName> dramas(Collection<Long> ids) {
+        return ids.stream().map(id -> new MovieReferenceName(id, "Drama")).toList();
+    }
+}
@@ -0,0 +1,99 @@
+package com.project.habitat.index;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+
+class StripedCounterTableTest {
+
+    private static final int THREADS = 8;
+    private static final int IDS = 1_000;
+    private static final int ROUNDS = 200;
+
+    @Test
+    void drainSumsStripesInIdOrderAndResets() {
+        StripedCounterTable table = new StripedCounterTable(4);
+        table.increment(30);
+        table.add(10, 5);
+        table.increment(30);
+
+        StripedCounterTable.Counts counts = table.drain();
+
+        assertArrayEquals(new long[] { 10, 30 }, counts.ids());
+        assertArrayEquals(new long[] { 5, 2 }, counts.counts());
+        assertEquals(7, counts.total());
+        assertEquals(0, table.pendingIds());
+        assertEquals(0, table.drain().size());
+    }
+
+    @Test
+    void rejectsNonPositiveIds() {
+        StripedCounterTable table = new StripedCounterTable(1);
+
+        assertThrows(IllegalArgumentException.class, () -> table.increment(0));
+        assertThrows(IllegalArgumentException.class, () -> table.increment(-1));
+    }
+
+    @Test
+    void concurrentIncrementsAndDrainsLoseNothing() throws Exception {
+        StripedCounterTable table = new StripedCounterTable(THREADS);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    // Enough distinct ids that every stripe grows while drains run.
+                    for (int round = 0; round < ROUNDS; round++) {
+                        for (long id = 1; id <= IDS; id++) {
+                            table.increment(id);
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            long[] drained = new long[IDS + 1];
+            AtomicBoolean writing = new AtomicBoolean(true);
+            Future<?> drainer = executor.submit(() -> {
+                start.await();
+                while (writing.get()) {
+                    accumulate(table.drain(), drained);
+                }
+                return null;
+            });
+
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            writing.set(false);
+            drainer.get(30, TimeUnit.SECONDS);
+            accumulate(table.drain(), drained);
+
+            for (int id = 1; id <= IDS; id++) {
+                assertEquals((long) THREADS * ROUNDS, drained[id], "count of id " + id);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void accumulate(StripedCounterTable.Counts counts, long[] into) {
+        for (int i = 0; i < counts.size(); i++) {
+            into[(int) counts.ids()[i]] += counts.counts()[i];
+        }
+    }
+}
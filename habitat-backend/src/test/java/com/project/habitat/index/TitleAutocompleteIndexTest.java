@@ -0,0 +1,103 @@
+package com.project.habitat.index;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+
+import com.project.habitat.dto.MovieTitle;
+import com.project.habitat.dto.TitleSuggestion;
+import com.project.habitat.events.MovieChangeType;
+import com.project.habitat.events.MovieChangedEvent;
+import com.project.habitat.repository.MovieRepository;
+
+class TitleAutocompleteIndexTest {
+
+    private final MovieRepository movieRepository = mock(MovieRepository.class);
+
+    @Test
+    void suggestsMostPopularTitlesFromAnyWordStart() {
+        TitleAutocompleteIndex index = indexOf(starTreks(12));
+
+        assertEquals(List.of(12L, 11L, 10L), ids(index.suggest("star", 3)));
+        assertEquals(List.of(12L, 11L, 10L), ids(index.suggest("Trek", 3)));
+        assertEquals(TitleAutocompleteIndex.TOP_K, index.suggest("st", 50).size());
+    }
+
+    @Test
+    void removingCachedTopTitlesRecomputesFromTheSubtree() {
+        TitleAutocompleteIndex index = indexOf(starTreks(12));
+        assertEquals(List.of(12L, 11L, 10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L), ids(index.suggest("star", 10)));
+
+        index.onMovieChanged(new MovieChangedEvent(MovieChangeType.DELETED, List.of(12L, 11L), false));
+
+        List<TitleSuggestion> suggestions = index.suggest("star", 10);
+        assertEquals(List.of(10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L, 2L, 1L), ids(suggestions));
+        assertTrue(suggestions.stream().noneMatch(TitleSuggestion::fuzzy));
+    }
+
+    @Test
+    void removingTitleOutsideTopKeepsTheCachedList() {
+        TitleAutocompleteIndex index = indexOf(starTreks(12));
+        index.suggest("star", 10);
+
+        index.onMovieChanged(MovieChangedEvent.deleted(1L));
+
+        assertEquals(List.of(12L, 11L, 10L, 9L, 8L, 7L, 6L, 5L, 4L, 3L), ids(index.suggest("star", 10)));
+        assertTrue(index.suggest("star trek 1 ", 10).stream().noneMatch(suggestion -> suggestion.movieId() == 1L));
+    }
+
+    @Test
+    void savedTitlesEnterTheTopLists() {
+        TitleAutocompleteIndex index = indexOf(starTreks(12));
+        index.suggest("star", 10);
+
+        when(movieRepository.findTitles(any())).thenReturn(List.of(new MovieTitle(13L, "Stargate", 5.0)));
+        index.onMovieChanged(MovieChangedEvent.saved(13L));
+
+        assertEquals(List.of(13L, 12L), ids(index.suggest("star", 2)));
+        assertEquals(List.of(13L), ids(index.suggest("starg", 10)));
+    }
+
+    @Test
+    void shortOfPrefixMatchesFallsBackToTrigrams() {
+        TitleAutocompleteIndex index = indexOf(List.of(
+                new MovieTitle(1L, "Matrix", 4.0),
+                new MovieTitle(2L, "Heat", 4.0)));
+
+        List<TitleSuggestion> suggestions = index.suggest("matrx", 5);
+
+        assertEquals(List.of(1L), ids(suggestions));
+        assertTrue(suggestions.get(0).fuzzy());
+        assertFalse(index.suggest("mat", 5).get(0).fuzzy());
+    }
+
+    /** "Star Trek 1" to "Star Trek n", more popular as the number grows. */
+    private static List<MovieTitle> starTreks(int count) {
+        List<MovieTitle> titles = new ArrayList<>();
+        for (long id = 1; id <= count; id++) {
+            titles.add(new MovieTitle(id, "Star Trek " + id, id * 0.25));
+        }
+        return titles;
+    }
+
+    private TitleAutocompleteIndex indexOf(List<MovieTitle> titles) {
+        when(movieRepository.findTitlePage(eq(0L), any(Pageable.class))).thenReturn(titles);
+        TitleAutocompleteIndex index = new TitleAutocompleteIndex(movieRepository);
+        index.rebuild();
+        return index;
+    }
+
+    private static List<Long> ids(List<TitleSuggestion> suggestions) {
+        return suggestions.stream().map(TitleSuggestion::movieId).toList();
+    }
+}
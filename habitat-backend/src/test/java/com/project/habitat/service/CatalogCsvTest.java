@@ -0,0 +1,59 @@
+package com.project.habitat.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.project.habitat.dto.CatalogMovieRow;
+
+class CatalogCsvTest {
+
+    @Test
+    void quotedFieldsKeepCommasAndDoubledQuotes() {
+        assertEquals(List.of("Heat", "A \"cop\", a thief", ""),
+                CatalogCsv.parseLine("Heat,\"A \"\"cop\"\", a thief\","));
+        assertEquals(List.of("", "", ""), CatalogCsv.parseLine(",,"));
+        assertEquals(List.of("\"\""), CatalogCsv.parseLine("\"\"\"\"\"\""));
+    }
+
+    @Test
+    void rejectsUnterminatedQuotes() {
+        assertThrows(IllegalArgumentException.class, () -> CatalogCsv.parseLine("Heat,\"A crime drama"));
+    }
+
+    @Test
+    void matchesColumnsByHeaderNameInAnyOrder() {
+        CatalogCsv csv = CatalogCsv.withHeader("Genres, releaseDate ,MOVIENAME,durationMinutes,avgRating,languages");
+
+        CatalogMovieRow row = csv.parse("\"Crime | Drama|\",1995-12-15,\"Heat, Director's Cut\",170,,English");
+
+        assertNull(row.movieId());
+        assertEquals("Heat, Director's Cut", row.movieName());
+        assertEquals(LocalDate.of(1995, 12, 15), row.releaseDate());
+        assertEquals(170, row.durationMinutes());
+        assertNull(row.avgRating());
+        assertNull(row.movieDescription());
+        assertEquals(List.of("Crime", "Drama"), row.genres());
+        assertEquals(List.of(), row.formats());
+        assertEquals(List.of("English"), row.languages());
+    }
+
+    @Test
+    void shortRowsLeaveTrailingColumnsEmpty() {
+        CatalogMovieRow row = CatalogCsv.withHeader("movieName,movieDescription").parse("Alien");
+
+        assertEquals("Alien", row.movieName());
+        assertNull(row.movieDescription());
+    }
+
+    @Test
+    void requiresAMovieNameColumn() {
+        assertThrows(IllegalArgumentException.class, () -> CatalogCsv.withHeader("title,releaseDate"));
+        assertThrows(IllegalArgumentException.class, () -> CatalogCsv.withHeader(null));
+    }
+}
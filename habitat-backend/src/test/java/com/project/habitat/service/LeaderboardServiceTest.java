@@ -0,0 +1,175 @@
+package com.project.habitat.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.project.habitat.dto.Leaderboard;
+import com.project.habitat.dto.LeaderboardKind;
+import com.project.habitat.dto.MovieSummary;
+import com.project.habitat.events.MovieChangeType;
+import com.project.habitat.events.MovieChangedEvent;
+import com.project.habitat.exception.CrudValidationException;
+import com.project.habitat.index.MovieFacet;
+import com.project.habitat.index.MovieFacetIndex;
+import com.project.habitat.repository.MovieRepository;
+
+class LeaderboardServiceTest {
+
+    private static final String TRENDING_KEY = "habitat:{leaderboard}:trending";
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ZSetOperations<String, String> zSet = mock(ZSetOperations.class);
+    @SuppressWarnings("unchecked")
+    private final ValueOperations<String, String> values = mock(ValueOperations.class);
+    private final MovieFacetIndex facetIndex = mock(MovieFacetIndex.class);
+    private final MovieRepository movieRepository = mock(MovieRepository.class);
+    private final MovieSummaryAssembler summaryAssembler = mock(MovieSummaryAssembler.class);
+    private final LeaderboardService leaderboards = new LeaderboardService();
+
+    // Arguments of the last RECORD script call per sorted set.
+    private final Map<String, List<Object>> recorded = new HashMap<>();
+
+    @SuppressWarnings("unchecked")
+    LeaderboardServiceTest() {
+        ReflectionTestUtils.setField(leaderboards, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(leaderboards, "jdbcTemplate", mock(JdbcTemplate.class));
+        ReflectionTestUtils.setField(leaderboards, "facetIndex", facetIndex);
+        ReflectionTestUtils.setField(leaderboards, "movieRepository", movieRepository);
+        ReflectionTestUtils.setField(leaderboards, "summaryAssembler", summaryAssembler);
+        ReflectionTestUtils.setField(leaderboards, "trendingHalfLifeHours", 24.0);
+        ReflectionTestUtils.setField(leaderboards, "ratingWeight", 5L);
+        ReflectionTestUtils.setField(leaderboards, "weekHalfLifeHours", 84.0);
+        ReflectionTestUtils.setField(leaderboards, "priorWeight", 10.0);
+        ReflectionTestUtils.setField(leaderboards, "cacheSeconds", 30L);
+        leaderboards.init();
+
+        when(redisTemplate.opsForZSet()).thenReturn(zSet);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(summaryAssembler.withReferences(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        doAnswer(invocation -> {
+            Object[] arguments = invocation.getArguments();
+            List<String> keys = invocation.getArgument(1);
+            recorded.put(keys.get(1), Arrays.asList(arguments).subList(4, arguments.length));
+            return 0L;
+        }).when(redisTemplate).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    void flushWritesViewsAndWeightedRatingsInOneBatch() {
+        leaderboards.recordViews(1L, 2);
+        leaderboards.recordRating(1L, 5);
+        leaderboards.recordRating(2L, 3);
+
+        leaderboards.flush();
+
+        assertEquals(Map.of("1", "7", "2", "5"), pairs(TRENDING_KEY));
+        assertEquals(Map.of("1", "5", "2", "3"), pairs("habitat:{leaderboard}:week:stars"));
+        assertEquals(Map.of("1", "1", "2", "1"), pairs("habitat:{leaderboard}:week:count"));
+
+        recorded.clear();
+        leaderboards.flush();
+        assertEquals(Map.of(), recorded);
+    }
+
+    @Test
+    void flushedHistogramsCountAsRatings() {
+        leaderboards.recordRatings(Map.of(1L, new long[] { 0, 0, 1, 0, 2 }, 2L, new long[5]));
+
+        leaderboards.flush();
+
+        assertEquals(Map.of("1", "15"), pairs(TRENDING_KEY));
+        assertEquals(Map.of("1", "13"), pairs("habitat:{leaderboard}:week:stars"));
+        assertEquals(Map.of("1", "3"), pairs("habitat:{leaderboard}:week:count"));
+    }
+
+    @Test
+    void trendingSkipsMoviesOutsideTheFilter() throws Exception {
+        when(zSet.reverseRangeWithScores(TRENDING_KEY, 0, 199)).thenReturn(tuples(1L, 10.0, 2L, 5.0, 3L, 1.0));
+        when(facetIndex.moviesWith(MovieFacet.GENRE, "Crime")).thenReturn(RoaringBitmap.bitmapOf(2, 3));
+        when(movieRepository.findSummariesByIds(any())).thenReturn(List.of(summary(2L), summary(3L)));
+
+        Leaderboard crime = leaderboards.getLeaderboard(LeaderboardKind.TRENDING, "Crime", null, 1);
+
+        assertEquals(1, crime.entries().size());
+        assertEquals(2L, crime.entries().get(0).movie().movieId());
+        assertEquals(5.0, crime.entries().get(0).score());
+    }
+
+    @Test
+    void unfilteredTrendingSkipsMoviesNoLongerInTheCatalog() throws Exception {
+        when(zSet.reverseRangeWithScores(TRENDING_KEY, 0, 199)).thenReturn(tuples(1L, 10.0, 2L, 5.0));
+        when(facetIndex.contains(1L)).thenReturn(false);
+        when(facetIndex.contains(2L)).thenReturn(true);
+        when(movieRepository.findSummariesByIds(any())).thenReturn(List.of(summary(2L)));
+
+        Leaderboard all = leaderboards.getLeaderboard(LeaderboardKind.TRENDING, null, null, 10);
+
+        assertEquals(List.of(2L), all.entries().stream().map(entry -> entry.movie().movieId()).toList());
+    }
+
+    @Test
+    void rejectsLimitsOutsideThePageSize() {
+        assertThrows(CrudValidationException.class,
+                () -> leaderboards.getLeaderboard(LeaderboardKind.TRENDING, null, null, 0));
+        assertThrows(CrudValidationException.class,
+                () -> leaderboards.getLeaderboard(LeaderboardKind.TRENDING, null, null, MovieService.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    void deletedMoviesLeaveEveryLeaderboard() {
+        leaderboards.onMovieChanged(new MovieChangedEvent(MovieChangeType.DELETED, List.of(1L), true));
+        verifyNoInteractions(zSet);
+
+        leaderboards.onMovieChanged(MovieChangedEvent.deleted(1L));
+
+        verify(zSet).remove(TRENDING_KEY, "1");
+        verify(zSet).remove("habitat:{leaderboard}:week:stars", "1");
+        verify(zSet).remove("habitat:{leaderboard}:week:count", "1");
+    }
+
+    private Map<String, String> pairs(String key) {
+        List<Object> arguments = recorded.get(key);
+        Map<String, String> pairs = new HashMap<>();
+        for (int i = 0; i < arguments.size(); i += 2) {
+            pairs.put((String) arguments.get(i), (String) arguments.get(i + 1));
+        }
+        return pairs;
+    }
+
+    private static Set<TypedTuple<String>> tuples(Object... idsAndScores) {
+        Set<TypedTuple<String>> tuples = new LinkedHashSet<>();
+        for (int i = 0; i < idsAndScores.length; i += 2) {
+            tuples.add(TypedTuple.of(idsAndScores[i].toString(), (Double) idsAndScores[i + 1]));
+        }
+        return tuples;
+    }
+
+    private static MovieSummary summary(Long movieId) {
+        return new MovieSummary(movieId, "Movie " + movieId, null, null, null, null);
+    }
+}
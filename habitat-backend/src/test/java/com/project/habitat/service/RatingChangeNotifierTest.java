@@ -0,0 +1,53 @@
+package com.project.habitat.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.project.habitat.events.MovieChangeType;
+import com.project.habitat.events.MovieChangedEvent;
+
+class RatingChangeNotifierTest {
+
+    private final MovieCacheMaintainer cacheMaintainer = mock(MovieCacheMaintainer.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private final RatingChangeNotifier notifier = new RatingChangeNotifier();
+
+    RatingChangeNotifierTest() {
+        ReflectionTestUtils.setField(notifier, "cacheMaintainer", cacheMaintainer);
+        ReflectionTestUtils.setField(notifier, "eventPublisher", eventPublisher);
+    }
+
+    @Test
+    void publishesEveryRatedMovieOnceForTheInterval() {
+        notifier.markChanged(List.of(1L));
+        notifier.markChanged(List.of(2L));
+        notifier.markChanged(List.of(1L));
+
+        notifier.publishChanges();
+
+        ArgumentCaptor<MovieChangedEvent> event = ArgumentCaptor.forClass(MovieChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(MovieChangeType.RATED, event.getValue().getChangeType());
+        assertEquals(Set.of(1L, 2L), new HashSet<>(event.getValue().getMovieIds()));
+        verify(cacheMaintainer).onRatingsChanged(any());
+    }
+
+    @Test
+    void quietIntervalsPublishNothing() {
+        notifier.publishChanges();
+
+        verifyNoInteractions(cacheMaintainer, eventPublisher);
+    }
+}
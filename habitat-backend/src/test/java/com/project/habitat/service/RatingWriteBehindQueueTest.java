@@ -0,0 +1,184 @@
+package com.project.habitat.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.habitat.exception.BackpressureException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import tools.jackson.databind.json.JsonMapper;
+
+class RatingWriteBehindQueueTest {
+
+    private final StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    @SuppressWarnings("unchecked")
+    private final ListOperations<String, String> list = mock(ListOperations.class);
+    private final RedissonClient redissonClient = mock(RedissonClient.class);
+    private final RLock flushLock = mock(RLock.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final RatingAggregateWriter aggregateWriter = mock(RatingAggregateWriter.class);
+    private final RatingChangeNotifier ratingChangeNotifier = mock(RatingChangeNotifier.class);
+    private final LeaderboardService leaderboardService = mock(LeaderboardService.class);
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final RatingWriteBehindQueue queue = new RatingWriteBehindQueue();
+
+    RatingWriteBehindQueueTest() throws InterruptedException {
+        ReflectionTestUtils.setField(queue, "redisTemplate", redisTemplate);
+        ReflectionTestUtils.setField(queue, "redissonClient", redissonClient);
+        ReflectionTestUtils.setField(queue, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(queue, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(queue, "aggregateWriter", aggregateWriter);
+        ReflectionTestUtils.setField(queue, "ratingChangeNotifier", ratingChangeNotifier);
+        ReflectionTestUtils.setField(queue, "leaderboardService", leaderboardService);
+        ReflectionTestUtils.setField(queue, "jsonMapper", jsonMapper);
+        ReflectionTestUtils.setField(queue, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(queue, "enabled", true);
+        ReflectionTestUtils.setField(queue, "capacity", 3L);
+        ReflectionTestUtils.setField(queue, "batchSize", 10);
+        ReflectionTestUtils.setField(queue, "maxBatchesPerFlush", 5);
+        ReflectionTestUtils.setField(queue, "retryAfterSeconds", 5L);
+        queue.init();
+
+        when(redisTemplate.opsForList()).thenReturn(list);
+        when(redissonClient.getLock("habitat:ratings:flush")).thenReturn(flushLock);
+        when(flushLock.tryLock(0, TimeUnit.SECONDS)).thenReturn(true);
+        when(flushLock.isHeldByCurrentThread()).thenReturn(true);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @AfterEach
+    void shutDown() {
+        queue.shutdown();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void fullBufferTurnsSubmissionsAway() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(2L, -1L);
+
+        assertTrue(queue.offer(rating(1L, 4)));
+        BackpressureException full = assertThrows(BackpressureException.class, () -> queue.offer(rating(1L, 4)));
+
+        assertEquals(5, full.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("habitat.ratings.queue.rejected").counter().count());
+        assertEquals(2.0, meterRegistry.get("habitat.ratings.queue.depth").gauge().value());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void unreachableRedisLetsTheCallerStoreTheRating() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenThrow(new QueryTimeoutException("timeout"));
+
+        assertFalse(queue.offer(rating(1L, 4)));
+    }
+
+    @Test
+    void flushCountsTheRowsTheInsertReturnedAndThenTrims() throws Exception {
+        List<String> payloads = List.of(json(rating(1L, 5)), json(rating(1L, 3)), json(rating(2L, 3)));
+        when(list.size("habitat:ratings:pending")).thenReturn(3L);
+        when(list.range("habitat:ratings:pending", 0, 9)).thenReturn(payloads);
+        // The second rating of movie 1 was stored by an earlier, interrupted flush.
+        insertReturns(new long[][] { { 1, 5 }, { 2, 3 } });
+
+        queue.flush();
+
+        ArgumentCaptor<Map<Long, long[]>> histograms = histograms();
+        verify(aggregateWriter).addAll(histograms.capture());
+        assertArrayEquals(new long[] { 0, 0, 0, 0, 1 }, histograms.getValue().get(1L));
+        assertArrayEquals(new long[] { 0, 0, 1, 0, 0 }, histograms.getValue().get(2L));
+        // The leaderboards see the two stored ratings, not the replayed one.
+        verify(leaderboardService).recordRatings(histograms.getValue());
+        verify(list).trim("habitat:ratings:pending", 3, -1);
+        verify(ratingChangeNotifier).markChanged(Set.of(1L, 2L));
+        verify(flushLock).unlock();
+    }
+
+    @Test
+    void replayedBatchIsTrimmedWithoutCountingAnything() throws Exception {
+        when(list.size("habitat:ratings:pending")).thenReturn(1L);
+        when(list.range("habitat:ratings:pending", 0, 9)).thenReturn(List.of(json(rating(1L, 5))));
+        insertReturns(new long[0][]);
+
+        queue.flush();
+
+        verify(aggregateWriter).addAll(Map.of());
+        verify(list).trim("habitat:ratings:pending", 1, -1);
+        verify(ratingChangeNotifier, never()).markChanged(any());
+    }
+
+    @Test
+    void onlyOneNodeFlushesAtATime() throws Exception {
+        when(list.size("habitat:ratings:pending")).thenReturn(1L);
+        when(flushLock.tryLock(0, TimeUnit.SECONDS)).thenReturn(false);
+
+        queue.flush();
+
+        verify(list, never()).range(any(), anyLong(), anyLong());
+        verify(flushLock, never()).unlock();
+    }
+
+    private void insertReturns(long[][] rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (long[] row : rows) {
+                ResultSet resultSet = mock(ResultSet.class);
+                when(resultSet.getLong("movie_id")).thenReturn(row[0]);
+                when(resultSet.getInt("rating")).thenReturn((int) row[1]);
+                handler.processRow(resultSet);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static ArgumentCaptor<Map<Long, long[]>> histograms() {
+        return (ArgumentCaptor) ArgumentCaptor.forClass(Map.class);
+    }
+
+    private String json(RatingWriteBehindQueue.QueuedRating rating) {
+        return jsonMapper.writeValueAsString(rating);
+    }
+
+    private static RatingWriteBehindQueue.QueuedRating rating(Long movieId, int stars) {
+        return new RatingWriteBehindQueue.QueuedRating(UUID.randomUUID().toString(), movieId, 5L, stars, null,
+                System.currentTimeMillis());
+    }
+}
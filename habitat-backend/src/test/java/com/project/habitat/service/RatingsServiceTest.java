@@ -0,0 +1,190 @@
+package com.project.habitat.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.project.habitat.dto.KeysetCursor;
+import com.project.habitat.dto.RatingReceipt;
+import com.project.habitat.dto.RatingRequest;
+import com.project.habitat.dto.RatingSortField;
+import com.project.habitat.exception.CrudValidationException;
+import com.project.habitat.index.MovieFacetIndex;
+import com.project.habitat.model.Rating;
+import com.project.habitat.model.User;
+import com.project.habitat.repository.MovieRatingSummaryRepository;
+import com.project.habitat.repository.MovieRepository;
+import com.project.habitat.repository.RatingsRepository;
+import com.project.habitat.repository.UserRepository;
+
+import jakarta.validation.Validator;
+
+@ExtendWith(MockitoExtension.class)
+class RatingsServiceTest {
+
+    @Mock
+    private RatingsRepository ratingsRepository;
+
+    @Mock
+    private MovieRatingSummaryRepository summaryRepository;
+
+    @Mock
+    private MovieRepository movieRepository;
+
+    @Mock
+    private RatingAggregateWriter aggregateWriter;
+
+    @Mock
+    private RatingChangeNotifier ratingChangeNotifier;
+
+    @Mock
+    private RatingWriteBehindQueue writeBehindQueue;
+
+    @Mock
+    private MovieFacetIndex movieFacetIndex;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private LeaderboardService leaderboardService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private Validator validator;
+
+    @InjectMocks
+    private RatingsService ratingsService;
+
+    @Test
+    void rejectsStarsOutsideOneToFive() {
+        assertThrows(CrudValidationException.class, () -> ratingsService.submitRating(new RatingRequest(1L, 0, null), "alice"));
+        assertThrows(CrudValidationException.class, () -> ratingsService.submitRating(new RatingRequest(1L, 6, null), "alice"));
+        assertThrows(CrudValidationException.class,
+                () -> ratingsService.submitRating(new RatingRequest(1L, null, null), "alice"));
+        verifyNoInteractions(ratingsRepository, aggregateWriter, writeBehindQueue, ratingChangeNotifier);
+    }
+
+    @Test
+    void rejectsMoviesNeitherTheIndexNorTheDatabaseKnows() {
+        when(movieFacetIndex.contains(1L)).thenReturn(false);
+        when(movieRepository.existsById(1L)).thenReturn(false);
+
+        assertThrows(CrudValidationException.class, () -> ratingsService.submitRating(new RatingRequest(1L, 4, null), "alice"));
+        verifyNoInteractions(ratingsRepository, writeBehindQueue);
+    }
+
+    @Test
+    void rejectsUnknownUsers() {
+        when(movieFacetIndex.contains(1L)).thenReturn(true);
+        when(userRepository.findByUsername("mallory")).thenReturn(Optional.empty());
+
+        assertThrows(CrudValidationException.class,
+                () -> ratingsService.submitRating(new RatingRequest(1L, 4, null), "mallory"));
+        verifyNoInteractions(ratingsRepository, writeBehindQueue);
+    }
+
+    @Test
+    void bufferedRatingsAreOnlyQueued() throws Exception {
+        when(movieFacetIndex.contains(1L)).thenReturn(true);
+        when(writeBehindQueue.isEnabled()).thenReturn(true);
+        when(writeBehindQueue.offer(any())).thenReturn(true);
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice()));
+
+        RatingReceipt receipt = ratingsService.submitRating(new RatingRequest(1L, 4, "Tense"), "alice");
+
+        assertTrue(receipt.queued());
+        assertNull(receipt.ratingId());
+        ArgumentCaptor<RatingWriteBehindQueue.QueuedRating> queued =
+                ArgumentCaptor.forClass(RatingWriteBehindQueue.QueuedRating.class);
+        verify(writeBehindQueue).offer(queued.capture());
+        assertEquals(receipt.submissionId(), queued.getValue().submissionId());
+        assertEquals(4, queued.getValue().rating());
+        assertEquals(5L, queued.getValue().userId());
+        verifyNoInteractions(ratingsRepository, aggregateWriter, ratingChangeNotifier, leaderboardService);
+    }
+
+    @Test
+    void unreachableBufferStoresTheRatingRightAway() throws Exception {
+        when(movieFacetIndex.contains(1L)).thenReturn(true);
+        when(writeBehindQueue.isEnabled()).thenReturn(true);
+        when(writeBehindQueue.offer(any())).thenReturn(false);
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(alice()));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(validator.validate(any(Rating.class))).thenReturn(Set.of());
+        when(ratingsRepository.save(any(Rating.class))).thenAnswer(invocation -> {
+            Rating rating = invocation.getArgument(0);
+            rating.setRatingId(9L);
+            return rating;
+        });
+
+        RatingReceipt receipt = ratingsService.submitRating(new RatingRequest(1L, 4, "Tense"), "alice");
+
+        assertFalse(receipt.queued());
+        assertEquals(9L, receipt.ratingId());
+        verify(aggregateWriter).add(1L, 4);
+        verify(userRepository).getReferenceById(5L);
+        verify(leaderboardService).recordRating(1L, 4);
+        verify(ratingChangeNotifier).markChanged(List.of(1L));
+    }
+
+    private static User alice() {
+        User alice = new User();
+        alice.setId(5L);
+        return alice;
+    }
+
+    @Test
+    void missingCursorStartsAtTheFirstPage() {
+        assertNull(RatingsService.decodeCursor(RatingSortField.NEWEST, null));
+        assertNull(RatingsService.decodeCursor(RatingSortField.NEWEST, " "));
+    }
+
+    @Test
+    void decodesCursorsIssuedForTheSameSort() {
+        KeysetCursor newest = new KeysetCursor("NEWEST", "2024-05-01T10:15:30", 42L);
+        KeysetCursor highest = new KeysetCursor("HIGHEST", "4", 17L);
+
+        assertEquals(newest, RatingsService.decodeCursor(RatingSortField.NEWEST, newest.encode()));
+        assertEquals(highest, RatingsService.decodeCursor(RatingSortField.HIGHEST, highest.encode()));
+    }
+
+    @Test
+    void rejectsCursorsOfAnotherSort() {
+        String highest = new KeysetCursor("HIGHEST", "4", 17L).encode();
+
+        assertThrows(CrudValidationException.class, () -> RatingsService.decodeCursor(RatingSortField.LOWEST, highest));
+    }
+
+    @Test
+    void rejectsValuesTheTypedQueriesCannotBind() {
+        String notADate = new KeysetCursor("NEWEST", "yesterday", 1L).encode();
+        String notARating = new KeysetCursor("LOWEST", "4.5", 1L).encode();
+
+        assertThrows(CrudValidationException.class, () -> RatingsService.decodeCursor(RatingSortField.NEWEST, notADate));
+        assertThrows(CrudValidationException.class, () -> RatingsService.decodeCursor(RatingSortField.LOWEST, notARating));
+        assertThrows(CrudValidationException.class, () -> RatingsService.decodeCursor(RatingSortField.NEWEST, "%%%"));
+    }
+}
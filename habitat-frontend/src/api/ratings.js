@@ -0,0 +1,38 @@
+import api from "./axios";
+
+// Must not exceed RatingsService.MAX_SUMMARY_BATCH on the backend.
+const SUMMARY_BATCH_SIZE = 200;
+
+/**
+ * Fetches rating summaries for many movies with one request per 200 ids and returns
+ * a map of movieId -> { ratingCount, averageRating, distribution }.
+ */
+export const fetchRatingSummaries = async (movieIds) => {
+    const ids = [...new Set(movieIds.filter(Boolean))];
+    const batches = [];
+    for (let i = 0; i < ids.length; i += SUMMARY_BATCH_SIZE) {
+        batches.push(ids.slice(i, i + SUMMARY_BATCH_SIZE));
+    }
+    const responses = await Promise.all(
+        batches.map(batch =>
+            api.get("/ratings/summaries", { params: { movieIds: batch.join(",") } })
+        )
+    );
+    const map = {};
+    responses.forEach(res => {
+        (res.data || []).forEach(summary => {
+            map[summary.movieId] = summary;
+        });
+    });
+    return map;
+};
+
+/** Convenience over {@link fetchRatingSummaries} for the vote counts shown on movie cards. */
+export const fetchRatingCounts = async (movieIds) => {
+    const summaries = await fetchRatingSummaries(movieIds);
+    const counts = {};
+    Object.keys(summaries).forEach(movieId => {
+        counts[movieId] = summaries[movieId].ratingCount;
+    });
+    return counts;
+};
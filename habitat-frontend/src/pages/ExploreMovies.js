@@ -2,7 +2,7 @@ import {useEffect, useMemo, useState} from "react";
 import {useDispatch, useSelector} from "react-redux";
 import {useNavigate} from "react-router-dom";
 import {getAllMovies} from "../redux/actions/movieActions";
-import api from "../api/axios";
+import { fetchRatingCounts } from "../api/ratings";
 import MovieCard from "../components/MovieCard";
 import {ChevronDown, ChevronUp, X} from "lucide-react";
 
@@ -19,6 +19,8 @@ const extractOptions = (movies, key, subKey) => {
     return Array.from(set).sort();
 };
 
+const nameOf = (item) => (item && typeof item === 'object' ? item.name : item);
+
 export default function ExploreMovies({
                                           location
                                       }) {
@@ -39,25 +41,7 @@ export default function ExploreMovies({
 
         const fetchCounts = async () => {
             try {
-                const responses = await Promise.all(
-                    movies.map(movie =>
-                        api.get(`/ratings/count/${movie.movieId}`)
-                            .then(res => ({
-                                movieId: movie.movieId,
-                                count: res.data
-                            }))
-                            .catch(() => ({
-                                movieId: movie.movieId,
-                                count: 0
-                            }))
-                    )
-                );
-
-                const map = {};
-                responses.forEach(r => {
-                    map[r.movieId] = r.count;
-                });
-
+                const map = await fetchRatingCounts(movies.map(movie => movie.movieId));
                 setRatingsCountMap(map);
             } catch (e) {
                 console.error("Failed to fetch ratings counts", e);
@@ -75,9 +59,9 @@ export default function ExploreMovies({
     const filteredMovies = useMemo(() => {
         if (!movies) return [];
         return movies.filter(m => {
-            const mLangs = (m.languages || []).map(l => l.name);
-            const mGenres = (m.genres || []).map(g => g.name);
-            const mFormats = (m.formats || []).map(f => f.name);
+            const mLangs = (m.languages || []).map(nameOf);
+            const mGenres = (m.genres || []).map(nameOf);
+            const mFormats = (m.formats || []).map(nameOf);
 
             const langMatch = selectedLanguages.length === 0 || selectedLanguages.some(l => mLangs.includes(l));
             const genreMatch = selectedGenres.length === 0 || selectedGenres.some(g => mGenres.includes(g));
@@ -222,7 +206,7 @@ export default function ExploreMovies({
                                         posterSrc={movie.moviePoster}
                                         avgRatingLabel={movie.avgRating}
                                         certificate={movie.certificate}
-                                        languagesLabel={(movie.languages || []).map(l => l.name).join(', ')}
+                                        languagesLabel={(movie.languages || []).map(nameOf).join(', ')}
                                         countOfRatings={ratingsCountMap[movie.movieId]}
                                         onClick={() => navigate(`/movies/${movie.movieId}`)}
                                     />
@@ -2,6 +2,7 @@ import { useEffect, useMemo, useRef, useState } from "react";
 import { useDispatch, useSelector } from "react-redux";
 import { useNavigate, useLocation } from "react-router-dom";
 import api from "../api/axios";
+import { fetchRatingCounts } from "../api/ratings";
 import {
   clearMovieError,
   getAllMovies,
@@ -469,24 +470,10 @@ export default function Home() {
 
     const fetchCounts = async () => {
       try {
-        const requests = activeMovies
-            .map(m => m.movieId ?? m.id)
-            .filter(Boolean)
-            .map(id =>
-                api.get(`/ratings/count/${id}`)
-                    .then(res => ({ id, count: res.data }))
-                    .catch(() => ({ id, count: 0 }))
-            );
-
-        const results = await Promise.all(requests);
+        const map = await fetchRatingCounts(activeMovies.map(m => m.movieId ?? m.id));
 
         if (cancelled) return;
 
-        const map = {};
-        results.forEach(({ id, count }) => {
-          map[id] = count;
-        });
-
         setRatingsCountMap(map);
       } catch (err) {
         console.error("Failed to load ratings count", err);
@@ -4,6 +4,8 @@ import { useParams, useNavigate } from "react-router-dom";
 import {Share2, ThumbsUp, StarsIcon, Star} from "lucide-react";
 import {getMovieById, getMoviesByLanguage, clearMovieError, getMoviesByGenre, getMoviesByFormat} from "../redux/actions/movieActions";
 import api from "../api/axios";
+import { fetchRatingCounts } from "../api/ratings";
+import MovieCard from "../components/MovieCard";
 
 const pickTitle = (movie) => {
   if (!movie || typeof movie !== "object") return "Movie";
@@ -155,6 +157,31 @@ export default function MovieDetails() {
     };
   }, [id]);
 
+  const [similarMovies, setSimilarMovies] = useState([]);
+  const [similarCounts, setSimilarCounts] = useState({});
+
+  useEffect(() => {
+    if (!id) return;
+
+    let cancelled = false;
+
+    api.get(`/movies/similar/${id}`, { params: { limit: 10 } })
+        .then(async res => {
+          const similar = (res.data || []).map(entry => entry.movie);
+          if (cancelled) return;
+          setSimilarMovies(similar);
+          const counts = await fetchRatingCounts(similar.map(m => m.movieId));
+          if (!cancelled) setSimilarCounts(counts);
+        })
+        .catch(() => {
+          if (!cancelled) setSimilarMovies([]);
+        });
+
+    return () => {
+      cancelled = true;
+    };
+  }, [id]);
+
   const formatAvgRating = (count) => {
     if (count == null) return null;
     if (count >= 1_000_000) return `${(count / 1_000_000).toFixed(1)}M+`;
@@ -386,7 +413,26 @@ export default function MovieDetails() {
       </section>
 
       <section className="mx-auto max-w-7xl px-4 py-10">
-
+        {similarMovies.length > 0 ? (
+          <>
+            <h2 className="text-lg font-semibold">You might also like</h2>
+            <div className="mt-4 flex gap-4 overflow-x-auto pb-2">
+              {similarMovies.map(similar => (
+                <MovieCard
+                  key={similar.movieId}
+                  movieId={similar.movieId}
+                  title={pickTitle(similar)}
+                  posterSrc={pickPosterSrc(similar)}
+                  avgRatingLabel={formatAvgRating(similar.avgRating)}
+                  certificate={similar.certificate}
+                  languagesLabel={(similar.languages || []).join(", ")}
+                  countOfRatings={similarCounts[similar.movieId]}
+                  onClick={() => navigate(`/movies/${similar.movieId}`)}
+                />
+              ))}
+            </div>
+          </>
+        ) : null}
       </section>
     </div>
   );